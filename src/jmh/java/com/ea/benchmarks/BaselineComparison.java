@@ -0,0 +1,115 @@
+package com.ea.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares a JMH JSON result with a baseline recorded the same way (-rf json)
+ * A benchmark regresses when its score moves the wrong way by more than the threshold :
+ * lower for throughput, higher for the time modes, or when it allocates more per operation (-prof gc)
+ * Allocation differences of a few bytes are noise from the JIT and are ignored
+ * Exits with 1 when something regressed, so it can fail a build
+ */
+public class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_NOISE_BYTES = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.1;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %-6s %14s %14s %8s  %s%n", "Benchmark", "Mode", "Baseline", "Current", "Change", "");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode result = entry.getValue();
+            JsonNode reference = baseline.get(entry.getKey());
+            String mode = result.path("mode").asText();
+            double score = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (reference == null) {
+                System.out.printf("%-70s %-6s %14s %14.3f %8s  %s%n", entry.getKey(), mode, "-", score, "", "new, " + unit);
+                continue;
+            }
+
+            double referenceScore = reference.path("primaryMetric").path("score").asDouble();
+            double change = change(referenceScore, score);
+            boolean regressed = "thrpt".equals(mode) ? change < -threshold : change > threshold;
+            System.out.printf("%-70s %-6s %14.3f %14.3f %+7.1f%%  %s%n", entry.getKey(), mode, referenceScore, score,
+                    change * 100, regressed ? "REGRESSION, " + unit : unit);
+            if (regressed) {
+                regressions++;
+            }
+
+            JsonNode allocation = allocation(result);
+            JsonNode referenceAllocation = allocation(reference);
+            if (allocation != null && referenceAllocation != null) {
+                double bytes = allocation.path("score").asDouble();
+                double referenceBytes = referenceAllocation.path("score").asDouble();
+                double allocationChange = change(referenceBytes, bytes);
+                boolean allocationRegressed = allocationChange > threshold && bytes - referenceBytes > ALLOCATION_NOISE_BYTES;
+                System.out.printf("%-70s %-6s %14.1f %14.1f %+7.1f%%  %s%n", "  " + ALLOCATION_METRIC, "", referenceBytes, bytes,
+                        allocationChange * 100, allocationRegressed ? "REGRESSION, B/op" : "B/op");
+                if (allocationRegressed) {
+                    regressions++;
+                }
+            }
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-70s %-6s %14s %14s %8s  %s%n", key, "", "", "-", "", "not run"));
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.printf("No regression beyond %.0f%%%n", threshold * 100);
+    }
+
+    /**
+     * @return the results by benchmark name and parameters, in the run order
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("com.ea.benchmarks.", ""));
+            JsonNode params = result.path("params");
+            if (params.isObject()) {
+                new TreeMap<>(toMap(params)).forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static Map<String, String> toMap(JsonNode params) {
+        Map<String, String> map = new HashMap<>();
+        params.properties().forEach(param -> map.put(param.getKey(), param.getValue().asText()));
+        return map;
+    }
+
+    /**
+     * JMH prefixes the profiler metrics with a middle dot, so the metric is looked up by suffix
+     */
+    private static JsonNode allocation(JsonNode result) {
+        for (Map.Entry<String, JsonNode> metric : result.path("secondaryMetrics").properties()) {
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static double change(double reference, double value) {
+        return reference == 0 ? 0 : (value - reference) / reference;
+    }
+}
@@ -0,0 +1,202 @@
+package com.ea.benchmarks;
+
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the game connection a 'rank' report is about, in an H2 database migrated by the Liquibase changelogs
+ * and holding a million historical game connections (125 000 games of 8 players, a tenth of them reported)
+ * legacyLookup is the former query, comparing the start times truncated to the second with a NOT IN on the reports,
+ * matchKeyLookup the current one, going through the indexed match key of the games
+ * Both are the SQL Hibernate generates for the JPQL queries, run over JDBC
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GameReportMatchBenchmark {
+
+    private static final int GAMES = 125_000;
+    private static final int PLAYERS = 8;
+    private static final int PERSONAS = 20_000;
+    private static final int REPORTED_GAMES = GAMES / 10;
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final String LEGACY_QUERY = """
+            SELECT gc.ID FROM core.GAME_CONNECTION gc
+            JOIN core.PERSONA_CONNECTION pc ON pc.ID = gc.PERSONA_CONNECTION_ID
+            JOIN core.PERSONA p ON p.ID = pc.PERSONA_ID
+            JOIN core.GAME g ON g.ID = gc.GAME_ID
+            WHERE p.PERS = ?
+            AND DATE_TRUNC('SECOND', CAST(g.START_TIME AS timestamp)) = DATE_TRUNC('SECOND', CAST(? AS timestamp))
+            AND gc.ID NOT IN (SELECT gr.GAME_CONNECTION_ID FROM stats.MOHH_GAME_REPORT gr WHERE gr.GAME_CONNECTION_ID = gc.ID)
+            AND (? = TRUE OR gc.IS_HOST = FALSE)
+            """;
+
+    private static final String MATCH_KEY_QUERY = """
+            SELECT gc.ID FROM core.GAME_CONNECTION gc
+            JOIN core.GAME g ON g.ID = gc.GAME_ID
+            JOIN core.PERSONA_CONNECTION pc ON pc.ID = gc.PERSONA_CONNECTION_ID
+            JOIN core.PERSONA p ON p.ID = pc.PERSONA_ID
+            WHERE g.MATCH_KEY = ?
+            AND p.PERS = ?
+            AND NOT EXISTS (SELECT 1 FROM stats.MOHH_GAME_REPORT gr WHERE gr.GAME_CONNECTION_ID = gc.ID)
+            AND (? = TRUE OR gc.IS_HOST = FALSE)
+            """;
+
+    private Connection connection;
+    private PreparedStatement legacyStatement;
+    private PreparedStatement matchKeyStatement;
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setup() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:report-match;DB_CLOSE_DELAY=-1", "sa", "sa");
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(), database).update("");
+        connection.setAutoCommit(false);
+        seed();
+        connection.commit();
+
+        legacyStatement = connection.prepareStatement(LEGACY_QUERY);
+        matchKeyStatement = connection.prepareStatement(MATCH_KEY_QUERY);
+        // Shows the indexes the lookup goes through
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + MATCH_KEY_QUERY)) {
+            explain.setTimestamp(1, Timestamp.valueOf(start(0).truncatedTo(ChronoUnit.SECONDS)));
+            explain.setString(2, pers(0, 1));
+            explain.setBoolean(3, false);
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                System.out.println(plan.getString(1));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int legacyLookup() throws SQLException {
+        int game = random.nextInt(GAMES);
+        legacyStatement.setString(1, pers(game, random.nextInt(PLAYERS)));
+        legacyStatement.setTimestamp(2, Timestamp.valueOf(start(game)));
+        legacyStatement.setBoolean(3, false);
+        return count(legacyStatement);
+    }
+
+    @Benchmark
+    public int matchKeyLookup() throws SQLException {
+        int game = random.nextInt(GAMES);
+        matchKeyStatement.setTimestamp(1, Timestamp.valueOf(start(game).truncatedTo(ChronoUnit.SECONDS)));
+        matchKeyStatement.setString(2, pers(game, random.nextInt(PLAYERS)));
+        matchKeyStatement.setBoolean(3, false);
+        return count(matchKeyStatement);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Games start every 7.5 seconds, with milliseconds like LocalDateTime.now() has
+     */
+    private static LocalDateTime start(int game) {
+        return FIRST_START.plus(game * 7_500L + game % 1000, ChronoUnit.MILLIS);
+    }
+
+    private static String pers(int game, int player) {
+        return "player" + (game * PLAYERS + player) % PERSONAS;
+    }
+
+    private void seed() throws SQLException {
+        Timestamp created = Timestamp.valueOf(FIRST_START);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO core.ACCOUNT (ID, NAME, PASS, LOC, CREATED_ON) VALUES (1000000, 'bench', 'pass', 'frFR', CURRENT_TIMESTAMP)");
+        }
+        try (PreparedStatement persona = connection.prepareStatement(
+                "INSERT INTO core.PERSONA (ID, ACCOUNT_ID, PERS, CREATED_ON) VALUES (?, 1000000, ?, ?)")) {
+            for (int i = 0; i < PERSONAS; i++) {
+                persona.setLong(1, 1_000_000L + i);
+                persona.setString(2, "player" + i);
+                persona.setTimestamp(3, created);
+                persona.addBatch();
+            }
+            persona.executeBatch();
+        }
+        try (PreparedStatement game = connection.prepareStatement(
+                "INSERT INTO core.GAME (ID, VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME, END_TIME, MATCH_KEY) "
+                        + "VALUES (?, 'PSP/MOH07', 'ULUS-10141', 'game', '', '262656', 1, 32, ?, ?, ?)");
+             PreparedStatement personaConnection = connection.prepareStatement(
+                     "INSERT INTO core.PERSONA_CONNECTION (ID, PERSONA_ID, ADDRESS, VERS, SLUS, IS_HOST, START_TIME, END_TIME) "
+                             + "VALUES (?, ?, '127.0.0.1', 'PSP/MOH07', 'ULUS-10141', FALSE, ?, ?)");
+             PreparedStatement gameConnection = connection.prepareStatement(
+                     "INSERT INTO core.GAME_CONNECTION (ID, GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME, END_TIME) "
+                             + "VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement report = connection.prepareStatement(
+                     "INSERT INTO stats.MOHH_GAME_REPORT (GAME_CONNECTION_ID, RNK) VALUES (?, 1)")) {
+            for (int i = 0; i < GAMES; i++) {
+                long gameId = 1_000_000L + i;
+                LocalDateTime start = start(i);
+                Timestamp startTime = Timestamp.valueOf(start);
+                Timestamp endTime = Timestamp.valueOf(start.plusMinutes(10));
+                game.setLong(1, gameId);
+                game.setTimestamp(2, startTime);
+                game.setTimestamp(3, endTime);
+                game.setTimestamp(4, Timestamp.valueOf(start.truncatedTo(ChronoUnit.SECONDS)));
+                game.addBatch();
+                for (int player = 0; player < PLAYERS; player++) {
+                    long connectionId = 1_000_000L + (long) i * PLAYERS + player;
+                    personaConnection.setLong(1, connectionId);
+                    personaConnection.setLong(2, 1_000_000L + (i * PLAYERS + player) % PERSONAS);
+                    personaConnection.setTimestamp(3, startTime);
+                    personaConnection.setTimestamp(4, endTime);
+                    personaConnection.addBatch();
+                    gameConnection.setLong(1, connectionId);
+                    gameConnection.setLong(2, gameId);
+                    gameConnection.setBoolean(3, player == 0);
+                    gameConnection.setLong(4, connectionId);
+                    gameConnection.setTimestamp(5, startTime);
+                    gameConnection.setTimestamp(6, endTime);
+                    gameConnection.addBatch();
+                    if (i < REPORTED_GAMES) {
+                        report.setLong(1, connectionId);
+                        report.addBatch();
+                    }
+                }
+                if (i % 1000 == 999) {
+                    game.executeBatch();
+                    personaConnection.executeBatch();
+                    gameConnection.executeBatch();
+                    report.executeBatch();
+                }
+            }
+            game.executeBatch();
+            personaConnection.executeBatch();
+            gameConnection.executeBatch();
+            report.executeBatch();
+        }
+    }
+}
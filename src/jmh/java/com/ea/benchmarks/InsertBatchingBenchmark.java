@@ -0,0 +1,228 @@
+package com.ea.benchmarks;
+
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.ServerSocket;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts of the busiest moments, in an H2 database migrated by the Liquibase changelogs and reached over TCP,
+ * so each statement costs a round trip as with PostgreSQL
+ * mapRotation* insert the new game of a full 32 players MoHH server and its game connections, as handleMapRotation does,
+ * reportStorm* insert the 64 reports of a batch of rank reports
+ * mapRotationIdentity does what Hibernate does with IDENTITY ids: one statement per row, reading back the generated id,
+ * mapRotationPooled what it does with the pooled sequences: one sequence call per 50 ids, rows sent by JDBC batches of 50
+ * Reports have the id of their game connection, reportStormSingle sends them one by one as before hibernate.jdbc.batch_size,
+ * reportStormBatched by JDBC batches of 50, their foreign key is dropped so the storms don't need real connections
+ * The H2 driver still sends the statements of a JDBC batch one by one, unlike the PostgreSQL one, so the gains are a floor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 6, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+    private static final int PLAYERS = 32;
+    private static final int REPORTS = 64;
+    private static final int BATCH_SIZE = 50;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String GAME_INSERT = "INSERT INTO core.GAME "
+            + "(VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME, MATCH_KEY, IS_STARTED, ORIGINAL_ID) "
+            + "VALUES ('PSP/MOH07', 'ULUS-10141', 'server', '7,65,,,a', '262656', 1, 33, ?, ?, TRUE, 1)";
+    private static final String GAME_INSERT_WITH_ID = "INSERT INTO core.GAME "
+            + "(VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME, MATCH_KEY, IS_STARTED, ORIGINAL_ID, ID) "
+            + "VALUES ('PSP/MOH07', 'ULUS-10141', 'server', '7,65,,,a', '262656', 1, 33, ?, ?, TRUE, 1, ?)";
+    private static final String GAME_CONNECTION_INSERT = "INSERT INTO core.GAME_CONNECTION "
+            + "(GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME) VALUES (?, ?, ?, ?)";
+    private static final String GAME_CONNECTION_INSERT_WITH_ID = "INSERT INTO core.GAME_CONNECTION "
+            + "(GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME, ID) VALUES (?, ?, ?, ?, ?)";
+
+    private Server server;
+    private Connection connection;
+    private PooledIds gameIds;
+    private PooledIds gameConnectionIds;
+    private String reportInsert;
+    private int reportColumns;
+    private long reportId;
+
+    @Setup
+    public void setup() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + port + "/mem:insert-batching;DB_CLOSE_DELAY=-1", "sa", "sa");
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(), database).update("");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO core.ACCOUNT (ID, NAME, PASS, LOC, CREATED_ON) VALUES (1, 'bench', 'pass', 'frFR', CURRENT_TIMESTAMP)");
+            statement.execute("INSERT INTO core.PERSONA (ID, ACCOUNT_ID, PERS, CREATED_ON) VALUES (1, 1, 'bench', CURRENT_TIMESTAMP)");
+            statement.execute("INSERT INTO core.PERSONA_CONNECTION (ID, PERSONA_ID, ADDRESS, VERS, SLUS, IS_HOST, START_TIME) "
+                    + "SELECT X, 1, '127.0.0.1', 'PSP/MOH07', 'ULUS-10141', X = 1, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + PLAYERS + ")");
+            statement.execute("ALTER TABLE stats.MOHH_GAME_REPORT DROP CONSTRAINT FK_MOHH_GAME_REPORT_GAME_CONNECTION_ID");
+        }
+        List<String> columns = new ArrayList<>();
+        try (ResultSet resultSet = connection.getMetaData().getColumns(null, "STATS", "MOHH_GAME_REPORT", null)) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString("COLUMN_NAME"));
+            }
+        }
+        columns.remove("AUTH");
+        reportColumns = columns.size();
+        reportInsert = "INSERT INTO stats.MOHH_GAME_REPORT (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        connection.setAutoCommit(false);
+        gameIds = new PooledIds("core.GAME_SEQ");
+        gameConnectionIds = new PooledIds("core.GAME_CONNECTION_SEQ");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public long mapRotationIdentity() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long gameId;
+        try (PreparedStatement game = connection.prepareStatement(GAME_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            game.setTimestamp(1, now);
+            game.setTimestamp(2, now);
+            gameId = insert(game);
+        }
+        connection.commit();
+        long lastId = 0;
+        try (PreparedStatement gameConnection = connection.prepareStatement(GAME_CONNECTION_INSERT,
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int player = 0; player < PLAYERS; player++) {
+                gameConnection.setLong(1, gameId);
+                gameConnection.setBoolean(2, player == 0);
+                gameConnection.setLong(3, player + 1);
+                gameConnection.setTimestamp(4, now);
+                lastId = insert(gameConnection);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long mapRotationPooled() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long gameId = gameIds.next();
+        try (PreparedStatement game = connection.prepareStatement(GAME_INSERT_WITH_ID)) {
+            game.setTimestamp(1, now);
+            game.setTimestamp(2, now);
+            game.setLong(3, gameId);
+            game.executeUpdate();
+        }
+        connection.commit();
+        long lastId = 0;
+        try (PreparedStatement gameConnection = connection.prepareStatement(GAME_CONNECTION_INSERT_WITH_ID)) {
+            for (int player = 0; player < PLAYERS; player++) {
+                lastId = gameConnectionIds.next();
+                gameConnection.setLong(1, gameId);
+                gameConnection.setBoolean(2, player == 0);
+                gameConnection.setLong(3, player + 1);
+                gameConnection.setTimestamp(4, now);
+                gameConnection.setLong(5, lastId);
+                gameConnection.addBatch();
+                if (player % BATCH_SIZE == BATCH_SIZE - 1) {
+                    gameConnection.executeBatch();
+                }
+            }
+            gameConnection.executeBatch();
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public int reportStormSingle() throws SQLException {
+        int count = 0;
+        try (PreparedStatement report = connection.prepareStatement(reportInsert)) {
+            for (int i = 0; i < REPORTS; i++) {
+                bindReport(report);
+                count += report.executeUpdate();
+            }
+        }
+        connection.commit();
+        return count;
+    }
+
+    @Benchmark
+    public int reportStormBatched() throws SQLException {
+        int count = 0;
+        try (PreparedStatement report = connection.prepareStatement(reportInsert)) {
+            for (int i = 0; i < REPORTS; i++) {
+                bindReport(report);
+                report.addBatch();
+                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                    count += report.executeBatch().length;
+                }
+            }
+            count += report.executeBatch().length;
+        }
+        connection.commit();
+        return count;
+    }
+
+    private void bindReport(PreparedStatement report) throws SQLException {
+        report.setLong(1, ++reportId);
+        for (int column = 2; column <= reportColumns; column++) {
+            report.setInt(column, column);
+        }
+    }
+
+    private static long insert(PreparedStatement statement) throws SQLException {
+        statement.executeUpdate();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    /**
+     * Ids handed out like the pooled optimizer of Hibernate, a sequence call giving the last id of the next 50
+     */
+    private final class PooledIds {
+
+        private final String sequence;
+        private long next;
+        private long last = -1;
+
+        private PooledIds(String sequence) {
+            this.sequence = sequence;
+        }
+
+        private long next() throws SQLException {
+            if (next > last) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+                    resultSet.next();
+                    last = resultSet.getLong(1);
+                }
+                next = last - ALLOCATION_SIZE + 1;
+            }
+            return next++;
+        }
+    }
+}
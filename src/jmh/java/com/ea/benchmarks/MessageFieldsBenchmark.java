@@ -0,0 +1,89 @@
+package com.ea.benchmarks;
+
+import com.ea.dto.MessageFields;
+import com.ea.utils.SocketUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.ea.utils.SocketUtils.TAB_CHAR;
+
+/**
+ * Compares the split-based SocketUtils.getValueFromSocket with the MessageFields view
+ * Each invocation handles one inbound message like a handler does : decode the body, then look up its keys
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageFieldsBenchmark {
+
+    private static final String[] AUTH_KEYS = {"NAME", "PASS", "VERS", "SLUS", "MAIL"};
+
+    private byte[] auth;
+    private byte[] rank;
+    private String[] rankKeys;
+
+    @Setup
+    public void setup() {
+        auth = ("NAME=player\nPASS=~f4Y8CuGGeCpXR2Mqn6Y4Vg\nTOS=1\nMID=$000000000000\nFROM=US\nLANG=EN\n" +
+                "PROD=mohh-psp\nVERS=PSP/MOH07\nSLUS=ULUS10141\nSKU=PSP\nSDKVERS=3.9.3.0\nBUILDDATE=\"Dec 15 2006\"\0")
+                .getBytes(StandardCharsets.UTF_8);
+
+        // MoHH rank report : a few hundred tab-separated counters, all of them mapped to the game report
+        StringBuilder report = new StringBuilder("REPT=player\tWHEN=2024.1.1-12:00:00\tRNK=1");
+        String[] weapons = {"COLT", "TOM", "BAR", "GAR", "ENFIELD", "SHOTTY", "BAZ", "LUGER", "MP40", "MP44", "KAR", "GEW", "PSCHRK", "PISTOL"};
+        String[] counters = {"SHOT", "HIT", "KILL", "HEAD"};
+        rankKeys = new String[weapons.length * counters.length + 3];
+        rankKeys[0] = "REPT";
+        rankKeys[1] = "WHEN";
+        rankKeys[2] = "RNK";
+        int i = 3;
+        for (String weapon : weapons) {
+            for (String counter : counters) {
+                report.append('\t').append(weapon).append(counter).append('=').append(i);
+                rankKeys[i++] = weapon + counter;
+            }
+        }
+        for (int map = 1; map <= 28; map++) {
+            report.append("\tMAP").append(map).append('=').append(map);
+        }
+        rank = (report + "\0").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void authSplit(Blackhole blackhole) {
+        String message = new String(auth, StandardCharsets.UTF_8);
+        for (String key : AUTH_KEYS) {
+            blackhole.consume(SocketUtils.getValueFromSocket(message, key));
+        }
+    }
+
+    @Benchmark
+    public void authFields(Blackhole blackhole) {
+        MessageFields fields = new MessageFields(auth, 0, auth.length);
+        for (String key : AUTH_KEYS) {
+            blackhole.consume(fields.get(key));
+        }
+    }
+
+    @Benchmark
+    public void rankSplit(Blackhole blackhole) {
+        String message = new String(rank, StandardCharsets.UTF_8);
+        for (String key : rankKeys) {
+            blackhole.consume(SocketUtils.getValueFromSocket(message, key, TAB_CHAR));
+        }
+    }
+
+    @Benchmark
+    public void rankFields(Blackhole blackhole) {
+        MessageFields fields = new MessageFields(rank, 0, rank.length);
+        for (String key : rankKeys) {
+            blackhole.consume(fields.get(key, TAB_CHAR));
+        }
+    }
+}
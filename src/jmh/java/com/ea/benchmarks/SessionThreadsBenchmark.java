@@ -0,0 +1,83 @@
+package com.ea.benchmarks;
+
+import com.ea.services.server.ThreadService;
+import com.ea.utils.Props;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.*;
+
+/**
+ * Compares the platform and virtual session modes of ThreadService
+ * Connected clients hold their session thread while waiting for input, like TcpSocketThread does,
+ * then each invocation is a new client whose first handler blocks on a simulated database call
+ * Beyond the platform pool size, new clients wait in the queue for a thread : the sample time shows it as a timeout
+ * (once the queue is full too, the accept loop runs the session itself and stops accepting until it ends)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SessionThreadsBenchmark {
+
+    private static final long HANDLER_BLOCKING_MILLIS = 2;
+    private static final long TIMEOUT_MILLIS = 1000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"250", "800"})
+    private int connected;
+
+    private ExecutorService executor;
+    private CountDownLatch disconnect;
+
+    @Setup
+    public void setup() {
+        Props props = new Props();
+        ReflectionTestUtils.setField(props, "tcpSessionThreads", threads);
+        ReflectionTestUtils.setField(props, "tcpSessionPoolSize", 500);
+        ReflectionTestUtils.setField(props, "tcpSessionQueueSize", 600);
+        executor = new ThreadService(props).createSessionExecutor();
+
+        disconnect = new CountDownLatch(1);
+        for (int i = 0; i < connected; i++) {
+            executor.execute(() -> {
+                try {
+                    disconnect.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        disconnect.countDown();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean newClient() throws InterruptedException, ExecutionException {
+        Future<?> session = executor.submit(() -> {
+            try {
+                Thread.sleep(HANDLER_BLOCKING_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            session.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            session.cancel(true);
+            if (executor instanceof ThreadPoolExecutor pool) {
+                pool.purge();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ea.benchmarks.hotpath;
+
+import com.ea.dirtysdk.CryptSSC2;
+import com.ea.dirtysdk.LobbyTagField;
+import com.ea.utils.HexUtils;
+import com.ea.utils.PasswordUtils;
+import com.ea.utils.Props;
+import com.ea.utils.SocketUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field lookups and decodings handlers run on inbound messages :
+ * key/value extraction from the raw body, and the password pipeline of 'auth' (tag field unescaping then SSC2)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldDecodingBenchmark {
+
+    private static final String SSC2_KEY = "51ba8aee64ddfacae5baefa6bf61e009";
+    private static final String[] AUTH_KEYS = {"NAME", "PASS", "VERS", "SLUS", "MAIL"};
+
+    private String auth;
+    private String gsea;
+    private String encodedPassword;
+    private String encodedPasswordHex;
+    private String decodedPasswordHex;
+    private PasswordUtils passwordUtils;
+
+    @Setup
+    public void setup() {
+        Props props = new Props();
+        ReflectionTestUtils.setField(props, "ssc2Key", SSC2_KEY);
+        passwordUtils = new PasswordUtils();
+        ReflectionTestUtils.setField(passwordUtils, "props", props);
+
+        encodedPassword = encodePassword("password");
+        auth = "NAME=player\nPASS=" + encodedPassword + "\nTOS=1\nMID=$000000000000\nFROM=US\nLANG=EN\n" +
+                "PROD=mohh-psp\nVERS=PSP/MOH07\nSLUS=ULUS10141\nSKU=PSP\nSDKVERS=3.9.3.0\nBUILDDATE=\"Dec 15 2006\"";
+        gsea = "START=0\nCOUNT=20\nAVAILABLE=1\nMODE=-1\nMAP=-1\nFF=-1\nAIM=-1\nSYSMASK=262144\nSYSFLAGS=0";
+        encodedPasswordHex = HexUtils.stringToHex(encodedPassword.substring(1));
+        decodedPasswordHex = LobbyTagField.decodeString(encodedPasswordHex);
+    }
+
+    @Benchmark
+    public void getValueFromSocket(Blackhole blackhole) {
+        for (String key : AUTH_KEYS) {
+            blackhole.consume(SocketUtils.getValueFromSocket(auth, key));
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> getMapFromSocket() {
+        return SocketUtils.getMapFromSocket(gsea);
+    }
+
+    @Benchmark
+    public String stringToHex() {
+        return HexUtils.stringToHex(encodedPassword);
+    }
+
+    @Benchmark
+    public String decodeString() {
+        return LobbyTagField.decodeString(encodedPasswordHex);
+    }
+
+    @Benchmark
+    public String hexToString() {
+        return HexUtils.hexToString(decodedPasswordHex);
+    }
+
+    @Benchmark
+    public String ssc2Decode() {
+        return passwordUtils.ssc2Decode(encodedPassword);
+    }
+
+    /**
+     * Encodes a password like the game does, characters with a meaning in the body escaped as %xx
+     */
+    private static String encodePassword(String password) {
+        byte[] key = HexFormat.of().parseHex(SSC2_KEY);
+        byte[] plain = (password + "\0").getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[32];
+        CryptSSC2.cryptSSC2StringEncrypt(encoded, encoded.length, plain, key, key.length, key.length);
+        StringBuilder pass = new StringBuilder("~");
+        for (int i = 0; encoded[i] != 0; i++) {
+            char c = (char) encoded[i];
+            if (c == '%' || c == '=' || c == '"' || c == ' ' || c == 127) {
+                pass.append('%').append(String.format("%02x", (int) c));
+            } else {
+                pass.append(c);
+            }
+        }
+        return pass.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.ea.benchmarks.hotpath;
+
+import com.ea.config.BlockingSocket;
+import com.ea.dto.ClientSocket;
+import com.ea.services.server.KeepAliveService;
+import com.ea.services.server.SocketManager;
+import com.ea.steps.FrameAccumulator;
+import com.ea.steps.PacketEncoder;
+import com.ea.steps.SocketParser;
+import com.ea.steps.SocketProcessor;
+import com.ea.utils.Props;
+import com.ea.utils.SocketUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
+import static com.ea.utils.SocketUtils.TAB_CHAR;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Inbound path of the blocking transport : one read of a lobby session worth of messages,
+ * sliced by the accumulator and turned into socket data by SocketParser
+ * The processor is a stub, so only the parsing and the wrapper lookups are measured
+ * The messages are excluded from the debug log, like ~png is by default
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameParsingBenchmark {
+
+    private static final List<String> MESSAGE_IDS = List.of("auth", "pers", "llvl", "gsea", "mesg", "rank", "~png");
+
+    private SocketParser socketParser;
+    private ClientSocket socket;
+    private FrameAccumulator accumulator;
+    private ByteArrayInputStream input;
+    private byte[] stream;
+    private int[] offsets;
+
+    @Setup
+    public void setup() throws IOException {
+        Props props = new Props();
+        ReflectionTestUtils.setField(props, "tcpDebugExclusions", MESSAGE_IDS);
+        SocketManager socketManager = new SocketManager(null);
+        socket = new BlockingSocket(new Socket());
+        socketManager.addSocket("/127.0.0.1:1000", socket);
+        socketParser = new SocketParser(props, socketManager,
+                mock(SocketProcessor.class, withSettings().stubOnly()),
+                mock(KeepAliveService.class, withSettings().stubOnly()));
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        List<Integer> frameOffsets = new ArrayList<>();
+        for (Map.Entry<String, String> message : messages().entrySet()) {
+            String joiner = "rank".equals(message.getKey()) ? TAB_CHAR : NEWLINE_CHAR;
+            frameOffsets.add(frames.size());
+            frames.write(PacketEncoder.encode(message.getKey(), fields(message.getValue(), joiner), joiner));
+        }
+        stream = frames.toByteArray();
+        offsets = frameOffsets.stream().mapToInt(Integer::intValue).toArray();
+        input = new ByteArrayInputStream(stream);
+        accumulator = new FrameAccumulator(65536);
+    }
+
+    @Benchmark
+    public int parse() throws IOException {
+        input.reset();
+        int read = 0;
+        int length;
+        while ((length = accumulator.readFrom(input)) > 0) {
+            read += length;
+            socketParser.parse(socket, accumulator);
+        }
+        return read;
+    }
+
+    @Benchmark
+    public void getlength(Blackhole blackhole) {
+        for (int offset : offsets) {
+            blackhole.consume(SocketUtils.getlength(stream, offset));
+        }
+    }
+
+    private static Map<String, String> messages() {
+        Map<String, String> messages = new LinkedHashMap<>();
+        messages.put("auth", "NAME=player\nPASS=~f4Y8CuGGeCpXR2Mqn6Y4Vg\nTOS=1\nMID=$000000000000\nFROM=US\nLANG=EN\n" +
+                "PROD=mohh-psp\nVERS=PSP/MOH07\nSLUS=ULUS10141\nSKU=PSP\nSDKVERS=3.9.3.0\nBUILDDATE=\"Dec 15 2006\"");
+        messages.put("pers", "PERS=player\nMID=$000000000000\nPID=");
+        messages.put("llvl", "");
+        messages.put("gsea", "START=0\nCOUNT=20\nAVAILABLE=1\nMODE=-1\nMAP=-1\nFF=-1\nAIM=-1\nSYSMASK=262144\nSYSFLAGS=0");
+        messages.put("mesg", "TEXT=Hello everyone\nATTR=Z");
+        StringBuilder rank = new StringBuilder("REPT=player\tWHEN=2024.1.1-12:00:00\tRNK=1");
+        for (String weapon : List.of("COLT", "TOM", "BAR", "GAR", "ENFIELD", "SHOTTY", "BAZ", "LUGER", "MP40", "MP44", "KAR", "GEW")) {
+            for (String counter : List.of("SHOT", "HIT", "KILL", "HEAD")) {
+                rank.append('\t').append(weapon).append(counter).append("=3");
+            }
+        }
+        messages.put("rank", rank.toString());
+        messages.put("~png", "REF=2024.1.1-12:00:00\nTIME=1");
+        return messages;
+    }
+
+    private static Map<String, String> fields(String body, String joiner) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String entry : body.split(joiner)) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                fields.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return fields;
+    }
+}
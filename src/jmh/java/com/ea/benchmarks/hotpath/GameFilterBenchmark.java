@@ -0,0 +1,131 @@
+package com.ea.benchmarks.hotpath;
+
+import com.ea.dto.GameParams;
+import com.ea.dto.MessageFields;
+import com.ea.dto.SocketData;
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.stats.MohhGameReportEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import com.ea.mappers.SocketMapper;
+import com.ea.mappers.StatsMapper;
+import com.ea.services.server.GameSearchEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.ea.services.server.GameServerService.PSP_MOH_07;
+
+/**
+ * 'gsea' filtering and 'rank' mapping of MoHH :
+ * GameSearchEngine.search over 5000 synthetic open games, with a search matching anything and a narrow one,
+ * SocketMapper.toMohhGameReportEntity on a full stats report, and StatsMapper.addGameReport of that report into persona stats
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameFilterBenchmark {
+
+    private static final int GAMES = 5000;
+    private static final int COUNT = 100;
+    private static final List<String> VERS = List.of(PSP_MOH_07);
+    private static final String[] WEAPONS = {"COLT", "TOM", "BAR", "GAR", "ENFIELD", "SHOTTY", "BAZ", "LUGER",
+            "MP40", "MP44", "KAR", "GEWR", "PANZ"};
+
+    private GameSearchEngine gameSearchEngine;
+    private SocketMapper socketMapper;
+    private StatsMapper statsMapper;
+    private MessageFields anyCriteria;
+    private MessageFields filteredCriteria;
+    private byte[] report;
+    private MohhGameReportEntity gameReport;
+    private MohhPersonaStatsEntity personaStats;
+
+    @Setup
+    public void setup() {
+        gameSearchEngine = new GameSearchEngine();
+        socketMapper = new SocketMapper();
+        statsMapper = new StatsMapper();
+
+        Random random = new Random(42);
+        for (long id = 1; id <= GAMES; id++) {
+            gameSearchEngine.add(game(id, random));
+        }
+
+        anyCriteria = MessageFields.of("AVAILABLE=-1\nMODE=-1\nMAP=-1\nFF=-1\nAIM=-1\nCOUNT=100\n");
+        filteredCriteria = MessageFields.of("AVAILABLE=1\nMODE=2\nMAP=181\nFF=0\nAIM=1\nSYSMASK=327680\nSYSFLAGS=262144\nCOUNT=100\n");
+
+        StringBuilder rank = new StringBuilder("REPT=player\tWHEN=2024.1.1-12:00:00\tRNK=1\tKILL=12\tDEATH=7");
+        for (String weapon : WEAPONS) {
+            for (String counter : List.of("SHOT", "HIT", "KILL", "HEAD")) {
+                rank.append('\t').append(weapon).append(counter).append('=').append(random.nextInt(50));
+            }
+        }
+        rank.append("\tGRENTHROW=4\tGRENKILL=1\tMELEEKILL=0\tWIN=1\tLOSS=0\tAXIS=1\tALLIES=0\tTDMAXIS=1\tMAP1=1\t");
+        report = rank.toString().getBytes(StandardCharsets.UTF_8);
+        gameReport = toMohhGameReportEntity();
+        personaStats = new MohhPersonaStatsEntity();
+    }
+
+    @Benchmark
+    public List<GameEntity> searchAny() {
+        return gameSearchEngine.search(VERS, anyCriteria, GameParams.Layout.MOHH, COUNT);
+    }
+
+    @Benchmark
+    public List<GameEntity> searchFiltered() {
+        return gameSearchEngine.search(VERS, filteredCriteria, GameParams.Layout.MOHH, COUNT);
+    }
+
+    @Benchmark
+    public MohhGameReportEntity toMohhGameReportEntity() {
+        SocketData socketData = new SocketData("rank", new MessageFields(report, 0, report.length));
+        return socketMapper.toMohhGameReportEntity(new MohhGameReportEntity(), socketData);
+    }
+
+    @Benchmark
+    public MohhPersonaStatsEntity addGameReport() {
+        statsMapper.addGameReport(personaStats, gameReport);
+        return personaStats;
+    }
+
+    /**
+     * A MoHH game with random mode, map, friendly fire, aim assist, ranked and password settings
+     * Params keep a last non empty value, like the game sends them
+     */
+    private static GameEntity game(long id, Random random) {
+        GameEntity game = new GameEntity();
+        game.setId(id);
+        game.setVers(PSP_MOH_07);
+        game.setName("\"game" + id + "\"");
+        game.setParams(String.join(",",
+                String.valueOf(1 + random.nextInt(4)),
+                Integer.toHexString(0xb0 + random.nextInt(12)),
+                random.nextBoolean() ? "1" : "",
+                random.nextBoolean() ? "1" : "",
+                "-1", "", "", "",
+                random.nextInt(3) == 0 ? "1" : "",
+                "e4a", "e68", "", "114f0022"));
+        game.setSysflags("262656");
+        game.setPass(random.nextInt(5) == 0 ? "secret" : null);
+        game.setMinsize(1);
+        game.setMaxsize(4 + random.nextInt(29));
+        game.setStartTime(LocalDateTime.now());
+        Set<GameConnectionEntity> gameConnections = new HashSet<>();
+        int players = 1 + random.nextInt(game.getMaxsize());
+        for (long i = 0; i < players; i++) {
+            GameConnectionEntity gameConnection = new GameConnectionEntity();
+            gameConnection.setId(id * 100 + i);
+            gameConnection.setHost(i == 0);
+            gameConnections.add(gameConnection);
+        }
+        game.setGameConnections(gameConnections);
+        return game;
+    }
+}
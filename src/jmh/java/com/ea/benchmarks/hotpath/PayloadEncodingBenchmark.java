@@ -0,0 +1,136 @@
+package com.ea.benchmarks.hotpath;
+
+import com.ea.dto.Packet;
+import com.ea.dto.SocketWrapper;
+import com.ea.entities.core.*;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import com.ea.repositories.core.GameRepository;
+import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import com.ea.services.server.GamePersistenceService;
+import com.ea.services.server.GameRegistry;
+import com.ea.services.server.GameSearchEngine;
+import com.ea.services.server.GameServerService;
+import com.ea.services.server.QuickMatchService;
+import com.ea.services.server.SocketManager;
+import com.ea.services.stats.LeaderboardService;
+import com.ea.services.stats.OpParamCache;
+import com.ea.steps.PacketEncoder;
+import com.ea.utils.GameUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbound payloads of game updates : GameUtils.getGameInfo for a full 8 players MoHH game,
+ * and the encoding of the result into the frame SocketWriter queues
+ * Players come from a GameRegistry like in the server, repositories and the socket manager are stubs answering from memory,
+ * so only the building is measured
+ * The OPPARAM of the players are cached by OpParamCache like in the server, so they're only computed in the setup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    private static final long GAME_ID = 1L;
+    private static final int PLAYERS = 8;
+
+    private GameUtils gameUtils;
+    private GameEntity gameEntity;
+    private Map<String, String> gameInfo;
+
+    @Setup
+    public void setup() {
+        gameEntity = new GameEntity();
+        gameEntity.setVers("PSP/MOH07");
+        gameEntity.setSlus("ULUS10141");
+        gameEntity.setName("\"Load test game\"");
+        gameEntity.setParams("8,b5,,1,-1,,,,1,e4a,e68,,114f0022");
+        gameEntity.setSysflags("262656");
+        gameEntity.setMinsize(1);
+        gameEntity.setMaxsize(33);
+        gameEntity.setStartTime(LocalDateTime.now());
+
+        GameRegistry gameRegistry = new GameRegistry(
+                mock(GameRepository.class, withSettings().stubOnly()),
+                mock(GamePersistenceService.class, withSettings().stubOnly()),
+                new GameSearchEngine(),
+                mock(QuickMatchService.class, withSettings().stubOnly()));
+        MohhPersonaStatsRepository mohhPersonaStatsRepository = mock(MohhPersonaStatsRepository.class, withSettings().stubOnly());
+        LeaderboardService leaderboardService = mock(LeaderboardService.class, withSettings().stubOnly());
+        GameServerService gameServerService = mock(GameServerService.class, withSettings().stubOnly());
+        SocketManager socketManager = mock(SocketManager.class, withSettings().stubOnly());
+
+        // The repository stub doesn't assign identifiers
+        gameEntity.setId(GAME_ID);
+        gameRegistry.create(gameEntity);
+        List<PersonaConnectionEntity> personaConnections = new ArrayList<>();
+        for (long i = 1; i <= PLAYERS; i++) {
+            personaConnections.add(personaConnection(i));
+            gameRegistry.addGameConnection(gameEntity, personaConnections.get((int) i - 1), i == 1);
+        }
+        SocketWrapper socketWrapper = new SocketWrapper();
+        socketWrapper.setPersonaEntity(personaConnections.get(0).getPersona());
+        MohhPersonaStatsEntity stats = new MohhPersonaStatsEntity();
+        stats.setKill(1234);
+        stats.setDeath(567);
+
+        when(mohhPersonaStatsRepository.findByPersonaIdAndVers(anyLong(), anyString())).thenReturn(stats);
+        when(leaderboardService.getRank(any(), anyString(), anyLong())).thenReturn(42L);
+        when(gameServerService.isP2P(anyString())).thenReturn(false);
+        when(socketManager.getHostSocketWrapperOfGame(GAME_ID)).thenReturn(socketWrapper);
+        when(socketManager.getSocketWrapperByPersonaConnectionId(anyLong())).thenReturn(socketWrapper);
+
+        OpParamCache opParamCache = new OpParamCache(mohhPersonaStatsRepository, leaderboardService, new SimpleMeterRegistry());
+        opParamCache.init();
+        gameUtils = new GameUtils(gameRegistry, opParamCache, gameServerService, socketManager);
+        gameInfo = gameUtils.getGameInfo(gameEntity);
+    }
+
+    @Benchmark
+    public Map<String, String> getGameInfo() {
+        return gameUtils.getGameInfo(gameEntity);
+    }
+
+    @Benchmark
+    public byte[] encodeGameInfo() {
+        return PacketEncoder.encode("+mgm", gameInfo, NEWLINE_CHAR);
+    }
+
+    /**
+     * What a +mgm or +ses notification costs end to end
+     */
+    @Benchmark
+    public Packet gameInfoPacket() {
+        return PacketEncoder.builder("+mgm").putAll(gameUtils.getGameInfo(gameEntity)).build();
+    }
+
+    private static PersonaConnectionEntity personaConnection(long id) {
+        AccountEntity account = new AccountEntity();
+        account.setLoc("enUS");
+        PersonaEntity persona = new PersonaEntity();
+        persona.setId(id);
+        persona.setPers("player" + id);
+        persona.setRp(5);
+        persona.setAccount(account);
+        PersonaConnectionEntity personaConnection = new PersonaConnectionEntity();
+        personaConnection.setId(id);
+        personaConnection.setPersona(persona);
+        personaConnection.setAddress("/192.168.1." + id + ":3658");
+        return personaConnection;
+    }
+}
@@ -0,0 +1,192 @@
+package com.ea.loadtest;
+
+import com.ea.steps.FrameAccumulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
+
+/**
+ * Blocking Aries connection of a simulated client
+ * Requests are framed like the game does, every field ended by the separator, replies are matched on their id,
+ * and the messages the server pushes in between are kept for the session script
+ * Keep-alives received while waiting are answered, like the game does
+ */
+class AriesClient implements Closeable {
+
+    private static final int MAX_FRAME_SIZE = 65536;
+    private static final int MAX_PUSHES_PER_ID = 64;
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final FrameAccumulator accumulator = new FrameAccumulator(MAX_FRAME_SIZE);
+    private final LatencyReport report;
+    private final Map<String, Deque<Reply>> pushes = new HashMap<>();
+
+    AriesClient(String host, int port, int timeoutMillis, LatencyReport report) throws IOException {
+        this.report = report;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+        socket.setSoTimeout(timeoutMillis);
+        inputStream = socket.getInputStream();
+        outputStream = socket.getOutputStream();
+    }
+
+    Reply request(String idMessage, Map<String, String> content) throws IOException {
+        return request(idMessage, content, NEWLINE_CHAR);
+    }
+
+    /**
+     * Sends a message and waits for its reply, the round trip is recorded under the message id
+     *
+     * @param idMessage the message id
+     * @param content   the message fields
+     * @param joiner    the separator between fields
+     * @return the reply, which may carry an error status
+     */
+    Reply request(String idMessage, Map<String, String> content, String joiner) throws IOException {
+        long start = System.nanoTime();
+        try {
+            send(idMessage, content, joiner);
+            Reply reply;
+            do {
+                reply = read();
+            } while (!idMessage.equals(reply.idMessage()) && keep(reply));
+            report.record(idMessage, System.nanoTime() - start, reply.isError());
+            return reply;
+        } catch (IOException e) {
+            report.record(idMessage, System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a message pushed by the server, which may have been received while waiting for a reply
+     *
+     * @param idMessage the pushed message id, like +rom
+     * @return the oldest pushed message with this id
+     * @throws SocketTimeoutException if nothing comes within the timeout
+     */
+    Reply awaitPush(String idMessage) throws IOException {
+        Reply push = poll(idMessage);
+        while (push == null) {
+            Reply reply = read();
+            if (idMessage.equals(reply.idMessage())) {
+                push = reply;
+            } else {
+                keep(reply);
+            }
+        }
+        return push;
+    }
+
+    /**
+     * Forgets the messages pushed so far, so the next awaited push is a fresh one
+     */
+    void clearPushes() {
+        pushes.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void send(String idMessage, Map<String, String> content, String joiner) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.writeBytes(idMessage.getBytes(StandardCharsets.US_ASCII));
+        frame.writeBytes(new byte[8]);
+        if (content != null) {
+            content.forEach((key, value) -> frame.writeBytes((key + "=" + value + joiner).getBytes(StandardCharsets.UTF_8)));
+            frame.write(0);
+        }
+        byte[] bytes = frame.toByteArray();
+        ByteBuffer.wrap(bytes, 8, 4).putInt(bytes.length);
+        outputStream.write(bytes);
+        outputStream.flush();
+    }
+
+    private Reply poll(String idMessage) {
+        Deque<Reply> queue = pushes.get(idMessage);
+        return queue != null ? queue.pollFirst() : null;
+    }
+
+    /**
+     * @return always true, so it can end a wait condition
+     */
+    private boolean keep(Reply push) {
+        Deque<Reply> queue = pushes.computeIfAbsent(push.idMessage(), id -> new ArrayDeque<>());
+        if (queue.size() == MAX_PUSHES_PER_ID) {
+            queue.pollFirst();
+        }
+        queue.addLast(push);
+        return true;
+    }
+
+    private Reply read() throws IOException {
+        while (true) {
+            ByteBuffer frame = accumulator.nextFrame();
+            if (frame != null) {
+                Reply reply = decode(frame);
+                if (!"~png".equals(reply.idMessage())) {
+                    if (reply.idMessage().startsWith("+")) {
+                        report.recordPush(reply.idMessage());
+                    }
+                    return reply;
+                }
+                send("~png", null, NEWLINE_CHAR);
+            } else if (accumulator.readFrom(inputStream) < 0) {
+                throw new IOException("Connection closed by the server");
+            }
+        }
+    }
+
+    private static Reply decode(ByteBuffer frame) {
+        byte[] header = new byte[8];
+        frame.get(header);
+        String idMessage = new String(header, 0, 4, StandardCharsets.US_ASCII);
+        String status = header[4] == 0 ? null : new String(header, 4, 4, StandardCharsets.US_ASCII);
+        frame.position(12);
+        byte[] body = new byte[frame.remaining()];
+        frame.get(body);
+        int bodyLength = body.length > 0 && body[body.length - 1] == 0 ? body.length - 1 : body.length;
+        Map<String, String> fields = new HashMap<>();
+        for (String entry : new String(body, 0, bodyLength, StandardCharsets.UTF_8).split("[\n\t]")) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                fields.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+        }
+        return new Reply(idMessage, status, fields);
+    }
+
+    /**
+     * A message received from the server
+     *
+     * @param idMessage the message id
+     * @param status    the error suffix of the id (like 'pass' in authpass), null on success
+     * @param fields    the message fields
+     */
+    record Reply(String idMessage, String status, Map<String, String> fields) {
+
+        boolean isError() {
+            return status != null;
+        }
+
+        String get(String key) {
+            return fields.get(key);
+        }
+    }
+}
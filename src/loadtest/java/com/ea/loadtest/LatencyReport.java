@@ -0,0 +1,79 @@
+package com.ea.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Round trips per packet type, messages pushed by the server and session outcomes
+ * Latencies are kept in microseconds with 3 significant digits
+ */
+class LatencyReport {
+
+    private final Map<String, PacketStats> packets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> pushes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> events = new ConcurrentHashMap<>();
+
+    void record(String idMessage, long nanos, boolean error) {
+        PacketStats stats = packets.computeIfAbsent(idMessage, id -> new PacketStats());
+        stats.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (error) {
+            stats.errors.increment();
+        }
+    }
+
+    void recordPush(String idMessage) {
+        pushes.computeIfAbsent(idMessage, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a session level event, like a completed or failed session
+     */
+    void recordEvent(String event) {
+        events.computeIfAbsent(event, id -> new LongAdder()).increment();
+    }
+
+    long requests() {
+        return packets.values().stream().mapToLong(stats -> stats.latencies.getTotalCount()).sum();
+    }
+
+    long events(String event) {
+        LongAdder count = events.get(event);
+        return count != null ? count.sum() : 0;
+    }
+
+    void print(PrintStream out, double elapsedSeconds) {
+        out.printf("%n%-6s %9s %7s %9s %9s %9s %9s %9s%n",
+                "packet", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        new TreeMap<>(packets).forEach((idMessage, stats) -> {
+            Histogram latencies = stats.latencies.copy();
+            out.printf("%-6s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    idMessage,
+                    latencies.getTotalCount(),
+                    stats.errors.sum(),
+                    latencies.getTotalCount() / elapsedSeconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        });
+        out.printf("%nTotal %d requests, %.1f req/s%n", requests(), requests() / elapsedSeconds);
+        out.printf("Pushed by the server : %s%n", new TreeMap<>(pushes));
+        out.printf("Sessions : %s%n", new TreeMap<>(events));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class PacketStats {
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
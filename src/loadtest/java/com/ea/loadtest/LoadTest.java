@@ -0,0 +1,98 @@
+package com.ea.loadtest;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates PSP players against a running server (e.g. the 'dev' profile with H2), each player on a virtual thread
+ * With a rate, sessions start at a fixed pace, an arrival is dropped when every player is already in a session
+ * Without rate, every player chains sessions until the end of the run
+ * Prints the throughput and latency percentiles per packet type at the end
+ * <p>
+ * mvn -P loadtest test-compile exec:exec -Dloadtest.args="users=1000 rate=50 duration=120"
+ */
+public class LoadTest {
+
+    private static final int MAX_PRINTED_ERRORS = 20;
+    private static final int PROGRESS_SECONDS = 10;
+
+    private final LoadTestOptions options;
+    private final LatencyReport report = new LatencyReport();
+    private final AtomicLong sessionSequence = new AtomicLong();
+    private final AtomicInteger printedErrors = new AtomicInteger();
+    private final String password;
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.password = PlayerSession.encodePassword(options.password(), HexFormat.of().parseHex(options.ssc2Key()));
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Running " + options);
+        new LoadTest(options).run();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(options.duration());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(() -> System.out.printf("[%ds] %d requests, sessions %d completed, %d failed%n",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start),
+                        report.requests(),
+                        report.events("completed"),
+                        report.events("failed")),
+                PROGRESS_SECONDS, PROGRESS_SECONDS, TimeUnit.SECONDS);
+
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.rate() > 0) {
+                BlockingQueue<Integer> idlePlayers = new LinkedBlockingQueue<>(IntStream.range(0, options.users()).boxed().toList());
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+                for (long next = start; next < end; next += interval) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    Integer player = idlePlayers.poll();
+                    if (player == null) {
+                        report.recordEvent("dropped arrivals");
+                        continue;
+                    }
+                    sessions.execute(() -> {
+                        session(player);
+                        idlePlayers.add(player);
+                    });
+                }
+            } else {
+                for (int i = 0; i < options.users(); i++) {
+                    int player = i;
+                    sessions.execute(() -> {
+                        while (System.nanoTime() < end) {
+                            session(player);
+                        }
+                    });
+                }
+            }
+        }
+        progress.shutdownNow();
+
+        System.out.println("\nRun of " + options.duration() + "s with " + options.users() + " players on " + options.vers());
+        report.print(System.out, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void session(int player) {
+        try {
+            new PlayerSession(options, report, player, sessionSequence.incrementAndGet(), password).run();
+            report.recordEvent("completed");
+        } catch (IOException | RuntimeException e) {
+            report.recordEvent("failed");
+            if (printedErrors.incrementAndGet() <= MAX_PRINTED_ERRORS) {
+                System.err.println("Session of player " + player + " failed : " + e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
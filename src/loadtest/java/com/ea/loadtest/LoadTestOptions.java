@@ -0,0 +1,89 @@
+package com.ea.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as name=value arguments
+ *
+ * @param host      the server address
+ * @param port      the port the clients send @dir to, they are redirected to the port of the reply
+ * @param vers      the game version
+ * @param sku       the game SKU
+ * @param slus      the game serial
+ * @param sdkvers   the DirtySDK version sent in @dir
+ * @param users     the number of simulated players, each one runs a single session at a time
+ * @param rate      the sessions started per second, 0 to have every player chain sessions back to back
+ * @param duration  the run duration in seconds, sessions still running at the end are left to finish
+ * @param think     the pause between two packets of a session in milliseconds
+ * @param gameTime  how long a host keeps its game open in milliseconds
+ * @param hostEvery one player out of this number creates games, the others search and join them
+ * @param messages  the number of chat messages sent during a game
+ * @param timeout   how long a reply is awaited in milliseconds
+ * @param prefix    the prefix of the account and persona names
+ * @param password  the password of the accounts
+ * @param ssc2Key   the SSC2 key (hex) used to encode passwords, the one the server decodes them with
+ * @param params    the PARAMS of created games, defaults to a valid value for the game version
+ */
+record LoadTestOptions(
+        String host,
+        int port,
+        String vers,
+        String sku,
+        String slus,
+        String sdkvers,
+        int users,
+        double rate,
+        int duration,
+        int think,
+        int gameTime,
+        int hostEvery,
+        int messages,
+        int timeout,
+        String prefix,
+        String password,
+        String ssc2Key,
+        String params
+) {
+
+    private static final Map<String, String> GAME_PARAMS = Map.of(
+            "PSP/MOH07", "8,b5,,1,-1,,,,1,e4a,e68,,114f0022",
+            "PSP/MOH08", "2,191,,1,,,,,,-1,1,1,1,1,1,1,1,1,20,e49,e67,15f90,122d0022"
+    );
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        String vers = values.getOrDefault("vers", "PSP/MOH07");
+        return new LoadTestOptions(
+                values.getOrDefault("host", "127.0.0.1"),
+                Integer.parseInt(values.getOrDefault("port", "11190")),
+                vers,
+                values.getOrDefault("sku", "PSP"),
+                values.getOrDefault("slus", "ULUS10141"),
+                values.getOrDefault("sdkvers", "4.7.0.0"),
+                Integer.parseInt(values.getOrDefault("users", "500")),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("think", "100")),
+                Integer.parseInt(values.getOrDefault("game-time", "5000")),
+                Integer.parseInt(values.getOrDefault("host-every", "4")),
+                Integer.parseInt(values.getOrDefault("messages", "3")),
+                Integer.parseInt(values.getOrDefault("timeout", "10000")),
+                values.getOrDefault("prefix", "lt"),
+                values.getOrDefault("password", "loadtest"),
+                values.getOrDefault("ssc2-key", "51ba8aee64ddfacae5baefa6bf61e009"),
+                values.getOrDefault("params", GAME_PARAMS.getOrDefault(vers, "0"))
+        );
+    }
+
+    boolean isNhl() {
+        return vers.contains("NHL");
+    }
+}
@@ -0,0 +1,271 @@
+package com.ea.loadtest;
+
+import com.ea.dirtysdk.CryptSSC2;
+import com.ea.loadtest.AriesClient.Reply;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.ea.utils.SocketUtils.TAB_CHAR;
+
+/**
+ * Scripted session of a simulated player, in the order the games send their packets :
+ * '@dir' on the directory port, then on the redirected port 'auth' ('acct' and 'cper' the first time),
+ * 'pers', 'llvl', 'move', then either 'gcre' or 'gsea' and 'gjoi', 'mesg' in the game, 'rank' and 'glea'
+ * Stats reports follow the MoHH layout, or the NHL one for NHL versions
+ */
+class PlayerSession {
+
+    private final LoadTestOptions options;
+    private final LatencyReport report;
+    private final String name;
+    private final long session;
+    private final String password;
+    private final boolean host;
+
+    /**
+     * @param player   the player number, which gives the account and persona names
+     * @param session  the session number, which gives unique game names
+     * @param password the password, already SSC2 encoded
+     */
+    PlayerSession(LoadTestOptions options, LatencyReport report, int player, long session, String password) {
+        this.options = options;
+        this.report = report;
+        this.name = String.format("%s%05d", options.prefix(), player);
+        this.session = session;
+        this.password = password;
+        this.host = player % options.hostEvery() == 0;
+    }
+
+    void run() throws IOException, InterruptedException {
+        int port = directory();
+        try (AriesClient client = new AriesClient(options.host(), port, options.timeout(), report)) {
+            login(client);
+            String room = lobby(client);
+            if (host) {
+                hostGame(client, room);
+            } else {
+                joinGame(client);
+            }
+        }
+    }
+
+    /**
+     * SSC2 encodes a password like the game does before sending it in 'acct' and 'auth'
+     * Characters with a meaning in the message body are escaped as tag fields (%xx)
+     * The cipher shares a random state between calls, so passwords are encoded once for the whole run
+     *
+     * @param password the plain password
+     * @param key      the SSC2 key
+     * @return the value of the PASS field
+     */
+    static String encodePassword(String password, byte[] key) {
+        byte[] plain = Arrays.copyOf(password.getBytes(StandardCharsets.US_ASCII), password.length() + 1);
+        byte[] encoded = new byte[32];
+        CryptSSC2.cryptSSC2StringEncrypt(encoded, encoded.length, plain, key, key.length, key.length);
+        StringBuilder pass = new StringBuilder("~");
+        for (int i = 0; encoded[i] != 0; i++) {
+            char c = (char) encoded[i];
+            if (c == '%' || c == '=' || c == '"' || c == ' ' || c == 127) {
+                pass.append('%').append(String.format("%02x", (int) c));
+            } else {
+                pass.append(c);
+            }
+        }
+        return pass.toString();
+    }
+
+    /**
+     * @return the port the directory redirects to
+     */
+    private int directory() throws IOException {
+        try (AriesClient directory = new AriesClient(options.host(), options.port(), options.timeout(), report)) {
+            Reply dir = expect(directory.request("@dir", fields(
+                    "VERS", options.vers(),
+                    "SKU", options.sku(),
+                    "SLUS", options.slus(),
+                    "SDKVERS", options.sdkvers(),
+                    "BUILDDATE", "\"Dec 15 2006\"")));
+            // ADDR is the public address of the server, the clients stay on the tested host
+            return Integer.parseInt(dir.get("PORT"));
+        }
+    }
+
+    private void login(AriesClient client) throws IOException, InterruptedException {
+        Reply auth = client.request("auth", fields(
+                "NAME", name,
+                "PASS", password,
+                "VERS", options.vers(),
+                "SLUS", options.slus()));
+        if ("imst".equals(auth.status())) {
+            expect(client.request("acct", fields(
+                    "NAME", name,
+                    "PASS", password,
+                    "MAIL", name + "@loadtest.local",
+                    "LOC", "enUS",
+                    "BORN", "19800101",
+                    "ZIP", "12345",
+                    "GEND", "M",
+                    "SPAM", "NN",
+                    "TOS", "1",
+                    "VERS", options.vers(),
+                    "SKU", options.sku(),
+                    "SLUS", options.slus(),
+                    "SDKVERS", options.sdkvers(),
+                    "ALTS", "0")));
+            auth = client.request("auth", fields(
+                    "NAME", name,
+                    "PASS", password,
+                    "VERS", options.vers(),
+                    "SLUS", options.slus()));
+        }
+        expect(auth);
+        pause();
+
+        String personas = auth.get("PERSONAS");
+        if (personas == null || !Arrays.asList(personas.split(",")).contains(name)) {
+            expect(client.request("cper", fields("PERS", name, "ALTS", "0")));
+            pause();
+        }
+        expect(client.request("pers", fields("PERS", name)));
+    }
+
+    /**
+     * @return the room the server put the persona in
+     */
+    private String lobby(AriesClient client) throws IOException, InterruptedException {
+        String room = client.awaitPush("+rom").get("I");
+        pause();
+        expect(client.request("llvl", fields()));
+        pause();
+        expect(client.request("move", fields("IDENT", room)));
+        return room;
+    }
+
+    private void hostGame(AriesClient client, String room) throws IOException, InterruptedException {
+        pause();
+        Reply game = expect(client.request("gcre", fields(
+                "NAME", name + "-" + session,
+                "PARAMS", options.params(),
+                "SYSFLAGS", "262656",
+                "MINSIZE", "1",
+                "MAXSIZE", "8",
+                "ROOM", room)));
+        chat(client);
+        Thread.sleep(options.gameTime());
+        rank(client, game);
+        leave(client);
+    }
+
+    private void joinGame(AriesClient client) throws IOException, InterruptedException {
+        pause();
+        client.clearPushes();
+        Reply search = expect(client.request("gsea", fields(
+                "START", "0",
+                "COUNT", "20",
+                "AVAILABLE", "1",
+                "MODE", "-1",
+                "MAP", "-1",
+                "FF", "-1",
+                "AIM", "-1")));
+        List<String> games = new ArrayList<>();
+        for (int i = 0; i < Integer.parseInt(search.get("COUNT")); i++) {
+            games.add(client.awaitPush("+gam").get("IDENT"));
+        }
+        if (games.isEmpty()) {
+            report.recordEvent("no game found");
+            chat(client);
+            return;
+        }
+
+        pause();
+        String ident = games.get(ThreadLocalRandom.current().nextInt(games.size()));
+        client.clearPushes();
+        Reply join = client.request("gjoi", fields("IDENT", ident));
+        if (join.isError()) {
+            // Full or closed since the search
+            report.recordEvent("join refused");
+            return;
+        }
+        Reply game = awaitGame(client, ident);
+        chat(client);
+        Thread.sleep(options.gameTime() / 2);
+        rank(client, game);
+        leave(client);
+    }
+
+    /**
+     * @return the game details sent after joining, +ses for dedicated servers or +mgm for peer to peer games
+     */
+    private Reply awaitGame(AriesClient client, String ident) throws IOException {
+        String idMessage = options.isNhl() ? "+mgm" : "+ses";
+        Reply game;
+        do {
+            game = client.awaitPush(idMessage);
+        } while (!ident.equals(game.get("IDENT")));
+        return game;
+    }
+
+    private void chat(AriesClient client) throws IOException, InterruptedException {
+        for (int i = 0; i < options.messages(); i++) {
+            pause();
+            expect(client.request("mesg", fields("TEXT", "message " + i)));
+        }
+    }
+
+    private void rank(AriesClient client, Reply game) throws IOException, InterruptedException {
+        pause();
+        Map<String, String> content = options.isNhl()
+                ? nhlReport(game.get("HOST"), game.get("WHEN"))
+                : mohhReport(game.get("WHEN"));
+        expect(client.request("rank", content, TAB_CHAR));
+    }
+
+    private void leave(AriesClient client) throws IOException, InterruptedException {
+        pause();
+        expect(client.request("glea", fields()));
+    }
+
+    private Map<String, String> mohhReport(String when) {
+        Map<String, String> content = fields("REPT", name, "WHEN", when, "RNK", "1");
+        for (String stat : List.of("SHOT", "HIT", "HEAD", "KILL", "DEATH", "COLTSHOT", "COLTHIT", "COLTKILL", "COLTHEAD")) {
+            content.put(stat, String.valueOf(ThreadLocalRandom.current().nextInt(20)));
+        }
+        return content;
+    }
+
+    private Map<String, String> nhlReport(String gameHost, String when) {
+        Map<String, String> content = fields("NAME0", gameHost.replace("@", ""), "NAME1", name, "WHEN", when, "RNK", "1");
+        for (String stat : List.of("VENUE", "TYPE", "PNUM", "PLEN", "OT", "TIME", "DTIME", "SKIL", "TID", "TMID")) {
+            content.put(stat, "0");
+        }
+        for (String player : List.of("0", "1")) {
+            for (String stat : List.of("SCORE", "DSCORE", "HITS", "SHOTS", "PENMIN", "PPG", "PPO", "SHG",
+                    "TEAM", "HOME", "DISC", "QUIT", "CHEAT", "WEIGHT")) {
+                content.put(stat + player, String.valueOf(ThreadLocalRandom.current().nextInt(5)));
+            }
+        }
+        return content;
+    }
+
+    private void pause() throws InterruptedException {
+        Thread.sleep(options.think());
+    }
+
+    private static Reply expect(Reply reply) throws IOException {
+        if (reply.isError()) {
+            throw new IOException("Unexpected reply " + reply.idMessage() + reply.status());
+        }
+        return reply;
+    }
+
+    private static Map<String, String> fields(String... keyValues) {
+        Map<String, String> content = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            content.put(keyValues[i], keyValues[i + 1]);
+        }
+        return content;
+    }
+}
@@ -2,10 +2,11 @@ package com.ea;
 
 import com.ea.config.*;
 import com.ea.services.core.GameService;
-import com.ea.services.core.PersonaService;
 import com.ea.services.core.RoomService;
 import com.ea.services.server.GameServerService;
-import com.ea.services.server.SocketManager;
+import com.ea.services.server.SessionService;
+import com.ea.services.server.ThreadService;
+import com.ea.steps.SocketParser;
 import com.ea.steps.SocketReader;
 import com.ea.steps.SocketWriter;
 import com.ea.utils.Props;
@@ -18,6 +19,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 
@@ -32,20 +34,24 @@ import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
-@SpringBootApplication(exclude = {SecurityAutoConfiguration.class})
+@SpringBootApplication(exclude = {SecurityAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class})
 public class ServerApp implements CommandLineRunner {
 
     private final ScheduledExecutorService dataCleanupThread = Executors.newSingleThreadScheduledExecutor();
     private final Props props;
     private final ServerConfig serverConfig;
     private final GameServerService gameServerService;
-    private final SocketManager socketManager;
     private final SocketReader socketReader;
+    private final SocketParser socketParser;
     private final SocketWriter socketWriter;
-    private final PersonaService personaService;
+    private final SessionService sessionService;
     private final GameService gameService;
     private final RoomService roomService;
-    private ExecutorService clientHandlingExecutor = Executors.newFixedThreadPool(500);
+    private final ThreadService threadService;
+    private ExecutorService clientHandlingExecutor;
+    private ExecutorService nettyMessageExecutor;
+    private EventLoopGroup nettyBossGroup;
+    private EventLoopGroup nettyWorkerGroup;
 
     public static void main(String[] args) {
         SpringApplication.run(ServerApp.class, args);
@@ -62,6 +68,9 @@ public class ServerApp implements CommandLineRunner {
 
         // Server configuration
         setupThreadPool();
+        if (props.isNettyTransport()) {
+            setupNettyEventLoops();
+        }
         startTcpTunnelServer();
         addGracefulExitOnShutdown();
 
@@ -83,8 +92,12 @@ public class ServerApp implements CommandLineRunner {
     private void startGameServer(GameServerConfig.GameServer gameServer) throws Exception {
         for (GameServerConfig.RegionConfig region : gameServer.getRegions()) {
             // TCP server
-            ServerSocket tcpServerSocket = serverConfig.createTcpServerSocket(region.getPort());
-            startServerThread(tcpServerSocket, this::createTcpSocketThread, gameServer.isAries());
+            if (props.isNettyTransport()) {
+                startNettyServer(region.getPort(), gameServer.isAries());
+            } else {
+                ServerSocket tcpServerSocket = serverConfig.createTcpServerSocket(region.getPort());
+                startServerThread(tcpServerSocket, this::createTcpSocketThread, gameServer.isAries());
+            }
             log.info("Started TCP server for {} {} on port {}", gameServer.getVers(), region.getName(), region.getPort());
 
             // SSL server
@@ -100,17 +113,14 @@ public class ServerApp implements CommandLineRunner {
         }
     }
 
-    private void startServerThread(ServerSocket serverSocket, Function<Socket, Runnable> runnableFactory, boolean isAries) {
+    private void startServerThread(ServerSocket serverSocket, Function<BlockingSocket, Runnable> runnableFactory, boolean isAries) {
         new Thread(() -> {
             try {
                 while (true) {
-                    Socket socket = serverSocket.accept();
-                    if (!(socket instanceof SSLSocket)) {
-                        if (isAries) {
-                            socketManager.addSocket(socket.getRemoteSocketAddress().toString(), socket);
-                        } else {
-                            socketManager.addBuddySocket(socket.getRemoteSocketAddress().toString(), socket);
-                        }
+                    Socket accepted = serverSocket.accept();
+                    BlockingSocket socket = new BlockingSocket(accepted);
+                    if (!(accepted instanceof SSLSocket)) {
+                        sessionService.open(socket, isAries);
                     }
                     clientHandlingExecutor.submit(runnableFactory.apply(socket));
                 }
@@ -120,6 +130,32 @@ public class ServerApp implements CommandLineRunner {
         }).start();
     }
 
+    /**
+     * Binds a TCP port on the shared Netty event loops
+     * Frames are decoded on the worker loops, then processed on the message executor
+     * in the message order of each connection
+     * Above the high water mark of a channel, its messages wait in the outbound queue of SocketWriter
+     *
+     * @param port    the port to bind
+     * @param isAries true for lobby (Aries) ports, false for the buddy port
+     */
+    private void startNettyServer(int port, boolean isAries) throws InterruptedException {
+        ServerBootstrap serverBootstrap = new ServerBootstrap();
+        serverBootstrap.group(nettyBossGroup, nettyWorkerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(props.getTcpNettyWriteBufferLow(), props.getTcpNettyWriteBufferHigh()))
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        ChannelPipeline pipeline = channel.pipeline();
+                        pipeline.addLast(new AriesFrameDecoder(props.getTcpMaxFrameSize()));
+                        pipeline.addLast(new AriesChannelHandler(socketParser, sessionService, socketWriter, nettyMessageExecutor, isAries));
+                    }
+                });
+        serverBootstrap.bind(port).sync();
+    }
+
     private void startTcpTunnelServer() {
         new Thread(() -> {
             log.info("Starting tunnel server on port {}", props.getHttpPort());
@@ -148,12 +184,12 @@ public class ServerApp implements CommandLineRunner {
         }).start();
     }
 
-    private Runnable createTcpSocketThread(Socket socket) {
-        return new TcpSocketThread(socket, socketManager, socketReader, socketWriter, personaService, gameService);
+    private Runnable createTcpSocketThread(BlockingSocket socket) {
+        return new TcpSocketThread(socket, socketReader, sessionService);
     }
 
-    private Runnable createSslSocketThread(Socket socket) {
-        return new SslSocketThread((SSLSocket) socket, socketReader);
+    private Runnable createSslSocketThread(BlockingSocket socket) {
+        return new SslSocketThread(socket, socketReader, socketWriter);
     }
 
     private void addGracefulExitOnShutdown() {
@@ -161,6 +197,11 @@ public class ServerApp implements CommandLineRunner {
             log.info("Shutting down...");
             dataCleanupThread.shutdown();
             clientHandlingExecutor.shutdown();
+            if (nettyBossGroup != null) {
+                nettyBossGroup.shutdownGracefully();
+                nettyWorkerGroup.shutdownGracefully();
+                nettyMessageExecutor.shutdown();
+            }
             try {
                 if (!dataCleanupThread.awaitTermination(800, TimeUnit.MILLISECONDS)) {
                     dataCleanupThread.shutdownNow();
@@ -186,20 +227,15 @@ public class ServerApp implements CommandLineRunner {
     }
 
     private void setupThreadPool() {
-        int poolSize = 500;
-        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(600);
-        ThreadFactory threadFactory = Executors.defaultThreadFactory();
-        RejectedExecutionHandler handler = new ThreadPoolExecutor.CallerRunsPolicy();
-
-        clientHandlingExecutor = new ThreadPoolExecutor(
-                poolSize,
-                poolSize,
-                0L,
-                TimeUnit.MILLISECONDS,
-                queue,
-                threadFactory,
-                handler
-        );
+        clientHandlingExecutor = threadService.createSessionExecutor();
+    }
+
+    private void setupNettyEventLoops() {
+        nettyBossGroup = new NioEventLoopGroup(1);
+        nettyWorkerGroup = new NioEventLoopGroup(props.getTcpNettyWorkerThreads());
+        // Not the session executor, whose caller-runs policy would run the messages on the event loops
+        nettyMessageExecutor = threadService.createMessageExecutor();
+        log.info("Using Netty transport for TCP servers, messages processed on the message executor");
     }
 
 }
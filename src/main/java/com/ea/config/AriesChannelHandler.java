@@ -0,0 +1,130 @@
+package com.ea.config;
+
+import com.ea.dto.ClientSocket;
+import com.ea.services.server.SessionService;
+import com.ea.steps.SocketParser;
+import com.ea.steps.SocketWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.AttributeKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Netty counterpart of TcpSocketThread, one instance per channel
+ * Message processing involves blocking calls (database, password hashing), so the frames are handed
+ * to the message executor and the event loops never block
+ * The tasks of a channel are drained one at a time, which keeps its message order
+ * When the executor is saturated, the channel stops reading until its drain is accepted
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AriesChannelHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+    public static final AttributeKey<ClientSocket> SOCKET = AttributeKey.valueOf("socket");
+    private static final long SATURATED_RETRY_DELAY = 20;
+
+    private final SocketParser socketParser;
+    private final SessionService sessionService;
+    private final SocketWriter socketWriter;
+    private final ExecutorService messageExecutor;
+    private final boolean isAries;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        ClientSocket socket = new ChannelSocket(ctx.channel());
+        ctx.channel().attr(SOCKET).set(socket);
+        sessionService.open(socket, isAries);
+        log.info("TCP client session started: {}", socket.getRemoteSocketAddress());
+        super.channelActive(ctx);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf message) {
+        // The frame is released once this method returns, the task gets its own copy
+        ByteBuffer frame = ByteBuffer.wrap(ByteBufUtil.getBytes(message));
+        ClientSocket socket = ctx.channel().attr(SOCKET).get();
+        submit(ctx, () -> socketParser.processCompleteMessage(socket, frame));
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        ClientSocket socket = ctx.channel().attr(SOCKET).get();
+        if (socket != null) {
+            // After the pending messages of the channel
+            submit(ctx, () -> sessionService.close(socket));
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        ClientSocket socket = ctx.channel().attr(SOCKET).get();
+        if (socket != null && ctx.channel().isWritable()) {
+            // The outbound queue paused above the high water mark
+            socketWriter.resume(socket);
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.error("Error on channel {}, closing it: {}", ctx.channel().remoteAddress(), cause.getMessage());
+        ctx.close();
+    }
+
+    private void submit(ChannelHandlerContext ctx, Runnable task) {
+        tasks.add(task);
+        schedule(ctx);
+    }
+
+    private void schedule(ChannelHandlerContext ctx) {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                messageExecutor.execute(() -> drain(ctx));
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                if (messageExecutor.isShutdown()) {
+                    log.warn("Message executor is shut down, dropping the tasks of channel {}", ctx.channel().remoteAddress());
+                    return;
+                }
+                // Saturated: no more frames from this channel until the executor takes its tasks
+                ctx.channel().config().setAutoRead(false);
+                ctx.channel().eventLoop().schedule(() -> schedule(ctx), SATURATED_RETRY_DELAY, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (!ctx.channel().config().isAutoRead()) {
+                ctx.channel().config().setAutoRead(true);
+            }
+        }
+    }
+
+    private void drain(ChannelHandlerContext ctx) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Error on channel {}, closing it", ctx.channel().remoteAddress(), e);
+                ctx.close();
+            }
+        }
+        draining.set(false);
+        // A task added between the last poll and the reset would wait for the next message otherwise
+        if (!tasks.isEmpty()) {
+            schedule(ctx);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ea.config;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import static com.ea.steps.FrameAccumulator.HEADER_LENGTH;
+
+/**
+ * Splits the inbound stream into complete Aries messages
+ * Header is 12 bytes : id (4 bytes), flags (4 bytes), total length including header (4 bytes, big-endian)
+ * Messages are retained slices of the (pooled) cumulation buffer, they must be released once processed
+ */
+@RequiredArgsConstructor
+public class AriesFrameDecoder extends ByteToMessageDecoder {
+
+    private final int maxFrameSize;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while (in.readableBytes() >= HEADER_LENGTH) {
+            int messageSize = in.getInt(in.readerIndex() + 8);
+            if (messageSize < HEADER_LENGTH || messageSize > maxFrameSize) {
+                in.skipBytes(in.readableBytes());
+                throw new CorruptedFrameException("Invalid message length: " + messageSize);
+            }
+            if (in.readableBytes() < messageSize) {
+                return;
+            }
+            out.add(in.readRetainedSlice(messageSize));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ea.config;
+
+import com.ea.dto.ClientSocket;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.List;
+
+/**
+ * Client connection on a blocking socket, plain or SSL
+ * The socket thread reads from the input stream, the messages of a write are gathered in a single socket write
+ */
+public class BlockingSocket implements ClientSocket {
+
+    private final Socket socket;
+    private byte[] staging = new byte[4096];
+
+    public BlockingSocket(Socket socket) {
+        this.socket = socket;
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return socket.getInputStream();
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return socket.getRemoteSocketAddress();
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+        return socket.getInetAddress();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void write(List<byte[]> messages) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        if (messages.size() == 1) {
+            outputStream.write(messages.getFirst());
+        } else {
+            int length = 0;
+            for (byte[] message : messages) {
+                length += message.length;
+            }
+            if (length > staging.length) {
+                staging = new byte[Math.max(staging.length * 2, length)];
+            }
+            int offset = 0;
+            for (byte[] message : messages) {
+                System.arraycopy(message, 0, staging, offset, message.length);
+                offset += message.length;
+            }
+            outputStream.write(staging, 0, length);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Blocking writes wait for the client instead, under the write timeout of SocketWriter
+     */
+    @Override
+    public boolean isWritable() {
+        return true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed() || !socket.isConnected() || socket.isOutputShutdown();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingSocket" + socket;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ea.config;
+
+import com.ea.dto.ClientSocket;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+
+/**
+ * Client connection on a Netty channel
+ * Inbound data is never read from here, it is pushed by the channel pipeline
+ * The messages are wrapped without copy, the transport copies them once into its direct buffers
+ */
+public class ChannelSocket implements ClientSocket {
+
+    private final Channel nettyChannel;
+
+    public ChannelSocket(Channel channel) {
+        this.nettyChannel = channel;
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return nettyChannel.remoteAddress();
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+        return nettyChannel.remoteAddress() instanceof InetSocketAddress address ? address.getAddress() : null;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return nettyChannel.localAddress() instanceof InetSocketAddress address ? address.getPort() : -1;
+    }
+
+    @Override
+    public void write(List<byte[]> messages) throws IOException {
+        if (!nettyChannel.isActive()) {
+            throw new IOException("Channel is closed");
+        }
+        for (byte[] message : messages) {
+            nettyChannel.write(Unpooled.wrappedBuffer(message), nettyChannel.voidPromise());
+        }
+        nettyChannel.flush();
+    }
+
+    /**
+     * False above the high water mark of the channel, until it goes back below the low water mark
+     */
+    @Override
+    public boolean isWritable() {
+        return nettyChannel.isWritable();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !nettyChannel.isActive();
+    }
+
+    @Override
+    public void close() {
+        nettyChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelSocket" + nettyChannel;
+    }
+}
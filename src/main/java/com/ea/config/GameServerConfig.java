@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Component
@@ -29,6 +30,10 @@ public class GameServerConfig {
         private String vers;
         private String slus;
         private int port;
+        /**
+         * GPS addresses by region name, for the 'region' GPS allocation policy
+         */
+        private Map<String, List<String>> regions;
     }
 
     @Data
@@ -1,10 +1,11 @@
 package com.ea.config;
 
 import com.ea.steps.SocketReader;
+import com.ea.steps.SocketWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.net.ssl.SSLSocket;
+import java.io.IOException;
 
 /**
  * Thread to handle a unique SSL socket
@@ -13,14 +14,21 @@ import javax.net.ssl.SSLSocket;
 @RequiredArgsConstructor
 public class SslSocketThread implements Runnable {
 
-    private final SSLSocket clientSocket;
+    private final BlockingSocket clientSocket;
     private final SocketReader socketReader;
+    private final SocketWriter socketWriter;
 
     public void run() {
         log.info("SSL client session started: {}", clientSocket.getRemoteSocketAddress().toString());
         try {
             socketReader.read(clientSocket);
         } finally {
+            socketWriter.release(clientSocket);
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                log.warn("Error closing SSL socket {}: {}", clientSocket.getRemoteSocketAddress(), e.getMessage());
+            }
             log.info("SSL client session ended: {}", clientSocket.getRemoteSocketAddress().toString());
         }
     }
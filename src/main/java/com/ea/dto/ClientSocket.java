@@ -0,0 +1,47 @@
+package com.ea.dto;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.util.List;
+
+/**
+ * Connection of a client, whatever the transport it comes from (blocking socket or Netty channel)
+ * Inbound data is read by the transport, the services only identify the client and write to it
+ */
+public interface ClientSocket {
+
+    /**
+     * @return the address of the client, which also identifies the connection
+     */
+    SocketAddress getRemoteSocketAddress();
+
+    /**
+     * @return the IP address of the client, null if unknown
+     */
+    InetAddress getInetAddress();
+
+    /**
+     * @return the server port the client connected to, -1 if unknown
+     */
+    int getLocalPort();
+
+    /**
+     * Writes messages to the client, in order
+     * Called by one thread at a time, the messages are never modified afterwards so they may be shared by several connections
+     * Blocking sockets return once the bytes are written, Netty channels once they are queued to the event loop
+     *
+     * @param messages the encoded messages
+     * @throws IOException if the connection is closed
+     */
+    void write(List<byte[]> messages) throws IOException;
+
+    /**
+     * @return false while the transport holds more unsent bytes than it should, the outbound queue waits for them to drain
+     */
+    boolean isWritable();
+
+    boolean isClosed();
+
+    void close() throws IOException;
+}
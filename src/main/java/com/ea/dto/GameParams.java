@@ -0,0 +1,111 @@
+package com.ea.dto;
+
+import com.ea.entities.core.GameEntity;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.ea.dto.GameParams.Attribute.*;
+import static com.ea.services.server.GameServerService.*;
+
+/**
+ * Game search attributes of a game, decoded once from its PARAMS when it's created or changed
+ * The position of the attributes in PARAMS depends on the title, titles without search criteria have no attributes
+ *
+ * @param layout     the PARAMS layout of the title
+ * @param map        the map, -1 when unknown
+ * @param attributes the raw values of the attributes the layout has
+ * @param ranked     whether the game is ranked
+ * @param password   whether the game is protected by a password
+ * @param name       the game name, unquoted and in lower case
+ */
+public record GameParams(Layout layout, int map, Map<Attribute, String> attributes, boolean ranked, boolean password,
+                         String name) {
+
+    /**
+     * Attributes matched on their value, named after the gsea field
+     */
+    public enum Attribute {
+        MODE(false),
+        FF(true), // Friendly fire
+        AIM(true), // Aim assist
+        CTRL(true), // Elite or Wii Zapper
+        TB(true), // Team balance
+        AK(true), // Auto-kick
+        SMG(true),
+        HMG(true),
+        RIF(true),
+        SNIP(true),
+        SHOTG(true),
+        BAZ(true),
+        GREN(true);
+
+        /**
+         * Whether a searched 0 also matches an empty value (option off)
+         */
+        public final boolean emptyIsZero;
+
+        Attribute(boolean emptyIsZero) {
+            this.emptyIsZero = emptyIsZero;
+        }
+    }
+
+    public enum Layout {
+        MOHH(8, Map.of(MODE, 0, FF, 2, AIM, 3)),
+        MOHH2_PSP(17, Map.ofEntries(Map.entry(MODE, 0), Map.entry(FF, 2), Map.entry(AIM, 3), Map.entry(TB, 4), Map.entry(AK, 9),
+                Map.entry(SMG, 10), Map.entry(HMG, 11), Map.entry(RIF, 12), Map.entry(SNIP, 13), Map.entry(SHOTG, 14),
+                Map.entry(BAZ, 15), Map.entry(GREN, 16))),
+        MOHH2_WII(17, Map.ofEntries(Map.entry(MODE, 0), Map.entry(FF, 2), Map.entry(TB, 3), Map.entry(AK, 8), Map.entry(CTRL, 9),
+                Map.entry(SMG, 10), Map.entry(HMG, 11), Map.entry(RIF, 12), Map.entry(SNIP, 13), Map.entry(SHOTG, 14),
+                Map.entry(BAZ, 15), Map.entry(GREN, 16))),
+        NONE(-1, Map.of());
+
+        private static final int MAP_POSITION = 1;
+
+        private final int rankedPosition;
+        private final Map<Attribute, Integer> positions;
+
+        Layout(int rankedPosition, Map<Attribute, Integer> positions) {
+            this.rankedPosition = rankedPosition;
+            this.positions = positions;
+        }
+
+        /**
+         * @return the layout of a title, dedicated servers share the layout of their title
+         */
+        public static Layout of(String vers) {
+            return switch (vers) {
+                case PSP_MOH_07, PSP_MOH_07_UHS -> MOHH;
+                case PSP_MOH_08 -> MOHH2_PSP;
+                case WII_MOH_08 -> MOHH2_WII;
+                default -> NONE;
+            };
+        }
+    }
+
+    public static GameParams of(GameEntity gameEntity) {
+        Layout layout = Layout.of(gameEntity.getVers());
+        String name = gameEntity.getName() != null ? gameEntity.getName().replace("\"", "").toLowerCase() : "";
+        boolean password = gameEntity.getPass() != null;
+        if (layout == Layout.NONE || gameEntity.getParams() == null) {
+            return new GameParams(layout, -1, Map.of(), false, password, name);
+        }
+
+        // Keep the trailing empty values, options are often left empty at the end
+        String[] params = gameEntity.getParams().split(",", -1);
+        Map<Attribute, String> attributes = new EnumMap<>(Attribute.class);
+        layout.positions.forEach((attribute, position) -> attributes.put(attribute, param(params, position)));
+        int map;
+        try {
+            map = Integer.parseInt(param(params, Layout.MAP_POSITION), 16); // The map is in hex
+        } catch (NumberFormatException e) {
+            map = -1;
+        }
+        return new GameParams(layout, map, attributes, StringUtils.isNotEmpty(param(params, layout.rankedPosition)), password, name);
+    }
+
+    private static String param(String[] params, int position) {
+        return position < params.length ? params[position] : "";
+    }
+}
@@ -0,0 +1,248 @@
+package com.ea.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.ea.utils.SocketUtils.*;
+
+/**
+ * Key/value view over the raw body of an inbound message
+ * The body is tokenized once per separator (lazily, most messages only use one), entries are stored as offsets,
+ * so a lookup is a hash probe and a value is only decoded to a String when it is asked for
+ * Lookup rules are the same as SocketUtils.getValueFromSocket : entries are trimmed, the first occurrence of a key wins,
+ * and the value stops at the next '=' if any
+ */
+public class MessageFields {
+
+    private static final int NEWLINE = 0;
+    private static final int TAB = 1;
+    private static final int SPACE = 2;
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final Index[] indexes = new Index[3];
+
+    /**
+     * @param data   the buffer holding the message body, must not be modified afterwards
+     * @param offset the beginning of the body in the buffer
+     * @param length the size of the body
+     */
+    public MessageFields(byte[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static MessageFields of(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        return new MessageFields(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Get the value of a key, entries being separated by line breaks
+     *
+     * @param key the key to look for
+     * @return the value, or null if the key is absent or has no value
+     */
+    public String get(String key) {
+        return get(key, RETURN_CHAR);
+    }
+
+    /**
+     * Get the value of a key
+     *
+     * @param key       the key to look for
+     * @param separator the entry separator (RETURN_CHAR, NEWLINE_CHAR, TAB_CHAR or SPACE_CHAR)
+     * @return the value, or null if the key is absent or has no value
+     */
+    public String get(String key, String separator) {
+        Index index = index(mode(separator));
+        int entry = index.find(key);
+        if (entry < 0 || index.valueStart[entry] < 0) {
+            return null;
+        }
+        return new String(data, index.valueStart[entry], index.valueEnd[entry] - index.valueStart[entry], StandardCharsets.UTF_8);
+    }
+
+    public boolean contains(String key, String separator) {
+        return index(mode(separator)).find(key) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static int mode(String separator) {
+        return switch (separator) {
+            case RETURN_CHAR, NEWLINE_CHAR -> NEWLINE;
+            case TAB_CHAR -> TAB;
+            case SPACE_CHAR -> SPACE;
+            default -> throw new IllegalArgumentException("Unsupported separator: " + separator);
+        };
+    }
+
+    private Index index(int mode) {
+        Index index = indexes[mode];
+        if (index == null) {
+            index = new Index(mode);
+            indexes[mode] = index;
+        }
+        return index;
+    }
+
+    private static boolean isSeparator(int b, int mode) {
+        return switch (mode) {
+            case NEWLINE -> b == '\n' || b == '\r' || b == 0x0B || b == 0x0C;
+            case TAB -> b == '\t';
+            default -> b == ' ';
+        };
+    }
+
+    /**
+     * Offsets of the entries for one separator, plus an open-addressing table keyed on the key hash
+     */
+    private class Index {
+        private int size;
+        private int[] keyStart = new int[16];
+        private int[] keyEnd = new int[16];
+        private int[] valueStart = new int[16];
+        private int[] valueEnd = new int[16];
+        private final int[] table;
+
+        private Index(int mode) {
+            int end = offset + length;
+            int entryStart = offset;
+            for (int i = offset; i <= end; i++) {
+                if (i == end || isSeparator(data[i], mode)) {
+                    addEntry(entryStart, i);
+                    entryStart = i + 1;
+                }
+            }
+
+            int capacity = Integer.highestOneBit(Math.max(size, 4) * 2) * 2;
+            table = new int[capacity];
+            for (int entry = 0; entry < size; entry++) {
+                int slot = spread(hash(data, keyStart[entry], keyEnd[entry])) & (capacity - 1);
+                boolean duplicate = false;
+                while (table[slot] != 0) {
+                    int other = table[slot] - 1;
+                    if (sameKey(other, entry)) {
+                        duplicate = true;
+                        break;
+                    }
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                if (!duplicate) {
+                    table[slot] = entry + 1;
+                }
+            }
+        }
+
+        private void addEntry(int start, int end) {
+            // Same as String.trim()
+            while (start < end && (data[start] & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (data[end - 1] & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return;
+            }
+            if (size == keyStart.length) {
+                int newLength = size * 2;
+                keyStart = Arrays.copyOf(keyStart, newLength);
+                keyEnd = Arrays.copyOf(keyEnd, newLength);
+                valueStart = Arrays.copyOf(valueStart, newLength);
+                valueEnd = Arrays.copyOf(valueEnd, newLength);
+            }
+
+            int equals = indexOf('=', start, end);
+            keyStart[size] = start;
+            keyEnd[size] = equals < 0 ? end : equals;
+            valueStart[size] = -1;
+            valueEnd[size] = -1;
+            if (equals >= 0) {
+                int nextEquals = indexOf('=', equals + 1, end);
+                int stop = nextEquals < 0 ? end : nextEquals;
+                // Same as String.split("=") which drops trailing empty parts
+                if (stop > equals + 1 || (nextEquals >= 0 && hasContent(nextEquals + 1, end))) {
+                    valueStart[size] = equals + 1;
+                    valueEnd[size] = stop;
+                }
+            }
+            size++;
+        }
+
+        private int find(String key) {
+            // Keys are ASCII, so String.hashCode() matches the hash of the raw bytes
+            int slot = spread(key.hashCode()) & (table.length - 1);
+            while (table[slot] != 0) {
+                int entry = table[slot] - 1;
+                if (keyEquals(entry, key)) {
+                    return entry;
+                }
+                slot = (slot + 1) & (table.length - 1);
+            }
+            return -1;
+        }
+
+        private boolean keyEquals(int entry, String key) {
+            int start = keyStart[entry];
+            if (keyEnd[entry] - start != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if ((data[start + i] & 0xFF) != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean sameKey(int entry, int other) {
+            int keyLength = keyEnd[entry] - keyStart[entry];
+            if (keyEnd[other] - keyStart[other] != keyLength) {
+                return false;
+            }
+            for (int i = 0; i < keyLength; i++) {
+                if (data[keyStart[entry] + i] != data[keyStart[other] + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasContent(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] != '=') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(byte[] data, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + (data[i] & 0xFF);
+        }
+        return hash;
+    }
+}
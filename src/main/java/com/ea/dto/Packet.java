@@ -0,0 +1,15 @@
+package com.ea.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Encoded outbound message, ready to be queued to one or several connections
+ * The frame is shared, it must not be modified once built
+ */
+@Getter
+@RequiredArgsConstructor
+public class Packet {
+    private final String idMessage;
+    private final byte[] frame;
+}
@@ -1,18 +1,77 @@
 package com.ea.dto;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.Map;
 
+import static com.ea.utils.SocketUtils.RETURN_CHAR;
+
 @Getter
 @Setter
-@AllArgsConstructor
 public class SocketData {
 
     private String idMessage;
     private String inputMessage;
     private Map<String, String> outputData;
+    private MessageFields fields;
+
+    public SocketData(String idMessage, String inputMessage, Map<String, String> outputData) {
+        this.idMessage = idMessage;
+        this.inputMessage = inputMessage;
+        this.outputData = outputData;
+    }
+
+    /**
+     * Inbound message, the content is only decoded if needed
+     *
+     * @param idMessage the message id
+     * @param fields    the key/value view over the message body
+     */
+    public SocketData(String idMessage, MessageFields fields) {
+        this.idMessage = idMessage;
+        this.fields = fields;
+    }
+
+    public String getInputMessage() {
+        if (inputMessage == null && fields != null) {
+            inputMessage = fields.toString();
+        }
+        return inputMessage;
+    }
+
+    public void setInputMessage(String inputMessage) {
+        this.inputMessage = inputMessage;
+        this.fields = null;
+    }
+
+    public MessageFields getFields() {
+        if (fields == null && inputMessage != null) {
+            fields = MessageFields.of(inputMessage);
+        }
+        return fields;
+    }
+
+    /**
+     * Get the value from a key in the input message, entries being separated by line breaks
+     *
+     * @param key the key to look for
+     * @return the value, or null if not found
+     */
+    public String getValue(String key) {
+        return getValue(key, RETURN_CHAR);
+    }
+
+    /**
+     * Get the value from a key in the input message
+     *
+     * @param key       the key to look for
+     * @param separator the entry separator
+     * @return the value, or null if not found
+     */
+    public String getValue(String key, String separator) {
+        MessageFields messageFields = getFields();
+        return messageFields != null ? messageFields.get(key, separator) : null;
+    }
 
 }
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Set;
 
 @Getter
@@ -25,6 +26,13 @@ public class AccountEntity {
 
     private String mail;
 
+    /**
+     * The name and mail lower-cased, indexed to find accounts whatever the case
+     */
+    private String nameLower;
+
+    private String mailLower;
+
     private String loc;
 
     private String born;
@@ -57,8 +65,15 @@ public class AccountEntity {
 
     private boolean isBanned;
 
-    @OneToMany(mappedBy = "account", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "account", fetch = FetchType.LAZY)
     @OrderBy("id DESC")
     private Set<PersonaEntity> personas;
 
+    @PrePersist
+    @PreUpdate
+    private void computeLowerCase() {
+        nameLower = name != null ? name.toLowerCase(Locale.ROOT) : null;
+        mailLower = mail != null ? mail.toLowerCase(Locale.ROOT) : null;
+    }
+
 }
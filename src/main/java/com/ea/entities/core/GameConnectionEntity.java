@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class GameConnectionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_connection_seq")
+    @SequenceGenerator(name = "game_connection_seq", schema = "core", sequenceName = "GAME_CONNECTION_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne
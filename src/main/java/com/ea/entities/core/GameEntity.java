@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
 
 @Getter
@@ -16,7 +17,8 @@ import java.util.Set;
 public class GameEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_seq")
+    @SequenceGenerator(name = "game_seq", schema = "core", sequenceName = "GAME_SEQ", allocationSize = 50)
     private Long id;
 
     private Long originalId;
@@ -41,11 +43,24 @@ public class GameEntity {
 
     private LocalDateTime endTime;
 
+    /**
+     * The start time to the second, as sent back in the WHEN of 'rank' reports, indexed to find the game reported
+     */
+    private LocalDateTime matchKey;
+
     private boolean isStarted;
 
     private Integer roomId;
 
-    @OneToMany(mappedBy = "game", fetch = FetchType.EAGER)
+    /**
+     * Lazy, only the live games of the GameRegistry keep their connections
+     */
+    @OneToMany(mappedBy = "game", fetch = FetchType.LAZY)
     private Set<GameConnectionEntity> gameConnections;
 
+    @PrePersist
+    private void computeMatchKey() {
+        matchKey = startTime.truncatedTo(ChronoUnit.SECONDS);
+    }
+
 }
@@ -16,7 +16,8 @@ import java.util.Set;
 public class PersonaConnectionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persona_connection_seq")
+    @SequenceGenerator(name = "persona_connection_seq", schema = "core", sequenceName = "PERSONA_CONNECTION_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Set;
 
 @Getter
@@ -29,6 +30,11 @@ public class PersonaEntity {
 
     private String pers;
 
+    /**
+     * The name lower-cased, indexed to find personas whatever the case
+     */
+    private String persLower;
+
     private int rp;
 
     private LocalDateTime createdOn;
@@ -59,4 +65,10 @@ public class PersonaEntity {
     @OneToMany(mappedBy = "toPersona", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<FeedbackEntity> feedbackReceived;
 
+    @PrePersist
+    @PreUpdate
+    private void computePersLower() {
+        persLower = pers != null ? pers.toLowerCase(Locale.ROOT) : null;
+    }
+
 }
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class MessageEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", schema = "social", sequenceName = "MESSAGE_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne
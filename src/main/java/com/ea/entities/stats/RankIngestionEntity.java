@@ -0,0 +1,26 @@
+package com.ea.entities.stats;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single row holding the sequence of the last rank report applied, updated in the transaction applying the reports
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "RANK_INGESTION", schema = "stats")
+public class RankIngestionEntity {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "LAST_SEQUENCE")
+    private long lastSequence;
+
+}
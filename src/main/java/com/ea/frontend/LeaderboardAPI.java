@@ -2,7 +2,8 @@ package com.ea.frontend;
 
 import com.ea.entities.stats.MohhPersonaStatsEntity;
 import com.ea.enums.MohhMap;
-import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import com.ea.mappers.StatsMapper;
+import com.ea.services.stats.LeaderboardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +15,9 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.ea.mappers.StatsMapper.MOHH_MAP_COUNT;
 import static com.ea.services.server.GameServerService.PSP_MOH_07;
+import static com.ea.services.stats.LeaderboardService.Category.MOHH_KILL_DEATH;
 
 @Slf4j
 @RestController
@@ -25,16 +28,20 @@ public class LeaderboardAPI {
     private final API api;
 
     @Autowired
-    private final MohhPersonaStatsRepository mohhPersonaStatsRepository;
+    private final LeaderboardService leaderboardService;
+
+    @Autowired
+    private final StatsMapper statsMapper;
 
     @GetMapping("/api/leaderboard")
     public ResponseEntity<List<DTO.LeaderboardPlayerDTO>> getLeaderboardPlayers(
             @RequestParam(defaultValue = PSP_MOH_07) String vers,
             @RequestParam(defaultValue = "0") int offset,
             @RequestParam(defaultValue = "100") int limit) {
-        List<MohhPersonaStatsEntity> allPlayers = mohhPersonaStatsRepository.getLeaderboardByVers(vers, limit, offset);
+        List<MohhPersonaStatsEntity> allPlayers = leaderboardService.getMohhLeaderboard(MOHH_KILL_DEATH, vers, limit, offset);
         List<DTO.LeaderboardPlayerDTO> leaderboardPlayers = new ArrayList<>();
 
+        int rank = offset;
         for (MohhPersonaStatsEntity player : allPlayers) {
             // Calculate accuracy
             double accuracy = player.getShot() > 0 ?
@@ -51,7 +58,7 @@ public class LeaderboardAPI {
 
             DTO.LeaderboardPlayerDTO dto = new DTO.LeaderboardPlayerDTO(
                     player.getPersona().getPers().replaceAll("\"", ""),
-                    mohhPersonaStatsRepository.getRankByPersonaIdAndVers(player.getPersona().getId(), player.getVers()).intValue(),
+                    ++rank,
                     player.getKill(),
                     player.getDeath(),
                     player.getHead(),
@@ -82,16 +89,12 @@ public class LeaderboardAPI {
         int maxPlays = 0;
         int mostPlayedMap = 1;
 
-        for (int i = 1; i <= 28; i++) {
-            try {
-                int plays = (int) player.getClass().getMethod("getMap" + i).invoke(player);
-                if (plays > maxPlays) {
-                    maxPlays = plays;
-                    mostPlayedMap = i;
-                    return MohhMap.getMapNameByCode(mostPlayedMap);
-                }
-            } catch (Exception e) {
-                log.info("Could not find map " + i + "\n" + e.getMessage());
+        for (int i = 1; i <= MOHH_MAP_COUNT; i++) {
+            int plays = statsMapper.getMapPlays(player, i);
+            if (plays > maxPlays) {
+                maxPlays = plays;
+                mostPlayedMap = i;
+                return MohhMap.getMapNameByCode(mostPlayedMap);
             }
         }
         return "Unknown";
@@ -0,0 +1,81 @@
+package com.ea.mappers;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The int properties of an entity, read and written through its getters and setters,
+ * bound once with LambdaMetafactory so an access costs a plain method call instead of a reflective one
+ * Properties are named like their fields, in declaration order
+ *
+ * @param <T> the entity type
+ */
+public final class IntProperties<T> {
+
+    private final List<Property<T>> properties;
+    private final Map<String, Property<T>> propertiesByName = new HashMap<>();
+
+    private IntProperties(List<Property<T>> properties) {
+        this.properties = properties;
+        properties.forEach(property -> propertiesByName.put(property.name(), property));
+    }
+
+    /**
+     * @param name   the field name
+     * @param getter reads the value
+     * @param setter writes the value
+     */
+    public record Property<T>(String name, ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+    }
+
+    /**
+     * Binds the accessors of the int fields of a class, which must have a getter and a setter
+     */
+    public static <T> IntProperties<T> of(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Property<T>> properties = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getType() != int.class || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            try {
+                MethodHandle getter = lookup.findVirtual(type, "get" + suffix, MethodType.methodType(int.class));
+                MethodHandle setter = lookup.findVirtual(type, "set" + suffix, MethodType.methodType(void.class, int.class));
+                properties.add(new Property<>(field.getName(), getter(lookup, getter), setter(lookup, setter)));
+            } catch (Throwable e) {
+                throw new IllegalStateException("No accessors for " + type.getSimpleName() + "." + field.getName(), e);
+            }
+        }
+        return new IntProperties<>(List.copyOf(properties));
+    }
+
+    public List<Property<T>> all() {
+        return properties;
+    }
+
+    /**
+     * @return the property of a field, null if the field isn't an int property
+     */
+    public Property<T> get(String name) {
+        return propertiesByName.get(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ToIntFunction<T> getter(MethodHandles.Lookup lookup, MethodHandle getter) throws Throwable {
+        return (ToIntFunction<T>) LambdaMetafactory.metafactory(lookup, "applyAsInt",
+                MethodType.methodType(ToIntFunction.class), MethodType.methodType(int.class, Object.class),
+                getter, getter.type()).getTarget().invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjIntConsumer<T> setter(MethodHandles.Lookup lookup, MethodHandle setter) throws Throwable {
+        return (ObjIntConsumer<T>) LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(ObjIntConsumer.class), MethodType.methodType(void.class, Object.class, int.class),
+                setter, setter.type()).getTarget().invoke();
+    }
+}
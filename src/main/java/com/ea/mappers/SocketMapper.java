@@ -1,16 +1,18 @@
 package com.ea.mappers;
 
+import com.ea.dto.SocketData;
 import com.ea.entities.core.AccountEntity;
 import com.ea.entities.core.GameEntity;
 import com.ea.entities.stats.MohhGameReportEntity;
 import com.ea.utils.PasswordUtils;
-import com.ea.utils.SocketUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.ToIntFunction;
 
 import static com.ea.utils.SocketUtils.RETURN_CHAR;
 import static com.ea.utils.SocketUtils.TAB_CHAR;
@@ -19,21 +21,32 @@ import static com.ea.utils.SocketUtils.TAB_CHAR;
 @Component
 public class SocketMapper {
 
+    private static final IntProperties<MohhGameReportEntity> GAME_REPORT_PROPERTIES = IntProperties.of(MohhGameReportEntity.class);
+    /**
+     * Keys of the report properties in 'rank' packets, in the order of GAME_REPORT_PROPERTIES
+     */
+    private static final String[] GAME_REPORT_KEYS = GAME_REPORT_PROPERTIES.all().stream()
+            .map(property -> property.name().toUpperCase())
+            .toArray(String[]::new);
+    private static final List<ToIntFunction<MohhGameReportEntity>> WEAPON_HITS = weaponGetters("Hit");
+    private static final List<ToIntFunction<MohhGameReportEntity>> WEAPON_SHOTS = weaponGetters("Shot");
+    private static final List<ToIntFunction<MohhGameReportEntity>> WEAPON_HEADS = weaponGetters("Head");
+
     @Autowired
     private PasswordUtils passwordUtils;
 
-    public GameEntity toGameEntity(String socket, String vers, String slus) {
+    public GameEntity toGameEntity(SocketData socketData, String vers, String slus) {
         GameEntity gameEntity = new GameEntity();
         gameEntity.setVers(vers);
         gameEntity.setSlus(slus);
-        setFieldsFromSocket(gameEntity, socket, RETURN_CHAR);
+        setFieldsFromSocket(gameEntity, socketData, RETURN_CHAR);
 
         // gpsc packets comes without a room, it doesn't matter as this entity is not saved to the database,
         // we redirect the gpsc packet to the host which uses gcre with a room this time that is saved to the database
         Integer roomId = 0;
 
         // The game sends "ROOM" but the entity uses "roomId" for naming convention, so we handle it manually
-        String roomIdStr = SocketUtils.getValueFromSocket(socket, "ROOM", RETURN_CHAR);
+        String roomIdStr = socketData.getValue("ROOM", RETURN_CHAR);
         if (roomIdStr != null && !roomIdStr.isEmpty()) {
             try {
                 roomId = Integer.parseInt(roomIdStr);
@@ -46,25 +59,38 @@ public class SocketMapper {
         return gameEntity;
     }
 
-    public AccountEntity toAccountEntity(String socket) {
+    public AccountEntity toAccountEntity(SocketData socketData) {
         AccountEntity accountEntity = new AccountEntity();
-        setFieldsFromSocket(accountEntity, socket, RETURN_CHAR);
+        setFieldsFromSocket(accountEntity, socketData, RETURN_CHAR);
         accountEntity.setPass(passwordUtils.bCryptEncode(passwordUtils.ssc2Decode(accountEntity.getPass())));
         accountEntity.setCreatedOn(LocalDateTime.now());
         return accountEntity;
     }
 
-    public MohhGameReportEntity toMohhGameReportEntity(MohhGameReportEntity mohhGameReportEntity, String socket) {
-        setFieldsFromSocket(mohhGameReportEntity, socket, TAB_CHAR);
+    /**
+     * Maps a 'rank' packet to a game report, through bound accessors as it's done for each player of each ranked game
+     */
+    public MohhGameReportEntity toMohhGameReportEntity(MohhGameReportEntity mohhGameReportEntity, SocketData socketData) {
+        List<IntProperties.Property<MohhGameReportEntity>> properties = GAME_REPORT_PROPERTIES.all();
+        for (int i = 0; i < properties.size(); i++) {
+            String value = socketData.getValue(GAME_REPORT_KEYS[i], TAB_CHAR);
+            if (value != null) {
+                properties.get(i).setter().accept(mohhGameReportEntity, Integer.parseInt(value));
+            }
+        }
+        String auth = socketData.getValue("AUTH", TAB_CHAR);
+        if (auth != null) {
+            mohhGameReportEntity.setAuth(auth);
+        }
         aggregateMohhGameReportFields(mohhGameReportEntity);
         return mohhGameReportEntity;
     }
 
-    private void setFieldsFromSocket(Object entity, String socket, String splitter) {
+    private void setFieldsFromSocket(Object entity, SocketData socketData, String splitter) {
         Field[] fields = entity.getClass().getDeclaredFields();
         for (Field field : fields) {
             field.setAccessible(true);
-            String value = SocketUtils.getValueFromSocket(socket, field.getName().toUpperCase(), splitter);
+            String value = socketData.getValue(field.getName().toUpperCase(), splitter);
             if (value != null) {
                 try {
                     if (field.getType().equals(int.class) || field.getType().equals(Integer.class)) {
@@ -81,32 +107,27 @@ public class SocketMapper {
         }
     }
 
+    /**
+     * The totals of a report are the sums of the weapon counters (coltHit, tomHit, ...)
+     */
     private void aggregateMohhGameReportFields(MohhGameReportEntity mohhGameReportEntity) {
-        int totalHit = 0;
-        int totalShot = 0;
-        int totalHead = 0;
+        mohhGameReportEntity.setShot(sum(WEAPON_SHOTS, mohhGameReportEntity));
+        mohhGameReportEntity.setHit(sum(WEAPON_HITS, mohhGameReportEntity));
+        mohhGameReportEntity.setHead(sum(WEAPON_HEADS, mohhGameReportEntity));
+    }
 
-        Field[] fields = mohhGameReportEntity.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            field.setAccessible(true);
-            try {
-                if (field.getType().equals(int.class) || field.getType().equals(Integer.class)) {
-                    int value = (int) field.get(mohhGameReportEntity);
-                    if (field.getName().endsWith("Hit")) {
-                        totalHit += value;
-                    } else if (field.getName().endsWith("Shot")) {
-                        totalShot += value;
-                    } else if (field.getName().endsWith("Head")) {
-                        totalHead += value;
-                    }
-                }
-            } catch (IllegalAccessException e) {
-                log.error("Error while aggregating game report fields", e);
-            }
+    private static int sum(List<ToIntFunction<MohhGameReportEntity>> getters, MohhGameReportEntity mohhGameReportEntity) {
+        int total = 0;
+        for (ToIntFunction<MohhGameReportEntity> getter : getters) {
+            total += getter.applyAsInt(mohhGameReportEntity);
         }
+        return total;
+    }
 
-        mohhGameReportEntity.setShot(totalShot);
-        mohhGameReportEntity.setHit(totalHit);
-        mohhGameReportEntity.setHead(totalHead);
+    private static List<ToIntFunction<MohhGameReportEntity>> weaponGetters(String counter) {
+        return GAME_REPORT_PROPERTIES.all().stream()
+                .filter(property -> property.name().endsWith(counter))
+                .map(IntProperties.Property::getter)
+                .toList();
     }
 }
\ No newline at end of file
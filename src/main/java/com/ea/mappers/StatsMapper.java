@@ -0,0 +1,72 @@
+package com.ea.mappers;
+
+import com.ea.entities.stats.MohhGameReportEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Merges game reports into persona stats, through accessors bound once instead of reflection on each report
+ */
+@Component
+public class StatsMapper {
+
+    public static final int MOHH_MAP_COUNT = 28;
+
+    private static final IntProperties<MohhPersonaStatsEntity> PERSONA_STATS_PROPERTIES = IntProperties.of(MohhPersonaStatsEntity.class);
+    private static final List<Counter> GAME_REPORT_COUNTERS = gameReportCounters();
+    private static final List<ToIntFunction<MohhPersonaStatsEntity>> MAP_PLAYS = mapPlays();
+
+    /**
+     * A counter of the persona stats, and the same counter in the game report
+     */
+    private record Counter(ToIntFunction<MohhGameReportEntity> reportGetter,
+                           ToIntFunction<MohhPersonaStatsEntity> statsGetter,
+                           ObjIntConsumer<MohhPersonaStatsEntity> statsSetter) {
+    }
+
+    /**
+     * Adds the counters of a game report to the persona stats
+     *
+     * @param mohhPersonaStatsEntity The PersonaStats entity to update
+     * @param mohhGameReportEntity   The GameReport entity containing new stats
+     */
+    public void addGameReport(MohhPersonaStatsEntity mohhPersonaStatsEntity, MohhGameReportEntity mohhGameReportEntity) {
+        for (Counter counter : GAME_REPORT_COUNTERS) {
+            counter.statsSetter().accept(mohhPersonaStatsEntity,
+                    counter.statsGetter().applyAsInt(mohhPersonaStatsEntity) + counter.reportGetter().applyAsInt(mohhGameReportEntity));
+        }
+    }
+
+    /**
+     * @param map the map number, from 1 to MOHH_MAP_COUNT
+     * @return the number of games played on the map
+     */
+    public int getMapPlays(MohhPersonaStatsEntity mohhPersonaStatsEntity, int map) {
+        return MAP_PLAYS.get(map - 1).applyAsInt(mohhPersonaStatsEntity);
+    }
+
+    private static List<Counter> gameReportCounters() {
+        IntProperties<MohhGameReportEntity> gameReportProperties = IntProperties.of(MohhGameReportEntity.class);
+        List<Counter> counters = new ArrayList<>();
+        for (IntProperties.Property<MohhPersonaStatsEntity> statsProperty : PERSONA_STATS_PROPERTIES.all()) {
+            IntProperties.Property<MohhGameReportEntity> reportProperty = gameReportProperties.get(statsProperty.name());
+            if (reportProperty != null) {
+                counters.add(new Counter(reportProperty.getter(), statsProperty.getter(), statsProperty.setter()));
+            }
+        }
+        return List.copyOf(counters);
+    }
+
+    private static List<ToIntFunction<MohhPersonaStatsEntity>> mapPlays() {
+        List<ToIntFunction<MohhPersonaStatsEntity>> mapPlays = new ArrayList<>();
+        for (int i = 1; i <= MOHH_MAP_COUNT; i++) {
+            mapPlays.add(PERSONA_STATS_PROPERTIES.get("map" + i).getter());
+        }
+        return List.copyOf(mapPlays);
+    }
+}
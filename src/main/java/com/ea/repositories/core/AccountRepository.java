@@ -1,21 +1,43 @@
 package com.ea.repositories.core;
 
 import com.ea.entities.core.AccountEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<AccountEntity, Long> {
 
-    @Query("SELECT a FROM AccountEntity a WHERE LOWER(a.name) = LOWER(:name)")
-    Optional<AccountEntity> findByName(@Param("name") String name);
+    /**
+     * Lowercased in Java like the entity does it, so the database doesn't apply its own LOWER
+     */
+    default Optional<AccountEntity> findByName(String name) {
+        return findByNameLower(name != null ? name.toLowerCase(Locale.ROOT) : null);
+    }
 
-    @Query("SELECT a FROM AccountEntity a WHERE LOWER(a.mail) = LOWER(:mail)")
-    List<AccountEntity> findByMail(@Param("mail") String mail);
+    @Query("SELECT a FROM AccountEntity a WHERE a.nameLower = :nameLower")
+    Optional<AccountEntity> findByNameLower(@Param("nameLower") String nameLower);
+
+    default List<AccountEntity> findByMail(String mail) {
+        return findByMailLower(mail != null ? mail.toLowerCase(Locale.ROOT) : null);
+    }
+
+    @Query("SELECT a FROM AccountEntity a WHERE a.mailLower = :mailLower")
+    List<AccountEntity> findByMailLower(@Param("mailLower") String mailLower);
+
+    /**
+     * Account with all its personas, deleted ones included
+     */
+    @EntityGraph(attributePaths = "personas")
+    Optional<AccountEntity> findWithPersonasById(Long id);
+
+    @Query("SELECT a.isBanned FROM AccountEntity a WHERE a.id = :id")
+    Optional<Boolean> findIsBannedById(@Param("id") Long id);
 
 }
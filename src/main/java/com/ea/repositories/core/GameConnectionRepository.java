@@ -2,6 +2,7 @@ package com.ea.repositories.core;
 
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.frontend.DTO;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,52 +11,47 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface GameConnectionRepository extends JpaRepository<GameConnectionEntity, Long> {
 
     /**
-     * Get active game reports where players are disconnected
+     * Game connections a 'rank' report may be about, not reported yet
+     * Games are found through their indexed match key, then their connections through the game id,
+     * and the reported ones are excluded through the primary key of the reports
+     * Fetched with their game and persona, read to apply the report,
+     * and with their report, always missing here but selected for each connection otherwise
      *
-     * @param addresses IP addresses of currently connected players
-     * @return list of game reports to stop
+     * @param playerName   the persona reporting
+     * @param matchKey     the start time of the game to the second, the WHEN of the report
+     * @param includeHosts if the connections of the host are included
      */
-    List<GameConnectionEntity> findByEndTimeIsNullAndPersonaConnectionAddressNotIn(Collection<String> addresses);
-
-    @Query("""
-                SELECT pc.address
-                FROM GameConnectionEntity gc
-                JOIN gc.personaConnection pc
-                WHERE gc.game.id = :gameId
-                AND gc.isHost = true
-                AND pc.endTime IS NULL
-            """)
-    List<String> findHostAddressByGameId(@Param("gameId") Long gameId);
-
-    Optional<GameConnectionEntity> findByPersonaConnectionIdAndEndTimeIsNull(Long personaConnectionId);
-
-    List<GameConnectionEntity> findByGameIdAndEndTimeIsNull(Long gameId);
-
+    @EntityGraph(attributePaths = {"game", "personaConnection.persona.account", "mohhGameReport"})
     @Query("""
                 SELECT gc FROM GameConnectionEntity gc
-                WHERE gc.personaConnection.persona.pers = :playerName
-                AND DATE_TRUNC('SECOND', CAST(gc.game.startTime AS timestamp)) = DATE_TRUNC('SECOND', CAST(:startTime AS timestamp))
-                AND gc.id NOT IN (
-                    SELECT gr.gameConnection.id
-                    FROM MohhGameReportEntity gr
-                    WHERE gr.gameConnection.id = gc.id
+                JOIN gc.game g
+                JOIN gc.personaConnection pc
+                JOIN pc.persona p
+                WHERE g.matchKey = :matchKey
+                AND p.pers = :playerName
+                AND NOT EXISTS (
+                    SELECT 1 FROM MohhGameReportEntity gr
+                    WHERE gr.gameConnectionId = gc.id
                 )
                 AND (:includeHosts = true OR gc.isHost = false)
             """)
     List<GameConnectionEntity> findMatchingGameConnections(
             @Param("playerName") String playerName,
-            @Param("startTime") LocalDateTime startTime,
+            @Param("matchKey") LocalDateTime matchKey,
             @Param("includeHosts") boolean includeHosts
     );
 
+    @Transactional
+    @Modifying
+    @Query("UPDATE GameConnectionEntity gc SET gc.endTime = :endTime WHERE gc.id = :id")
+    int updateEndTime(@Param("id") Long id, @Param("endTime") LocalDateTime endTime);
+
     @Transactional
     @Modifying
     @Query("""
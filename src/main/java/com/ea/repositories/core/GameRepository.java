@@ -9,8 +9,6 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,24 +16,11 @@ public interface GameRepository extends JpaRepository<GameEntity, Long> {
 
     Optional<GameEntity> findById(Long id);
 
-    /**
-     * Get active games where host are disconnected
-     *
-     * @param addresses IP addresses of currently connected players/hosts
-     * @return list of games to stop
-     */
-    List<GameEntity> findByEndTimeIsNullAndGameConnectionsIsHostIsTrueAndGameConnectionsPersonaConnectionAddressNotIn(Collection<String> addresses);
-
-    @Query("SELECT g FROM GameEntity g JOIN g.gameConnections gc JOIN gc.personaConnection pc WHERE pc.id = :personaConnectionId AND gc.endTime IS NULL")
-    List<GameEntity> findCurrentGameOfPersona(long personaConnectionId);
-
-    List<GameEntity> findByEndTimeIsNull();
-
-    List<GameEntity> findByVersInAndEndTimeIsNull(List<String> vers);
-
-    Optional<GameEntity> findByNameAndVersInAndEndTimeIsNull(String name, List<String> vers);
-
-    boolean existsByNameAndVersInAndEndTimeIsNull(String name, List<String> vers);
+    @Transactional
+    @Modifying
+    @Query("UPDATE GameEntity g SET g.params = :params, g.sysflags = :sysflags, g.isStarted = :isStarted, g.endTime = :endTime WHERE g.id = :id")
+    int updateState(@Param("id") Long id, @Param("params") String params, @Param("sysflags") String sysflags,
+                    @Param("isStarted") boolean isStarted, @Param("endTime") LocalDateTime endTime);
 
     @Transactional
     @Modifying
@@ -1,21 +1,41 @@
 package com.ea.repositories.core;
 
 import com.ea.entities.core.PersonaEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Repository
 public interface PersonaRepository extends JpaRepository<PersonaEntity, Long> {
 
-    @Query("SELECT p FROM PersonaEntity p WHERE LOWER(p.pers) = LOWER(:pers)")
-    Optional<PersonaEntity> findByPers(@Param("pers") String pers);
+    /**
+     * Lowercased in Java like the entity does it, so the database doesn't apply its own LOWER
+     */
+    default Optional<PersonaEntity> findByPers(String pers) {
+        return findByPersLower(pers != null ? pers.toLowerCase(Locale.ROOT) : null);
+    }
 
-    @Query(value = "SELECT * FROM core.PERSONA p WHERE LOWER(p.pers) LIKE LOWER(CONCAT('%', :searchTerm, '%')) LIMIT :maxResults", nativeQuery = true)
-    List<PersonaEntity> findByPersLike(@Param("searchTerm") String searchTerm, @Param("maxResults") int maxResults);
+    @EntityGraph(attributePaths = "account")
+    @Query("SELECT p FROM PersonaEntity p WHERE p.persLower = :persLower")
+    Optional<PersonaEntity> findByPersLower(@Param("persLower") String persLower);
+
+    default List<PersonaEntity> findByPersLike(String searchTerm, int maxResults) {
+        return findByPersLowerLike(searchTerm != null ? searchTerm.toLowerCase(Locale.ROOT) : null, maxResults);
+    }
+
+    @Query(value = "SELECT * FROM core.PERSONA p WHERE p.PERS_LOWER LIKE CONCAT('%', :searchTerm, '%') LIMIT :maxResults", nativeQuery = true)
+    List<PersonaEntity> findByPersLowerLike(@Param("searchTerm") String searchTerm, @Param("maxResults") int maxResults);
+
+    /**
+     * Names of the personas of an account not deleted, latest first
+     */
+    @Query("SELECT p.pers FROM PersonaEntity p WHERE p.account.id = :accountId AND p.deletedOn IS NULL ORDER BY p.id DESC")
+    List<String> findLivePersByAccountId(@Param("accountId") Long accountId);
 
 }
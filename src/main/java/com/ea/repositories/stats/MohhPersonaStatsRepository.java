@@ -14,34 +14,30 @@ public interface MohhPersonaStatsRepository extends JpaRepository<MohhPersonaSta
 
     MohhPersonaStatsEntity findByPersonaIdAndVersIn(Long id, List<String> vers);
 
+    /**
+     * Get the scores of all ranked personas, to load the leaderboards
+     *
+     * @return The scores of the personas, all versions
+     */
     @Query(value = """
-            SELECT RANK FROM
-                (SELECT PERSONA_ID, ROW_NUMBER() OVER(ORDER BY (KILL - DEATH) DESC, PERSONA_ID ASC) AS RANK
-                FROM stats.MOHH_PERSONA_STATS PS
-                JOIN core.PERSONA P ON PS.PERSONA_ID = P.ID
-                JOIN core.ACCOUNT A ON P.ACCOUNT_ID = A.ID
-                WHERE PS.VERS = ?2 AND PS.PLAYTIME > 0 AND P.DELETED_ON IS NULL AND A.IS_BANNED = FALSE) AS STATS
-            WHERE STATS.PERSONA_ID = ?1
-            """, nativeQuery = true)
-    Long getRankByPersonaIdAndVers(long id, String vers);
-
-    @Query(value = """
+            SELECT ps.id AS id, ps.persona.id AS personaId, ps.vers AS vers, ps.kill AS kill, ps.death AS death
             FROM MohhPersonaStatsEntity ps
-            WHERE ps.vers = :vers AND ps.playTime > 0
+            WHERE ps.playTime > 0
             AND ps.persona.deletedOn IS NULL
             AND ps.persona.account.isBanned = FALSE
-            ORDER BY (kill - death) DESC, persona.id ASC LIMIT :limit OFFSET :offset
             """)
-    List<MohhPersonaStatsEntity> getLeaderboardByVers(String vers, long limit, long offset);
+    List<RankedStats> findRankedStats();
 
-    @Query(value = """
-            FROM MohhPersonaStatsEntity ps
-            WHERE ps.vers = :vers AND ps.playTime > 0
-            AND ps.persona.deletedOn IS NULL
-            AND ps.persona.account.isBanned = FALSE
-            ORDER BY kill DESC, persona.id ASC
-            LIMIT :limit OFFSET :offset
-            """)
-    List<MohhPersonaStatsEntity> getWeaponLeaderboardByVers(String vers, long limit, long offset);
+    interface RankedStats {
+        Long getId();
+
+        Long getPersonaId();
+
+        String getVers();
+
+        int getKill();
+
+        int getDeath();
+    }
 
 }
@@ -0,0 +1,20 @@
+package com.ea.repositories.stats;
+
+import com.ea.entities.stats.RankIngestionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RankIngestionRepository extends JpaRepository<RankIngestionEntity, Long> {
+
+    @Query("SELECT ri.lastSequence FROM RankIngestionEntity ri WHERE ri.id = " + RankIngestionEntity.ID)
+    long findLastSequence();
+
+    @Modifying
+    @Query("UPDATE RankIngestionEntity ri SET ri.lastSequence = :sequence WHERE ri.id = " + RankIngestionEntity.ID)
+    int updateLastSequence(@Param("sequence") long sequence);
+
+}
@@ -1,5 +1,6 @@
 package com.ea.services.core;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.AccountEntity;
@@ -7,6 +8,8 @@ import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.mappers.SocketMapper;
 import com.ea.repositories.core.AccountRepository;
 import com.ea.repositories.core.BlacklistRepository;
+import com.ea.repositories.core.PersonaRepository;
+import com.ea.services.server.SocketManager;
 import com.ea.steps.SocketWriter;
 import com.ea.utils.AccountUtils;
 import com.ea.utils.EmailUtils;
@@ -16,7 +19,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -24,8 +26,6 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.ea.utils.SocketUtils.getValueFromSocket;
-
 @Slf4j
 @RequiredArgsConstructor
 @Service
@@ -35,8 +35,10 @@ public class AccountService {
     private final SocketMapper socketMapper;
     private final AccountRepository accountRepository;
     private final BlacklistRepository blacklistRepository;
+    private final PersonaRepository personaRepository;
     private final PersonaService personaService;
     private final SocketWriter socketWriter;
+    private final SocketManager socketManager;
     private final EmailUtils emailUtils;
 
     /**
@@ -45,8 +47,8 @@ public class AccountService {
      * @param socket
      * @param socketData
      */
-    public void acct(Socket socket, SocketData socketData) {
-        String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
+    public void acct(ClientSocket socket, SocketData socketData) {
+        String name = socketData.getValue("NAME");
         if (name == null) {
             // FIFA 10 uses 'MAIL' instead of 'NAME', while other games use 'NAME'
             // This is a huge problem as when the player tries to connect to another game, his name is null
@@ -60,7 +62,7 @@ public class AccountService {
         Optional<AccountEntity> accountEntityOpt = accountRepository.findByName(name);
         if (accountEntityOpt.isPresent()) {
             socketData.setIdMessage("acctdupl"); // Duplicate account error (EC_DUPLICATE)
-            int alts = Integer.parseInt(getValueFromSocket(socketData.getInputMessage(), "ALTS"));
+            int alts = Integer.parseInt(socketData.getValue("ALTS"));
             if (alts > 0) {
                 String opts = AccountUtils.suggestNames(alts, name);
                 Map<String, String> content = Stream.of(new String[][]{
@@ -69,7 +71,7 @@ public class AccountService {
                 socketData.setOutputData(content);
             }
         } else {
-            AccountEntity accountEntity = socketMapper.toAccountEntity(socketData.getInputMessage());
+            AccountEntity accountEntity = socketMapper.toAccountEntity(socketData);
             accountRepository.save(accountEntity);
         }
         socketWriter.write(socket, socketData);
@@ -81,17 +83,17 @@ public class AccountService {
      * @param socket
      * @param socketData
      */
-    public void edit(Socket socket, SocketData socketData) {
-        String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
+    public void edit(ClientSocket socket, SocketData socketData) {
+        String name = socketData.getValue("NAME");
 
         Optional<AccountEntity> accountEntityOpt = accountRepository.findByName(name);
         if (accountEntityOpt.isPresent()) {
             AccountEntity accountEntity = accountEntityOpt.get();
 
-            String pass = getValueFromSocket(socketData.getInputMessage(), "PASS");
-            String mail = getValueFromSocket(socketData.getInputMessage(), "MAIL");
-            String spam = getValueFromSocket(socketData.getInputMessage(), "SPAM");
-            String chng = getValueFromSocket(socketData.getInputMessage(), "CHNG");
+            String pass = socketData.getValue("PASS");
+            String mail = socketData.getValue("MAIL");
+            String spam = socketData.getValue("SPAM");
+            String chng = socketData.getValue("CHNG");
 
             boolean update = false;
             boolean error = false;
@@ -131,17 +133,17 @@ public class AccountService {
      * @param socketData
      * @param socketWrapper
      */
-    public void auth(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
-        String pass = getValueFromSocket(socketData.getInputMessage(), "PASS");
-        String vers = getValueFromSocket(socketData.getInputMessage(), "VERS");
-        String slus = getValueFromSocket(socketData.getInputMessage(), "SLUS");
+    public void auth(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String name = socketData.getValue("NAME");
+        String pass = socketData.getValue("PASS");
+        String vers = socketData.getValue("VERS");
+        String slus = socketData.getValue("SLUS");
 
 
         Optional<AccountEntity> accountEntityOpt;
         if (name == null) {
             // FIFA 10 uses 'MAIL' instead of 'NAME'
-            String mail = getValueFromSocket(socketData.getInputMessage(), "MAIL");
+            String mail = socketData.getValue("MAIL");
             List<AccountEntity> accounts = accountRepository.findByMail(mail);
             if (accounts.isEmpty()) {
                 socketData.setIdMessage("authimst"); // Inexisting error (EC_INV_MASTER)
@@ -172,14 +174,9 @@ public class AccountService {
 
             String decodedPass = passwordUtils.ssc2Decode(pass);
             if (passwordUtils.bCryptMatches(decodedPass, accountEntity.getPass())) {
-                synchronized (this) {
-                    socketWrapper.setAccountEntity(accountEntity);
-                }
+                socketWrapper.setAccountEntity(accountEntity);
 
-                String personas = accountEntity.getPersonas().stream()
-                        .filter(p -> p.getDeletedOn() == null)
-                        .map(p -> p.getPers())
-                        .collect(Collectors.joining(","));
+                String personas = String.join(",", personaRepository.findLivePersByAccountId(accountEntity.getId()));
                 Map<String, String> content = Stream.of(new String[][]{
                         {"NAME", accountEntity.getName()},
                         {"ADDR", socket.getInetAddress().getHostAddress()},
@@ -199,9 +196,8 @@ public class AccountService {
                 personaConnectionEntity.setAddress(SocketUtils.handleLocalhostIp(socket.getRemoteSocketAddress().toString()));
                 personaConnectionEntity.setVers(vers);
                 personaConnectionEntity.setSlus(slus);
-                synchronized (this) {
-                    socketWrapper.setPersonaConnectionEntity(personaConnectionEntity);
-                }
+                socketWrapper.setPersonaConnectionEntity(personaConnectionEntity);
+                socketManager.updateIndexes(socketWrapper);
 
             } else {
                 socketData.setIdMessage("authpass"); // Invalid password error (EC_INV_PASS)
@@ -222,9 +218,9 @@ public class AccountService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    public void lost(Socket socket, SocketData socketData) {
-        String mail = getValueFromSocket(socketData.getInputMessage(), "MAIL");
-        String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
+    public void lost(ClientSocket socket, SocketData socketData) {
+        String mail = socketData.getValue("MAIL");
+        String name = socketData.getValue("NAME");
 
         if (mail != null) {
             List<AccountEntity> accountEntities = accountRepository.findByMail(mail);
@@ -1,5 +1,6 @@
 package com.ea.services.core;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.services.server.GameServerService;
@@ -9,14 +10,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.ea.utils.SocketUtils.SPACE_CHAR;
-import static com.ea.utils.SocketUtils.getValueFromSocket;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -28,9 +27,9 @@ public class AuthService {
     private final GameServerService gameServerService;
     private final SocketWriter socketWriter;
 
-    public void dir(Socket socket, SocketData socketData) {
-        String vers = getValueFromSocket(socketData.getInputMessage(), "VERS");
-        String slus = getValueFromSocket(socketData.getInputMessage(), "SLUS");
+    public void dir(ClientSocket socket, SocketData socketData) {
+        String vers = socketData.getValue("VERS");
+        String slus = socketData.getValue("SLUS");
 
         Map<String, String> content = Stream.of(new String[][]{
                 // { "DIRECT", "0" }, // 0x8001FC04
@@ -47,17 +46,17 @@ public class AuthService {
         socketWriter.write(socket, socketData);
     }
 
-    public void addr(Socket socket, SocketData socketData) {
+    public void addr(ClientSocket socket, SocketData socketData) {
         socketWriter.write(socket, socketData);
     }
 
-    public void skey(Socket socket, SocketData socketData) {
+    public void skey(ClientSocket socket, SocketData socketData) {
         Map<String, String> content = Collections.singletonMap("SKEY", "$51ba8aee64ddfacae5baefa6bf61e009");
         socketData.setOutputData(content);
         socketWriter.write(socket, socketData);
     }
 
-    public void news(Socket socket, SocketData socketData) {
+    public void news(ClientSocket socket, SocketData socketData) {
         String tosUrl = props.getDnsName() + "/legalapp/webterms/us/fr/pc/";
         String rosterUrl = props.getDnsName() + "/roster";
         Map<String, String> content = Stream.of(new String[][]{
@@ -77,10 +76,10 @@ public class AuthService {
         socketWriter.write(socket, socketData);
     }
 
-    public void sele(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String stats = getValueFromSocket(socketData.getInputMessage(), "STATS");
-        String inGame = getValueFromSocket(socketData.getInputMessage(), "INGAME");
-        String rooms = getValueFromSocket(socketData.getInputMessage(), "ROOMS", SPACE_CHAR); // Not the same separator
+    public void sele(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String stats = socketData.getValue("STATS");
+        String inGame = socketData.getValue("INGAME");
+        String rooms = socketData.getValue("ROOMS", SPACE_CHAR); // Not the same separator
 
         Map<String, String> content;
         // Request separates attributes either by 0x20 or 0x0a...
@@ -97,16 +96,16 @@ public class AuthService {
 //                    { "ASYNC", "1" },
             }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
         } else {
-            String myGame = getValueFromSocket(socketData.getInputMessage(), "MYGAME");
-            String async = getValueFromSocket(socketData.getInputMessage(), "ASYNC");
+            String myGame = socketData.getValue("MYGAME");
+            String async = socketData.getValue("ASYNC");
 
             if ("1".equals(inGame)) {
-                String games = getValueFromSocket(socketData.getInputMessage(), "GAMES");
-                rooms = getValueFromSocket(socketData.getInputMessage(), "ROOMS");
-                String mesgs = getValueFromSocket(socketData.getInputMessage(), "MESGS");
-                String mesgTypes = getValueFromSocket(socketData.getInputMessage(), "MESGTYPES");
-                String users = getValueFromSocket(socketData.getInputMessage(), "USERS");
-                String userSets = getValueFromSocket(socketData.getInputMessage(), "USERSETS");
+                String games = socketData.getValue("GAMES");
+                rooms = socketData.getValue("ROOMS");
+                String mesgs = socketData.getValue("MESGS");
+                String mesgTypes = socketData.getValue("MESGTYPES");
+                String users = socketData.getValue("USERS");
+                String userSets = socketData.getValue("USERSETS");
                 content = Stream.of(new String[][]{
                         {"INGAME", inGame},
                         {"MESGS", mesgs},
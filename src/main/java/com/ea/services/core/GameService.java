@@ -1,20 +1,28 @@
 package com.ea.services.core;
 
+import com.ea.dto.ClientSocket;
+import com.ea.dto.GameParams;
+import com.ea.dto.MessageFields;
+import com.ea.dto.Packet;
 import com.ea.dto.Room;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
-import com.ea.entities.core.AccountEntity;
 import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
 import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.mappers.SocketMapper;
 import com.ea.repositories.core.*;
+import com.ea.services.server.GamePersistenceService;
+import com.ea.services.server.GameInfoCache;
+import com.ea.services.server.GameRegistry;
+import com.ea.services.server.GameSearchEngine;
 import com.ea.services.server.GameServerService;
+import com.ea.services.server.GpsPoolService;
+import com.ea.services.server.QuickMatchService;
+import com.ea.services.server.SchedulerService;
 import com.ea.services.server.SocketManager;
-import com.ea.services.stats.MohhStatsService;
+import com.ea.steps.Broadcast;
 import com.ea.steps.SocketWriter;
-import com.ea.utils.GameUtils;
-import com.ea.utils.SocketUtils;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
@@ -22,22 +30,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.ea.services.server.GameServerService.*;
-import static com.ea.utils.SocketUtils.getValueFromSocket;
+import static com.ea.services.server.SchedulerService.PACING_DELAY;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class GameService {
 
+    private static final long MAP_ROTATION_DELAY = 2000;
+    private static final long GPS_CREATION_TIMEOUT = 2500;
+
     private final GameRepository gameRepository;
     private final GameConnectionRepository gameConnectionRepository;
+    private final GameRegistry gameRegistry;
+    private final GamePersistenceService gamePersistenceService;
     private final PersonaConnectionRepository personaConnectionRepository;
     private final AccountRepository accountRepository;
     private final BlacklistRepository blacklistRepository;
@@ -45,10 +58,14 @@ public class GameService {
     private final PersonaService personaService;
     private final GameServerService gameServerService;
     private final RoomService roomService;
-    private final MohhStatsService mohhStatsService;
+    private final GameSearchEngine gameSearchEngine;
+    private final QuickMatchService quickMatchService;
     private final SocketWriter socketWriter;
     private final SocketManager socketManager;
-    private final GameUtils gameUtils;
+    private final GameInfoCache gameInfoCache;
+    private final SchedulerService schedulerService;
+    private final GpsPoolService gpsPoolService;
+    private final Map<String, PendingGpsCreation> pendingGpsCreations = new ConcurrentHashMap<>();
 
 
     /**
@@ -67,83 +84,23 @@ public class GameService {
      * @param socketData    The socket data containing game search criteria
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gqwk(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gqwk(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
-        String mode = getValueFromSocket(socketData.getInputMessage(), "MODE");
+        String mode = socketData.getValue("MODE");
 
         if ("2".equals(mode)) { // Wait for a game to become available
-            // Cancel any existing search thread for this socket
-            synchronized (socketWrapper) {
-                Thread existingThread = socketWrapper.getGameSearchThread();
-                if (existingThread != null && existingThread.isAlive()) {
-                    existingThread.interrupt();
-                }
-            }
-
-            // Create a new thread to handle the game search with timer
-            Thread searchThread = new Thread(() -> {
-                String vers = socketWrapper.getPersonaConnectionEntity().getVers();
-                List<String> relatedVers = gameServerService.getRelatedVers(vers);
-
-                while (!Thread.currentThread().isInterrupted() && !socket.isClosed()) {
-                    log.debug("Searching for game for socket: {}", socket.getRemoteSocketAddress());
-                    List<GameEntity> gameEntities = gameRepository.findByVersInAndEndTimeIsNull(relatedVers);
-
-                    // Game must not be full, not use pw, not be started, and have at least one active game connection
-                    gameEntities = gameEntities.stream()
-                            .filter(gameEntity -> !gameEntity.isStarted() && gameEntity.getGameConnections().stream()
-                                    .anyMatch(connection -> connection.getEndTime() == null))
-                            .filter(gameEntity -> gameEntity.getGameConnections().stream()
-                                    .filter(connection -> connection.getEndTime() == null).count() < gameEntity.getMaxsize())
-                            .filter(gameEntity -> StringUtils.isEmpty(gameEntity.getPass()))
-                            .toList();
-
-                    // Theoretically we should filter the game entities based on the criteria provided in the socket data
-                    // Given the low player count, no need to filter by params
-
-                    if (!gameEntities.isEmpty()) {
-                        if (!socket.isClosed()) {
-                            GameEntity gameEntity = gameEntities.get(0); // Get the first game found
-                            // It seems like the "Play Now" features is auto-start, it doesn't join the lobby with only +mgm
-                            joinGame(socket, socketData, socketWrapper, gameEntity);
-                            gsta(socket, socketData, socketWrapper);
-                        }
-                        break; // End the thread when a game is found
-                    }
-
-                    try {
-                        Thread.sleep(15000); // Wait 15 seconds before next search
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-
-                // Clean up the thread reference when done
-                synchronized (socketWrapper) {
-                    if (socketWrapper.getGameSearchThread() == Thread.currentThread()) {
-                        log.debug("Game search thread for socket {} finished", socket.getRemoteSocketAddress());
-                        socketWrapper.setGameSearchThread(null);
-                    }
-                }
+            // It seems like the "Play Now" features is auto-start, it doesn't join the lobby with only +mgm
+            quickMatchService.enqueue(socketWrapper, gameEntity -> {
+                joinGame(socket, socketData, socketWrapper, gameEntity);
+                gsta(socket, socketData, socketWrapper);
             });
-
-            // Store the search thread for this socket wrapper
-            synchronized (socketWrapper) {
-                socketWrapper.setGameSearchThread(searchThread);
-            }
-            searchThread.start();
-
+            // Theoretically we should filter the game entities based on the criteria provided in the socket data
+            // Given the low player count, no need to filter by params
+            String vers = socketWrapper.getPersonaConnectionEntity().getVers();
+            quickMatchService.offer(gameRegistry.getGames(gameServerService.getRelatedVers(vers)));
         } else if ("3".equals(mode)) {
             // Cancel a MODE_WAIT request
-            synchronized (socketWrapper) {
-                Thread searchThread = socketWrapper.getGameSearchThread();
-                if (searchThread != null && searchThread.isAlive()) {
-                    log.debug("Cancelling game search for socket: {}", socket.getRemoteSocketAddress());
-                    searchThread.interrupt();
-                    socketWrapper.setGameSearchThread(null);
-                }
-            }
+            quickMatchService.cancel(socketWrapper);
         }
     }
 
@@ -154,18 +111,18 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gsta(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gsta(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
 
         // If game is P2P then we send +ses to all players in the lobby
         if (gameServerService.isP2P(socketWrapper.getPersonaConnectionEntity().getVers())) {
-            GameConnectionEntity gameConnectionEntity = gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(
+            GameConnectionEntity gameConnectionEntity = gameRegistry.getGameConnection(
                     socketWrapper.getPersonaConnectionEntity().getId()).orElse(null);
 
             if (gameConnectionEntity != null) {
                 GameEntity gameEntity = gameConnectionEntity.getGame();
                 if (gameEntity != null) {
-                    for (GameConnectionEntity connection : gameConnectionRepository.findByGameIdAndEndTimeIsNull(gameEntity.getId())) {
+                    for (GameConnectionEntity connection : gameRegistry.getGameConnections(gameEntity)) {
                         SocketWrapper connectionSocketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(connection.getPersonaConnection().getId());
                         if (connectionSocketWrapper != null) {
                             ses(connectionSocketWrapper.getSocket(), gameEntity);
@@ -173,11 +130,11 @@ public class GameService {
                         // Do we really want to update start time here?
                         // It is more accurate for the stats, but it will make the discord bot to send twice the game join event
                         //connection.setStartTime(LocalDateTime.now());
-                        //gameConnectionRepository.save(connection);
+                        //gamePersistenceService.save(connection);
                     }
                     // Don't update game start time here, the WHEN attribute of the 'rank' packet uses the first declared start time (and it's used as an identifier for the game)
                     gameEntity.setStarted(true);
-                    gameRepository.save(gameEntity);
+                    gameRegistry.update(gameEntity);
                 }
             }
         }
@@ -192,56 +149,49 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gset(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gset(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         PersonaConnectionEntity personaConnectionEntity = socketWrapper.getPersonaConnectionEntity();
         if (gameServerService.isP2P(personaConnectionEntity.getVers())) {
             // On NHL, the value is 0 or 1 to know if the client is ready or not
-            String userflags = getValueFromSocket(socketData.getInputMessage(), "USERFLAGS");
-            String sysflags = getValueFromSocket(socketData.getInputMessage(), "SYSFLAGS");
-            String params = getValueFromSocket(socketData.getInputMessage(), "PARAMS");
+            String userflags = socketData.getValue("USERFLAGS");
+            String sysflags = socketData.getValue("SYSFLAGS");
+            String params = socketData.getValue("PARAMS");
 
             if (userflags != null) {
-                synchronized (this) {
-                    socketWrapper.setUserflags(userflags);
-                }
+                socketWrapper.setUserflags(userflags);
                 // Broadcast the userflags to all players in the game
-                Optional<GameConnectionEntity> gameConnectionOpt = gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(personaConnectionEntity.getId());
+                Optional<GameConnectionEntity> gameConnectionOpt = gameRegistry.getGameConnection(personaConnectionEntity.getId());
 
                 if (gameConnectionOpt.isPresent()) {
                     GameConnectionEntity gameConnectionEntity = gameConnectionOpt.get();
                     GameEntity gameEntity = gameConnectionEntity.getGame();
-                    List<GameConnectionEntity> gameConnections = gameConnectionRepository.findByGameIdAndEndTimeIsNull(gameEntity.getId());
-                    for (GameConnectionEntity gameConnection : gameConnections) { // For each player in the game, send +agm and +mgm
-                        SocketWrapper gameConnectionSocketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(gameConnection.getPersonaConnection().getId());
-                        if (gameConnectionSocketWrapper != null) {
-                            agm(gameConnectionSocketWrapper.getSocket(), gameEntity);
-                            mgm(gameConnectionSocketWrapper.getSocket(), gameEntity);
-                        }
-                    }
+                    gameRegistry.touch(gameEntity);
+                    List<GameConnectionEntity> gameConnections = gameRegistry.getGameConnections(gameEntity);
+                    // For each player in the game, send +agm and +mgm
+                    socketWriter.broadcast(Broadcast.to(getSocketWrappers(gameConnections))
+                            .send(gamePacket("+agm", gameEntity))
+                            .send(gamePacket("+mgm", gameEntity)));
                 }
             }
             if (sysflags != null) {
                 // Update sysflags in the game entity
-                GameEntity gameEntity = gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(personaConnectionEntity.getId())
-                        .map(GameConnectionEntity::getGame).orElse(null);
+                GameEntity gameEntity = gameRegistry.getCurrentGame(personaConnectionEntity.getId()).orElse(null);
                 if (gameEntity != null) {
                     gameEntity.setSysflags(sysflags);
-                    gameRepository.save(gameEntity);
+                    gameRegistry.update(gameEntity);
 
                     if (!sysflags.isEmpty()) {
-                        Map<String, String> content = gameUtils.getGameInfo(gameEntity);
-                        socketWriter.write(socketWrapper.getSocket(), new SocketData("gset", null, content));
+                        socketWriter.write(socketWrapper.getSocket(), gameInfoCache.packet("gset", gameEntity));
                         return;
                     }
                 }
             }
             if (params != null) {
                 // Update params in the game entity
-                GameEntity gameEntity = gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(personaConnectionEntity.getId())
-                        .map(GameConnectionEntity::getGame).orElse(null);
+                GameEntity gameEntity = gameRegistry.getCurrentGame(personaConnectionEntity.getId()).orElse(null);
                 if (gameEntity != null) {
                     gameEntity.setParams(params);
-                    gameRepository.save(gameEntity);
+                    gameRegistry.update(gameEntity);
                     // Should we broadcast the game update to all players in the room but not in a game ?
                 }
             }
@@ -263,57 +213,41 @@ public class GameService {
      * @param socketWrapper The socket wrapper of current connection
      */
     private void handleMapRotation(SocketData socketData, SocketWrapper socketWrapper) {
-        //String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
-        String params = getValueFromSocket(socketData.getInputMessage(), "PARAMS");
-        String sysflags = getValueFromSocket(socketData.getInputMessage(), "SYSFLAGS");
+        //String name = socketData.getValue("NAME");
+        String params = socketData.getValue("PARAMS");
+        String sysflags = socketData.getValue("SYSFLAGS");
 
-        GameEntity gameEntity = gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(
-                        socketWrapper.getPersonaConnectionEntity().getId())
+        GameEntity gameEntity = gameRegistry.getGameConnection(socketWrapper.getPersonaConnectionEntity().getId())
                 .filter(GameConnectionEntity::isHost)
                 .map(GameConnectionEntity::getGame).orElse(null);
 
         LocalDateTime now = LocalDateTime.now();
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000);
-                if (gameEntity != null) {
-                    List<GameConnectionEntity> gameConnections = gameConnectionRepository.findByGameIdAndEndTimeIsNull(gameEntity.getId());
-                    for (GameConnectionEntity gameConnectionEntity : gameConnections) {
-                        gameConnectionEntity.setEndTime(now);
-                        gameConnectionRepository.save(gameConnectionEntity);
-                    }
-                    gameEntity.setEndTime(now);
-                    gameRepository.save(gameEntity);
-
-                    GameEntity newGameEntity = new GameEntity();
-                    newGameEntity.setOriginalId(Optional.ofNullable(gameEntity.getOriginalId()).orElse(gameEntity.getId()));
-                    newGameEntity.setVers(gameEntity.getVers());
-                    newGameEntity.setSlus(gameEntity.getSlus());
-                    newGameEntity.setName(gameEntity.getName());
-                    newGameEntity.setParams(params);
-                    newGameEntity.setSysflags(sysflags);
-                    newGameEntity.setStartTime(now);
-                    newGameEntity.setPass(gameEntity.getPass());
-                    newGameEntity.setMinsize(gameEntity.getMinsize());
-                    newGameEntity.setMaxsize(gameEntity.getMaxsize());
-                    newGameEntity.setStarted(true);
-                    newGameEntity.setRoomId(gameEntity.getRoomId());
-                    gameRepository.save(newGameEntity);
-
-                    for (GameConnectionEntity gameConnectionEntity : gameConnections) {
-                        GameConnectionEntity newGameConnectionEntity = new GameConnectionEntity();
-                        newGameConnectionEntity.setGame(newGameEntity);
-                        newGameConnectionEntity.setPersonaConnection(gameConnectionEntity.getPersonaConnection());
-                        newGameConnectionEntity.setHost(gameConnectionEntity.isHost());
-                        newGameConnectionEntity.setStartTime(now);
-                        gameConnectionRepository.save(newGameConnectionEntity);
-                    }
-                    updateHostInfo(newGameEntity);
+        schedulerService.schedule("map-rotation", MAP_ROTATION_DELAY, () -> {
+            if (gameEntity != null) {
+                List<GameConnectionEntity> gameConnections = gameRegistry.getGameConnections(gameEntity);
+                gameRegistry.endGame(gameEntity, now);
+
+                GameEntity newGameEntity = new GameEntity();
+                newGameEntity.setOriginalId(Optional.ofNullable(gameEntity.getOriginalId()).orElse(gameEntity.getId()));
+                newGameEntity.setVers(gameEntity.getVers());
+                newGameEntity.setSlus(gameEntity.getSlus());
+                newGameEntity.setName(gameEntity.getName());
+                newGameEntity.setParams(params);
+                newGameEntity.setSysflags(sysflags);
+                newGameEntity.setStartTime(now);
+                newGameEntity.setPass(gameEntity.getPass());
+                newGameEntity.setMinsize(gameEntity.getMinsize());
+                newGameEntity.setMaxsize(gameEntity.getMaxsize());
+                newGameEntity.setStarted(true);
+                newGameEntity.setRoomId(gameEntity.getRoomId());
+                gameRegistry.create(newGameEntity);
+
+                for (GameConnectionEntity gameConnectionEntity : gameConnections) {
+                    gameRegistry.addGameConnection(newGameEntity, gameConnectionEntity.getPersonaConnection(), gameConnectionEntity.isHost());
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                updateHostInfo(newGameEntity);
             }
-        }).start();
+        });
     }
 
     /**
@@ -323,13 +257,13 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gsea(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gsea(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
         List<String> relatedVers = gameServerService.getRelatedVers(vers);
-        List<GameEntity> gameEntities = gameRepository.findByVersInAndEndTimeIsNull(relatedVers);
 
-        Map<String, String> paramsMap = SocketUtils.getMapFromSocket(socketData.getInputMessage());
-        List<GameEntity> filteredGameEntities = filterGameEntities(gameEntities, paramsMap, vers);
+        MessageFields criteria = socketData.getFields();
+        int count = Integer.parseInt(criteria.get("COUNT"));
+        List<GameEntity> filteredGameEntities = gameSearchEngine.search(relatedVers, criteria, GameParams.Layout.of(vers), count);
 
         Map<String, String> content = Collections.singletonMap("COUNT", String.valueOf(filteredGameEntities.size()));
         socketData.setOutputData(content);
@@ -338,47 +272,13 @@ public class GameService {
         gam(socket, filteredGameEntities);
     }
 
-    /**
-     * Filter game entities based on the criteria provided in the paramsMap
-     * Each game version may have different criteria for filtering games
-     *
-     * @param gameEntities The list of game entities to filter
-     * @param paramsMap    The parameters map from the socket data
-     * @param vers         The version of the game
-     * @return A list of filtered game entities
-     */
-    private List<GameEntity> filterGameEntities(List<GameEntity> gameEntities, Map<String, String> paramsMap, String vers) {
-        int count = Integer.parseInt(paramsMap.get("COUNT"));
-        return gameEntities.stream()
-                .filter(gameEntity -> matchesCriteria(gameEntity, paramsMap, vers))
-                .limit(count)
-                .toList();
-    }
-
-    /**
-     * Check if the game entity matches the criteria based on the version
-     * Each game version may have different criteria for filtering games
-     *
-     * @param gameEntity The game entity to check
-     * @param paramsMap  The parameters map from the socket data
-     * @param vers       The version of the game
-     * @return true if the game entity matches the criteria, false otherwise
-     */
-    private boolean matchesCriteria(GameEntity gameEntity, Map<String, String> paramsMap, String vers) {
-        if (vers.equals(PSP_MOH_07_UHS) || MOH07_OR_MOH08.contains(vers)) {
-            return mohhStatsService.matchesCriteria(gameEntity, paramsMap, vers);
-        } else {
-            return true;
-        }
-    }
-
     /**
      * A game row
      *
      * @param socket       The socket to write the response to
      * @param gameEntities List of game entities to send
      */
-    public void gam(Socket socket, List<GameEntity> gameEntities) {
+    public void gam(ClientSocket socket, List<GameEntity> gameEntities) {
         List<Map<String, String>> games = new ArrayList<>();
 
         for (GameEntity gameEntity : gameEntities) {
@@ -391,7 +291,7 @@ public class GameService {
                     {"NAME", gameEntity.getName()},
                     {"PARAMS", gameEntity.getParams()},
                     {"SYSFLAGS", sysflags},
-                    {"COUNT", String.valueOf(gameEntity.getGameConnections().stream().filter(connection -> null == connection.getEndTime()).count())},
+                    {"COUNT", String.valueOf(gameRegistry.getGameConnections(gameEntity).size())},
                     {"MAXSIZE", String.valueOf(gameEntity.getMaxsize())},
             }).collect(Collectors.toMap(data -> data[0], data -> data[1])));
         }
@@ -409,23 +309,22 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gjoi(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        AccountEntity accountEntity = accountRepository.findById(socketWrapper.getAccountEntity().getId()).orElse(null);
-        if (blacklistRepository.existsByIp(socket.getInetAddress().getHostAddress())
-                || Objects.requireNonNull(accountEntity).isBanned()) {
+    public void gjoi(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        boolean banned = accountRepository.findIsBannedById(socketWrapper.getAccountEntity().getId()).orElse(true);
+        if (blacklistRepository.existsByIp(socket.getInetAddress().getHostAddress()) || banned) {
             socketData.setIdMessage("gjoiblak"); // IP is blacklisted or account is banned (can also use gjoiband)
             socketWriter.write(socket, socketData);
             return;
         }
 
-        String ident = getValueFromSocket(socketData.getInputMessage(), "IDENT");
+        String ident = socketData.getValue("IDENT");
         Optional<GameEntity> gameEntityOpt;
         if (ident != null) {
-            gameEntityOpt = gameRepository.findById(Long.valueOf(ident));
+            gameEntityOpt = gameRegistry.getGame(Long.valueOf(ident));
         } else {
             // Some games don't provide an identifier, so we need to find the game by name and version
-            String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
-            gameEntityOpt = gameRepository.findByNameAndVersInAndEndTimeIsNull(name, List.of(socketWrapper.getPersonaConnectionEntity().getVers()));
+            String name = socketData.getValue("NAME");
+            gameEntityOpt = gameRegistry.getGameByName(name, List.of(socketWrapper.getPersonaConnectionEntity().getVers()));
         }
 
         if (gameEntityOpt.isPresent()) {
@@ -435,8 +334,8 @@ public class GameService {
         }
     }
 
-    public void joinGame(Socket socket, SocketData socketData, SocketWrapper socketWrapper, GameEntity gameEntity) {
-        String pass = getValueFromSocket(socketData.getInputMessage(), "PASS");
+    public void joinGame(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper, GameEntity gameEntity) {
+        String pass = socketData.getValue("PASS");
         if (StringUtils.isNotEmpty(pass) && !pass.equals(gameEntity.getPass())) {
             socketWriter.write(socket, new SocketData("gjoipass", null, null)); // Wrong password
             return;
@@ -448,47 +347,40 @@ public class GameService {
                 return;
             }
 
-            // Check if the game is full
-            long currentCount = gameEntity.getGameConnections().stream().filter(connection -> null == connection.getEndTime()).count();
-            if (currentCount + 1 > gameEntity.getMaxsize()) {
-                socketWriter.write(socket, new SocketData("gjoifull", null, null)); // Game is full
+            // The registry checks the capacity, atomically with the join
+            if (!startGameConnection(socketWrapper, gameEntity, false, true)) {
+                socketWriter.write(socket, gameEntity.getEndTime() != null
+                        ? new SocketData("gjoiugam", null, null) // Game ended meanwhile
+                        : new SocketData("gjoifull", null, null)); // Game is full
                 return;
             }
-
-            startGameConnection(socketWrapper, gameEntity, false);
             socketWriter.write(socket, socketData);
 
             // Check if game is P2P
             if (gameServerService.isP2P(gameEntity.getVers())) {
                 // Reset userflags
-                synchronized (this) {
-                    socketWrapper.setUserflags("0");
-                }
+                socketWrapper.setUserflags("0");
 
                 // Send who
                 personaService.who(socket, socketWrapper);
 
                 // Broadcast the game join to all connected clients in the room
                 // Inform about all players in the game (+usr for each player, to each player)
-                List<GameConnectionEntity> gameConnections = gameConnectionRepository.findByGameIdAndEndTimeIsNull(gameEntity.getId());
-                for (SocketWrapper clientWrapper : socketManager.getSocketWrapperByVers(gameEntity.getVers())) {
-                    for (GameConnectionEntity gameConnection : gameConnections) { // For each player in the game, send +usr to each player
-                        SocketWrapper inGameWrapper = socketManager.getSocketWrapperByPersonaConnectionId(gameConnection.getPersonaConnection().getId());
-                        if (inGameWrapper != null && gameConnections.stream().anyMatch(gameConnectionEntity -> gameConnectionEntity.getPersonaConnection().getId().equals(clientWrapper.getPersonaConnectionEntity().getId()))) {
+                List<GameConnectionEntity> gameConnections = gameRegistry.getGameConnections(gameEntity);
+                List<SocketWrapper> inGameWrappers = getSocketWrappers(gameConnections);
+                List<SocketWrapper> clientWrappers = socketManager.getSocketWrapperByVers(gameEntity.getVers());
+                for (SocketWrapper clientWrapper : clientWrappers) {
+                    if (inGameWrappers.contains(clientWrapper)) {
+                        for (SocketWrapper inGameWrapper : inGameWrappers) { // For each player in the game, send +usr to each player
                             personaService.usr(clientWrapper.getSocket(), inGameWrapper); // Update user info for each player
                         }
                     }
-                    agm(clientWrapper.getSocket(), gameEntity);
-                    mgm(clientWrapper.getSocket(), gameEntity);
                 }
+                socketWriter.broadcast(Broadcast.to(clientWrappers)
+                        .send(gamePacket("+agm", gameEntity))
+                        .send(gamePacket("+mgm", gameEntity)));
             } else {
-                updateHostInfo(gameEntity);
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                ses(socket, gameEntity);
+                updateHostInfo(gameEntity, () -> ses(socket, gameEntity));
             }
         } else {
             socketWriter.write(socket, new SocketData("gjoiugam", null, null)); // Game closed
@@ -501,10 +393,9 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    public void gpsc(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        AccountEntity accountEntity = accountRepository.findById(socketWrapper.getAccountEntity().getId()).orElse(null);
-        if (blacklistRepository.existsByIp(socket.getInetAddress().getHostAddress())
-                || Objects.requireNonNull(accountEntity).isBanned()) {
+    public void gpsc(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        boolean banned = accountRepository.findIsBannedById(socketWrapper.getAccountEntity().getId()).orElse(true);
+        if (blacklistRepository.existsByIp(socket.getInetAddress().getHostAddress()) || banned) {
             socketData.setIdMessage("gpscblak"); // IP is blacklisted or account is banned (can also use gpscband)
             socketWriter.write(socket, socketData);
             return;
@@ -513,16 +404,16 @@ public class GameService {
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
         String slus = socketWrapper.getPersonaConnectionEntity().getSlus();
 
-        GameEntity gameEntityToCreate = socketMapper.toGameEntity(socketData.getInputMessage(), vers, slus);
+        GameEntity gameEntityToCreate = socketMapper.toGameEntity(socketData, vers, slus);
 
         List<String> relatedVers = gameServerService.getRelatedVers(vers);
         boolean isMohh = relatedVers.equals(MOH07_OR_UHS);
-        boolean duplicateName = gameRepository.existsByNameAndVersInAndEndTimeIsNull(gameEntityToCreate.getName(), relatedVers);
+        boolean duplicateName = gameRegistry.existsByName(gameEntityToCreate.getName(), relatedVers);
         if (duplicateName) {
             socketData.setIdMessage("gpscdupl");
             socketWriter.write(socket, socketData);
         } else if (isMohh) {
-            SocketWrapper gpsSocketWrapper = socketManager.getAvailableGps();
+            SocketWrapper gpsSocketWrapper = gpsPoolService.allocate(socket, vers).orElse(null);
             if (gpsSocketWrapper == null) {
                 socketData.setIdMessage("gpscnfnd");
                 socketWriter.write(socket, socketData);
@@ -536,27 +427,17 @@ public class GameService {
                         {"MAXSIZE", String.valueOf(gameEntityToCreate.getMaxsize())},
                         {"PASS", null != gameEntityToCreate.getPass() ? gameEntityToCreate.getPass() : ""},
                 }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
-                socketWriter.write(gpsSocketWrapper.getSocket(), new SocketData("$cre", null, content));
-
-                new Thread(() -> {
-                    int retries = 0;
-                    while (retries < 5) {
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                        Optional<GameEntity> gameEntityOpt = gameRepository.findByNameAndVersInAndEndTimeIsNull(gameEntityToCreate.getName(), relatedVers);
-                        if (gameEntityOpt.isPresent()) {
-                            GameEntity gameEntity = gameEntityOpt.get();
-                            startGameConnection(socketWrapper, gameEntity, false);
-                            ses(socket, gameEntity);
-                            updateHostInfo(gameEntity);
-                            break;
-                        }
-                        retries++;
+                // The player joins the game once the GPS created it, see gcre
+                String key = gpsCreationKey(gameEntityToCreate.getName(), relatedVers);
+                PendingGpsCreation pendingGpsCreation = new PendingGpsCreation(socket, socketWrapper);
+                pendingGpsCreations.put(key, pendingGpsCreation);
+                schedulerService.schedule("gpsc", GPS_CREATION_TIMEOUT, () -> {
+                    if (pendingGpsCreations.remove(key, pendingGpsCreation)) {
+                        log.warn("Game {} not created by the GPS in time", gameEntityToCreate.getName());
+                        gpsPoolService.spawnFailed(gpsSocketWrapper);
                     }
-                }).start();
+                });
+                socketWriter.write(gpsSocketWrapper.getSocket(), new SocketData("$cre", null, content));
             }
         } else {
             socketWriter.write(socket, socketData);
@@ -573,9 +454,9 @@ public class GameService {
             }
             gameEntityToCreate.setParams(params);
             gameEntityToCreate.setStarted(true);
-            gameRepository.save(gameEntityToCreate);
+            gameRegistry.create(gameEntityToCreate);
 
-            startGameConnection(socketWrapper, gameEntityToCreate, false);
+            startGameConnection(socketWrapper, gameEntityToCreate, false, false);
             ses(socket, gameEntityToCreate);
         }
     }
@@ -586,16 +467,27 @@ public class GameService {
      * @param gameEntity The updated game entity
      */
     public void updateHostInfo(GameEntity gameEntity) {
+        updateHostInfo(gameEntity, null);
+    }
+
+    /**
+     * Send game updates to the host (player list, params), then run a task once the host got them
+     *
+     * @param gameEntity The updated game entity
+     * @param then       The task to run after the updates, may be null
+     */
+    private void updateHostInfo(GameEntity gameEntity, Runnable then) {
         SocketWrapper hostSocketWrapper = socketManager.getHostSocketWrapperOfGame(gameEntity.getId());
         if (hostSocketWrapper != null) {
-            Map<String, String> content = gameUtils.getGameInfo(gameEntity);
-            socketWriter.write(hostSocketWrapper.getSocket(), new SocketData("+mgm", null, content));
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            socketWriter.write(hostSocketWrapper.getSocket(), new SocketData("+ses", null, content));
+            socketWriter.write(hostSocketWrapper.getSocket(), gameInfoCache.packet("+mgm", gameEntity));
+            schedulerService.schedule("updateHostInfo", PACING_DELAY, () -> {
+                socketWriter.write(hostSocketWrapper.getSocket(), gameInfoCache.packet("+ses", gameEntity));
+                if (then != null) {
+                    schedulerService.schedule("updateHostInfo", PACING_DELAY, then);
+                }
+            });
+        } else if (then != null) {
+            schedulerService.schedule("updateHostInfo", PACING_DELAY, then);
         }
     }
 
@@ -606,10 +498,10 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gcre(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gcre(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
         String slus = socketWrapper.getPersonaConnectionEntity().getSlus();
-        GameEntity gameEntity = socketMapper.toGameEntity(socketData.getInputMessage(), vers, slus);
+        GameEntity gameEntity = socketMapper.toGameEntity(socketData, vers, slus);
 
         // Some games don't provide a game name, so we set it to the persona name
         if (gameEntity.getName() == null || gameEntity.getName().isEmpty()) {
@@ -617,7 +509,7 @@ public class GameService {
         }
 
         List<String> relatedVers = gameServerService.getRelatedVers(vers);
-        boolean duplicateName = gameRepository.existsByNameAndVersInAndEndTimeIsNull(gameEntity.getName(), relatedVers);
+        boolean duplicateName = gameRegistry.existsByName(gameEntity.getName(), relatedVers);
 
         if (duplicateName) {
             socketData.setIdMessage("gcredupl");
@@ -625,15 +517,14 @@ public class GameService {
         } else {
             gameEntity.setStarted(!gameServerService.isP2P(vers));
 
-            synchronized (this) {
-                // Set userflags directly to 1 (ready) for the host
-                socketWrapper.setUserflags("1");
-            }
+            // Set userflags directly to 1 (ready) for the host
+            socketWrapper.setUserflags("1");
 
-            gameRepository.save(gameEntity);
-            socketWriter.write(socket, new SocketData("gcre", null, gameUtils.getGameInfo(gameEntity)));
+            gameRegistry.create(gameEntity);
+            gpsPoolService.gameCreated(socketWrapper);
+            socketWriter.write(socket, gameInfoCache.packet("gcre", gameEntity));
 
-            startGameConnection(socketWrapper, gameEntity, true);
+            startGameConnection(socketWrapper, gameEntity, true, false);
             personaService.who(socket, socketWrapper); // Used to set the game id
 
             if (gameServerService.isP2P(vers)) {
@@ -645,20 +536,41 @@ public class GameService {
                 log.info("Added game {} to room {}", gameEntity.getName(), room.getId());
 
                 // Broadcast the game creation to people inside the room
-                socketManager.getSocketWrapperByVers(vers).stream()
+                List<SocketWrapper> roomWrappers = socketManager.getSocketWrapperByVers(vers).stream()
                         .filter(wrapper -> null != wrapper.getPersonaEntity() && room.getPersonaIds().contains(wrapper.getPersonaEntity().getId()))
-                        .forEach(wrapper -> socketWriter.write(wrapper.getSocket(), new SocketData("+agm", null, gameUtils.getGameInfo(gameEntity))));
+                        .toList();
+                socketWriter.broadcast(Broadcast.to(roomWrappers).send(gamePacket("+agm", gameEntity)));
             }
 
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            socketWriter.write(socket, new SocketData("+mgm", null, gameUtils.getGameInfo(gameEntity)));
+            schedulerService.schedule("gcre", PACING_DELAY, () -> {
+                socketWriter.write(socket, gameInfoCache.packet("+mgm", gameEntity));
+                completeGpsCreation(gameEntity);
+            });
+        }
+    }
+
+    /**
+     * Joins the player who asked a GPS for a game (gpsc) to the game the GPS just created
+     *
+     * @param gameEntity The game created
+     */
+    private void completeGpsCreation(GameEntity gameEntity) {
+        if (pendingGpsCreations.isEmpty()) {
+            return;
+        }
+        PendingGpsCreation pendingGpsCreation = pendingGpsCreations.remove(
+                gpsCreationKey(gameEntity.getName(), gameServerService.getRelatedVers(gameEntity.getVers())));
+        if (pendingGpsCreation != null) {
+            startGameConnection(pendingGpsCreation.socketWrapper(), gameEntity, false, false);
+            ses(pendingGpsCreation.socket(), gameEntity);
+            updateHostInfo(gameEntity);
         }
     }
 
+    private static String gpsCreationKey(String name, List<String> relatedVers) {
+        return String.join(",", relatedVers) + '\0' + name;
+    }
+
     /**
      * Leave game
      *
@@ -666,12 +578,12 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void glea(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void glea(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
         if (socketWrapper != null) {
             endGameConnection(socketWrapper);
         } else {
-            log.warn("Socket wrapper is null for socket: {}", socket.getRemoteSocketAddress());
+            log.warn("ClientSocket wrapper is null for socket: {}", socket.getRemoteSocketAddress());
         }
     }
 
@@ -680,23 +592,16 @@ public class GameService {
      * If STATUS is "A", then the GPS is available to host a game.
      * If STATUS is "G", then the GPS is hosting a game.
      *
-     * @param socket     The socket to write the response to
-     * @param socketData The socket data
+     * @param socket        The socket to write the response to
+     * @param socketData    The socket data
+     * @param socketWrapper The socket wrapper of current connection
      */
-    public void gpss(Socket socket, SocketData socketData) {
+    public void gpss(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
 
-        String status = getValueFromSocket(socketData.getInputMessage(), "STATUS");
-
-        SocketWrapper socketWrapper = socketManager.getSocketWrapperBySocket(socket);
-        // Add a flag to indicate that the game is hosted
-        if (("A").equals(status)) {
-            socketWrapper.getIsGps().set(true);
-            socketWrapper.getIsHosting().set(false);
-        } else if (("G").equals(status)) {
-            socketWrapper.getIsHosting().set(true);
-        }
+        String status = socketData.getValue("STATUS");
 
+        gpsPoolService.updateStatus(socketWrapper, status);
     }
 
     /**
@@ -705,7 +610,7 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    private void gps(Socket socket, SocketData socketData) {
+    private void gps(ClientSocket socket, SocketData socketData) {
         Map<String, String> content = Stream.of(new String[][]{
                 {"PING", "EA60"},
         }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
@@ -721,7 +626,7 @@ public class GameService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void gdel(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void gdel(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         endGame(socketWrapper);
         socketWriter.write(socket, socketData);
     }
@@ -732,8 +637,8 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param gameEntity The game entity to start the session for
      */
-    public void agm(Socket socket, GameEntity gameEntity) {
-        socketWriter.write(socket, new SocketData("+agm", null, gameUtils.getGameInfo(gameEntity)));
+    public void agm(ClientSocket socket, GameEntity gameEntity) {
+        socketWriter.write(socket, gameInfoCache.packet("+agm", gameEntity));
     }
 
     /**
@@ -742,8 +647,8 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param gameEntity The game entity to start the session for
      */
-    public void mgm(Socket socket, GameEntity gameEntity) {
-        socketWriter.write(socket, new SocketData("+mgm", null, gameUtils.getGameInfo(gameEntity)));
+    public void mgm(ClientSocket socket, GameEntity gameEntity) {
+        socketWriter.write(socket, gameInfoCache.packet("+mgm", gameEntity));
     }
 
     /**
@@ -752,8 +657,8 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param gameEntity The game entity to start the session for
      */
-    public void ses(Socket socket, GameEntity gameEntity) {
-        socketWriter.write(socket, new SocketData("+ses", null, gameUtils.getGameInfo(gameEntity)));
+    public void ses(ClientSocket socket, GameEntity gameEntity) {
+        socketWriter.write(socket, gameInfoCache.packet("+ses", gameEntity));
     }
 
     /**
@@ -762,12 +667,12 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    public void gget(Socket socket, SocketData socketData) {
-        String ident = getValueFromSocket(socketData.getInputMessage(), "IDENT");
-        Optional<GameEntity> gameEntityOpt = gameRepository.findById(Long.valueOf(ident));
+    public void gget(ClientSocket socket, SocketData socketData) {
+        String ident = socketData.getValue("IDENT");
+        Optional<GameEntity> gameEntityOpt = gameRegistry.getGame(Long.valueOf(ident));
         if (gameEntityOpt.isPresent()) {
             GameEntity gameEntity = gameEntityOpt.get();
-            socketWriter.write(socket, new SocketData("gget", null, gameUtils.getGameInfo(gameEntity)));
+            socketWriter.write(socket, gameInfoCache.packet("gget", gameEntity));
         } else {
             socketWriter.write(socket, new SocketData("gget", null, null));
         }
@@ -779,9 +684,9 @@ public class GameService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    public void filt(Socket socket, SocketData socketData) {
+    public void filt(ClientSocket socket, SocketData socketData) {
         Map<String, String> content = Stream.of(new String[][]{
-                {"TEXT", getValueFromSocket(socketData.getInputMessage(), "TEXT")},
+                {"TEXT", socketData.getValue("TEXT")},
         }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
         socketData.setOutputData(content);
         socketWriter.write(socket, socketData);
@@ -792,17 +697,14 @@ public class GameService {
      *
      * @param socketWrapper The socket wrapper of current connection
      * @param gameEntity    The game entity to register
+     * @param checkCapacity Whether the player can be refused because the game is full
+     * @return false if the game has ended or is full
      */
-    private void startGameConnection(SocketWrapper socketWrapper, GameEntity gameEntity, boolean isHost) {
+    private boolean startGameConnection(SocketWrapper socketWrapper, GameEntity gameEntity, boolean isHost, boolean checkCapacity) {
         // Close any game report that wasn't property ended (e.g. use Dolphin save state to leave)
         endGameConnection(socketWrapper);
 
-        GameConnectionEntity gameConnectionEntity = new GameConnectionEntity();
-        gameConnectionEntity.setGame(gameEntity);
-        gameConnectionEntity.setPersonaConnection(socketWrapper.getPersonaConnectionEntity());
-        gameConnectionEntity.setHost(isHost);
-        gameConnectionEntity.setStartTime(LocalDateTime.now());
-        gameConnectionRepository.save(gameConnectionEntity);
+        return gameRegistry.addGameConnection(gameEntity, socketWrapper.getPersonaConnectionEntity(), isHost, checkCapacity) != null;
     }
 
     /**
@@ -810,7 +712,7 @@ public class GameService {
      */
     public void endGameConnection(SocketWrapper socketWrapper) {
         Optional<GameConnectionEntity> gameConnectionEntityOpt =
-                gameConnectionRepository.findByPersonaConnectionIdAndEndTimeIsNull(socketWrapper.getPersonaConnectionEntity().getId());
+                gameRegistry.getGameConnection(socketWrapper.getPersonaConnectionEntity().getId());
         if (gameConnectionEntityOpt.isPresent()) {
             GameConnectionEntity gameConnectionEntity = gameConnectionEntityOpt.get();
             GameEntity gameEntity = gameConnectionEntity.getGame();
@@ -820,24 +722,17 @@ public class GameService {
                 if (gameConnectionEntity.isHost()) {
                     endGame(socketWrapper);
                 } else {
-                    gameConnectionEntity.setEndTime(LocalDateTime.now());
-                    gameConnectionRepository.save(gameConnectionEntity);
+                    gameRegistry.endGameConnection(gameConnectionEntity, LocalDateTime.now());
                     // Broadcast the game leave to all connected clients in the game
-                    socketManager.getSocketWrapperByVers(gameEntity.getVers())
-                            .forEach(wrapper -> {
-                                Socket socket = wrapper.getSocket();
-                                agm(socket, gameEntity);
-                                if (!wrapper.getPersonaConnectionEntity().getId().equals(socketWrapper.getPersonaConnectionEntity().getId())) {
-                                    mgm(socket, gameEntity);
-                                }
-                            });
+                    socketWriter.broadcast(Broadcast.to(socketManager.getSocketWrapperByVers(gameEntity.getVers()))
+                            .send(gamePacket("+agm", gameEntity))
+                            .send(gamePacket("+mgm", gameEntity), Broadcast.except(socketWrapper)));
                 }
             } else {
                 if (socketWrapper.getIsDedicatedHost().get()) {
                     endGame(socketWrapper);
                 } else {
-                    gameConnectionEntity.setEndTime(LocalDateTime.now());
-                    gameConnectionRepository.save(gameConnectionEntity);
+                    gameRegistry.endGameConnection(gameConnectionEntity, LocalDateTime.now());
                     updateHostInfo(gameEntity);
                 }
             }
@@ -851,16 +746,10 @@ public class GameService {
      * @param socketWrapper The socket wrapper of current connection
      */
     public void endGame(SocketWrapper socketWrapper) {
-        List<GameEntity> gameEntity = gameRepository.findCurrentGameOfPersona(socketWrapper.getPersonaConnectionEntity().getId());
-        if (!gameEntity.isEmpty()) {
-            GameEntity game = gameEntity.get(0);
-            LocalDateTime now = LocalDateTime.now();
-            game.setEndTime(now);
-            gameRepository.save(game);
-            game.getGameConnections().stream().filter(connection -> null == connection.getEndTime()).forEach(report -> {
-                report.setEndTime(now);
-                gameConnectionRepository.save(report);
-            });
+        Optional<GameEntity> gameEntityOpt = gameRegistry.getCurrentGame(socketWrapper.getPersonaConnectionEntity().getId());
+        if (gameEntityOpt.isPresent()) {
+            GameEntity game = gameEntityOpt.get();
+            gameRegistry.endGame(game, LocalDateTime.now());
 
             // For P2P games, remove the game from the room and broadcast the game deletion
             if (gameServerService.isP2P(game.getVers())) {
@@ -875,6 +764,8 @@ public class GameService {
     @PostConstruct
     @PreDestroy
     private void closeActiveConnectionsAndGames() {
+        // Changes of live games not written yet would reopen them
+        gamePersistenceService.flush();
         LocalDateTime now = LocalDateTime.now();
         int gameConnectionsCleaned = gameConnectionRepository.setEndTimeForAllUnfinishedGameConnections(now);
         int gameCleaned = gameRepository.setEndTimeForAllUnfinishedGames(now);
@@ -886,22 +777,20 @@ public class GameService {
      * Data cleanup :
      * - Manually close expired games (only applies to mohh2 as games aren't hosted)
      * - Close persona connections, game reports and games (if persona was the host) when the socket is closed
+     * Live games are checked in the registry, only persona connections are looked up in the database
      */
     public void dataCleanup() {
         LocalDateTime now = LocalDateTime.now();
 
         // Manually close expired games
-        List<GameEntity> gameEntities = gameRepository.findByEndTimeIsNull();
-        gameEntities.forEach(gameEntity -> {
-            Set<GameConnectionEntity> gameConnections = gameEntity.getGameConnections();
-            if (gameConnections.stream().noneMatch(connection -> connection.isHost() || null == connection.getEndTime())) {
-                if (gameConnections.stream().allMatch(connection -> connection.getEndTime().plusSeconds(90).isBefore(now))) {
-                    log.info("Closing expired game: {} - {}", gameEntity.getId(), gameEntity.getName());
-                    gameEntity.setEndTime(now);
-                    gameRepository.save(gameEntity);
-                }
+        for (GameEntity gameEntity : gameRegistry.getGames()) {
+            // A hosted game ends with its host, so a game nobody is in anymore has no host either
+            if (gameRegistry.getGameConnections(gameEntity).isEmpty()
+                    && gameRegistry.getLastDeparture(gameEntity).map(endTime -> endTime.plusSeconds(90).isBefore(now)).orElse(true)) {
+                log.info("Closing expired game: {} - {}", gameEntity.getId(), gameEntity.getName());
+                gameRegistry.endGame(gameEntity, now);
             }
-        });
+        }
 
         // Get all active socket addresses from socket manager
         Set<String> activeAddresses = socketManager.getActiveSocketIdentifiers();
@@ -911,38 +800,55 @@ public class GameService {
                 .findByEndTimeIsNullAndAddressNotIn(activeAddresses);
         if (!inactivePersonaConnections.isEmpty()) {
             inactivePersonaConnections.forEach(connection -> {
-                log.info("Socket closed for persona connection: {}", connection.getId());
+                log.info("ClientSocket closed for persona connection: {}", connection.getId());
                 connection.setEndTime(now);
             });
             personaConnectionRepository.saveAll(inactivePersonaConnections);
         }
 
-        // Close game connections for inactive persona connections
-        List<GameConnectionEntity> inactiveGameConnections = gameConnectionRepository
-                .findByEndTimeIsNullAndPersonaConnectionAddressNotIn(activeAddresses);
-        if (!inactiveGameConnections.isEmpty()) {
-            inactiveGameConnections.forEach(report -> {
-                log.info("Socket closed for game report: {}", report.getId());
-                report.setEndTime(now);
-            });
-            gameConnectionRepository.saveAll(inactiveGameConnections);
+        for (GameEntity gameEntity : gameRegistry.getGames()) {
+            // Close games where host is inactive
+            boolean inactiveHost = gameRegistry.getGameConnections(gameEntity).stream()
+                    .anyMatch(connection -> connection.isHost() && !activeAddresses.contains(connection.getPersonaConnection().getAddress()));
+            if (inactiveHost) {
+                log.info("Host socket closed for game: {}", gameEntity.getId());
+                gameRegistry.endGame(gameEntity, now);
+                continue;
+            }
+            // Close game connections for inactive persona connections
+            for (GameConnectionEntity gameConnectionEntity : gameRegistry.getGameConnections(gameEntity)) {
+                if (!activeAddresses.contains(gameConnectionEntity.getPersonaConnection().getAddress())) {
+                    log.info("ClientSocket closed for game report: {}", gameConnectionEntity.getId());
+                    gameRegistry.endGameConnection(gameConnectionEntity, now);
+                }
+            }
         }
+    }
 
-        // Close games where host is inactive
-        List<GameEntity> gamesWithInactiveHost = gameRepository.findByEndTimeIsNullAndGameConnectionsIsHostIsTrueAndGameConnectionsPersonaConnectionAddressNotIn(activeAddresses);
-        if (!gamesWithInactiveHost.isEmpty()) {
-            gamesWithInactiveHost.forEach(game -> {
-                log.info("Host socket closed for game: {}", game.getId());
-                game.setEndTime(now);
-                game.getGameConnections().stream()
-                        .filter(connection -> connection.getEndTime() == null)
-                        .forEach(connection -> {
-                            log.info("Closing game connection: {}", connection.getId());
-                            connection.setEndTime(now);
-                        });
-            });
-            gameRepository.saveAll(gamesWithInactiveHost);
+    /**
+     * The game info, encoded once per version of the game and shared by the recipients
+     */
+    private Packet gamePacket(String idMessage, GameEntity gameEntity) {
+        return gameInfoCache.packet(idMessage, gameEntity);
+    }
+
+    /**
+     * Get the connections of the players of a game, ignoring the ones which are gone
+     */
+    private List<SocketWrapper> getSocketWrappers(List<GameConnectionEntity> gameConnections) {
+        List<SocketWrapper> socketWrappers = new ArrayList<>();
+        for (GameConnectionEntity gameConnection : gameConnections) {
+            SocketWrapper gameConnectionSocketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(gameConnection.getPersonaConnection().getId());
+            if (gameConnectionSocketWrapper != null) {
+                socketWrappers.add(gameConnectionSocketWrapper);
+            }
         }
+        return socketWrappers;
     }
 
+    /**
+     * A player waiting for the game it asked a GPS to create
+     */
+    private record PendingGpsCreation(ClientSocket socket, SocketWrapper socketWrapper) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.ea.services.core;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.AccountEntity;
@@ -12,7 +13,9 @@ import com.ea.repositories.buddy.FeedbackTypeRepository;
 import com.ea.repositories.core.AccountRepository;
 import com.ea.repositories.core.PersonaConnectionRepository;
 import com.ea.repositories.core.PersonaRepository;
+import com.ea.services.server.SchedulerService;
 import com.ea.services.server.SocketManager;
+import com.ea.services.stats.LeaderboardService;
 import com.ea.steps.SocketWriter;
 import com.ea.utils.AccountUtils;
 import com.ea.utils.PersonaUtils;
@@ -22,7 +25,6 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -35,8 +37,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.ea.services.server.GameServerService.GAMES_WITHOUT_ROOM;
+import static com.ea.services.server.SchedulerService.PACING_DELAY;
 import static com.ea.utils.HexUtils.formatHexString;
-import static com.ea.utils.SocketUtils.getValueFromSocket;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -54,6 +56,8 @@ public class PersonaService {
     private final FeedbackTypeRepository feedbackTypeRepository;
     private final RoomService roomService;
     private final PersonaUtils personaUtils;
+    private final SchedulerService schedulerService;
+    private final LeaderboardService leaderboardService;
 
     /**
      * Persona creation
@@ -62,8 +66,8 @@ public class PersonaService {
      * @param socketData
      * @param socketWrapper
      */
-    public void cper(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String pers = getValueFromSocket(socketData.getInputMessage(), "PERS");
+    public void cper(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String pers = socketData.getValue("PERS");
         String normalizedPers = pers.replaceAll("\"", "").trim();
 
         if (normalizedPers.length() < 3) {
@@ -84,7 +88,7 @@ public class PersonaService {
         Optional<PersonaEntity> personaEntityOpt = personaRepository.findByPers(normalizedPers);
         if (personaEntityOpt.isPresent()) {
             socketData.setIdMessage("cperdupl");
-            int alts = Integer.parseInt(getValueFromSocket(socketData.getInputMessage(), "ALTS"));
+            int alts = Integer.parseInt(socketData.getValue("ALTS"));
             if (alts > 0) {
                 String opts = AccountUtils.suggestNames(alts, normalizedPers);
                 Map<String, String> content = Stream.of(new String[][]{
@@ -111,8 +115,8 @@ public class PersonaService {
      * @param socketData
      * @param socketWrapper
      */
-    public void pers(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String pers = getValueFromSocket(socketData.getInputMessage(), "PERS");
+    public void pers(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String pers = socketData.getValue("PERS");
         if (pers == null) {
             // FIFA 10 doesn't send PERS in the packet after a cper, so we force it to reconnect
             socketData.setIdMessage("persmaut"); // Error making the user to reconnect
@@ -135,7 +139,7 @@ public class PersonaService {
 //            socketWriter.write(socket, socketData);
 //            return;
             log.warn("Persona {} already connected, ending old session", pers);
-            Socket socketToClose = socketManager.getSocketWrapper(personaConnectionEntity.getAddress()).getSocket();
+            ClientSocket socketToClose = socketManager.getSocketWrapper(personaConnectionEntity.getAddress()).getSocket();
             if (socketToClose != null) {
                 log.info("Closing old socket {}", socketToClose.getRemoteSocketAddress());
                 try {
@@ -144,7 +148,7 @@ public class PersonaService {
                     log.error("Error while closing socket", e);
                 }
             } else {
-                log.error("Socket to close not found");
+                log.error("ClientSocket to close not found");
                 personaConnectionEntity.setEndTime(LocalDateTime.now());
                 personaConnectionRepository.save(personaConnectionEntity);
             }
@@ -167,10 +171,9 @@ public class PersonaService {
                 log.error("Error generating lkey for persona {}: {}", personaEntity.getPers(), e.getMessage());
             }
 
-            synchronized (this) {
-                socketWrapper.setPersonaEntity(personaEntity);
-                socketWrapper.setLkey(lkey);
-            }
+            socketWrapper.setPersonaEntity(personaEntity);
+            socketWrapper.setLkey(lkey);
+            socketManager.updateIndexes(socketWrapper);
 
             Map<String, String> content;
             content = Stream.of(new String[][]{
@@ -206,6 +209,7 @@ public class PersonaService {
         personaConnectionEntity.setHost(socketWrapper.getIsDedicatedHost().get());
         personaConnectionEntity.setStartTime(LocalDateTime.now());
         personaConnectionRepository.save(personaConnectionEntity);
+        socketManager.updateIndexes(socketWrapper); // The connection has an id once saved
     }
 
     /**
@@ -229,8 +233,8 @@ public class PersonaService {
      * @param socketData
      * @param socketWrapper
      */
-    public void dper(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String pers = getValueFromSocket(socketData.getInputMessage(), "PERS");
+    public void dper(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String pers = socketData.getValue("PERS");
 
         Optional<PersonaEntity> personaEntityOpt = personaRepository.findByPers(pers);
         if (personaEntityOpt.isPresent()) {
@@ -239,12 +243,15 @@ public class PersonaService {
             AccountEntity account = socketWrapper.getAccountEntity();
             if (!personaEntity.getAccount().getId().equals(account.getId())) {
                 log.error("Imposter detected, persona {} not linked to account {}", pers, socketWrapper.getAccountEntity().getName());
-                Set<PersonaEntity> personas = account.getPersonas();
+                Set<PersonaEntity> personas = accountRepository.findWithPersonasById(account.getId())
+                        .map(AccountEntity::getPersonas)
+                        .orElse(Set.of());
                 personas.forEach(persona -> {
                     if (persona.getDeletedOn() == null) {
                         persona.setDeletedOn(LocalDateTime.now());
                         personaRepository.save(persona);
                     }
+                    leaderboardService.remove(persona.getId());
                 });
                 account.setBanned(true);
                 account.setUpdatedOn(LocalDateTime.now());
@@ -257,11 +264,12 @@ public class PersonaService {
             // If the persona is linked to the account, we can delete it
             personaEntity.setDeletedOn(LocalDateTime.now());
             personaRepository.save(personaEntity);
+            leaderboardService.remove(personaEntity.getId());
         }
         socketWriter.write(socket, socketData);
     }
 
-    public void llvl(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void llvl(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         Map<String, String> content = Stream.of(new String[][]{
                 {"SKILL_PTS", "0"},
                 {"SKILL_LVL", "0"},
@@ -284,7 +292,7 @@ public class PersonaService {
      * @param socket
      * @param socketWrapper
      */
-    public void usr(Socket socket, SocketWrapper socketWrapper) {
+    public void usr(ClientSocket socket, SocketWrapper socketWrapper) {
         socketWriter.write(socket, new SocketData("+usr", null, personaUtils.getPersonaInfo(socket, socketWrapper)));
     }
 
@@ -294,7 +302,7 @@ public class PersonaService {
      * @param socket
      * @param socketWrapper
      */
-    public void who(Socket socket, SocketWrapper socketWrapper) {
+    public void who(ClientSocket socket, SocketWrapper socketWrapper) {
         socketWriter.write(socket, new SocketData("+who", null, personaUtils.getPersonaInfo(socket, socketWrapper)));
     }
 
@@ -305,11 +313,11 @@ public class PersonaService {
      * @param socketData    the object to use to write the message
      * @param socketWrapper the wrapper containing user data
      */
-    public void rept(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String pers = getValueFromSocket(socketData.getInputMessage(), "PERS"); // Target persona name
-        //String text = getValueFromSocket(socketData.getInputMessage(), "TEXT"); // Optional text comment
-        String prod = getValueFromSocket(socketData.getInputMessage(), "PROD"); // Product version (goes into VERS)
-        String typeStr = getValueFromSocket(socketData.getInputMessage(), "TYPE"); // Feedback type number
+    public void rept(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String pers = socketData.getValue("PERS"); // Target persona name
+        //String text = socketData.getValue("TEXT"); // Optional text comment
+        String prod = socketData.getValue("PROD"); // Product version (goes into VERS)
+        String typeStr = socketData.getValue("TYPE"); // Feedback type number
 
         if (pers == null || typeStr == null || prod == null) {
             log.warn("Missing required parameters in REPT packet");
@@ -363,17 +371,14 @@ public class PersonaService {
     }
 
 
-    public void addRoomInfo(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void addRoomInfo(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         // Some games don't use pre-match rooms but requires a room ID in order to work so we add one by default
         if (GAMES_WITHOUT_ROOM.contains(socketWrapper.getPersonaConnectionEntity().getVers())) {
             Long roomId = roomService.getRoomByVers(socketWrapper.getPersonaConnectionEntity().getVers()).getId();
             roomService.addPersonaToRoom(roomId, socketWrapper);
             who(socket, socketWrapper); // Used to set the room info
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            schedulerService.schedule("rom", PACING_DELAY, () -> roomService.rom(socket, socketData));
+            return;
         }
         roomService.rom(socket, socketData);
     }
@@ -1,29 +1,29 @@
 package com.ea.services.core;
 
 import com.ea.config.GameServerConfig;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.Packet;
 import com.ea.dto.Room;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
-import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
-import com.ea.repositories.core.GameConnectionRepository;
-import com.ea.repositories.core.GameRepository;
 import com.ea.repositories.core.PersonaConnectionRepository;
+import com.ea.services.server.GameInfoCache;
+import com.ea.services.server.GameRegistry;
 import com.ea.services.server.GameServerService;
 import com.ea.services.server.SocketManager;
+import com.ea.steps.Broadcast;
+import com.ea.steps.PacketEncoder;
 import com.ea.steps.SocketWriter;
-import com.ea.utils.GameUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.ea.utils.SocketUtils.TAB_CHAR;
-import static com.ea.utils.SocketUtils.getValueFromSocket;
 
 @Slf4j
 @Service
@@ -31,10 +31,9 @@ import static com.ea.utils.SocketUtils.getValueFromSocket;
 public class RoomService {
     private final GameServerConfig gameServerConfig;
     private final PersonaConnectionRepository personaConnectionRepository;
-    private final GameConnectionRepository gameConnectionRepository;
-    private final GameRepository gameRepository;
+    private final GameRegistry gameRegistry;
     private final GameServerService gameServerService;
-    private final GameUtils gameUtils;
+    private final GameInfoCache gameInfoCache;
     private final SocketManager socketManager;
     private final SocketWriter socketWriter;
     private final List<Room> rooms = new ArrayList<>();
@@ -45,7 +44,7 @@ public class RoomService {
      * @param socket     The socket to write the response to
      * @param socketData The socket data
      */
-    public void rom(Socket socket, SocketData socketData) {
+    public void rom(ClientSocket socket, SocketData socketData) {
         String vers = socketManager.getSocketWrapperBySocket(socket).getPersonaConnectionEntity().getVers();
         Room room = getRoomByVers(vers);
 
@@ -75,9 +74,9 @@ public class RoomService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void move(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String ident = getValueFromSocket(socketData.getInputMessage(), "IDENT");
-        // String name = getValueFromSocket(socketData.getInputMessage(), "NAME");
+    public void move(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String ident = socketData.getValue("IDENT");
+        // String name = socketData.getValue("NAME");
 
         long roomId = Long.parseLong(ident);
         addPersonaToRoom(roomId, socketWrapper);
@@ -96,8 +95,8 @@ public class RoomService {
 
             // Notify about all games in the room
             for (Long gameId : room.getGameIds()) {
-                Optional<GameEntity> gameEntityOpt = gameRepository.findById(gameId);
-                gameEntityOpt.ifPresent(gameEntity -> socketWriter.write(socket, new SocketData("+agm", null, gameUtils.getGameInfo(gameEntity))));
+                Optional<GameEntity> gameEntityOpt = gameRegistry.getGame(gameId);
+                gameEntityOpt.ifPresent(gameEntity -> socketWriter.write(socket, gameInfoCache.packet("+agm", gameEntity)));
             }
         } else {
             socketWriter.write(socket, socketData);
@@ -115,7 +114,7 @@ public class RoomService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void rcat(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void rcat(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
         removePersonaFromRoom(socketWrapper.getPersonaConnectionEntity().getVers(), socketWrapper);
         rom(socket, socketData);
@@ -129,13 +128,15 @@ public class RoomService {
     public void pop(SocketWrapper wrapper) {
         String vers = wrapper.getPersonaConnectionEntity().getVers();
         Room room = getRoomByVers(vers);
-        for (SocketWrapper clientWrapper : socketManager.getSocketWrapperByVers(vers)) {
-            // Do not send to dedicated server hosts
-            if (!clientWrapper.getPersonaConnectionEntity().isHost()) {
-                socketWriter.write(clientWrapper.getSocket(), new SocketData("+pop", null, Collections.singletonMap("Z", room.getId().toString() + "/" + room.getPersonaIds().size())));
-                sst(clientWrapper.getSocket(), clientWrapper);
-            }
-        }
+        Packet pop = PacketEncoder.builder("+pop")
+                .put("Z", room.getId() + "/" + room.getPersonaIds().size())
+                .build();
+        // All clients share the same vers, so the same server status
+        Packet sst = sstPacket(vers);
+        socketWriter.broadcast(Broadcast.to(socketManager.getSocketWrapperByVers(vers))
+                // Do not send to dedicated server hosts
+                .send(pop, clientWrapper -> !clientWrapper.getPersonaConnectionEntity().isHost())
+                .send(sst, clientWrapper -> !clientWrapper.getPersonaConnectionEntity().isHost()));
     }
 
     /**
@@ -145,19 +146,22 @@ public class RoomService {
      * @param socket  The socket to write the response to
      * @param wrapper The socket wrapper of the client
      */
-    public void sst(Socket socket, SocketWrapper wrapper) {
-        List<String> vers = gameServerService.getRelatedVers(wrapper.getPersonaConnectionEntity().getVers());
-        int playersInLobby = personaConnectionRepository.countPlayersInLobby(vers);
-        int playersInGame = gameConnectionRepository.countPlayersInGame(vers);
-        Map<String, String> content = Stream.of(new String[][]{
-                {"UIL", String.valueOf(playersInLobby)},
-                {"UIG", String.valueOf(playersInGame)},
-                {"UIR", "0"},
-                {"GIP", "0"},
-                {"GCR", "0"},
-                {"GCM", "0"},
-        }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
-        socketWriter.write(socket, new SocketData("+sst", null, content));
+    public void sst(ClientSocket socket, SocketWrapper wrapper) {
+        socketWriter.write(socket, sstPacket(wrapper.getPersonaConnectionEntity().getVers()));
+    }
+
+    private Packet sstPacket(String vers) {
+        List<String> relatedVers = gameServerService.getRelatedVers(vers);
+        int playersInLobby = personaConnectionRepository.countPlayersInLobby(relatedVers);
+        int playersInGame = gameRegistry.countPlayersInGame(relatedVers);
+        return PacketEncoder.builder("+sst")
+                .put("UIL", playersInLobby)
+                .put("UIG", playersInGame)
+                .put("UIR", 0)
+                .put("GIP", 0)
+                .put("GCR", 0)
+                .put("GCM", 0)
+                .build();
     }
 
     /**
@@ -167,7 +171,7 @@ public class RoomService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void mesg(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void mesg(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
 
         if (socketWrapper.getPersonaEntity() == null) {
@@ -175,42 +179,29 @@ public class RoomService {
             return;
         }
 
-        String text = getValueFromSocket(socketData.getInputMessage(), "TEXT");
-        String attr = getValueFromSocket(socketData.getInputMessage(), "ATTR");
+        String text = socketData.getValue("TEXT");
+        String attr = socketData.getValue("ATTR");
 
-        Map<String, String> content = Stream.of(new String[][]{
-                {"F", attr != null ? attr : "Z"}, // NHL07 uses "Z" for lobby messages (no ATTR specified)
-                {"T", text},
-                {"N", socketWrapper.getPersonaEntity().getPers()},
-        }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
-        socketData.setIdMessage("+msg");
-        socketData.setOutputData(content);
+        Packet msg = PacketEncoder.builder("+msg", TAB_CHAR)
+                .put("F", attr != null ? attr : "Z") // NHL07 uses "Z" for lobby messages (no ATTR specified)
+                .put("T", text)
+                .put("N", socketWrapper.getPersonaEntity().getPers())
+                .build();
 
-        GameEntity gameEntity = gameRepository.findCurrentGameOfPersona(socketWrapper.getPersonaConnectionEntity().getId())
-                .stream()
-                .max(Comparator.comparing(GameEntity::getStartTime))
-                .orElse(null);
+        GameEntity gameEntity = gameRegistry.getCurrentGame(socketWrapper.getPersonaConnectionEntity().getId()).orElse(null);
 
         // User is in a Game Room (ATTR=G), broadcast the message to the game room only
         if (gameEntity != null) {
-            List<GameConnectionEntity> gameConnections = gameEntity.getGameConnections().stream().
-                    filter(gameConnection -> gameConnection.getPersonaConnection() != null)
+            List<SocketWrapper> gameSocketWrappers = gameRegistry.getGameConnections(gameEntity).stream()
+                    .map(gameConnection -> socketManager.getSocketWrapperByPersonaConnectionId(gameConnection.getPersonaConnection().getId()))
+                    .filter(Objects::nonNull)
                     .toList();
-
-            for (GameConnectionEntity gameConnection : gameConnections) {
-                SocketWrapper gameSocketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(gameConnection.getPersonaConnection().getId());
-                if (gameSocketWrapper != null) {
-                    socketWriter.write(gameSocketWrapper.getSocket(), socketData, TAB_CHAR);
-                }
-            }
+            socketWriter.broadcast(Broadcast.to(gameSocketWrappers).send(msg));
         } else { // User is in a Lobby Room, broadcast the message to all clients in the lobby except if they are in a game room or in-game
-            for (SocketWrapper clientWrapper : socketManager.getSocketWrapperByVers(socketWrapper.getPersonaConnectionEntity().getVers())) {
-                if (clientWrapper.getPersonaConnectionEntity() != null) { // In case someone is connected without a persona yet
-                    if (gameRepository.findCurrentGameOfPersona(clientWrapper.getPersonaConnectionEntity().getId()).isEmpty()) {
-                        socketWriter.write(clientWrapper.getSocket(), socketData, TAB_CHAR);
-                    }
-                }
-            }
+            socketWriter.broadcast(Broadcast.to(socketManager.getSocketWrapperByVers(socketWrapper.getPersonaConnectionEntity().getVers()))
+                    // In case someone is connected without a persona yet
+                    .send(msg, clientWrapper -> clientWrapper.getPersonaConnectionEntity() != null
+                            && gameRegistry.getGameConnection(clientWrapper.getPersonaConnectionEntity().getId()).isEmpty()));
         }
 
     }
@@ -258,16 +249,9 @@ public class RoomService {
     }
 
     public void broadcastGameRemoval(GameEntity game, SocketWrapper socketWrapper) {
-        socketManager.getSocketWrapperByVers(game.getVers())
-                .forEach(wrapper -> {
-                    Socket gameSocket = wrapper.getSocket();
-                    socketWriter.write(gameSocket, new SocketData("+agmugam", null,
-                            Collections.singletonMap("IDENT", String.valueOf(game.getId()))));
-                    if (!wrapper.getPersonaConnectionEntity().getId().equals(socketWrapper.getPersonaConnectionEntity().getId())) {
-                        socketWriter.write(gameSocket, new SocketData("+mgmugam", null,
-                                Collections.singletonMap("IDENT", String.valueOf(game.getId()))));
-                    }
-                });
+        socketWriter.broadcast(Broadcast.to(socketManager.getSocketWrapperByVers(game.getVers()))
+                .send(PacketEncoder.builder("+agmugam").put("IDENT", game.getId()).build())
+                .send(PacketEncoder.builder("+mgmugam").put("IDENT", game.getId()).build(), Broadcast.except(socketWrapper)));
     }
 
     public Room getRoomById(Long roomId) {
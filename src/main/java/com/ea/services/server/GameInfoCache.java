@@ -0,0 +1,101 @@
+package com.ea.services.server;
+
+import com.ea.dto.Packet;
+import com.ea.entities.core.GameEntity;
+import com.ea.steps.PacketEncoder;
+import com.ea.utils.GameUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Game info messages (+agm, +mgm, +ses, gget, ...) encoded once per version of the game
+ * Building the info of a game queries the stats of each player, so it's only rebuilt when GameRegistry bumps the info version
+ * (join, leave, host change, gset userflags, sysflags or params), and by a single thread when several ask for it at once
+ * The version is read before building, so a change made meanwhile triggers another rebuild instead of being missed
+ */
+@Component
+@RequiredArgsConstructor
+public class GameInfoCache {
+
+    private final GameRegistry gameRegistry;
+    private final GameUtils gameUtils;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = meterRegistry.counter("games.info.cache", "result", "hit");
+        missCounter = meterRegistry.counter("games.info.cache", "result", "miss");
+    }
+
+    /**
+     * @param idMessage  the message id, e.g. +mgm
+     * @param gameEntity the game
+     * @return the game info message, encoded
+     */
+    public Packet packet(String idMessage, GameEntity gameEntity) {
+        Info info = info(gameEntity);
+        return info.packets().computeIfAbsent(idMessage, id -> PacketEncoder.builder(id).putAll(info.content()).build());
+    }
+
+    private Info info(GameEntity gameEntity) {
+        long version = gameRegistry.getInfoVersion(gameEntity);
+        if (version < 0) {
+            // Ended game, not cached anymore
+            slots.remove(gameEntity.getId());
+            missCounter.increment();
+            return new Info(version, gameUtils.getGameInfo(gameEntity));
+        }
+        Slot slot = slots.computeIfAbsent(gameEntity.getId(), id -> new Slot());
+        Info info = slot.info;
+        if (info != null && info.version() == version) {
+            hitCounter.increment();
+            return info;
+        }
+        // Not a monitor, the build may query the database and would pin the carrier of a virtual thread
+        slot.lock.lock();
+        try {
+            info = slot.info;
+            if (info != null && info.version() >= version) {
+                hitCounter.increment();
+                return info;
+            }
+            missCounter.increment();
+            info = new Info(version, gameUtils.getGameInfo(gameEntity));
+            slot.info = info;
+        } finally {
+            slot.lock.unlock();
+        }
+        evictEndedGames();
+        return info;
+    }
+
+    /**
+     * Forgets the games which ended, once there are noticeably more cached games than live ones
+     */
+    private void evictEndedGames() {
+        if (slots.size() > 2 * gameRegistry.getGames().size() + 16) {
+            slots.keySet().removeIf(id -> gameRegistry.getGame(id).isEmpty());
+        }
+    }
+
+    private static final class Slot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Info info;
+    }
+
+    private record Info(long version, Map<String, String> content, Map<String, Packet> packets) {
+        private Info(long version, Map<String, String> content) {
+            this(version, content, new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.ea.services.server;
+
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.repositories.core.GameRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the changes of live games and game connections to the database, behind the GameRegistry
+ * Changes are queued by the handlers and written by a single writer thread, several changes of an entity being written once
+ * New game connections are inserted, then only their end time is updated, games only get their mutable columns updated
+ * (they are inserted by the registry when created, as their identifier comes from the database)
+ * A flush queues a barrier behind the pending changes, released by the writer once it has written them
+ * When the database fails, the changes stay queued and are written again after a delay doubled on each failure
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GamePersistenceService {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long FLUSH_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    private final GameRepository gameRepository;
+    private final GameConnectionRepository gameConnectionRepository;
+    private final ThreadService threadService;
+    private final MeterRegistry meterRegistry;
+    private final BlockingDeque<PendingWrite> queue = new LinkedBlockingDeque<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Thread writer;
+    private Timer lagTimer;
+    private Counter errorCounter;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        lagTimer = Timer.builder("games.persistence.lag")
+                .description("Time between a change of a live game and its write to the database")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        errorCounter = meterRegistry.counter("games.persistence.errors");
+        Gauge.builder("games.persistence.pending", queue, BlockingQueue::size)
+                .description("Changes of live games waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("games.persistence.oldest", queue, this::oldestPendingMillis)
+                .description("Age of the oldest change waiting to be written, in milliseconds")
+                .register(meterRegistry);
+        running = true;
+        writer = threadService.newThread("game-writer", this::run);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Queues the current state of a game or a game connection to be written
+     *
+     * @param entity the changed GameEntity or GameConnectionEntity
+     */
+    public void save(Object entity) {
+        queue.add(new PendingWrite(entity, System.nanoTime()));
+    }
+
+    /**
+     * Waits until the changes queued before the call are written, by the writer thread while it runs,
+     * or writes them from the calling thread once it has stopped (shutdown)
+     *
+     * @return false if the writer didn't write them in time
+     */
+    public boolean flush() {
+        if (running && writer.isAlive()) {
+            CountDownLatch barrier = new CountDownLatch(1);
+            queue.add(new PendingWrite(barrier, System.nanoTime()));
+            try {
+                if (barrier.await(FLUSH_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (running && writer.isAlive()) {
+                log.warn("Changes of live games not written after {} ms", FLUSH_TIMEOUT);
+                return false;
+            }
+        }
+        List<PendingWrite> batch = new ArrayList<>();
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            if (!write(batch)) {
+                errorCounter.increment();
+                log.error("{} changes of live games can't be written", queue.size());
+                return false;
+            }
+            batch.clear();
+        }
+        return true;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>();
+        long retryDelay = MIN_RETRY_DELAY;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                if (write(batch)) {
+                    retryDelay = MIN_RETRY_DELAY;
+                } else {
+                    log.warn("Writing {} changes of live games again in {} ms", queue.size(), retryDelay);
+                    Thread.sleep(retryDelay);
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, the changes which failed on the database are put back at the head of the queue with the barriers behind them
+     * A row rejected by the database is written alone, and dropped if it fails again, so it doesn't hold the others
+     * Locked, as a flush on shutdown may run while the writer thread finishes its batch
+     *
+     * @return false if changes were put back to be written again
+     */
+    private boolean write(List<PendingWrite> batch) {
+        writeLock.lock();
+        try {
+            Map<Object, PendingWrite> pendingWrites = new LinkedHashMap<>();
+            for (PendingWrite pendingWrite : batch) {
+                pendingWrites.putIfAbsent(pendingWrite.entity(), pendingWrite);
+            }
+            Set<Object> failed = new HashSet<>();
+            List<GameConnectionEntity> newGameConnections = new ArrayList<>();
+            for (Object entity : pendingWrites.keySet()) {
+                if (entity instanceof GameConnectionEntity gameConnectionEntity && gameConnectionEntity.getId() == null) {
+                    newGameConnections.add(gameConnectionEntity);
+                } else if (!(entity instanceof CountDownLatch) && !update(entity)) {
+                    failed.add(entity);
+                }
+            }
+            if (!newGameConnections.isEmpty()) {
+                failed.addAll(insert(newGameConnections));
+            }
+
+            long now = System.nanoTime();
+            List<PendingWrite> retries = new ArrayList<>();
+            for (PendingWrite pendingWrite : pendingWrites.values()) {
+                if (failed.contains(pendingWrite.entity())) {
+                    retries.add(pendingWrite);
+                } else if (pendingWrite.entity() instanceof CountDownLatch barrier) {
+                    // Everything queued before the barrier is written
+                    if (retries.isEmpty()) {
+                        barrier.countDown();
+                    } else {
+                        retries.add(pendingWrite);
+                    }
+                } else {
+                    lagTimer.record(now - pendingWrite.queuedAt(), TimeUnit.NANOSECONDS);
+                }
+            }
+            for (int i = retries.size() - 1; i >= 0; i--) {
+                queue.addFirst(retries.get(i));
+            }
+            return retries.isEmpty();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return false if the update failed on the database and has to be written again
+     */
+    private boolean update(Object entity) {
+        try {
+            int updated = 0;
+            if (entity instanceof GameConnectionEntity gameConnectionEntity) {
+                updated = gameConnectionRepository.updateEndTime(gameConnectionEntity.getId(), gameConnectionEntity.getEndTime());
+            } else if (entity instanceof GameEntity gameEntity) {
+                updated = gameRepository.updateState(gameEntity.getId(), gameEntity.getParams(), gameEntity.getSysflags(),
+                        gameEntity.isStarted(), gameEntity.getEndTime());
+            }
+            if (updated == 0) {
+                log.warn("No row updated for {}", entity.getClass().getSimpleName());
+            }
+            return true;
+        } catch (Exception e) {
+            errorCounter.increment();
+            if (isRejectedRow(e)) {
+                log.error("Dropping the update of {}", entity.getClass().getSimpleName(), e);
+                return true;
+            }
+            log.error("Error while writing {}, it's kept to be written again", entity.getClass().getSimpleName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Inserts new game connections together, or one by one if one of them is rejected
+     *
+     * @return the game connections to insert again, as the database failed
+     */
+    private List<GameConnectionEntity> insert(List<GameConnectionEntity> newGameConnections) {
+        try {
+            gameConnectionRepository.saveAll(newGameConnections);
+            return List.of();
+        } catch (Exception e) {
+            errorCounter.increment();
+            // The identifiers were taken from the sequence, but the rows were rolled back
+            newGameConnections.forEach(gameConnectionEntity -> gameConnectionEntity.setId(null));
+            if (!isRejectedRow(e)) {
+                log.error("Error while inserting {} game connections, they are kept to be inserted again", newGameConnections.size(), e);
+                return newGameConnections;
+            }
+            log.warn("Error while inserting {} game connections together, inserting them one by one", newGameConnections.size(), e);
+        }
+        List<GameConnectionEntity> failed = new ArrayList<>();
+        for (GameConnectionEntity gameConnectionEntity : newGameConnections) {
+            try {
+                gameConnectionRepository.save(gameConnectionEntity);
+            } catch (Exception e) {
+                errorCounter.increment();
+                gameConnectionEntity.setId(null);
+                if (isRejectedRow(e)) {
+                    log.error("Dropping the game connection of persona connection {} to game {}",
+                            gameConnectionEntity.getPersonaConnection().getId(), gameConnectionEntity.getGame().getId(), e);
+                } else {
+                    log.error("Error while inserting a game connection, it's kept to be inserted again", e);
+                    failed.add(gameConnectionEntity);
+                }
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return whether the row itself is at fault (rejected by a constraint), so writing it again would fail the same way
+     */
+    private static boolean isRejectedRow(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double oldestPendingMillis(BlockingQueue<PendingWrite> pendingWrites) {
+        PendingWrite oldest = pendingWrites.peek();
+        return oldest != null ? (System.nanoTime() - oldest.queuedAt()) / 1e6 : 0;
+    }
+
+    private record PendingWrite(Object entity, long queuedAt) {
+    }
+}
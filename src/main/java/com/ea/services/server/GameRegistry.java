@@ -0,0 +1,290 @@
+package com.ea.services.server;
+
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.core.PersonaConnectionEntity;
+import com.ea.repositories.core.GameRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live games and their connections, the source of truth while a game is open, so lobby queries don't touch the database
+ * Games are indexed by identifier, version and name, and active game connections by persona connection,
+ * the search criteria of games are indexed by GameSearchEngine, and players waiting for a game are told by QuickMatchService
+ * A game keeps all its connections (ended ones too) in its gameConnections, in the order players joined, until it ends
+ * Each change of a game bumps its info version, once the change is made, so GameInfoCache knows when to rebuild its info
+ * Only the creation of a game is written right away, as its identifier comes from the database,
+ * other changes are written behind by GamePersistenceService
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GameRegistry {
+
+    private final GameRepository gameRepository;
+    private final GamePersistenceService gamePersistenceService;
+    private final GameSearchEngine gameSearchEngine;
+    private final QuickMatchService quickMatchService;
+
+    private final Map<Long, GameEntity> games = new ConcurrentHashMap<>();
+    private final Map<String, Map<Long, GameEntity>> versIndex = new ConcurrentHashMap<>();
+    private final Map<String, GameEntity> nameIndex = new ConcurrentHashMap<>();
+    private final Map<Long, GameConnectionEntity> personaConnectionIndex = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> infoVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Inserts a new game and registers it
+     *
+     * @param gameEntity the game to create
+     * @return the game, with its identifier
+     */
+    public GameEntity create(GameEntity gameEntity) {
+        gameRepository.save(gameEntity);
+        gameEntity.setGameConnections(new CopyOnWriteArraySet<>());
+        games.put(gameEntity.getId(), gameEntity);
+        versIndex.computeIfAbsent(gameEntity.getVers(), vers -> new ConcurrentSkipListMap<>()).put(gameEntity.getId(), gameEntity);
+        nameIndex.put(nameKey(gameEntity.getName(), gameEntity.getVers()), gameEntity);
+        gameSearchEngine.add(gameEntity);
+        infoVersions.put(gameEntity.getId(), new AtomicLong());
+        return gameEntity;
+    }
+
+    /**
+     * Queues the current parameters, flags and started state of a game to be written
+     */
+    public void update(GameEntity gameEntity) {
+        gameSearchEngine.update(gameEntity);
+        touch(gameEntity);
+        gamePersistenceService.save(gameEntity);
+        quickMatchService.offer(gameEntity);
+    }
+
+    /**
+     * Bumps the info version of a game after a change the registry doesn't see, e.g. the userflags of a player
+     */
+    public void touch(GameEntity gameEntity) {
+        AtomicLong infoVersion = infoVersions.get(gameEntity.getId());
+        if (infoVersion != null) {
+            infoVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the info version of a live game, -1 once it has ended
+     */
+    public long getInfoVersion(GameEntity gameEntity) {
+        AtomicLong infoVersion = infoVersions.get(gameEntity.getId());
+        return infoVersion != null ? infoVersion.get() : -1;
+    }
+
+    /**
+     * Ends a game and its active connections, and unregisters it
+     *
+     * @param gameEntity the game to end
+     * @param endTime    the end time of the game and its connections
+     */
+    public void endGame(GameEntity gameEntity, LocalDateTime endTime) {
+        synchronized (gameEntity) {
+            if (games.remove(gameEntity.getId()) == null) {
+                return;
+            }
+            gameEntity.setEndTime(endTime);
+            Map<Long, GameEntity> versGames = versIndex.get(gameEntity.getVers());
+            if (versGames != null) {
+                versGames.remove(gameEntity.getId());
+            }
+            nameIndex.remove(nameKey(gameEntity.getName(), gameEntity.getVers()), gameEntity);
+            gameSearchEngine.remove(gameEntity);
+            infoVersions.remove(gameEntity.getId());
+            for (GameConnectionEntity gameConnectionEntity : getGameConnections(gameEntity)) {
+                endGameConnection(gameConnectionEntity, endTime);
+            }
+            gamePersistenceService.save(gameEntity);
+        }
+    }
+
+    /**
+     * Registers a player in a game, whatever its capacity (creation, map rotation)
+     *
+     * @param gameEntity              the game to join
+     * @param personaConnectionEntity the persona connection of the player
+     * @param isHost                  whether the player hosts the game
+     * @return the game connection, or null if the game has ended meanwhile
+     */
+    public GameConnectionEntity addGameConnection(GameEntity gameEntity, PersonaConnectionEntity personaConnectionEntity, boolean isHost) {
+        return addGameConnection(gameEntity, personaConnectionEntity, isHost, false);
+    }
+
+    /**
+     * Registers a player in a game
+     * The capacity is checked under the lock of the game, so concurrent joins can't overfill it
+     *
+     * @param gameEntity              the game to join
+     * @param personaConnectionEntity the persona connection of the player
+     * @param isHost                  whether the player hosts the game
+     * @param checkCapacity           whether to refuse the player once the game has maxsize connections
+     * @return the game connection, or null if the game has ended meanwhile or is full
+     */
+    public GameConnectionEntity addGameConnection(GameEntity gameEntity, PersonaConnectionEntity personaConnectionEntity, boolean isHost,
+                                                  boolean checkCapacity) {
+        synchronized (gameEntity) {
+            if (gameEntity.getEndTime() != null) {
+                log.warn("Game {} ended before persona connection {} joined", gameEntity.getId(), personaConnectionEntity.getId());
+                return null;
+            }
+            if (checkCapacity && getGameConnections(gameEntity).size() >= gameEntity.getMaxsize()) {
+                log.info("Game {} is full, persona connection {} can't join", gameEntity.getId(), personaConnectionEntity.getId());
+                return null;
+            }
+            GameConnectionEntity gameConnectionEntity = new GameConnectionEntity();
+            gameConnectionEntity.setGame(gameEntity);
+            gameConnectionEntity.setPersonaConnection(personaConnectionEntity);
+            gameConnectionEntity.setHost(isHost);
+            gameConnectionEntity.setStartTime(LocalDateTime.now());
+            gameEntity.getGameConnections().add(gameConnectionEntity);
+            personaConnectionIndex.put(personaConnectionEntity.getId(), gameConnectionEntity);
+            gameSearchEngine.updateAvailability(gameEntity);
+            touch(gameEntity);
+            gamePersistenceService.save(gameConnectionEntity);
+            quickMatchService.offer(gameEntity);
+            return gameConnectionEntity;
+        }
+    }
+
+    /**
+     * Ends the connection of a player to a game, the game keeps it for its history
+     */
+    public void endGameConnection(GameConnectionEntity gameConnectionEntity, LocalDateTime endTime) {
+        gameConnectionEntity.setEndTime(endTime);
+        personaConnectionIndex.remove(gameConnectionEntity.getPersonaConnection().getId(), gameConnectionEntity);
+        gameSearchEngine.updateAvailability(gameConnectionEntity.getGame());
+        touch(gameConnectionEntity.getGame());
+        gamePersistenceService.save(gameConnectionEntity);
+        quickMatchService.offer(gameConnectionEntity.getGame());
+    }
+
+    public Optional<GameEntity> getGame(Long id) {
+        return id != null ? Optional.ofNullable(games.get(id)) : Optional.empty();
+    }
+
+    /**
+     * @return the live games
+     */
+    public Collection<GameEntity> getGames() {
+        return games.values();
+    }
+
+    /**
+     * @param vers the game versions
+     * @return the live games of these versions, by creation order
+     */
+    public List<GameEntity> getGames(List<String> vers) {
+        if (vers.size() == 1) {
+            Map<Long, GameEntity> versGames = versIndex.get(vers.get(0));
+            return versGames != null ? new ArrayList<>(versGames.values()) : new ArrayList<>();
+        }
+        List<GameEntity> result = new ArrayList<>();
+        for (String gameVers : vers) {
+            Map<Long, GameEntity> versGames = versIndex.get(gameVers);
+            if (versGames != null) {
+                result.addAll(versGames.values());
+            }
+        }
+        result.sort(Comparator.comparing(GameEntity::getId));
+        return result;
+    }
+
+    public Optional<GameEntity> getGameByName(String name, List<String> vers) {
+        for (String gameVers : vers) {
+            GameEntity gameEntity = nameIndex.get(nameKey(name, gameVers));
+            if (gameEntity != null) {
+                return Optional.of(gameEntity);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean existsByName(String name, List<String> vers) {
+        return getGameByName(name, vers).isPresent();
+    }
+
+    /**
+     * @param personaConnectionId the persona connection of a player, may be null before the persona is selected
+     * @return the active game connection of the player
+     */
+    public Optional<GameConnectionEntity> getGameConnection(Long personaConnectionId) {
+        return personaConnectionId != null ? Optional.ofNullable(personaConnectionIndex.get(personaConnectionId)) : Optional.empty();
+    }
+
+    /**
+     * @param personaConnectionId the persona connection of a player, may be null before the persona is selected
+     * @return the game the player is in
+     */
+    public Optional<GameEntity> getCurrentGame(Long personaConnectionId) {
+        return getGameConnection(personaConnectionId).map(GameConnectionEntity::getGame);
+    }
+
+    /**
+     * @return the active connections of a game, in the order players joined
+     */
+    public List<GameConnectionEntity> getGameConnections(GameEntity gameEntity) {
+        Set<GameConnectionEntity> gameConnections = gameEntity.getGameConnections();
+        if (gameConnections == null) {
+            return List.of();
+        }
+        return gameConnections.stream().filter(connection -> connection.getEndTime() == null).toList();
+    }
+
+    /**
+     * @return when the last player left a game, empty if nobody ever joined it
+     */
+    public Optional<LocalDateTime> getLastDeparture(GameEntity gameEntity) {
+        Set<GameConnectionEntity> gameConnections = gameEntity.getGameConnections();
+        if (gameConnections == null) {
+            return Optional.empty();
+        }
+        return gameConnections.stream()
+                .map(GameConnectionEntity::getEndTime)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder());
+    }
+
+    /**
+     * @return the address of the host of a game, if any
+     */
+    public Optional<String> getHostAddress(Long gameId) {
+        return getGame(gameId).stream()
+                .flatMap(gameEntity -> gameEntity.getGameConnections().stream())
+                .filter(GameConnectionEntity::isHost)
+                .map(GameConnectionEntity::getPersonaConnection)
+                .filter(personaConnectionEntity -> personaConnectionEntity.getEndTime() == null)
+                .map(PersonaConnectionEntity::getAddress)
+                .findFirst();
+    }
+
+    /**
+     * @param vers the game versions
+     * @return the number of players in a game, dedicated server hosts excluded
+     */
+    public int countPlayersInGame(List<String> vers) {
+        int count = 0;
+        for (GameConnectionEntity gameConnectionEntity : personaConnectionIndex.values()) {
+            if (!gameConnectionEntity.getPersonaConnection().isHost() && vers.contains(gameConnectionEntity.getGame().getVers())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String nameKey(String name, String vers) {
+        return vers + '\0' + name;
+    }
+}
@@ -0,0 +1,292 @@
+package com.ea.services.server;
+
+import com.ea.dto.GameParams;
+import com.ea.dto.GameParams.Attribute;
+import com.ea.dto.GameParams.Layout;
+import com.ea.dto.MessageFields;
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers 'gsea' from indexes of the live games, instead of decoding and matching each game on each search
+ * Each game gets a slot, in creation order, and every searchable value has the bitset of the slots having it
+ * A search is the intersection of the bitsets of its criteria, read in slot order until COUNT games are found
+ * Slots aren't reused, they are compacted once most of them belong to ended games
+ * Titles without search criteria (NHL) only get the COUNT first games of their versions
+ * Kept up to date by the GameRegistry : decoded on creation and gset, availability on each join and leave
+ */
+@Slf4j
+@Component
+public class GameSearchEngine {
+
+    private static final int MIN_SLOTS_TO_COMPACT = 1024;
+    private static final int PASSWORD_FLAG = 1 << 16;
+    private static final int RANKED_FLAG = 1 << 18;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private GameEntity[] games = new GameEntity[64];
+    private GameParams[] params = new GameParams[64];
+    private int nextSlot;
+
+    private final Map<String, BitSet> versIndex = new HashMap<>();
+    private final Map<Attribute, Map<String, BitSet>> attributeIndex = new EnumMap<>(Attribute.class);
+    private final Map<Integer, BitSet> mapIndex = new HashMap<>();
+    private final Map<Integer, BitSet> maxsizeIndex = new HashMap<>();
+    private final BitSet available = new BitSet();
+    private final BitSet ranked = new BitSet();
+    private final BitSet password = new BitSet();
+
+    public void add(GameEntity gameEntity) {
+        lock.writeLock().lock();
+        try {
+            if (nextSlot == games.length) {
+                games = Arrays.copyOf(games, nextSlot * 2);
+                params = Arrays.copyOf(params, nextSlot * 2);
+            }
+            int slot = nextSlot++;
+            slots.put(gameEntity.getId(), slot);
+            games[slot] = gameEntity;
+            index(slot, GameParams.of(gameEntity));
+            available.set(slot, isAvailable(gameEntity));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes again the params of a game, after a gset
+     */
+    public void update(GameEntity gameEntity) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(gameEntity.getId());
+            if (slot != null) {
+                unindex(slot);
+                index(slot, GameParams.of(gameEntity));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates whether a game is full, after a player joined or left
+     */
+    public void updateAvailability(GameEntity gameEntity) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(gameEntity.getId());
+            if (slot != null) {
+                available.set(slot, isAvailable(gameEntity));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(GameEntity gameEntity) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(gameEntity.getId());
+            if (slot != null) {
+                unindex(slot);
+                available.clear(slot);
+                games[slot] = null;
+                if (nextSlot >= MIN_SLOTS_TO_COMPACT && slots.size() < nextSlot / 4) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search games, criteria are the gsea fields, -1 or no field meaning any value
+     * A searched 0 also matches an option left empty (off)
+     *
+     * @param vers     the versions the searching client can join
+     * @param criteria the gsea fields
+     * @param layout   the PARAMS layout of the searching client, criteria are ignored without one
+     * @param count    the maximum number of games
+     * @return the matching games, in creation order
+     */
+    public List<GameEntity> search(List<String> vers, MessageFields criteria, Layout layout, int count) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = new BitSet();
+            for (String gameVers : vers) {
+                BitSet versSlots = versIndex.get(gameVers);
+                if (versSlots != null) {
+                    candidates.or(versSlots);
+                }
+            }
+            String name = null;
+            if (layout != Layout.NONE) {
+                filter(candidates, criteria);
+                name = criteria.get("NAME");
+            }
+
+            String searchedName = name != null ? name.replace("\"", "").toLowerCase() : null;
+            List<GameEntity> result = new ArrayList<>(Math.min(count, candidates.cardinality()));
+            for (int slot = candidates.nextSetBit(0); slot >= 0 && result.size() < count; slot = candidates.nextSetBit(slot + 1)) {
+                if (searchedName == null || params[slot].name().contains(searchedName)) {
+                    result.add(games[slot]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void filter(BitSet candidates, MessageFields criteria) {
+        String availableParam = criteria.get("AVAILABLE");
+        if (availableParam == null) {
+            availableParam = criteria.get("AVAIL"); // AVAIL on MoHH2
+        }
+        if (isSet(availableParam)) {
+            candidates.and(available);
+        }
+        for (Attribute attribute : Attribute.values()) {
+            String value = criteria.get(attribute.name());
+            if (isSet(value)) {
+                Map<String, BitSet> values = attributeIndex.getOrDefault(attribute, Map.of());
+                BitSet matching = copy(values.get(value));
+                if (attribute.emptyIsZero && "0".equals(value)) {
+                    or(matching, values.get(""));
+                }
+                candidates.and(matching);
+            }
+        }
+        String map = criteria.get("MAP");
+        if (isSet(map)) {
+            candidates.and(copy(mapIndex.get(Integer.parseInt(map))));
+        }
+        String maxsize = criteria.get("MAXSIZE");
+        if (maxsize != null) {
+            candidates.and(copy(maxsizeIndex.get(Integer.parseInt(maxsize))));
+        }
+        String sysmask = criteria.get("SYSMASK");
+        if (sysmask != null) {
+            // Only the bits the client cares about (specified in mask)
+            int clientMask = Integer.parseInt(sysmask);
+            String sysflags = criteria.get("SYSFLAGS");
+            int clientFlags = sysflags != null ? Integer.parseInt(sysflags) : 0;
+            filterFlag(candidates, password, PASSWORD_FLAG, clientMask, clientFlags);
+            filterFlag(candidates, ranked, RANKED_FLAG, clientMask, clientFlags);
+            if ((clientFlags & clientMask & ~(PASSWORD_FLAG | RANKED_FLAG)) != 0) {
+                // Games have no other flag
+                candidates.clear();
+            }
+        }
+    }
+
+    private static void filterFlag(BitSet candidates, BitSet flagged, int flag, int clientMask, int clientFlags) {
+        if ((clientMask & flag) != 0) {
+            if ((clientFlags & flag) != 0) {
+                candidates.and(flagged);
+            } else {
+                candidates.andNot(flagged);
+            }
+        }
+    }
+
+    private void index(int slot, GameParams gameParams) {
+        params[slot] = gameParams;
+        GameEntity gameEntity = games[slot];
+        versIndex.computeIfAbsent(gameEntity.getVers(), vers -> new BitSet()).set(slot);
+        gameParams.attributes().forEach((attribute, value) -> attributeIndex
+                .computeIfAbsent(attribute, key -> new HashMap<>())
+                .computeIfAbsent(value, key -> new BitSet()).set(slot));
+        mapIndex.computeIfAbsent(gameParams.map(), map -> new BitSet()).set(slot);
+        maxsizeIndex.computeIfAbsent(gameEntity.getMaxsize(), maxsize -> new BitSet()).set(slot);
+        ranked.set(slot, gameParams.ranked());
+        password.set(slot, gameParams.password());
+    }
+
+    private void unindex(int slot) {
+        GameParams gameParams = params[slot];
+        GameEntity gameEntity = games[slot];
+        clear(versIndex, gameEntity.getVers(), slot);
+        gameParams.attributes().forEach((attribute, value) -> clear(attributeIndex.get(attribute), value, slot));
+        clear(mapIndex, gameParams.map(), slot);
+        clear(maxsizeIndex, gameEntity.getMaxsize(), slot);
+        ranked.clear(slot);
+        password.clear(slot);
+        params[slot] = null;
+    }
+
+    /**
+     * Moves the games of the live slots to the first ones, keeping their order
+     */
+    private void compact() {
+        GameEntity[] liveGames = games;
+        GameParams[] liveParams = params;
+        BitSet liveAvailable = (BitSet) available.clone();
+        int liveSlots = nextSlot;
+
+        games = new GameEntity[Math.max(64, slots.size() * 2)];
+        params = new GameParams[games.length];
+        nextSlot = 0;
+        slots.clear();
+        versIndex.clear();
+        attributeIndex.clear();
+        mapIndex.clear();
+        maxsizeIndex.clear();
+        available.clear();
+        ranked.clear();
+        password.clear();
+
+        for (int slot = 0; slot < liveSlots; slot++) {
+            if (liveGames[slot] != null) {
+                int newSlot = nextSlot++;
+                slots.put(liveGames[slot].getId(), newSlot);
+                games[newSlot] = liveGames[slot];
+                index(newSlot, liveParams[slot]);
+                available.set(newSlot, liveAvailable.get(slot));
+            }
+        }
+        log.debug("Game search slots compacted from {} to {}", liveSlots, nextSlot);
+    }
+
+    private static boolean isAvailable(GameEntity gameEntity) {
+        Set<GameConnectionEntity> gameConnections = gameEntity.getGameConnections();
+        long count = gameConnections == null ? 0 : gameConnections.stream()
+                .filter(connection -> connection.getEndTime() == null).count();
+        return count < gameEntity.getMaxsize();
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !"-1".equals(value);
+    }
+
+    private static BitSet copy(BitSet bitSet) {
+        return bitSet != null ? (BitSet) bitSet.clone() : new BitSet();
+    }
+
+    private static void or(BitSet target, BitSet bitSet) {
+        if (bitSet != null) {
+            target.or(bitSet);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> index, K key, int slot) {
+        if (index != null) {
+            BitSet bitSet = index.get(key);
+            if (bitSet != null) {
+                bitSet.clear(slot);
+                if (bitSet.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
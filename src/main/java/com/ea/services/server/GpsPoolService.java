@@ -0,0 +1,235 @@
+package com.ea.services.server;
+
+import com.ea.config.GameServerConfig;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.SocketWrapper;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pool of the persistent game spawn services (GPS), the dedicated servers hosting MoHH games on demand ('gpsc')
+ * Each GPS hosts one game at a time, it's available, reserved from its allocation until it creates the game, or hosting
+ * A GPS is healthy while it answers the keep-alives or reports its status ('gpss') within the heartbeat timeout,
+ * and once the cooldown following a game it didn't create in time has elapsed
+ * Allocations are serialized, so a GPS is never given to two requests
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GpsPoolService {
+
+    private static final long FAILURE_WINDOW = TimeUnit.MINUTES.toNanos(10);
+
+    private final Props props;
+    private final GameServerConfig gameServerConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<SocketWrapper, GpsHost> hosts = new ConcurrentHashMap<>();
+    private long nextSequence;
+    private long lastAllocatedSequence = -1;
+    private Policy policy;
+    private Counter spawnFailureCounter;
+    private Counter exhaustedCounter;
+
+    public enum Policy {
+        /**
+         * The GPS with the fewest recent failures, then the one idle for the longest time
+         */
+        LEAST_LOADED,
+        /**
+         * Each GPS in turn, by connection order
+         */
+        ROUND_ROBIN,
+        /**
+         * A GPS of the region the player connected to (dedicated regions in the configuration), least loaded otherwise
+         */
+        REGION
+    }
+
+    private enum Status {
+        AVAILABLE,
+        RESERVED,
+        HOSTING
+    }
+
+    @PostConstruct
+    public void init() {
+        policy = Policy.valueOf(props.getGpsPolicy().toUpperCase().replace('-', '_'));
+        spawnFailureCounter = meterRegistry.counter("gps.spawn.failures");
+        exhaustedCounter = meterRegistry.counter("gps.exhausted");
+        Gauge.builder("gps.available", this, pool -> pool.countAvailable())
+                .description("Healthy GPS available to host a game")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Status reported by a GPS, 'A' when it's available, 'G' when it's hosting a game
+     *
+     * @param socketWrapper the socket wrapper of the GPS
+     * @param status        the reported status
+     */
+    public synchronized void updateStatus(SocketWrapper socketWrapper, String status) {
+        GpsHost host = hosts.computeIfAbsent(socketWrapper, wrapper -> new GpsHost(wrapper, nextSequence++));
+        host.lastHeartbeat = System.nanoTime();
+        if ("A".equals(status)) {
+            // A game being created keeps its GPS
+            if (host.status != Status.RESERVED) {
+                host.status = Status.AVAILABLE;
+            }
+        } else if ("G".equals(status)) {
+            host.status = Status.HOSTING;
+        }
+    }
+
+    /**
+     * Records a message from a GPS, other than its status
+     */
+    public void heartbeat(SocketWrapper socketWrapper) {
+        GpsHost host = hosts.get(socketWrapper);
+        if (host != null) {
+            host.lastHeartbeat = System.nanoTime();
+        }
+    }
+
+    /**
+     * Reserves a healthy available GPS to create a game
+     *
+     * @param playerSocket the socket of the player asking for the game, to find its region
+     * @param vers         the version of the player
+     * @return the socket wrapper of the reserved GPS, empty if none is available
+     */
+    public synchronized Optional<SocketWrapper> allocate(ClientSocket playerSocket, String vers) {
+        long now = System.nanoTime();
+        List<GpsHost> candidates = hosts.values().stream()
+                .filter(host -> host.status == Status.AVAILABLE && isHealthy(host, now))
+                .toList();
+        if (candidates.isEmpty()) {
+            exhaustedCounter.increment();
+            return Optional.empty();
+        }
+        GpsHost host = switch (policy) {
+            case ROUND_ROBIN -> candidates.stream()
+                    .filter(candidate -> candidate.sequence > lastAllocatedSequence)
+                    .min(Comparator.comparingLong(candidate -> candidate.sequence))
+                    .orElseGet(() -> candidates.stream().min(Comparator.comparingLong(candidate -> candidate.sequence)).orElseThrow());
+            case REGION -> leastLoaded(regionHosts(candidates, playerSocket, vers), now)
+                    .orElseGet(() -> leastLoaded(candidates, now).orElseThrow());
+            case LEAST_LOADED -> leastLoaded(candidates, now).orElseThrow();
+        };
+        host.status = Status.RESERVED;
+        host.lastAllocated = now;
+        lastAllocatedSequence = host.sequence;
+        return Optional.of(host.socketWrapper);
+    }
+
+    /**
+     * The GPS created the game it was reserved for
+     */
+    public synchronized void gameCreated(SocketWrapper socketWrapper) {
+        GpsHost host = hosts.get(socketWrapper);
+        if (host != null) {
+            host.status = Status.HOSTING;
+            host.lastHeartbeat = System.nanoTime();
+        }
+    }
+
+    /**
+     * The GPS didn't create the game it was reserved for in time, it won't be allocated until the cooldown has elapsed
+     */
+    public synchronized void spawnFailed(SocketWrapper socketWrapper) {
+        GpsHost host = hosts.get(socketWrapper);
+        if (host != null && host.status == Status.RESERVED) {
+            long now = System.nanoTime();
+            host.status = Status.AVAILABLE;
+            host.failures.add(now);
+            spawnFailureCounter.increment();
+            log.warn("GPS {} didn't create its game, unavailable for {}s", socketWrapper.getIdentifier(), props.getGpsSpawnFailureCooldown());
+        }
+    }
+
+    /**
+     * Removes a disconnected GPS
+     */
+    public synchronized void remove(SocketWrapper socketWrapper) {
+        hosts.remove(socketWrapper);
+    }
+
+    private boolean isHealthy(GpsHost host, long now) {
+        ClientSocket socket = host.socketWrapper.getSocket();
+        if (socket == null || socket.isClosed()) {
+            return false;
+        }
+        Long lastFailure = host.failures.peekLast();
+        if (lastFailure != null && now - lastFailure < TimeUnit.SECONDS.toNanos(props.getGpsSpawnFailureCooldown())) {
+            return false;
+        }
+        if (now - host.lastHeartbeat > TimeUnit.SECONDS.toNanos(props.getGpsHeartbeatTimeout())) {
+            if (!host.timedOut) {
+                log.warn("No heartbeat from GPS {} for {}s, not allocated anymore", host.socketWrapper.getIdentifier(), props.getGpsHeartbeatTimeout());
+            }
+            host.timedOut = true;
+            return false;
+        }
+        host.timedOut = false;
+        return true;
+    }
+
+    private Optional<GpsHost> leastLoaded(List<GpsHost> candidates, long now) {
+        return candidates.stream().min(Comparator
+                .comparingInt((GpsHost host) -> host.recentFailures(now))
+                .thenComparingLong(host -> host.lastAllocated));
+    }
+
+    /**
+     * @return the candidates in the region of the port the player connected to
+     */
+    private List<GpsHost> regionHosts(List<GpsHost> candidates, ClientSocket playerSocket, String vers) {
+        Set<String> addresses = gameServerConfig.getServers().stream()
+                .filter(server -> server.getVers().equals(vers) && server.getDedicated() != null
+                        && server.getDedicated().getRegions() != null && server.getRegions() != null)
+                .flatMap(server -> server.getRegions().stream()
+                        .filter(region -> region.getPort() == playerSocket.getLocalPort())
+                        .flatMap(region -> server.getDedicated().getRegions().getOrDefault(region.getName(), List.of()).stream()))
+                .collect(Collectors.toSet());
+        return candidates.stream()
+                .filter(host -> addresses.contains(host.socketWrapper.getSocket().getInetAddress().getHostAddress()))
+                .toList();
+    }
+
+    private synchronized long countAvailable() {
+        long now = System.nanoTime();
+        return hosts.values().stream().filter(host -> host.status == Status.AVAILABLE && isHealthy(host, now)).count();
+    }
+
+    private static class GpsHost {
+        private final SocketWrapper socketWrapper;
+        private final long sequence;
+        private final Deque<Long> failures = new ArrayDeque<>();
+        private Status status = Status.AVAILABLE;
+        private volatile long lastHeartbeat = System.nanoTime();
+        private long lastAllocated = Long.MIN_VALUE;
+        private boolean timedOut;
+
+        private GpsHost(SocketWrapper socketWrapper, long sequence) {
+            this.socketWrapper = socketWrapper;
+            this.sequence = sequence;
+        }
+
+        private int recentFailures(long now) {
+            while (!failures.isEmpty() && now - failures.peekFirst() > FAILURE_WINDOW) {
+                failures.pollFirst();
+            }
+            return failures.size();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ea.services.server;
+
+import com.ea.dto.ClientSocket;
+import com.ea.steps.PacketEncoder;
+import com.ea.steps.SocketWriter;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the ~png keep-alive to every connection from a single timer wheel,
+ * and closes connections which haven't sent anything for longer than the idle timeout
+ * The round trip is measured between a ping and the next ~png received from the client
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KeepAliveService {
+
+    private final Props props;
+    private final SocketWriter socketWriter;
+    private final MeterRegistry meterRegistry;
+    private final Map<ClientSocket, Connection> connections = new ConcurrentHashMap<>();
+    private HashedWheelTimer timer;
+    private Timer pingTimer;
+    private Counter idleCounter;
+
+    @PostConstruct
+    public void init() {
+        timer = new HashedWheelTimer(new DefaultThreadFactory("keep-alive", true),
+                props.getTcpKeepAliveTick(), TimeUnit.MILLISECONDS, 512);
+        pingTimer = Timer.builder("tcp.ping.rtt")
+                .description("Round trip between a ~png sent to a client and its answer")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        idleCounter = meterRegistry.counter("tcp.idle.disconnected");
+        Gauge.builder("tcp.ping.rtt.worst", connections,
+                        values -> values.values().stream().mapToLong(connection -> connection.roundTrip).max().orElse(0) / 1e6)
+                .description("Highest last round trip among connected clients, in milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.stop();
+    }
+
+    /**
+     * Starts sending keep-alives to a connection
+     *
+     * @param socket the client socket
+     */
+    public void register(ClientSocket socket) {
+        Connection connection = new Connection(socket);
+        connections.put(socket, connection);
+        schedule(connection);
+    }
+
+    /**
+     * Stops sending keep-alives to a closed connection
+     *
+     * @param socket the client socket
+     */
+    public void unregister(ClientSocket socket) {
+        Connection connection = connections.remove(socket);
+        if (connection != null && connection.timeout != null) {
+            connection.timeout.cancel();
+        }
+    }
+
+    /**
+     * Records activity of a connection, and the round trip if the message answers a ping
+     *
+     * @param socket    the client socket
+     * @param idMessage the id of the received message
+     */
+    public void onInbound(ClientSocket socket, String idMessage) {
+        Connection connection = connections.get(socket);
+        if (connection == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        connection.lastInbound = now;
+        long pingSent = connection.pingSent;
+        if (pingSent != 0 && "~png".equals(idMessage)) {
+            connection.pingSent = 0;
+            connection.roundTrip = now - pingSent;
+            pingTimer.record(now - pingSent, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void schedule(Connection connection) {
+        connection.timeout = timer.newTimeout(timeout -> tick(connection), props.getTcpPingInterval(), TimeUnit.SECONDS);
+    }
+
+    private void tick(Connection connection) {
+        ClientSocket socket = connection.socket;
+        if (connections.get(socket) != connection || socket.isClosed()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long idleTimeout = TimeUnit.SECONDS.toNanos(props.getTcpIdleTimeout());
+        if (idleTimeout > 0 && now - connection.lastInbound > idleTimeout) {
+            idleCounter.increment();
+            log.warn("No message from {} for {}s, closing connection", socket.getRemoteSocketAddress(), props.getTcpIdleTimeout());
+            unregister(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.error("Error while closing socket", e);
+            }
+            return;
+        }
+        // Only the oldest unanswered ping is measured
+        if (connection.pingSent == 0) {
+            connection.pingSent = now;
+        }
+        socketWriter.write(socket, PacketEncoder.PING);
+        schedule(connection);
+    }
+
+    private static class Connection {
+        private final ClientSocket socket;
+        private volatile long lastInbound = System.nanoTime();
+        private volatile long pingSent;
+        private volatile long roundTrip;
+        private volatile Timeout timeout;
+
+        private Connection(ClientSocket socket) {
+            this.socket = socket;
+        }
+    }
+}
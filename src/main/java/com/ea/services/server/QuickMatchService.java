@@ -0,0 +1,196 @@
+package com.ea.services.server;
+
+import com.ea.dto.SocketWrapper;
+import com.ea.entities.core.GameEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * "Play Now" wait queue ('gqwk' MODE=2), one queue per group of related versions
+ * Instead of polling the games, waiting players are matched when a game may have become joinable :
+ * when a player joins or leaves it, and when it's updated (gset, gsta)
+ * Matches run on a single thread, so a game isn't given more waiting players than its free slots
+ * The matched players join on their own thread, their slots stay reserved until then
+ * A joinable game isn't started, has no password, and has players but isn't full
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuickMatchService {
+
+    private final GameServerService gameServerService;
+    private final ThreadService threadService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, String> groupKeys = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Waiter>> queues = new ConcurrentHashMap<>();
+    private final Map<SocketWrapper, Waiter> waiters = new ConcurrentHashMap<>();
+    // Slots given to matched players which haven't joined yet, only used by the matcher thread
+    private final Map<GameEntity, Integer> reservedSlots = new IdentityHashMap<>();
+    private ExecutorService matcher;
+    private Timer matchedTimer;
+    private Timer cancelledTimer;
+
+    @PostConstruct
+    public void init() {
+        matcher = Executors.newSingleThreadExecutor(threadService.threadFactory("quick-match-"));
+        matchedTimer = waitTimer("matched");
+        cancelledTimer = waitTimer("cancelled");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdownNow();
+    }
+
+    /**
+     * Puts a player in the wait queue of its versions, replacing its previous request if any
+     * The caller offers the current games afterward, so a game created meanwhile isn't missed
+     *
+     * @param socketWrapper the socket wrapper of the waiting player
+     * @param onMatch       joins the matched game, run on a thread of its own
+     */
+    public void enqueue(SocketWrapper socketWrapper, Consumer<GameEntity> onMatch) {
+        cancel(socketWrapper);
+        Deque<Waiter> queue = queue(socketWrapper.getPersonaConnectionEntity().getVers());
+        Waiter waiter = new Waiter(socketWrapper, queue, onMatch, System.nanoTime());
+        waiters.put(socketWrapper, waiter);
+        synchronized (queue) {
+            queue.add(waiter);
+        }
+    }
+
+    /**
+     * Removes a player from its wait queue, on 'gqwk' MODE=3 or when it disconnects
+     */
+    public void cancel(SocketWrapper socketWrapper) {
+        Waiter waiter = waiters.remove(socketWrapper);
+        if (waiter != null) {
+            synchronized (waiter.queue()) {
+                waiter.queue().remove(waiter);
+            }
+            cancelledTimer.record(System.nanoTime() - waiter.queuedAt(), TimeUnit.NANOSECONDS);
+            log.debug("Game search cancelled for {}", socketWrapper.getIdentifier());
+        }
+    }
+
+    /**
+     * Matches waiting players to a game which may have become joinable
+     */
+    public void offer(GameEntity gameEntity) {
+        offer(List.of(gameEntity));
+    }
+
+    /**
+     * Matches waiting players to games which may have become joinable, in the given order
+     */
+    public void offer(List<GameEntity> gameEntities) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        matcher.execute(() -> gameEntities.forEach(this::match));
+    }
+
+    private void match(GameEntity gameEntity) {
+        Deque<Waiter> queue = queues.get(groupKey(gameEntity.getVers()));
+        if (queue == null) {
+            return;
+        }
+        while (freeSlots(gameEntity) - reservedSlots.getOrDefault(gameEntity, 0) > 0) {
+            Waiter waiter;
+            synchronized (queue) {
+                waiter = queue.poll();
+            }
+            if (waiter == null) {
+                return;
+            }
+            // Cancelled meanwhile, or disconnected
+            if (!waiters.remove(waiter.socketWrapper(), waiter) || waiter.socketWrapper().getSocket().isClosed()) {
+                continue;
+            }
+            matchedTimer.record(System.nanoTime() - waiter.queuedAt(), TimeUnit.NANOSECONDS);
+            log.debug("Game {} found for {}", gameEntity.getId(), waiter.socketWrapper().getIdentifier());
+            reservedSlots.merge(gameEntity, 1, Integer::sum);
+            threadService.newThread("quick-match-join-" + waiter.socketWrapper().getIdentifier(), () -> join(gameEntity, waiter)).start();
+        }
+    }
+
+    /**
+     * Joins a matched player, off the matcher thread as it writes to the player and the database,
+     * then frees the reserved slot and matches again in case the join failed
+     */
+    private void join(GameEntity gameEntity, Waiter waiter) {
+        try {
+            waiter.onMatch().accept(gameEntity);
+        } catch (Exception e) {
+            log.error("Error while joining game {} found for {}", gameEntity.getId(), waiter.socketWrapper().getIdentifier(), e);
+        } finally {
+            if (!matcher.isShutdown()) {
+                matcher.execute(() -> {
+                    reservedSlots.computeIfPresent(gameEntity, (key, slots) -> slots > 1 ? slots - 1 : null);
+                    match(gameEntity);
+                });
+            }
+        }
+    }
+
+    private static long freeSlots(GameEntity gameEntity) {
+        if (gameEntity.getEndTime() != null || gameEntity.isStarted() || StringUtils.isNotEmpty(gameEntity.getPass())) {
+            return 0;
+        }
+        long players;
+        synchronized (gameEntity) {
+            players = gameEntity.getGameConnections().stream().filter(connection -> connection.getEndTime() == null).count();
+        }
+        return players > 0 ? gameEntity.getMaxsize() - players : 0;
+    }
+
+    private Deque<Waiter> queue(String vers) {
+        return queues.computeIfAbsent(groupKey(vers), key -> {
+            Deque<Waiter> queue = new ArrayDeque<>();
+            Gauge.builder("games.quickmatch.waiting", queue, this::size)
+                    .description("Players waiting for a game to join")
+                    .tag("vers", key)
+                    .register(meterRegistry);
+            return queue;
+        });
+    }
+
+    /**
+     * @return the related versions of a version, as a key shared by the whole group
+     */
+    private String groupKey(String vers) {
+        return groupKeys.computeIfAbsent(vers, key -> String.join(",", gameServerService.getRelatedVers(key)));
+    }
+
+    private int size(Deque<Waiter> queue) {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    private Timer waitTimer(String outcome) {
+        return Timer.builder("games.quickmatch.wait")
+                .description("Time players waited for a game to join")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record Waiter(SocketWrapper socketWrapper, Deque<Waiter> queue, Consumer<GameEntity> onMatch, long queuedAt) {
+    }
+}
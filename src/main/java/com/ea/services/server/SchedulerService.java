@@ -0,0 +1,80 @@
+package com.ea.services.server;
+
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the continuations handlers leave behind them, after the delays the protocol needs between two messages,
+ * e.g. the +ses sent 100 ms after the +mgm, so handlers don't sleep on the session thread
+ * Tasks run on a few threads, they must be short and must not sleep
+ * On shutdown, the tasks already scheduled are still run, for up to the drain timeout
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchedulerService {
+
+    /**
+     * Delay between two messages which the client needs to get apart
+     */
+    public static final long PACING_DELAY = 100;
+
+    private final Props props;
+    private final ThreadService threadService;
+    private final MeterRegistry meterRegistry;
+    private ScheduledThreadPoolExecutor executor;
+    private Counter errorCounter;
+
+    @PostConstruct
+    public void init() {
+        executor = new ScheduledThreadPoolExecutor(props.getTcpSchedulerThreads(), threadService.threadFactory("scheduler-"));
+        executor.setRemoveOnCancelPolicy(true);
+        errorCounter = meterRegistry.counter("scheduler.errors");
+        Gauge.builder("scheduler.pending", executor, pool -> pool.getQueue().size())
+                .description("Delayed tasks waiting to run")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(props.getTcpSchedulerDrainTimeout(), TimeUnit.SECONDS)) {
+                log.warn("{} delayed tasks dropped on shutdown", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a task once a delay has elapsed, without blocking the caller
+     *
+     * @param name        the task name, for the logs
+     * @param delayMillis the delay, in milliseconds
+     * @param task        the task to run
+     * @return the scheduled task, to cancel it
+     */
+    public ScheduledFuture<?> schedule(String name, long delayMillis, Runnable task) {
+        return executor.schedule(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                errorCounter.increment();
+                log.error("Error in delayed task {}", name, e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
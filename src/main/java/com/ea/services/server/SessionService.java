@@ -0,0 +1,78 @@
+package com.ea.services.server;
+
+import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.SocketWrapper;
+import com.ea.services.core.GameService;
+import com.ea.services.core.PersonaService;
+import com.ea.steps.SocketWriter;
+import com.ea.utils.SocketUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * Opens and closes client sessions, whatever the transport the socket comes from
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionService {
+
+    private final SocketManager socketManager;
+    private final GameService gameService;
+    private final PersonaService personaService;
+    private final SocketWriter socketWriter;
+    private final KeepAliveService keepAliveService;
+    private final QuickMatchService quickMatchService;
+    private final GpsPoolService gpsPoolService;
+
+    /**
+     * Registers a newly accepted connection
+     *
+     * @param socket  the client socket
+     * @param isAries true for lobby (Aries) ports, false for the buddy port
+     */
+    public void open(ClientSocket socket, boolean isAries) {
+        if (isAries) {
+            socketManager.addSocket(socket.getRemoteSocketAddress().toString(), socket);
+        } else {
+            socketManager.addBuddySocket(socket.getRemoteSocketAddress().toString(), socket);
+        }
+        keepAliveService.register(socket);
+    }
+
+    /**
+     * Unregisters a connection and ends the related game and persona connections
+     *
+     * @param socket the client socket
+     */
+    public void close(ClientSocket socket) {
+        String playerInfo = "";
+        // Find socket wrapper using exact ClientSocket object match
+        SocketWrapper socketWrapper = socketManager.getSocketWrapperBySocket(socket);
+        if (socketWrapper != null) {
+            playerInfo = SocketUtils.getPlayerInfo(socketWrapper);
+            socketManager.removeSocket(socketWrapper.getIdentifier());
+            gpsPoolService.remove(socketWrapper);
+            if (socketWrapper.getPersonaEntity() != null) {
+                quickMatchService.cancel(socketWrapper);
+                gameService.endGameConnection(socketWrapper);
+                personaService.endPersonaConnection(socketWrapper);
+            }
+        } else {
+            // Find buddy socket wrapper using exact ClientSocket object match
+            BuddySocketWrapper buddySocketWrapper = socketManager.getBuddySocketWrapperBySocket(socket);
+            if (buddySocketWrapper != null) {
+                playerInfo = SocketUtils.getBuddyPlayerInfo(buddySocketWrapper);
+                socketManager.removeBuddySocket(buddySocketWrapper.getIdentifier());
+            } else {
+                log.warn("No SocketWrapper found for socket: {}", socket.getRemoteSocketAddress());
+            }
+        }
+        keepAliveService.unregister(socket);
+        socketWriter.release(socket);
+        log.info("TCP client session ended: {} {}", socket.getRemoteSocketAddress(), playerInfo);
+    }
+}
@@ -1,47 +1,124 @@
 package com.ea.services.server;
 
 import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketWrapper;
-import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.entities.core.PersonaConnectionEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
-import java.net.Socket;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Registry of the connected clients
+ * Besides the identifier (remote address), wrappers are indexed by socket, lkey, persona connection and vers,
+ * so lookups don't scan all the connections
+ * Index entries are derived from the wrapper fields, updateIndexes must be called once these fields change
+ */
 @RequiredArgsConstructor
 @Component
 @Slf4j
 public class SocketManager {
 
-    private final GameConnectionRepository gameConnectionRepository;
+    private final GameRegistry gameRegistry;
     private final ConcurrentHashMap<String, SocketWrapper> sockets = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, BuddySocketWrapper> buddySockets = new ConcurrentHashMap<>();
 
-    public void addSocket(String identifier, Socket socket) {
+    private final Map<ClientSocket, SocketWrapper> socketIndex = new ConcurrentHashMap<>();
+    private final Map<String, SocketWrapper> lkeyIndex = new ConcurrentHashMap<>();
+    private final Map<Long, SocketWrapper> personaConnectionIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<SocketWrapper>> versIndex = new ConcurrentHashMap<>();
+    private final Map<SocketWrapper, IndexKeys> indexedKeys = new ConcurrentHashMap<>();
+
+    private final Map<ClientSocket, BuddySocketWrapper> buddySocketIndex = new ConcurrentHashMap<>();
+    private final Map<String, BuddySocketWrapper> buddyPersonaIndex = new ConcurrentHashMap<>();
+    private final Map<BuddySocketWrapper, String> indexedBuddyPersonas = new ConcurrentHashMap<>();
+
+    public void addSocket(String identifier, ClientSocket socket) {
         SocketWrapper wrapper = new SocketWrapper();
         wrapper.setSocket(socket);
         wrapper.setIdentifier(identifier);
         sockets.put(identifier, wrapper);
+        socketIndex.put(socket, wrapper);
     }
 
-    public void addBuddySocket(String identifier, Socket socket) {
+    public void addBuddySocket(String identifier, ClientSocket socket) {
         BuddySocketWrapper wrapper = new BuddySocketWrapper();
         wrapper.setSocket(socket);
         wrapper.setIdentifier(identifier);
         buddySockets.put(identifier, wrapper);
+        buddySocketIndex.put(socket, wrapper);
     }
 
     public void removeSocket(String identifier) {
-        sockets.remove(identifier);
+        SocketWrapper wrapper = sockets.remove(identifier);
+        if (wrapper != null) {
+            synchronized (wrapper) {
+                socketIndex.remove(wrapper.getSocket(), wrapper);
+                IndexKeys keys = indexedKeys.remove(wrapper);
+                if (keys != null) {
+                    updateIndex(lkeyIndex, keys.lkey(), null, wrapper);
+                    updateIndex(personaConnectionIndex, keys.personaConnectionId(), null, wrapper);
+                    updateVersIndex(keys.vers(), null, wrapper);
+                }
+            }
+        }
     }
 
     public void removeBuddySocket(String identifier) {
-        buddySockets.remove(identifier);
+        BuddySocketWrapper wrapper = buddySockets.remove(identifier);
+        if (wrapper != null) {
+            synchronized (wrapper) {
+                buddySocketIndex.remove(wrapper.getSocket(), wrapper);
+                String pers = indexedBuddyPersonas.remove(wrapper);
+                if (pers != null) {
+                    buddyPersonaIndex.remove(pers, wrapper);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the index entries of a wrapper after its lkey or persona connection (or its id) changed
+     *
+     * @param wrapper the wrapper which changed
+     */
+    public void updateIndexes(SocketWrapper wrapper) {
+        synchronized (wrapper) {
+            if (sockets.get(wrapper.getIdentifier()) != wrapper) {
+                return; // Already removed
+            }
+            IndexKeys oldKeys = indexedKeys.getOrDefault(wrapper, IndexKeys.NONE);
+            IndexKeys newKeys = IndexKeys.of(wrapper);
+            updateIndex(lkeyIndex, oldKeys.lkey(), newKeys.lkey(), wrapper);
+            updateIndex(personaConnectionIndex, oldKeys.personaConnectionId(), newKeys.personaConnectionId(), wrapper);
+            updateVersIndex(oldKeys.vers(), newKeys.vers(), wrapper);
+            indexedKeys.put(wrapper, newKeys);
+        }
+    }
+
+    /**
+     * Updates the index entries of a buddy wrapper after its persona changed
+     *
+     * @param wrapper the wrapper which changed
+     */
+    public void updateIndexes(BuddySocketWrapper wrapper) {
+        synchronized (wrapper) {
+            if (buddySockets.get(wrapper.getIdentifier()) != wrapper) {
+                return; // Already removed
+            }
+            String oldPers = indexedBuddyPersonas.get(wrapper);
+            String newPers = wrapper.getPersonaEntity() != null ? wrapper.getPersonaEntity().getPers() : null;
+            updateIndex(buddyPersonaIndex, oldPers, newPers, wrapper);
+            if (newPers != null) {
+                indexedBuddyPersonas.put(wrapper, newPers);
+            } else {
+                indexedBuddyPersonas.remove(wrapper);
+            }
+        }
     }
 
     public SocketWrapper getSocketWrapper(String identifier) {
@@ -49,36 +126,27 @@ public class SocketManager {
     }
 
     /**
-     * Finds a SocketWrapper by exact Socket object match.
+     * Finds a SocketWrapper by exact ClientSocket object match.
      *
-     * @param socket The exact Socket object to find
+     * @param socket The exact ClientSocket object to find
      * @return The SocketWrapper containing this exact socket, or null if not found
      */
-    public SocketWrapper getSocketWrapperBySocket(Socket socket) {
-        return sockets.values().stream()
-                .filter(wrapper -> wrapper.getSocket() == socket)
-                .findFirst()
-                .orElse(null);
+    public SocketWrapper getSocketWrapperBySocket(ClientSocket socket) {
+        return socketIndex.get(socket);
     }
 
     /**
-     * Finds a BuddySocketWrapper by exact Socket object match.
+     * Finds a BuddySocketWrapper by exact ClientSocket object match.
      *
-     * @param socket The exact Socket object to find
+     * @param socket The exact ClientSocket object to find
      * @return The BuddySocketWrapper containing this exact socket, or null if not found
      */
-    public BuddySocketWrapper getBuddySocketWrapperBySocket(Socket socket) {
-        return buddySockets.values().stream()
-                .filter(wrapper -> wrapper.getSocket() == socket)
-                .findFirst()
-                .orElse(null);
+    public BuddySocketWrapper getBuddySocketWrapperBySocket(ClientSocket socket) {
+        return buddySocketIndex.get(socket);
     }
 
     public SocketWrapper getAriesSocketWrapperByLkey(String lkey) {
-        return sockets.values().stream()
-                .filter(wrapper -> lkey.equals(wrapper.getLkey()))
-                .findFirst()
-                .orElse(null);
+        return lkey != null ? lkeyIndex.get(lkey) : null;
     }
 
     public Set<String> getActiveSocketIdentifiers() {
@@ -86,50 +154,35 @@ public class SocketManager {
     }
 
     public SocketWrapper getHostSocketWrapperOfGame(Long gameId) {
-        return gameConnectionRepository.findHostAddressByGameId(gameId)
-                .stream()
-                .findFirst()
+        return gameRegistry.getHostAddress(gameId)
                 .map(this::getSocketWrapper)
                 .orElse(null);
     }
 
     public SocketWrapper getSocketWrapperByPersonaConnectionId(Long personaConnectionId) {
-        return sockets.values().stream()
-                .filter(wrapper -> wrapper.getPersonaConnectionEntity() != null &&
-                        wrapper.getPersonaConnectionEntity().getId() != null &&
-                        wrapper.getPersonaConnectionEntity().getId().equals(personaConnectionId))
-                .findFirst()
-                .orElse(null);
-    }
-
-    public List<SocketWrapper> getSocketWrapperByVers(String vers) {
-        cleanupClosedSockets();
-
-        return sockets.values().stream()
-                .filter(wrapper -> wrapper.getPersonaConnectionEntity() != null &&
-                        wrapper.getPersonaConnectionEntity().getVers().equals(vers)).toList();
+        return personaConnectionId != null ? personaConnectionIndex.get(personaConnectionId) : null;
     }
 
     /**
-     * Cleans up closed sockets from the manager.
-     * This is to ensure that we do not keep references to sockets that are no longer valid.
+     * Get the connections of a game version
+     * Closed sockets are skipped, they are removed by the session closing, which also ends their persona and game connections
+     *
+     * @param vers the game version
+     * @return the wrappers of the open connections
      */
-    private void cleanupClosedSockets() {
-        sockets.entrySet().removeIf(entry -> {
-            Socket socket = entry.getValue().getSocket();
-            if (socket == null || socket.isClosed() || !socket.isConnected() || socket.isOutputShutdown()) {
-                log.info("Removing closed socket: {}", entry.getKey());
-                return true;
+    public List<SocketWrapper> getSocketWrapperByVers(String vers) {
+        Set<SocketWrapper> wrappers = versIndex.get(vers);
+        if (wrappers == null) {
+            return List.of();
+        }
+        List<SocketWrapper> result = new ArrayList<>(wrappers.size());
+        for (SocketWrapper wrapper : wrappers) {
+            ClientSocket socket = wrapper.getSocket();
+            if (socket != null && !socket.isClosed()) {
+                result.add(wrapper);
             }
-            return false;
-        });
-    }
-
-    public SocketWrapper getAvailableGps() {
-        return sockets.values().stream()
-                .filter(wrapper -> wrapper.getIsGps().get() && !wrapper.getIsHosting().get())
-                .findFirst()
-                .orElse(null);
+        }
+        return result;
     }
 
     public List<BuddySocketWrapper> getAllBuddySocketWrappers() {
@@ -137,22 +190,61 @@ public class SocketManager {
     }
 
     public Optional<BuddySocketWrapper> getBuddySocketWrapperByPersona(String personaName) {
-        return buddySockets.values().stream()
-                .filter(wrapper -> wrapper.getPersonaEntity() != null &&
-                        personaName.equals(wrapper.getPersonaEntity().getPers()))
-                .findFirst();
+        return personaName != null ? Optional.ofNullable(buddyPersonaIndex.get(personaName)) : Optional.empty();
     }
 
-    public List<Socket> getSockets() {
-        return sockets.values().stream()
-                .map(SocketWrapper::getSocket)
-                .toList();
+    public List<ClientSocket> getSockets() {
+        return List.copyOf(socketIndex.keySet());
     }
 
-    public List<Socket> getBuddySockets() {
-        return buddySockets.values().stream()
-                .map(BuddySocketWrapper::getSocket)
-                .toList();
+    public List<ClientSocket> getBuddySockets() {
+        return List.copyOf(buddySocketIndex.keySet());
+    }
+
+    private static <K, V> void updateIndex(Map<K, V> index, K oldKey, K newKey, V wrapper) {
+        if (Objects.equals(oldKey, newKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            index.remove(oldKey, wrapper);
+        }
+        if (newKey != null) {
+            index.put(newKey, wrapper);
+        }
+    }
+
+    private void updateVersIndex(String oldVers, String newVers, SocketWrapper wrapper) {
+        if (Objects.equals(oldVers, newVers)) {
+            return;
+        }
+        if (oldVers != null) {
+            versIndex.computeIfPresent(oldVers, (vers, wrappers) -> {
+                wrappers.remove(wrapper);
+                return wrappers.isEmpty() ? null : wrappers;
+            });
+        }
+        if (newVers != null) {
+            versIndex.compute(newVers, (vers, wrappers) -> {
+                Set<SocketWrapper> result = wrappers != null ? wrappers : ConcurrentHashMap.newKeySet();
+                result.add(wrapper);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Index keys a wrapper is currently registered with
+     */
+    private record IndexKeys(String lkey, Long personaConnectionId, String vers) {
+        private static final IndexKeys NONE = new IndexKeys(null, null, null);
+
+        private static IndexKeys of(SocketWrapper wrapper) {
+            PersonaConnectionEntity personaConnection = wrapper.getPersonaConnectionEntity();
+            return new IndexKeys(
+                    StringUtils.isEmpty(wrapper.getLkey()) ? null : wrapper.getLkey(),
+                    personaConnection != null ? personaConnection.getId() : null,
+                    personaConnection != null ? personaConnection.getVers() : null);
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.ea.services.server;
+
+import com.ea.utils.Props;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+/**
+ * Creates the threads running client sessions and the helper tasks handlers start on the side
+ * In 'virtual' mode, each session and task gets its own virtual thread, so sessions blocked on the database,
+ * pacing sleeps or password hashing don't hold a platform thread
+ * In 'platform' mode, sessions run on a bounded pool
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThreadService {
+
+    private final Props props;
+
+    public boolean isVirtual() {
+        return props.isVirtualThreads();
+    }
+
+    /**
+     * Executor running the blocking socket sessions, one task per connection
+     */
+    public ExecutorService createSessionExecutor() {
+        if (isVirtual()) {
+            log.info("Using virtual threads for client sessions");
+            return Executors.newThreadPerTaskExecutor(threadFactory("session-"));
+        }
+        return new ThreadPoolExecutor(
+                props.getTcpSessionPoolSize(),
+                props.getTcpSessionPoolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(props.getTcpSessionQueueSize()),
+                Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * Executor running the messages of the Netty channels, which must never run a task on the calling event loop
+     * In 'platform' mode, a saturated pool rejects the task, and the channel stops reading until it's accepted
+     */
+    public ExecutorService createMessageExecutor() {
+        if (isVirtual()) {
+            return Executors.newThreadPerTaskExecutor(threadFactory("message-"));
+        }
+        return new ThreadPoolExecutor(
+                props.getTcpSessionPoolSize(),
+                props.getTcpSessionPoolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(props.getTcpSessionQueueSize()),
+                threadFactory("message-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * @param prefix the thread name prefix
+     * @return a factory of virtual or platform threads, depending on the mode
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        return isVirtual()
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).factory();
+    }
+
+    /**
+     * Creates a thread for a task running on the side of a handler, the caller starts it
+     *
+     * @param name the thread name
+     * @param task the task to run
+     * @return the unstarted thread
+     */
+    public Thread newThread(String name, Runnable task) {
+        return isVirtual()
+                ? Thread.ofVirtual().name(name).unstarted(task)
+                : Thread.ofPlatform().name(name).unstarted(task);
+    }
+}
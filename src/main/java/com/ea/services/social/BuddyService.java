@@ -1,6 +1,7 @@
 package com.ea.services.social;
 
 import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.PersonaEntity;
@@ -16,14 +17,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.ea.utils.SocketUtils.getValueFromSocket;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -43,16 +42,15 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void auth(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String prod = getValueFromSocket(socketData.getInputMessage(), "PROD");
-        String vers = getValueFromSocket(socketData.getInputMessage(), "VERS");
-        String lkey = getValueFromSocket(socketData.getInputMessage(), "LKEY");
-
-        synchronized (this) {
-            buddySocketWrapper.setLkey(lkey);
-            buddySocketWrapper.setVers(vers);
-            buddySocketWrapper.setPersonaEntity(getPersonaFromAriesSocket(buddySocketWrapper));
-        }
+    public void auth(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String prod = socketData.getValue("PROD");
+        String vers = socketData.getValue("VERS");
+        String lkey = socketData.getValue("LKEY");
+
+        buddySocketWrapper.setLkey(lkey);
+        buddySocketWrapper.setVers(vers);
+        buddySocketWrapper.setPersonaEntity(getPersonaFromAriesSocket(buddySocketWrapper));
+        socketManager.updateIndexes(buddySocketWrapper);
 
         Map<String, String> content = Stream.of(new String[][]{
                 {"TITL", prod},
@@ -71,8 +69,8 @@ public class BuddyService {
      * @param socket     the socket to write into
      * @param socketData the object to use to write the message
      */
-    public void epgt(Socket socket, SocketData socketData) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
+    public void epgt(ClientSocket socket, SocketData socketData) {
+        String id = socketData.getValue("ID");
 
         // Can be completed with ADDR (mail address), and ENABL (T or F), likely to send messages as mail
         Map<String, String> content = Collections.singletonMap("ID", id);
@@ -87,9 +85,9 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void rget(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String list = getValueFromSocket(socketData.getInputMessage(), "LIST"); // B = buddies, I = Ignored
+    public void rget(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String list = socketData.getValue("LIST"); // B = buddies, I = Ignored
         // There is also PRES (presence) and PEND (pending) with Y or N
 
         PersonaEntity persona = buddySocketWrapper.getPersonaEntity();
@@ -101,29 +99,25 @@ public class BuddyService {
             buddyEntities = buddyRepository.findByFromPersonaAndList(persona, list);
 
             // Update buddyList with ignored users
-            synchronized (this) {
-                Set<String> ignoredSet = buddyEntities.stream()
-                        .map(buddy -> buddy.getToPersona().getPers())
-                        .collect(Collectors.toSet());
-                buddySocketWrapper.getBuddyList().addAll(ignoredSet);
-            }
+            Set<String> ignoredSet = buddyEntities.stream()
+                    .map(buddy -> buddy.getToPersona().getPers())
+                    .collect(Collectors.toSet());
+            buddySocketWrapper.getBuddyList().addAll(ignoredSet);
         } else if ("B".equals(list)) {
             // For Buddy list: get entries in both directions
             buddyEntities = buddyRepository.findByPersonaInEitherDirectionAndList(persona, list);
 
             // Update buddyList with buddy users
-            synchronized (this) {
-                Set<String> buddySet = buddyEntities.stream()
-                        .map(buddy -> {
-                            if (buddy.getFromPersona().getPers().equals(persona.getPers())) {
-                                return buddy.getToPersona().getPers();
-                            } else {
-                                return buddy.getFromPersona().getPers();
-                            }
-                        })
-                        .collect(Collectors.toSet());
-                buddySocketWrapper.getBuddyList().addAll(buddySet);
-            }
+            Set<String> buddySet = buddyEntities.stream()
+                    .map(buddy -> {
+                        if (buddy.getFromPersona().getPers().equals(persona.getPers())) {
+                            return buddy.getToPersona().getPers();
+                        } else {
+                            return buddy.getFromPersona().getPers();
+                        }
+                    })
+                    .collect(Collectors.toSet());
+            buddySocketWrapper.getBuddyList().addAll(buddySet);
         }
 
         int size = buddyEntities.size();
@@ -150,7 +144,7 @@ public class BuddyService {
      * @param currentPersona the current user's persona
      * @param id             the ID from the request
      */
-    private void sendRostResults(Socket socket, List<BuddyEntity> buddyEntities, PersonaEntity currentPersona, String id) {
+    private void sendRostResults(ClientSocket socket, List<BuddyEntity> buddyEntities, PersonaEntity currentPersona, String id) {
         for (BuddyEntity buddy : buddyEntities) {
             String user;
             String attr;
@@ -193,7 +187,7 @@ public class BuddyService {
      * @param attr   the attribute (R=received request, T=friend, S=sent request)
      * @param id     the ID for the packet
      */
-    private void sendRostNotification(Socket socket, String user, String attr, String id) {
+    private void sendRostNotification(ClientSocket socket, String user, String attr, String id) {
         Map<String, String> rostContent = Stream.of(new String[][]{
                 {"ID", id},
                 {"USER", user},
@@ -211,8 +205,8 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void pset(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String show = getValueFromSocket(socketData.getInputMessage(), "SHOW"); // CHAT, PASS (in-game), AWAY
+    public void pset(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String show = socketData.getValue("SHOW"); // CHAT, PASS (in-game), AWAY
         socketWriter.write(socket, socketData);
 
         if (buddySocketWrapper == null) {
@@ -221,9 +215,7 @@ public class BuddyService {
         }
 
         // Update presence in the socket wrapper
-        synchronized (this) {
-            buddySocketWrapper.setPresence(show);
-        }
+        buddySocketWrapper.setPresence(show);
 
         // Broadcast presence update to all buddies
         if (buddySocketWrapper.getPersonaEntity() != null) {
@@ -237,10 +229,10 @@ public class BuddyService {
      * @param socket     the socket to write into
      * @param socketData the object to use to write the message
      */
-    public void usch(Socket socket, SocketData socketData) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to search for
-        String maxr = Optional.ofNullable(getValueFromSocket(socketData.getInputMessage(), "MAXR"))
+    public void usch(ClientSocket socket, SocketData socketData) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username to search for
+        String maxr = Optional.ofNullable(socketData.getValue("MAXR"))
                 .filter(s -> !s.isEmpty())
                 .orElse("20"); // Max results, default to 20 if not provided
 
@@ -269,7 +261,7 @@ public class BuddyService {
      * @param foundPersonas the list of found personas
      * @param id            the ID from the request
      */
-    private void sendUserResults(Socket socket, List<PersonaEntity> foundPersonas, String id) {
+    private void sendUserResults(ClientSocket socket, List<PersonaEntity> foundPersonas, String id) {
         for (PersonaEntity persona : foundPersonas) {
             Map<String, String> userContent = Stream.of(new String[][]{
                     {"ID", id}, // Use the same ID from the request
@@ -288,9 +280,9 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void radm(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to invite
+    public void radm(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username to invite
 
         PersonaEntity fromPersona = buddySocketWrapper.getPersonaEntity();
         Optional<PersonaEntity> toPersonaOpt = personaRepository.findByPers(user);
@@ -331,10 +323,10 @@ public class BuddyService {
      * @param buddySocketWrapper the wrapper containing user data
      */
     @Transactional
-    public void rrsp(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username who sent the request
-        String answ = getValueFromSocket(socketData.getInputMessage(), "ANSW"); // Y=accept, N=refuse, B=block
+    public void rrsp(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username who sent the request
+        String answ = socketData.getValue("ANSW"); // Y=accept, N=refuse, B=block
 
         PersonaEntity toPersona = buddySocketWrapper.getPersonaEntity(); // Current user (receiver)
         Optional<PersonaEntity> fromPersonaOpt = personaRepository.findByPers(user); // Original sender
@@ -391,9 +383,9 @@ public class BuddyService {
      * @param buddySocketWrapper the wrapper containing user data
      */
     @Transactional
-    public void rdem(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to remove
+    public void rdem(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username to remove
 
         PersonaEntity fromPersona = buddySocketWrapper.getPersonaEntity();
         Optional<PersonaEntity> toPersonaOpt = personaRepository.findByPers(user);
@@ -419,10 +411,10 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void radd(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to add
-        String list = getValueFromSocket(socketData.getInputMessage(), "LIST"); // List type (mainly "I" for Ignored)
+    public void radd(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username to add
+        String list = socketData.getValue("LIST"); // List type (mainly "I" for Ignored)
 
         PersonaEntity fromPersona = buddySocketWrapper.getPersonaEntity();
         Optional<PersonaEntity> toPersonaOpt = personaRepository.findByPers(user);
@@ -488,10 +480,10 @@ public class BuddyService {
      * @param buddySocketWrapper the wrapper containing user data
      */
     @Transactional
-    public void rdel(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String id = getValueFromSocket(socketData.getInputMessage(), "ID");
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to remove
-        String list = getValueFromSocket(socketData.getInputMessage(), "LIST");
+    public void rdel(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String id = socketData.getValue("ID");
+        String user = socketData.getValue("USER"); // Username to remove
+        String list = socketData.getValue("LIST");
 
         PersonaEntity fromPersona = buddySocketWrapper.getPersonaEntity();
         Optional<PersonaEntity> toPersonaOpt = personaRepository.findByPers(user);
@@ -522,13 +514,11 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void padd(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to add to recent players
+    public void padd(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String user = socketData.getValue("USER"); // Username to add to recent players
 
         // Add user to buddyList
-        synchronized (this) {
-            buddySocketWrapper.getBuddyList().add(user);
-        }
+        buddySocketWrapper.getBuddyList().add(user);
 
         // Send presence update for the newly added user if online
         Optional<BuddySocketWrapper> addedUserWrapperOpt = socketManager.getBuddySocketWrapperByPersona(user);
@@ -550,13 +540,11 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void pdel(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Username to remove from the list
+    public void pdel(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+        String user = socketData.getValue("USER"); // Username to remove from the list
 
         // Remove user from buddyList in memory
-        synchronized (this) {
-            buddySocketWrapper.getBuddyList().remove(user);
-        }
+        buddySocketWrapper.getBuddyList().remove(user);
 
         socketWriter.write(socket, socketData);
     }
@@ -568,10 +556,10 @@ public class BuddyService {
      * @param socketData         the object to use to write the message
      * @param buddySocketWrapper the wrapper containing user data
      */
-    public void send(Socket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
-//        String type = getValueFromSocket(socketData.getInputMessage(), "TYPE"); // Message type (usually "C")
-        String user = getValueFromSocket(socketData.getInputMessage(), "USER"); // Target username
-        String body = getValueFromSocket(socketData.getInputMessage(), "BODY"); // Message content
+    public void send(ClientSocket socket, SocketData socketData, BuddySocketWrapper buddySocketWrapper) {
+//        String type = socketData.getValue("TYPE"); // Message type (usually "C")
+        String user = socketData.getValue("USER"); // Target username
+        String body = socketData.getValue("BODY"); // Message content
 
         if (user == null || body == null) {
             log.warn("Missing USER or BODY in SEND packet");
@@ -627,7 +615,7 @@ public class BuddyService {
      * @param body      the message body
      * @param createdOn the message creation time
      */
-    private void sendRecvPacket(Socket socket, String fromUser, String body, LocalDateTime createdOn) {
+    private void sendRecvPacket(ClientSocket socket, String fromUser, String body, LocalDateTime createdOn) {
         // Convert LocalDateTime to epoch seconds
         long timeSeconds = createdOn.atZone(ZoneOffset.UTC).toEpochSecond();
 
@@ -683,7 +671,7 @@ public class BuddyService {
      * @param buddyEntities  the list of buddy entities to send presence for
      * @param currentPersona the current user's persona
      */
-    private void sendPresenceUpdatesForBuddies(Socket socket, List<BuddyEntity> buddyEntities, PersonaEntity currentPersona) {
+    private void sendPresenceUpdatesForBuddies(ClientSocket socket, List<BuddyEntity> buddyEntities, PersonaEntity currentPersona) {
         for (BuddyEntity buddy : buddyEntities) {
             String targetUser;
 
@@ -715,7 +703,7 @@ public class BuddyService {
      * @param presence   the presence status (CHAT, PASS, AWAY, DISC)
      * @param vers       the version string
      */
-    private void sendPgetPacket(Socket socket, String targetUser, String presence, String vers) {
+    private void sendPgetPacket(ClientSocket socket, String targetUser, String presence, String vers) {
         Map<String, String> pgetContent = Stream.of(new String[][]{
                 {"USER", targetUser},
                 {"SHOW", presence},
@@ -733,7 +721,7 @@ public class BuddyService {
      * @param buddySocketWrapper the wrapper containing user data
      */
     @Transactional
-    private void sendPendingMessages(Socket socket, BuddySocketWrapper buddySocketWrapper) {
+    private void sendPendingMessages(ClientSocket socket, BuddySocketWrapper buddySocketWrapper) {
         PersonaEntity persona = buddySocketWrapper.getPersonaEntity();
         if (persona == null) {
             return;
@@ -780,7 +768,7 @@ public class BuddyService {
      * @param id         the ID from the request
      * @param user       the username to include in FUSR
      */
-    private void sendSuccessResponse(Socket socket, SocketData socketData, String id, String user) {
+    private void sendSuccessResponse(ClientSocket socket, SocketData socketData, String id, String user) {
         Map<String, String> content = Stream.of(new String[][]{
                 {"ID", id},
                 {"FUSR", user},
@@ -797,7 +785,7 @@ public class BuddyService {
      * @param socketData the socket data to update
      * @param id         the ID from the request
      */
-    private void sendErrorResponse(Socket socket, SocketData socketData, String id) {
+    private void sendErrorResponse(ClientSocket socket, SocketData socketData, String id) {
         Map<String, String> content = Stream.of(new String[][]{
                 {"ID", id},
         }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
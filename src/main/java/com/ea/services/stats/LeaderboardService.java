@@ -0,0 +1,181 @@
+package com.ea.services.stats;
+
+import com.ea.entities.core.PersonaEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import com.ea.entities.stats.NhlPersonaStatsEntity;
+import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import com.ea.repositories.stats.NhlPersonaStatsRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.ea.utils.TransactionUtils.afterCommit;
+
+/**
+ * Leaderboards in memory, one ranked index per category and version, so ranks and pages don't sort the stats tables
+ * They're loaded from the stats at startup, then follow the ranked reports once committed, and the deleted or banned personas
+ * Like the leaderboard queries, only the personas who played, not deleted and not banned, are ranked
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private final MohhPersonaStatsRepository mohhPersonaStatsRepository;
+    private final NhlPersonaStatsRepository nhlPersonaStatsRepository;
+    private final Map<String, RankedIndex> indexes = new ConcurrentHashMap<>();
+
+    public enum Category {
+        /**
+         * MoHH ranking, by kills minus deaths
+         */
+        MOHH_KILL_DEATH,
+        /**
+         * MoHH weapon leaders, by kills
+         */
+        MOHH_KILLS,
+        /**
+         * NHL ranking, by points then goal difference
+         */
+        NHL_POINTS
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.currentTimeMillis();
+        mohhPersonaStatsRepository.findRankedStats().forEach(stats -> {
+            index(Category.MOHH_KILL_DEATH, stats.getVers()).put(stats.getPersonaId(), stats.getId(), stats.getKill() - stats.getDeath(), 0);
+            index(Category.MOHH_KILLS, stats.getVers()).put(stats.getPersonaId(), stats.getId(), stats.getKill(), 0);
+        });
+        nhlPersonaStatsRepository.findRankedStats().forEach(stats ->
+                index(Category.NHL_POINTS, stats.getVers()).put(stats.getPersonaId(), stats.getId(), stats.getPoints(), stats.getScore() - stats.getScoreAgainst()));
+        log.info("Leaderboards loaded in {} ms: {}", System.currentTimeMillis() - start,
+                indexes.entrySet().stream().map(entry -> entry.getKey().replace('\0', ' ') + "=" + entry.getValue().size()).sorted().toList());
+    }
+
+    /**
+     * @param category  the leaderboard
+     * @param vers      the version of the game
+     * @param personaId the persona
+     * @return the rank of the persona, from 1, null if it isn't ranked
+     */
+    public Long getRank(Category category, String vers, long personaId) {
+        RankedIndex index = indexes.get(key(category, vers));
+        if (index == null) {
+            return null;
+        }
+        long rank;
+        synchronized (index) {
+            rank = index.rank(personaId);
+        }
+        return rank > 0 ? rank : null;
+    }
+
+    /**
+     * @param category the MoHH leaderboard
+     * @param vers     the version of the game
+     * @param limit    the maximum size of the page
+     * @param offset   the number of ranks to skip
+     * @return the stats of the page, in ranking order
+     */
+    public List<MohhPersonaStatsEntity> getMohhLeaderboard(Category category, String vers, long limit, long offset) {
+        return getLeaderboard(category, vers, limit, offset, mohhPersonaStatsRepository, MohhPersonaStatsEntity::getId);
+    }
+
+    /**
+     * @param vers   the version of the game
+     * @param limit  the maximum size of the page
+     * @param offset the number of ranks to skip
+     * @return the stats of the page, in ranking order
+     */
+    public List<NhlPersonaStatsEntity> getNhlLeaderboard(String vers, long limit, long offset) {
+        return getLeaderboard(Category.NHL_POINTS, vers, limit, offset, nhlPersonaStatsRepository, NhlPersonaStatsEntity::getId);
+    }
+
+    /**
+     * Moves a persona to its new stats once they're committed, called within the transaction saving them
+     */
+    public void update(MohhPersonaStatsEntity mohhPersonaStatsEntity) {
+        long personaId = mohhPersonaStatsEntity.getPersona().getId();
+        long statsId = mohhPersonaStatsEntity.getId();
+        String vers = mohhPersonaStatsEntity.getVers();
+        int kill = mohhPersonaStatsEntity.getKill();
+        int death = mohhPersonaStatsEntity.getDeath();
+        boolean ranked = mohhPersonaStatsEntity.getPlayTime() > 0 && isRanked(mohhPersonaStatsEntity.getPersona());
+        afterCommit(() -> {
+            put(Category.MOHH_KILL_DEATH, vers, personaId, statsId, kill - death, 0, ranked);
+            put(Category.MOHH_KILLS, vers, personaId, statsId, kill, 0, ranked);
+        });
+    }
+
+    /**
+     * Moves a persona to its new stats once they're committed, called within the transaction saving them
+     */
+    public void update(NhlPersonaStatsEntity nhlPersonaStatsEntity) {
+        long personaId = nhlPersonaStatsEntity.getPersona().getId();
+        long statsId = nhlPersonaStatsEntity.getId();
+        String vers = nhlPersonaStatsEntity.getVers();
+        int points = nhlPersonaStatsEntity.getPoints();
+        int goalDiff = nhlPersonaStatsEntity.getScore() - nhlPersonaStatsEntity.getScoreAgainst();
+        boolean ranked = nhlPersonaStatsEntity.getTime() > 0 && isRanked(nhlPersonaStatsEntity.getPersona());
+        afterCommit(() -> put(Category.NHL_POINTS, vers, personaId, statsId, points, goalDiff, ranked));
+    }
+
+    /**
+     * Removes a deleted persona, or a persona of a banned account, from all leaderboards
+     */
+    public void remove(Long personaId) {
+        for (RankedIndex index : indexes.values()) {
+            synchronized (index) {
+                index.remove(personaId);
+            }
+        }
+    }
+
+    private <T> List<T> getLeaderboard(Category category, String vers, long limit, long offset,
+                                       JpaRepository<T, Long> repository, Function<T, Long> idGetter) {
+        RankedIndex index = indexes.get(key(category, vers));
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        List<Long> statsIds;
+        synchronized (index) {
+            statsIds = index.page(offset, (int) Math.min(limit, Integer.MAX_VALUE));
+        }
+        // Loaded by primary key, then put back in ranking order
+        Map<Long, T> statsById = new HashMap<>();
+        for (T stats : repository.findAllById(statsIds)) {
+            statsById.put(idGetter.apply(stats), stats);
+        }
+        return statsIds.stream().map(statsById::get).filter(Objects::nonNull).toList();
+    }
+
+    private void put(Category category, String vers, long personaId, long statsId, long score, long tiebreak, boolean ranked) {
+        RankedIndex index = index(category, vers);
+        synchronized (index) {
+            if (ranked) {
+                index.put(personaId, statsId, score, tiebreak);
+            } else {
+                index.remove(personaId);
+            }
+        }
+    }
+
+    private static boolean isRanked(PersonaEntity personaEntity) {
+        return personaEntity.getDeletedOn() == null && !personaEntity.getAccount().isBanned();
+    }
+
+    private RankedIndex index(Category category, String vers) {
+        return indexes.computeIfAbsent(key(category, vers), key -> new RankedIndex());
+    }
+
+    private static String key(Category category, String vers) {
+        return category.name() + '\0' + vers;
+    }
+}
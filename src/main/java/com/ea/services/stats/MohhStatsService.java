@@ -1,31 +1,31 @@
 package com.ea.services.stats;
 
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.GameConnectionEntity;
-import com.ea.entities.core.GameEntity;
+import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.entities.core.PersonaEntity;
 import com.ea.entities.stats.MohhGameReportEntity;
 import com.ea.entities.stats.MohhPersonaStatsEntity;
 import com.ea.enums.Mohh2Map;
 import com.ea.enums.MohhMap;
 import com.ea.mappers.SocketMapper;
+import com.ea.mappers.StatsMapper;
 import com.ea.repositories.core.GameConnectionRepository;
 import com.ea.repositories.stats.MohhGameReportRepository;
 import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import com.ea.services.server.GameRegistry;
 import com.ea.services.server.GameServerService;
+import com.ea.services.server.SchedulerService;
 import com.ea.steps.SocketWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -34,19 +34,31 @@ import java.util.stream.Stream;
 
 import static com.ea.enums.MohhRankCategory.*;
 import static com.ea.services.server.GameServerService.*;
+import static com.ea.mappers.StatsMapper.MOHH_MAP_COUNT;
+import static com.ea.services.stats.LeaderboardService.Category.MOHH_KILLS;
+import static com.ea.services.stats.LeaderboardService.Category.MOHH_KILL_DEATH;
 import static com.ea.utils.SocketUtils.*;
+import static com.ea.utils.TransactionUtils.afterCommit;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class MohhStatsService {
 
+    private static final long RANKED_CONNECTION_END_DELAY = 5000;
+
     private final SocketMapper socketMapper;
+    private final StatsMapper statsMapper;
     private final SocketWriter socketWriter;
     private final MohhPersonaStatsRepository mohhPersonaStatsRepository;
     private final GameConnectionRepository gameConnectionRepository;
     private final MohhGameReportRepository mohhGameReportRepository;
     private final GameServerService gameServerService;
+    private final GameRegistry gameRegistry;
+    private final SchedulerService schedulerService;
+    private final OpParamCache opParamCache;
+    private final LeaderboardService leaderboardService;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Retrieve ranking categories
@@ -74,12 +86,12 @@ public class MohhStatsService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void snap(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String chan = getValueFromSocket(socketData.getInputMessage(), "CHAN");
-        String seqn = getValueFromSocket(socketData.getInputMessage(), "SEQN");
-        String cols = getValueFromSocket(socketData.getInputMessage(), "COLS"); // send column information or not
-        String start = getValueFromSocket(socketData.getInputMessage(), "START"); // <start ranking> (index)
-        String categoryIndex = getValueFromSocket(socketData.getInputMessage(), "CI"); // <category-index>
+    public void snap(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String chan = socketData.getValue("CHAN");
+        String seqn = socketData.getValue("SEQN");
+        String cols = socketData.getValue("COLS"); // send column information or not
+        String start = socketData.getValue("START"); // <start ranking> (index)
+        String categoryIndex = socketData.getValue("CI"); // <category-index>
 
         List<String> relatedVers = gameServerService.getRelatedVers(socketWrapper.getPersonaConnectionEntity().getVers());
         boolean isMohh = relatedVers.equals(MOH07_OR_UHS);
@@ -95,14 +107,14 @@ public class MohhStatsService {
         long offset = 0;
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
         if (MY_LEADERBOARD.mohh2Id.equals(rankingCategory)) {
-            mohhPersonaStatsEntityList = mohhPersonaStatsRepository.getLeaderboardByVers(vers, 100, offset);
+            mohhPersonaStatsEntityList = leaderboardService.getMohhLeaderboard(MOHH_KILL_DEATH, vers, 100, offset);
         } else if (TOP_100.mohh2Id.equals(rankingCategory)) {
-            Long rank = mohhPersonaStatsRepository.getRankByPersonaIdAndVers(socketWrapper.getPersonaEntity().getId(), vers);
+            Long rank = leaderboardService.getRank(MOHH_KILL_DEATH, vers, socketWrapper.getPersonaEntity().getId());
             offset = (rank != null) ? rank : 0;
             offset = Math.max(offset - 50, 0);
-            mohhPersonaStatsEntityList = mohhPersonaStatsRepository.getLeaderboardByVers(vers, 100, offset);
+            mohhPersonaStatsEntityList = leaderboardService.getMohhLeaderboard(MOHH_KILL_DEATH, vers, 100, offset);
         } else if (WEAPON_LEADERS.mohh2Id.equals(rankingCategory)) {
-            mohhPersonaStatsEntityList = mohhPersonaStatsRepository.getWeaponLeaderboardByVers(vers, 100, offset);
+            mohhPersonaStatsEntityList = leaderboardService.getMohhLeaderboard(MOHH_KILLS, vers, 100, offset);
         }
 
         Map<String, String> content = Stream.of(new String[][]{
@@ -259,7 +271,7 @@ public class MohhStatsService {
      * @param mohhPersonaStatsEntityList The list of persona stats entities
      * @param offset                     The offset for the ranking
      */
-    public void snp(Socket socket, boolean isMohh, String rankCategory, List<MohhPersonaStatsEntity> mohhPersonaStatsEntityList, long offset) {
+    public void snp(ClientSocket socket, boolean isMohh, String rankCategory, List<MohhPersonaStatsEntity> mohhPersonaStatsEntityList, long offset) {
         List<Map<String, String>> rankingList = new ArrayList<>();
         for (MohhPersonaStatsEntity mohhPersonaStatsEntity : mohhPersonaStatsEntityList) {
             String name = mohhPersonaStatsEntity.getPersona().getPers();
@@ -361,86 +373,90 @@ public class MohhStatsService {
     }
 
     /**
-     * Send ranking results.
+     * Apply ranking results, the ranked reports of a persona being added to its stats at once
      *
-     * @param socketData The socket data
+     * @param reports The 'rank' messages, in reception order
      */
     @Transactional
-    public void rank(SocketData socketData) {
-        String playerName = getValueFromSocket(socketData.getInputMessage(), "REPT", TAB_CHAR);
-        String startTime = getValueFromSocket(socketData.getInputMessage(), "WHEN", TAB_CHAR);
-
+    public void rank(List<SocketData> reports) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATETIME_FORMAT);
-        LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, formatter);
-        List<GameConnectionEntity> gameConnectionEntities = gameConnectionRepository.findMatchingGameConnections(playerName, parsedStartTime, false);
-        if (!gameConnectionEntities.isEmpty()) {
-            GameConnectionEntity gameConnectionEntity = gameConnectionEntities.get(0);
+        List<MohhGameReportEntity> gameReports = new ArrayList<>();
+        Set<Long> reportedGameConnectionIds = new HashSet<>();
+        Map<PersonaVers, RankedPersona> rankedPersonas = new LinkedHashMap<>();
+        for (SocketData socketData : reports) {
+            String playerName = socketData.getValue("REPT", TAB_CHAR);
+            String startTime = socketData.getValue("WHEN", TAB_CHAR);
+
+            LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, formatter);
+            // Reports of the batch aren't written yet, so the query doesn't exclude their game connections
+            Optional<GameConnectionEntity> gameConnectionOpt = gameConnectionRepository.findMatchingGameConnections(playerName, parsedStartTime, false)
+                    .stream()
+                    .filter(gameConnection -> !reportedGameConnectionIds.contains(gameConnection.getId()))
+                    .findFirst();
+            if (gameConnectionOpt.isEmpty()) {
+                meterRegistry.counter("stats.ingestion.unmatched").increment();
+                log.warn("No game connection of {} started at {}, dropping its rank report", playerName, startTime);
+                continue;
+            }
+            GameConnectionEntity gameConnectionEntity = gameConnectionOpt.get();
+            reportedGameConnectionIds.add(gameConnectionEntity.getId());
             MohhGameReportEntity mohhGameReportEntity = new MohhGameReportEntity();
             mohhGameReportEntity.setGameConnection(gameConnectionEntity);
-            socketMapper.toMohhGameReportEntity(mohhGameReportEntity, socketData.getInputMessage());
-            mohhGameReportRepository.save(mohhGameReportEntity);
+            socketMapper.toMohhGameReportEntity(mohhGameReportEntity, socketData);
+            gameReports.add(mohhGameReportEntity);
 
             // Update PersonaStats with the new game report (ranked only)
             if (mohhGameReportEntity.getRnk() == 1) {
-                GameConnectionEntity gameConnection = mohhGameReportEntity.getGameConnection();
-                MohhPersonaStatsEntity mohhPersonaStatsEntity = mohhPersonaStatsRepository.findByPersonaIdAndVersIn(
-                        gameConnectionEntity.getPersonaConnection().getPersona().getId(), gameServerService.getRelatedVers(gameConnectionEntity.getGame().getVers()));
-
-                if (mohhPersonaStatsEntity == null) {
-                    mohhPersonaStatsEntity = new MohhPersonaStatsEntity();
-                    mohhPersonaStatsEntity.setPersona(gameConnection.getPersonaConnection().getPersona());
-                    mohhPersonaStatsEntity.setVers(gameConnection.getPersonaConnection().getVers());
-                    mohhPersonaStatsEntity.setSlus(gameConnection.getPersonaConnection().getSlus());
-                }
-
-                updatePersonaStats(mohhPersonaStatsEntity, mohhGameReportEntity);
-                mohhPersonaStatsRepository.save(mohhPersonaStatsEntity);
+                PersonaConnectionEntity personaConnection = gameConnectionEntity.getPersonaConnection();
+                PersonaVers personaVers = new PersonaVers(personaConnection.getPersona().getId(),
+                        gameServerService.getRelatedVers(gameConnectionEntity.getGame().getVers()));
+                RankedPersona rankedPersona = rankedPersonas.computeIfAbsent(personaVers, key -> {
+                    MohhPersonaStatsEntity mohhPersonaStatsEntity = mohhPersonaStatsRepository.findByPersonaIdAndVersIn(key.personaId(), key.vers());
+                    if (mohhPersonaStatsEntity == null) {
+                        mohhPersonaStatsEntity = new MohhPersonaStatsEntity();
+                        mohhPersonaStatsEntity.setPersona(personaConnection.getPersona());
+                        mohhPersonaStatsEntity.setVers(personaConnection.getVers());
+                        mohhPersonaStatsEntity.setSlus(personaConnection.getSlus());
+                    }
+                    return new RankedPersona(mohhPersonaStatsEntity, new HashSet<>());
+                });
+                statsMapper.addGameReport(rankedPersona.stats(), mohhGameReportEntity);
+                rankedPersona.personaConnectionIds().add(personaConnection.getId());
             }
 
             // This is to make sure the end time is set in case something goes wrong in 'gset'
             LocalDateTime endTime = LocalDateTime.now();
-            new Thread(
-                    () -> {
-                        try {
-                            Thread.sleep(5000);
-                            gameConnectionEntity.setEndTime(endTime);
-                            gameConnectionRepository.save(gameConnectionEntity);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }
-            );
+            Long gameConnectionId = gameConnectionEntity.getId();
+            Long personaConnectionId = gameConnectionEntity.getPersonaConnection().getId();
+            schedulerService.schedule("rank", RANKED_CONNECTION_END_DELAY, () -> gameRegistry.getGameConnection(personaConnectionId)
+                    .filter(liveGameConnection -> gameConnectionId.equals(liveGameConnection.getId()))
+                    .ifPresent(liveGameConnection -> gameRegistry.endGameConnection(liveGameConnection, endTime)));
+        }
+
+        mohhGameReportRepository.saveAll(gameReports);
+        for (RankedPersona rankedPersona : rankedPersonas.values()) {
+            MohhPersonaStatsEntity mohhPersonaStatsEntity = mohhPersonaStatsRepository.save(rankedPersona.stats());
+            leaderboardService.update(mohhPersonaStatsEntity);
+            // The game info shows the stats of its players, refreshed once the new ones are committed
+            Long personaId = mohhPersonaStatsEntity.getPersona().getId();
+            afterCommit(() -> {
+                opParamCache.invalidate(personaId);
+                rankedPersona.personaConnectionIds().forEach(personaConnectionId ->
+                        gameRegistry.getCurrentGame(personaConnectionId).ifPresent(gameRegistry::touch));
+            });
         }
     }
 
     /**
-     * Update PersonaStats with the new game report
-     *
-     * @param mohhPersonaStatsEntity The PersonaStats entity to update
-     * @param mohhGameReportEntity   The GameReport entity containing new stats
+     * A persona, and the versions sharing its stats
      */
-    private void updatePersonaStats(MohhPersonaStatsEntity mohhPersonaStatsEntity, MohhGameReportEntity mohhGameReportEntity) {
-        Field[] personaFields = MohhPersonaStatsEntity.class.getDeclaredFields();
-        Set<String> gameReportFieldNames = Arrays.stream(MohhGameReportEntity.class.getDeclaredFields())
-                .map(Field::getName)
-                .collect(Collectors.toSet());
-
-        for (Field field : personaFields) {
-            if (gameReportFieldNames.contains(field.getName()) && !"id".equalsIgnoreCase(field.getName())) {
-                field.setAccessible(true);
-                try {
-                    Field gameReportField = MohhGameReportEntity.class.getDeclaredField(field.getName());
-                    gameReportField.setAccessible(true);
-                    if (field.getType().equals(int.class) || field.getType().equals(Integer.class)) {
-                        field.set(mohhPersonaStatsEntity, (int) field.get(mohhPersonaStatsEntity) + (int) gameReportField.get(mohhGameReportEntity));
-                    } else if (field.getType().equals(long.class) || field.getType().equals(Long.class)) {
-                        field.set(mohhPersonaStatsEntity, (long) field.get(mohhPersonaStatsEntity) + (long) gameReportField.get(mohhGameReportEntity));
-                    }
-                } catch (IllegalAccessException | NoSuchFieldException e) {
-                    log.error("Error updating field: {}", field.getName(), e);
-                }
-            }
-        }
+    private record PersonaVers(Long personaId, List<String> vers) {
+    }
+
+    /**
+     * The stats of a persona with the reports of the batch added, and the connections it reported from
+     */
+    private record RankedPersona(MohhPersonaStatsEntity stats, Set<Long> personaConnectionIds) {
     }
 
     /**
@@ -468,36 +484,29 @@ public class MohhStatsService {
      */
     private String getMostPlayedMap(MohhPersonaStatsEntity mohhPersonaStatsEntity, boolean isMohh) {
         Map<String, Integer> mapPlayCounts = new HashMap<>();
-        for (int i = 1; i <= 28; i++) {
-            try {
-                Method method = MohhPersonaStatsEntity.class.getMethod("getMap" + i);
-                int playCount = (int) method.invoke(mohhPersonaStatsEntity);
+        for (int i = 1; i <= MOHH_MAP_COUNT; i++) {
+            int playCount = statsMapper.getMapPlays(mohhPersonaStatsEntity, i);
 
-                // Find the corresponding enum by matching the id attribute
-                String mapKey;
-                if (isMohh) {
-                    mapKey = "181";
-                    for (MohhMap map : MohhMap.values()) {
-                        if (map.code.equals("MAP" + i)) {
-                            mapKey = map.decimalId;
-                            break;
-                        }
+            // Find the corresponding enum by matching the id attribute
+            String mapKey;
+            if (isMohh) {
+                mapKey = "181";
+                for (MohhMap map : MohhMap.values()) {
+                    if (map.code.equals("MAP" + i)) {
+                        mapKey = map.decimalId;
+                        break;
                     }
-                    mapPlayCounts.put(mapKey, mapPlayCounts.getOrDefault(mapKey, 0) + playCount);
-                } else {
-                    mapKey = "101";
-                    for (Mohh2Map map : Mohh2Map.values()) {
-                        if (map.code.equals("MAP" + i)) {
-                            mapKey = map.decimalId;
-                            break;
-                        }
+                }
+            } else {
+                mapKey = "101";
+                for (Mohh2Map map : Mohh2Map.values()) {
+                    if (map.code.equals("MAP" + i)) {
+                        mapKey = map.decimalId;
+                        break;
                     }
-                    mapPlayCounts.put(mapKey, mapPlayCounts.getOrDefault(mapKey, 0) + playCount);
                 }
-                mapPlayCounts.put(mapKey, mapPlayCounts.getOrDefault(mapKey, 0) + playCount);
-            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                log.error("Error while getting map play count", e);
             }
+            mapPlayCounts.merge(mapKey, playCount, Integer::sum);
         }
 
         // Determine the most played map
@@ -539,124 +548,6 @@ public class MohhStatsService {
         return Collections.max(modeCounts.entrySet(), Map.Entry.comparingByValue()).getKey();
     }
 
-    /**
-     * Check if the game matches the given criteria for gsea packet
-     *
-     * @param gameEntity The game entity to check
-     * @param paramsMap  The parameters map containing the criteria
-     * @param vers       The version of the game
-     * @return true if the game matches the criteria, false otherwise
-     */
-    public boolean matchesCriteria(GameEntity gameEntity, Map<String, String> paramsMap, String vers) {
-        String name = paramsMap.get("NAME");
-        String available = paramsMap.getOrDefault("AVAILABLE", paramsMap.get("AVAIL")); // Game not full (AVAIL on MoHH2)
-        String mode = paramsMap.get("MODE");
-        String map = paramsMap.get("MAP");
-        String ff = paramsMap.get("FF"); // Friendly fire
-        String aim = paramsMap.get("AIM"); // Aim assist
-        String ctrl = paramsMap.get("CTRL"); // Elite or Wii Zapper
-        String maxsize = paramsMap.get("MAXSIZE");
-        String sysmaskParam = paramsMap.get("SYSMASK");
-        String sysflagsParam = paramsMap.get("SYSFLAGS");
-        String tb = paramsMap.get("TB"); // Team balance
-        String ak = paramsMap.get("AK"); // Auto-kick
-        String smg = paramsMap.get("SMG");
-        String hmg = paramsMap.get("HMG");
-        String rif = paramsMap.get("RIF");
-        String snip = paramsMap.get("SNIP");
-        String shotg = paramsMap.get("SHOTG");
-        String baz = paramsMap.get("BAZ");
-        String gren = paramsMap.get("GREN");
-
-        String nameDb = gameEntity.getName().replaceAll("\"", "").toLowerCase();
-        boolean availableDb = gameEntity.getGameConnections().stream().filter(connection -> null == connection.getEndTime()).count() < gameEntity.getMaxsize();
-        String[] params = gameEntity.getParams().split(",");
-        String modeDb = params[0];
-        int mapDb = Integer.parseInt(params[1], 16); // The map in db is in hex, so we need to convert it to decimal
-        boolean hasPwDb = gameEntity.getPass() != null;
-        String ffDb = params[2];
-
-        String aimDb = null, ctrlDb = null, tbDb = null, akDb = null;
-        switch (vers) {
-            case PSP_MOH_07 -> aimDb = params[3];
-            case PSP_MOH_08 -> {
-                aimDb = params[3];
-                tbDb = params[4];
-                akDb = params[9];
-            }
-            case WII_MOH_08 -> {
-                tbDb = params[3];
-                akDb = params[8];
-                ctrlDb = params[9];
-            }
-        }
-
-        boolean isRankedDb = vers.equals(PSP_MOH_07) ? StringUtils.isNotEmpty(params[8]) : StringUtils.isNotEmpty(params[17]);
-
-        String smgDb = null, hmgDb = null, rifDb = null, snipDb = null, shotgDb = null, bazDb = null, grenDb = null;
-        if (vers.equals(PSP_MOH_08) || vers.equals(WII_MOH_08)) {
-            smgDb = params[10];
-            hmgDb = params[11];
-            rifDb = params[12];
-            snipDb = params[13];
-            shotgDb = params[14];
-            bazDb = params[15];
-            grenDb = params[16];
-        }
-
-        boolean matchesFlags = matchesFlags(sysmaskParam, sysflagsParam, hasPwDb, isRankedDb);
-
-        return (name == null || nameDb.contains(name.replaceAll("\"", "").toLowerCase()))
-                && (available.equals("-1") || availableDb)
-                && (mode.equals("-1") || modeDb.equals(mode))
-                && (map.equals("-1") || mapDb == Integer.parseInt(map))
-                && (ff.equals("-1") || (ff.equals("0") && ffDb.equals("")) || ffDb.equals(ff))
-                && (aim == null || aim.equals("-1") || (aim.equals("0") && aimDb.equals("")) || aimDb.equals(aim))
-                && (ctrl == null || ctrl.equals("-1") || (ctrl.equals("0") && ctrlDb.equals("")) || ctrlDb.equals(ctrl))
-                && (maxsize == null || gameEntity.getMaxsize() == Integer.parseInt(maxsize))
-                && matchesFlags
-                && (tb == null || tb.equals("-1") || (tb.equals("0") && tbDb.equals("")) || tbDb.equals(tb))
-                && (ak == null || ak.equals("-1") || (ak.equals("0") && akDb.equals("")) || akDb.equals(ak))
-                && (smg == null || smg.equals("-1") || (smg.equals("0") && smgDb.equals("")) || smgDb.equals(smg))
-                && (hmg == null || hmg.equals("-1") || (hmg.equals("0") && hmgDb.equals("")) || hmgDb.equals(hmg))
-                && (rif == null || rif.equals("-1") || (rif.equals("0") && rifDb.equals("")) || rifDb.equals(rif))
-                && (snip == null || snip.equals("-1") || (snip.equals("0") && snipDb.equals("")) || snipDb.equals(snip))
-                && (shotg == null || shotg.equals("-1") || (shotg.equals("0") && shotgDb.equals("")) || shotgDb.equals(shotg))
-                && (baz == null || baz.equals("-1") || (baz.equals("0") && bazDb.equals("")) || bazDb.equals(baz))
-                && (gren == null || gren.equals("-1") || (gren.equals("0") && grenDb.equals("")) || grenDb.equals(gren));
-    }
-
-
-    /**
-     * Matches the flags based on the system mask and system flags parameters.
-     *
-     * @param sysmaskParam  The system mask parameter from the client
-     * @param sysflagsParam The system flags parameter from the client
-     * @param hasPwDb       Indicates if the game has a password
-     * @param isRankedDb    Indicates if the game is ranked
-     * @return true if the game matches the flags, false otherwise
-     */
-    private boolean matchesFlags(String sysmaskParam, String sysflagsParam, boolean hasPwDb, boolean isRankedDb) {
-        if (sysmaskParam == null) {
-            return true;
-        }
-
-        int clientMask = Integer.parseInt(sysmaskParam);
-        int clientFlags = sysflagsParam != null ? Integer.parseInt(sysflagsParam) : 0;
-
-        // Calculate game's flags based on ranked and password status
-        int gameFlags = 0;
-        if (hasPwDb) {
-            gameFlags |= (1 << 16);  // Set bit 16 for password
-        }
-        if (isRankedDb) {
-            gameFlags |= (1 << 18);  // Set bit 18 for ranked
-        }
-
-        // Only check the bits that the client cares about (specified in mask)
-        return (gameFlags & clientMask) == (clientFlags & clientMask);
-    }
-
     /**
      * Get stats and rank for a persona
      *
@@ -675,7 +566,7 @@ public class MohhStatsService {
                 "," +
                 (hasStats ? Long.toHexString(mohhPersonaStatsEntity.getDeath()) : "0");
 
-        String rank = hasStats ? String.valueOf(mohhPersonaStatsRepository.getRankByPersonaIdAndVers(mohhPersonaStatsEntity.getPersona().getId(), vers)) : "";
+        String rank = hasStats ? String.valueOf(leaderboardService.getRank(MOHH_KILL_DEATH, vers, mohhPersonaStatsEntity.getPersona().getId())) : "";
 
         result.put("stats", stats);
         result.put("rank", rank);
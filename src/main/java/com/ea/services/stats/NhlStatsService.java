@@ -1,5 +1,6 @@
 package com.ea.services.stats;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.GameConnectionEntity;
@@ -15,13 +16,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.ea.services.stats.LeaderboardService.Category.NHL_POINTS;
 import static com.ea.utils.SocketUtils.*;
 
 @Slf4j
@@ -33,6 +34,7 @@ public class NhlStatsService {
     private final NhlGameReportRepository nhlGameReportRepository;
     private final GameConnectionRepository gameConnectionRepository;
     private final SocketWriter socketWriter;
+    private final LeaderboardService leaderboardService;
 
     /**
      * Get stats in hex format
@@ -82,15 +84,15 @@ public class NhlStatsService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void snap(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
-        String chan = getValueFromSocket(socketData.getInputMessage(), "CHAN");
-        String seqn = getValueFromSocket(socketData.getInputMessage(), "SEQN");
-        //String cols = getValueFromSocket(socketData.getInputMessage(), "COLS"); // send column information or not
-        String start = getValueFromSocket(socketData.getInputMessage(), "START"); // <start ranking> (index)
-        //String categoryIndex = getValueFromSocket(socketData.getInputMessage(), "CI"); // <category-index>
+    public void snap(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
+        String chan = socketData.getValue("CHAN");
+        String seqn = socketData.getValue("SEQN");
+        //String cols = socketData.getValue("COLS"); // send column information or not
+        String start = socketData.getValue("START"); // <start ranking> (index)
+        //String categoryIndex = socketData.getValue("CI"); // <category-index>
 
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
-        List<NhlPersonaStatsEntity> nhlPersonaStatsEntityList = nhlPersonaStatsRepository.getLeaderboardByVers(vers, 100, 0);
+        List<NhlPersonaStatsEntity> nhlPersonaStatsEntityList = leaderboardService.getNhlLeaderboard(vers, 100, 0);
 
         Map<String, String> content = Stream.of(new String[][]{
                 {"CHAN", chan}, // <matching request value>
@@ -161,7 +163,7 @@ public class NhlStatsService {
      * @param nhlPersonaStatsEntityList The list of persona stats entities
      * @param offset                    The offset for the ranking
      */
-    public void snp(Socket socket, List<NhlPersonaStatsEntity> nhlPersonaStatsEntityList, long offset) {
+    public void snp(ClientSocket socket, List<NhlPersonaStatsEntity> nhlPersonaStatsEntityList, long offset) {
         List<Map<String, String>> rankingList = new ArrayList<>();
         for (NhlPersonaStatsEntity nhlPersonaStatsEntity : nhlPersonaStatsEntityList) {
             String name = nhlPersonaStatsEntity.getPersona().getPers();
@@ -216,9 +218,9 @@ public class NhlStatsService {
      */
     @Transactional
     public void rank(SocketData socketData) {
-        String startTime = getValueFromSocket(socketData.getInputMessage(), "WHEN", TAB_CHAR);
-        String name0 = getValueFromSocket(socketData.getInputMessage(), "NAME0", TAB_CHAR);
-        String name1 = getValueFromSocket(socketData.getInputMessage(), "NAME1", TAB_CHAR);
+        String startTime = socketData.getValue("WHEN", TAB_CHAR);
+        String name0 = socketData.getValue("NAME0", TAB_CHAR);
+        String name1 = socketData.getValue("NAME1", TAB_CHAR);
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATETIME_FORMAT);
         LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, formatter);
@@ -228,8 +230,8 @@ public class NhlStatsService {
         List<GameConnectionEntity> gameConnectionsPlayer1 = gameConnectionRepository.findMatchingGameConnections(name1, parsedStartTime, true);
 
         // Extract player stats from the packet
-        Map<String, Object> player0Stats = extractPlayerStats(socketData.getInputMessage(), "0");
-        Map<String, Object> player1Stats = extractPlayerStats(socketData.getInputMessage(), "1");
+        Map<String, Object> player0Stats = extractPlayerStats(socketData, "0");
+        Map<String, Object> player1Stats = extractPlayerStats(socketData, "1");
 
         // Process Player 0 if game connection found and report doesn't exist
         if (!gameConnectionsPlayer0.isEmpty()) {
@@ -271,41 +273,41 @@ public class NhlStatsService {
     /**
      * Extract player stats from the rank packet
      *
-     * @param inputMessage The input message containing the rank data
+     * @param socketData  The socket data containing the rank packet
      * @param playerIndex  The player index ("0" or "1")
      * @return Map containing the player's stats
      */
-    private Map<String, Object> extractPlayerStats(String inputMessage, String playerIndex) {
+    private Map<String, Object> extractPlayerStats(SocketData socketData, String playerIndex) {
         Map<String, Object> stats = new HashMap<>();
 
         // Extract all stats for the specified player
-        stats.put("SCORE", Integer.parseInt(getValueFromSocket(inputMessage, "SCORE" + playerIndex, TAB_CHAR)));
-        stats.put("DSCORE", Integer.parseInt(getValueFromSocket(inputMessage, "DSCORE" + playerIndex, TAB_CHAR)));
-        stats.put("HITS", Integer.parseInt(getValueFromSocket(inputMessage, "HITS" + playerIndex, TAB_CHAR)));
-        stats.put("SHOTS", Integer.parseInt(getValueFromSocket(inputMessage, "SHOTS" + playerIndex, TAB_CHAR)));
-        stats.put("PENMIN", Integer.parseInt(getValueFromSocket(inputMessage, "PENMIN" + playerIndex, TAB_CHAR)));
-        stats.put("PPG", Integer.parseInt(getValueFromSocket(inputMessage, "PPG" + playerIndex, TAB_CHAR)));
-        stats.put("PPO", Integer.parseInt(getValueFromSocket(inputMessage, "PPO" + playerIndex, TAB_CHAR)));
-        stats.put("SHG", Integer.parseInt(getValueFromSocket(inputMessage, "SHG" + playerIndex, TAB_CHAR)));
-        stats.put("TEAM", Integer.parseInt(getValueFromSocket(inputMessage, "TEAM" + playerIndex, TAB_CHAR)));
-        stats.put("HOME", Integer.parseInt(getValueFromSocket(inputMessage, "HOME" + playerIndex, TAB_CHAR)));
-        stats.put("DISC", Integer.parseInt(getValueFromSocket(inputMessage, "DISC" + playerIndex, TAB_CHAR)));
-        stats.put("QUIT", Integer.parseInt(getValueFromSocket(inputMessage, "QUIT" + playerIndex, TAB_CHAR)));
-        stats.put("CHEAT", Integer.parseInt(getValueFromSocket(inputMessage, "CHEAT" + playerIndex, TAB_CHAR)));
-        stats.put("WEIGHT", Integer.parseInt(getValueFromSocket(inputMessage, "WEIGHT" + playerIndex, TAB_CHAR)));
+        stats.put("SCORE", Integer.parseInt(socketData.getValue("SCORE" + playerIndex, TAB_CHAR)));
+        stats.put("DSCORE", Integer.parseInt(socketData.getValue("DSCORE" + playerIndex, TAB_CHAR)));
+        stats.put("HITS", Integer.parseInt(socketData.getValue("HITS" + playerIndex, TAB_CHAR)));
+        stats.put("SHOTS", Integer.parseInt(socketData.getValue("SHOTS" + playerIndex, TAB_CHAR)));
+        stats.put("PENMIN", Integer.parseInt(socketData.getValue("PENMIN" + playerIndex, TAB_CHAR)));
+        stats.put("PPG", Integer.parseInt(socketData.getValue("PPG" + playerIndex, TAB_CHAR)));
+        stats.put("PPO", Integer.parseInt(socketData.getValue("PPO" + playerIndex, TAB_CHAR)));
+        stats.put("SHG", Integer.parseInt(socketData.getValue("SHG" + playerIndex, TAB_CHAR)));
+        stats.put("TEAM", Integer.parseInt(socketData.getValue("TEAM" + playerIndex, TAB_CHAR)));
+        stats.put("HOME", Integer.parseInt(socketData.getValue("HOME" + playerIndex, TAB_CHAR)));
+        stats.put("DISC", Integer.parseInt(socketData.getValue("DISC" + playerIndex, TAB_CHAR)));
+        stats.put("QUIT", Integer.parseInt(socketData.getValue("QUIT" + playerIndex, TAB_CHAR)));
+        stats.put("CHEAT", Integer.parseInt(socketData.getValue("CHEAT" + playerIndex, TAB_CHAR)));
+        stats.put("WEIGHT", Integer.parseInt(socketData.getValue("WEIGHT" + playerIndex, TAB_CHAR)));
 
         // Extract common fields
-        stats.put("RNK", Integer.parseInt(getValueFromSocket(inputMessage, "RNK", TAB_CHAR)));
-        stats.put("VENUE", Integer.parseInt(getValueFromSocket(inputMessage, "VENUE", TAB_CHAR)));
-        stats.put("TYPE", Integer.parseInt(getValueFromSocket(inputMessage, "TYPE", TAB_CHAR)));
-        stats.put("PNUM", Integer.parseInt(getValueFromSocket(inputMessage, "PNUM", TAB_CHAR)));
-        stats.put("PLEN", Integer.parseInt(getValueFromSocket(inputMessage, "PLEN", TAB_CHAR)));
-        stats.put("OT", Integer.parseInt(getValueFromSocket(inputMessage, "OT", TAB_CHAR)));
-        stats.put("TIME", Integer.parseInt(getValueFromSocket(inputMessage, "TIME", TAB_CHAR)));
-        stats.put("DTIME", Integer.parseInt(getValueFromSocket(inputMessage, "DTIME", TAB_CHAR)));
-        stats.put("SKIL", Integer.parseInt(getValueFromSocket(inputMessage, "SKIL", TAB_CHAR)));
-        stats.put("TID", Integer.parseInt(getValueFromSocket(inputMessage, "TID", TAB_CHAR)));
-        stats.put("TMID", Integer.parseInt(getValueFromSocket(inputMessage, "TMID", TAB_CHAR)));
+        stats.put("RNK", Integer.parseInt(socketData.getValue("RNK", TAB_CHAR)));
+        stats.put("VENUE", Integer.parseInt(socketData.getValue("VENUE", TAB_CHAR)));
+        stats.put("TYPE", Integer.parseInt(socketData.getValue("TYPE", TAB_CHAR)));
+        stats.put("PNUM", Integer.parseInt(socketData.getValue("PNUM", TAB_CHAR)));
+        stats.put("PLEN", Integer.parseInt(socketData.getValue("PLEN", TAB_CHAR)));
+        stats.put("OT", Integer.parseInt(socketData.getValue("OT", TAB_CHAR)));
+        stats.put("TIME", Integer.parseInt(socketData.getValue("TIME", TAB_CHAR)));
+        stats.put("DTIME", Integer.parseInt(socketData.getValue("DTIME", TAB_CHAR)));
+        stats.put("SKIL", Integer.parseInt(socketData.getValue("SKIL", TAB_CHAR)));
+        stats.put("TID", Integer.parseInt(socketData.getValue("TID", TAB_CHAR)));
+        stats.put("TMID", Integer.parseInt(socketData.getValue("TMID", TAB_CHAR)));
 
         return stats;
     }
@@ -395,6 +397,7 @@ public class NhlStatsService {
         }
 
         nhlPersonaStatsRepository.save(personaStats);
+        leaderboardService.update(personaStats);
     }
 
     /**
@@ -462,7 +465,7 @@ public class NhlStatsService {
 
         long totalGames = (hasStats ? getTotalGames(nhlPersonaStatsEntity) : 0);
         String stats = getStats(totalGames, nhlPersonaStatsEntity, hasStats);
-        String rank = hasStats ? String.valueOf(nhlPersonaStatsRepository.getRankByPersonaIdAndVers(nhlPersonaStatsEntity.getPersona().getId(), vers)) : "";
+        String rank = hasStats ? String.valueOf(leaderboardService.getRank(NHL_POINTS, vers, nhlPersonaStatsEntity.getPersona().getId())) : "";
 
         result.put("stats", stats);
         result.put("rank", rank);
@@ -0,0 +1,84 @@
+package com.ea.services.stats;
+
+import com.ea.entities.core.PersonaEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OPPARAM of the players in the game info (kills, deaths, rank, location, reputation), per persona and version
+ * Computing it reads the stats of the persona, so it's kept until a ranked report of the persona updates its stats
+ * The reports of other personas may shift the rank of a persona meanwhile, it's refreshed on its own next report
+ */
+@Component
+@RequiredArgsConstructor
+public class OpParamCache {
+
+    private static final int OPPARAM_SIZE = 6 * Integer.BYTES;
+
+    private final MohhPersonaStatsRepository mohhPersonaStatsRepository;
+    private final LeaderboardService leaderboardService;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Map<String, String>> opParams = new ConcurrentHashMap<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = meterRegistry.counter("stats.opparam.cache", "result", "hit");
+        missCounter = meterRegistry.counter("stats.opparam.cache", "result", "miss");
+    }
+
+    /**
+     * @param personaEntity the persona of the player
+     * @param vers          the version of the game
+     * @return the Base64 encoded OPPARAM
+     */
+    public String get(PersonaEntity personaEntity, String vers) {
+        // Taken before reading the stats, so an invalidation during the read drops the result
+        Map<String, String> personaOpParams = opParams.computeIfAbsent(personaEntity.getId(), id -> new ConcurrentHashMap<>());
+        String opParam = personaOpParams.get(vers);
+        if (opParam != null) {
+            hitCounter.increment();
+            return opParam;
+        }
+        missCounter.increment();
+        MohhPersonaStatsEntity mohhPersonaStatsEntity = mohhPersonaStatsRepository.findByPersonaIdAndVers(personaEntity.getId(), vers);
+        Long rank = leaderboardService.getRank(LeaderboardService.Category.MOHH_KILL_DEATH, vers, personaEntity.getId());
+        opParam = encode(personaEntity, mohhPersonaStatsEntity, rank != null ? rank.intValue() : 0);
+        personaOpParams.put(vers, opParam);
+        return opParam;
+    }
+
+    /**
+     * Forgets the OPPARAM of a persona, once its new stats are committed
+     */
+    public void invalidate(Long personaId) {
+        opParams.remove(personaId);
+    }
+
+    /**
+     * Six little-endian words : kills, deaths, rank, the last two letters of the location, reputation, and 1
+     */
+    static String encode(PersonaEntity personaEntity, MohhPersonaStatsEntity mohhPersonaStatsEntity, int rank) {
+        String loc = personaEntity.getAccount().getLoc();
+        ByteBuffer buffer = ByteBuffer.allocate(OPPARAM_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(mohhPersonaStatsEntity != null ? mohhPersonaStatsEntity.getKill() : 0);
+        buffer.putInt(mohhPersonaStatsEntity != null ? mohhPersonaStatsEntity.getDeath() : 0);
+        buffer.putInt(rank);
+        buffer.putInt(loc.charAt(loc.length() - 2) << 8 | loc.charAt(loc.length() - 1));
+        buffer.putInt(personaEntity.getRp());
+        buffer.putInt(1);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+}
@@ -0,0 +1,330 @@
+package com.ea.services.stats;
+
+import com.ea.dto.MessageFields;
+import com.ea.dto.SocketData;
+import com.ea.repositories.stats.RankIngestionRepository;
+import com.ea.services.server.GamePersistenceService;
+import com.ea.services.server.ThreadService;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.ea.services.server.GameServerService.MOH07_OR_UHS;
+import static com.ea.services.server.GameServerService.PSP_NHL_07;
+
+/**
+ * Applies the 'rank' reports behind the connections sending them, which are answered right away
+ * Reports are journaled then queued, and a single thread applies them by batches, one transaction per batch,
+ * the MoHH reports of a batch being merged into the stats of each persona once
+ * Each report has a sequence, and the transaction applying a batch also stores its last sequence,
+ * so the reports found in the journal on startup are only applied again if their batch wasn't committed
+ * A report which can't be read is skipped, but when the database fails the reports stay queued and journaled,
+ * and are applied again after a delay doubled on each failure
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RankIngestionService {
+
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    private final MohhStatsService mohhStatsService;
+    private final NhlStatsService nhlStatsService;
+    private final RankIngestionRepository rankIngestionRepository;
+    private final GamePersistenceService gamePersistenceService;
+    private final PlatformTransactionManager transactionManager;
+    private final ThreadService threadService;
+    private final MeterRegistry meterRegistry;
+    private final Props props;
+    private final BlockingDeque<PendingReport> queue = new LinkedBlockingDeque<>();
+    // Locks rather than monitors, as both are held through I/O, which would pin the carrier of a virtual thread
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private RankJournal journal;
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private Timer lagTimer;
+    private Timer batchTimer;
+    private Counter errorCounter;
+    private long sequence;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        lagTimer = Timer.builder("stats.ingestion.lag")
+                .description("Time between the reception of a rank report and the commit of its stats")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        batchTimer = Timer.builder("stats.ingestion.batch")
+                .description("Time to apply a batch of rank reports")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        errorCounter = meterRegistry.counter("stats.ingestion.errors");
+        Gauge.builder("stats.ingestion.pending", queue, BlockingQueue::size)
+                .description("Rank reports waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("stats.ingestion.oldest", queue, this::oldestPendingMillis)
+                .description("Age of the oldest rank report waiting to be applied, in milliseconds")
+                .register(meterRegistry);
+
+        String journalPath = props.getStatsIngestionJournal();
+        journal = new RankJournal(journalPath.isBlank() ? null : Path.of(journalPath));
+        long lastApplied = rankIngestionRepository.findLastSequence();
+        List<RankJournal.Entry> entries = journal.open();
+        for (RankJournal.Entry entry : entries) {
+            if (entry.sequence() > lastApplied) {
+                queue.add(new PendingReport(entry, System.nanoTime()));
+            }
+        }
+        journal.applied(lastApplied);
+        sequence = Math.max(lastApplied, journal.getLastAppended());
+        if (!queue.isEmpty()) {
+            log.info("Applying {} rank reports left in the journal", queue.size());
+        }
+
+        running = true;
+        worker = threadService.newThread("rank-ingestion", this::run);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        stopped.countDown();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        journal.close();
+    }
+
+    /**
+     * Journals and queues a report to be applied
+     *
+     * @param vers       the version of the game of the reporting connection
+     * @param socketData the 'rank' message
+     */
+    public void submit(String vers, SocketData socketData) {
+        submitLock.lock();
+        try {
+            // The text of the message is journaled, rendered back from its fields if it was decoded from the frame
+            RankJournal.Entry entry = new RankJournal.Entry(++sequence, vers, socketData.getInputMessage());
+            try {
+                journal.append(entry);
+            } catch (IOException e) {
+                errorCounter.increment();
+                log.error("Error while journaling rank report {}, it's only kept in memory", entry.sequence(), e);
+            }
+            queue.add(new PendingReport(entry, System.nanoTime()));
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the queued reports from the calling thread, used on shutdown
+     * Stops at the first report which can't be applied, the journal keeps it and the next ones for the next startup
+     */
+    public void flush() {
+        try {
+            while (!queue.isEmpty()) {
+                if (!applyNext(0)) {
+                    log.warn("{} rank reports left in the journal, applied on next startup", queue.size());
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long retryDelay = TimeUnit.SECONDS.toMillis(props.getStatsIngestionRetryDelay());
+        while (running) {
+            try {
+                if (applyNext(TimeUnit.SECONDS.toMillis(1))) {
+                    retryDelay = TimeUnit.SECONDS.toMillis(props.getStatsIngestionRetryDelay());
+                    continue;
+                }
+                log.warn("Applying {} rank reports again in {} ms", queue.size(), retryDelay);
+                if (stopped.await(retryDelay, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                errorCounter.increment();
+                log.error("Error while applying rank reports", e);
+            }
+        }
+    }
+
+    /**
+     * Applies the next batch of queued reports, the ones which couldn't be applied are put back at the head of the queue
+     * Locked, as a flush on shutdown may run while the worker finishes its batch, but not against submit,
+     * so the reports are always applied in sequence order
+     *
+     * @param timeout milliseconds to wait for a report
+     * @return false if the database failed before the whole batch was applied
+     */
+    private boolean applyNext(long timeout) throws InterruptedException {
+        applyLock.lock();
+        try {
+            PendingReport first = queue.poll(timeout, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return true;
+            }
+            List<PendingReport> batch = new ArrayList<>();
+            batch.add(first);
+            queue.drainTo(batch, props.getStatsIngestionBatchSize() - 1);
+            int applied = applyBatch(batch);
+            for (int i = batch.size() - 1; i >= applied; i--) {
+                queue.addFirst(batch.get(i));
+            }
+            return applied == batch.size();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch in one transaction, or report by report if a report can't be read so it doesn't lose the others
+     *
+     * @return the number of reports applied or skipped, from the start of the batch
+     */
+    private int applyBatch(List<PendingReport> batch) {
+        long start = System.nanoTime();
+        // Game connections are written behind too, a report may come before the connection it's matched to is written
+        if (!gamePersistenceService.flush()) {
+            errorCounter.increment();
+            log.error("Game connections not written, {} rank reports are kept to be applied again", batch.size());
+            return 0;
+        }
+        int applied;
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyInTransaction(batch));
+            applied = batch.size();
+        } catch (Exception e) {
+            if (isInvalidReport(e)) {
+                log.warn("Error while applying {} rank reports together, applying them one by one", batch.size(), e);
+                applied = applyOneByOne(batch);
+            } else {
+                errorCounter.increment();
+                log.error("Error while applying {} rank reports, they are kept to be applied again", batch.size(), e);
+                applied = 0;
+            }
+        }
+        if (applied == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        batchTimer.record(now - start, TimeUnit.NANOSECONDS);
+        for (PendingReport pendingReport : batch.subList(0, applied)) {
+            lagTimer.record(now - pendingReport.queuedAt(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            journal.applied(batch.get(applied - 1).entry().sequence());
+        } catch (IOException e) {
+            errorCounter.increment();
+            log.error("Error while emptying the rank journal", e);
+        }
+        return applied;
+    }
+
+    /**
+     * Applies each report in its own transaction, skipping the ones which can't be read
+     *
+     * @return the number of reports applied or skipped, until the database fails
+     */
+    private int applyOneByOne(List<PendingReport> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingReport pendingReport = batch.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyInTransaction(List.of(pendingReport)));
+            } catch (Exception e) {
+                errorCounter.increment();
+                if (!isInvalidReport(e)) {
+                    log.error("Error while applying rank report {}, it's kept to be applied again", pendingReport.entry().sequence(), e);
+                    return i;
+                }
+                log.error("Dropping rank report {}: {}", pendingReport.entry().sequence(), pendingReport.entry().message(), e);
+                // Not applied again on startup, as it would fail the same way
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            rankIngestionRepository.updateLastSequence(pendingReport.entry().sequence()));
+                } catch (Exception sequenceException) {
+                    log.error("Error while skipping rank report {}, it's kept to be skipped again", pendingReport.entry().sequence(), sequenceException);
+                    return i;
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * @return whether the report itself is at fault (unreadable field, rejected by a constraint), so applying it again
+     * would fail the same way, rather than the database or the transaction
+     */
+    private static boolean isInvalidReport(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException || cause instanceof DateTimeException
+                    || cause instanceof NullPointerException || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applyInTransaction(List<PendingReport> batch) {
+        List<SocketData> mohhReports = new ArrayList<>();
+        for (PendingReport pendingReport : batch) {
+            RankJournal.Entry entry = pendingReport.entry();
+            SocketData socketData = new SocketData("rank", MessageFields.of(entry.message()));
+            if (MOH07_OR_UHS.contains(entry.vers())) {
+                mohhReports.add(socketData);
+            } else if (PSP_NHL_07.equals(entry.vers())) {
+                nhlStatsService.rank(socketData);
+            }
+        }
+        if (!mohhReports.isEmpty()) {
+            mohhStatsService.rank(mohhReports);
+        }
+        rankIngestionRepository.updateLastSequence(batch.get(batch.size() - 1).entry().sequence());
+    }
+
+    private double oldestPendingMillis(BlockingQueue<PendingReport> pendingReports) {
+        PendingReport oldest = pendingReports.peek();
+        return oldest != null ? (System.nanoTime() - oldest.queuedAt()) / 1e6 : 0;
+    }
+
+    private record PendingReport(RankJournal.Entry entry, long queuedAt) {
+    }
+}
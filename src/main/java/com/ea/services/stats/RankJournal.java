@@ -0,0 +1,207 @@
+package com.ea.services.stats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only file of the rank reports accepted but maybe not applied yet, one line per report :
+ * sequence, version of the game and Base64 encoded message, separated by tabs
+ * Lines are written synchronously (DSYNC) before the report is queued, so they survive a crash of the server or of the host
+ * The file is emptied once every report it holds is applied, and rewritten with only the reports not applied yet
+ * once the applied ones take more than the compaction threshold, so it doesn't grow under steady load
+ * Without path, nothing is written and reports only live in memory
+ */
+@Slf4j
+final class RankJournal {
+
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+
+    record Entry(long sequence, String vers, String message) {
+    }
+
+    private record Line(long sequence, byte[] bytes) {
+    }
+
+    private final Path path;
+    private final long compactionThreshold;
+    // Not a monitor, as it's held through file writes, which would pin the carrier of a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Line> pending = new ArrayDeque<>();
+    private FileChannel channel;
+    private long lastAppended;
+    private long appliedBytes;
+
+    RankJournal(Path path) {
+        this(path, COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold bytes of applied reports from which the file is rewritten without them
+     */
+    RankJournal(Path path, long compactionThreshold) {
+        this.path = path;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Reads the reports left by the previous run, then opens the file to append new ones
+     * The caller tells which of them were applied already
+     *
+     * @return the readable entries, in sequence order, a line torn by a crash being skipped
+     */
+    List<Entry> open() throws IOException {
+        lock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>();
+            if (path == null) {
+                return entries;
+            }
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    String[] parts = line.split("\t", -1);
+                    try {
+                        Entry entry = new Entry(Long.parseLong(parts[0]), parts[1],
+                                new String(Base64.getDecoder().decode(parts[2]), StandardCharsets.UTF_8));
+                        entries.add(entry);
+                        pending.add(new Line(entry.sequence(), encode(entry)));
+                        lastAppended = Math.max(lastAppended, entry.sequence());
+                    } catch (RuntimeException e) {
+                        log.warn("Skipping unreadable rank journal line: {}", line);
+                    }
+                }
+            } else if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = openChannel(path);
+            // Rewritten without the torn line, if any, so new lines don't follow it
+            if (channel.size() > 0) {
+                compact();
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void append(Entry entry) throws IOException {
+        lock.lock();
+        try {
+            lastAppended = entry.sequence();
+            if (channel == null) {
+                return;
+            }
+            byte[] bytes = encode(entry);
+            write(channel, bytes);
+            pending.add(new Line(entry.sequence(), bytes));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the reports up to a sequence, reports being applied in sequence order
+     * Empties the file if it was the last one appended, or compacts it once enough reports are applied
+     *
+     * @param sequence the sequence of the last report applied
+     */
+    void applied(long sequence) throws IOException {
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            while (!pending.isEmpty() && pending.peekFirst().sequence() <= sequence) {
+                appliedBytes += pending.removeFirst().bytes().length;
+            }
+            if (pending.isEmpty() && sequence >= lastAppended) {
+                channel.truncate(0);
+                channel.force(true);
+                appliedBytes = 0;
+            } else if (appliedBytes >= compactionThreshold) {
+                compact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the highest sequence appended, by this run or the previous ones
+     */
+    long getLastAppended() {
+        lock.lock();
+        try {
+            return lastAppended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.error("Error while closing the rank journal", e);
+            }
+            channel = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the reports not applied yet to a new file, which then replaces the journal
+     */
+    private void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel compactedChannel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Line line : pending) {
+                write(compactedChannel, line.bytes());
+            }
+            compactedChannel.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = openChannel(path);
+        log.debug("Compacted the rank journal, {} bytes of applied reports removed", appliedBytes);
+        appliedBytes = 0;
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND,
+                StandardOpenOption.DSYNC);
+    }
+
+    private static byte[] encode(Entry entry) {
+        return (entry.sequence() + "\t" + entry.vers() + "\t"
+                + Base64.getEncoder().encodeToString(entry.message().getBytes(StandardCharsets.UTF_8)) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void write(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
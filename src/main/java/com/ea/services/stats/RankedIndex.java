@@ -0,0 +1,207 @@
+package com.ea.services.stats;
+
+import java.util.*;
+
+/**
+ * Personas of a leaderboard in ranking order, as an order-statistic tree (a treap whose nodes know the size of their subtree),
+ * so the rank of a persona is found in O(log n) and a page at an offset in O(log n + page size)
+ * Scores are ranked in descending order, then the tiebreaks, then the persona ids in ascending order, like the leaderboard queries
+ * Not thread-safe, LeaderboardService guards each index
+ */
+final class RankedIndex {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Adds a persona, or moves it to its new score
+     *
+     * @param personaId the persona id
+     * @param statsId   the id of the stats row of the persona
+     * @param score     the score, ranked first
+     * @param tiebreak  the score ranking equal scores
+     */
+    void put(long personaId, long statsId, long score, long tiebreak) {
+        remove(personaId);
+        Node node = new Node(new Key(score, tiebreak, personaId), statsId, random.nextInt());
+        nodes.put(personaId, node);
+        root = insert(root, node);
+    }
+
+    void remove(long personaId) {
+        Node node = nodes.remove(personaId);
+        if (node != null) {
+            root = delete(root, node.key);
+        }
+    }
+
+    /**
+     * @return the rank of a persona, from 1, 0 if it isn't ranked
+     */
+    long rank(long personaId) {
+        Node node = nodes.get(personaId);
+        if (node == null) {
+            return 0;
+        }
+        long rank = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = node.key.compareTo(current.key);
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                current = current.right;
+            }
+        }
+        throw new IllegalStateException("Persona " + personaId + " indexed but not in the tree");
+    }
+
+    /**
+     * @param offset the number of ranks to skip
+     * @param limit  the maximum size of the page
+     * @return the ids of the stats rows of the page, in ranking order
+     */
+    List<Long> page(long offset, int limit) {
+        List<Long> statsIds = new ArrayList<>(Math.min(limit, nodes.size()));
+        // Path to the first node of the page, keeping the nodes to visit after it
+        Deque<Node> pending = new ArrayDeque<>();
+        Node current = root;
+        long skip = offset;
+        while (current != null) {
+            int leftSize = size(current.left);
+            if (skip < leftSize) {
+                pending.push(current);
+                current = current.left;
+            } else if (skip == leftSize) {
+                pending.push(current);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                current = current.right;
+            }
+        }
+        while (!pending.isEmpty() && statsIds.size() < limit) {
+            Node node = pending.pop();
+            statsIds.add(node.statsId);
+            for (Node next = node.right; next != null; next = next.left) {
+                pending.push(next);
+            }
+        }
+        return statsIds;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static Node insert(Node current, Node node) {
+        if (current == null) {
+            return node;
+        }
+        if (node.priority > current.priority) {
+            Node[] parts = split(current, node.key);
+            node.left = parts[0];
+            node.right = parts[1];
+            return update(node);
+        }
+        if (node.key.compareTo(current.key) < 0) {
+            current.left = insert(current.left, node);
+        } else {
+            current.right = insert(current.right, node);
+        }
+        return update(current);
+    }
+
+    private static Node delete(Node current, Key key) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = key.compareTo(current.key);
+        if (cmp == 0) {
+            return merge(current.left, current.right);
+        }
+        if (cmp < 0) {
+            current.left = delete(current.left, key);
+        } else {
+            current.right = delete(current.right, key);
+        }
+        return update(current);
+    }
+
+    /**
+     * @return the nodes ranked before the key, and the others
+     */
+    private static Node[] split(Node node, Key key) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.key.compareTo(key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+
+    /**
+     * @return the union of two trees, all the nodes of the first one being ranked before the ones of the second one
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private record Key(long score, long tiebreak, long personaId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int cmp = Long.compare(other.score, score);
+            if (cmp == 0) {
+                cmp = Long.compare(other.tiebreak, tiebreak);
+            }
+            return cmp != 0 ? cmp : Long.compare(personaId, other.personaId);
+        }
+    }
+
+    private static final class Node {
+        private final Key key;
+        private final long statsId;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(Key key, long statsId, int priority) {
+            this.key = key;
+            this.statsId = statsId;
+            this.priority = priority;
+        }
+    }
+}
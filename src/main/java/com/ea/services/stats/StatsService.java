@@ -1,17 +1,16 @@
 package com.ea.services.stats;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.services.core.GameService;
 import com.ea.services.core.RoomService;
 import com.ea.services.server.GameServerService;
 import com.ea.steps.SocketWriter;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.net.Socket;
 
 import static com.ea.services.server.GameServerService.*;
 
@@ -26,6 +25,7 @@ public class StatsService {
     private final NhlStatsService nhlStatsService;
     private final GameService gameService;
     private final RoomService roomService;
+    private final RankIngestionService rankIngestionService;
 
     /**
      * Retrieve ranking categories
@@ -34,7 +34,7 @@ public class StatsService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void cate(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void cate(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         if (MOH07_OR_MOH08.contains(socketWrapper.getPersonaConnectionEntity().getVers())) {
             mohhStatsService.cate(socketData);
         } else if (PSP_NHL_07.contains(socketWrapper.getPersonaConnectionEntity().getVers())) {
@@ -50,7 +50,7 @@ public class StatsService {
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    public void snap(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void snap(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         if (MOH07_OR_MOH08.contains(socketWrapper.getPersonaConnectionEntity().getVers())) {
             mohhStatsService.snap(socket, socketData, socketWrapper);
         } else if (PSP_NHL_07.contains(socketWrapper.getPersonaConnectionEntity().getVers())) {
@@ -61,14 +61,13 @@ public class StatsService {
     }
 
     /**
-     * Send ranking results.
+     * Send ranking results, applied to the stats behind the connection
      *
      * @param socket        The socket to write the response to
      * @param socketData    The socket data
      * @param socketWrapper The socket wrapper of current connection
      */
-    @Transactional
-    public void rank(Socket socket, SocketData socketData, SocketWrapper socketWrapper) {
+    public void rank(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper) {
         socketWriter.write(socket, socketData);
         if (socketWrapper == null) {
             log.warn("SocketWrapper is null for socket: {}", socket);
@@ -77,11 +76,11 @@ public class StatsService {
 
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
         if (MOH07_OR_UHS.contains(vers)) {
-            mohhStatsService.rank(socketData);
+            rankIngestionService.submit(vers, socketData);
         } else {
             if (gameServerService.isP2P(vers)) {
                 if (PSP_NHL_07.equals(vers)) {
-                    nhlStatsService.rank(socketData);
+                    rankIngestionService.submit(vers, socketData);
                 }
                 // Close the game and gameConnections if the game is P2P
                 gameService.endGame(socketWrapper);
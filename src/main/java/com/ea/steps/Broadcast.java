@@ -0,0 +1,58 @@
+package com.ea.steps;
+
+import com.ea.dto.Packet;
+import com.ea.dto.SocketWrapper;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Packets sent to a set of connections
+ * Each packet is encoded once and the same frame is queued to every recipient,
+ * per-recipient variants are expressed as conditions on the recipient
+ * Recipients receive the packets in the order they were added
+ */
+@Getter
+public class Broadcast {
+
+    private final Set<SocketWrapper> recipients;
+    private final List<Part> parts = new ArrayList<>();
+
+    private Broadcast(Collection<SocketWrapper> recipients) {
+        this.recipients = new LinkedHashSet<>(recipients);
+    }
+
+    public static Broadcast to(Collection<SocketWrapper> recipients) {
+        return new Broadcast(recipients);
+    }
+
+    public Broadcast send(Packet packet) {
+        return send(packet, recipient -> true);
+    }
+
+    /**
+     * @param packet the packet to send
+     * @param when   the condition a recipient must match to receive the packet
+     */
+    public Broadcast send(Packet packet, Predicate<SocketWrapper> when) {
+        parts.add(new Part(packet, when));
+        return this;
+    }
+
+    /**
+     * Condition matching every recipient but the given connection
+     *
+     * @param self the connection to skip
+     */
+    public static Predicate<SocketWrapper> except(SocketWrapper self) {
+        return recipient -> recipient.getSocket() != self.getSocket();
+    }
+
+    public record Part(Packet packet, Predicate<SocketWrapper> when) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.ea.steps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Per-connection accumulation buffer of the blocking transport
+ * Keeps partial messages between reads, so a message split over several TCP segments is not lost
+ * Complete messages are exposed as slices of the backing array, they are only valid until the next read
+ */
+public class FrameAccumulator {
+
+    public static final int HEADER_LENGTH = 12;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final int maxFrameSize;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int start;
+    private int end;
+
+    public FrameAccumulator(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Reads available data from the stream, after the pending bytes
+     *
+     * @param inputStream the stream to read
+     * @return the number of bytes read, or -1 at the end of the stream
+     */
+    public int readFrom(InputStream inputStream) throws IOException {
+        ensureWritable();
+        int readLength = inputStream.read(buffer, end, buffer.length - end);
+        if (readLength > 0) {
+            end += readLength;
+        }
+        return readLength;
+    }
+
+    /**
+     * Slices the next complete message (header included) out of the pending bytes
+     *
+     * @return the message, or null if it is not complete yet
+     * @throws IOException if the header announces an invalid length
+     */
+    public ByteBuffer nextFrame() throws IOException {
+        if (end - start < HEADER_LENGTH) {
+            return null;
+        }
+        int frameSize = getFrameSize();
+        if (end - start < frameSize) {
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.wrap(buffer, start, frameSize).slice();
+        start += frameSize;
+        return frame;
+    }
+
+    public int pending() {
+        return end - start;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    private int getFrameSize() throws IOException {
+        int frameSize = ByteBuffer.wrap(buffer, start + 8, 4).getInt();
+        if (frameSize < HEADER_LENGTH || frameSize > maxFrameSize) {
+            throw new IOException("Invalid message length: " + frameSize);
+        }
+        return frameSize;
+    }
+
+    /**
+     * Makes room for the next read
+     * Pending bytes are moved to the beginning of the buffer, which only grows if the pending message needs it
+     * The buffer goes back to its initial size once an oversized message is consumed
+     */
+    private void ensureWritable() throws IOException {
+        int pending = end - start;
+        if (pending == 0) {
+            start = 0;
+            end = 0;
+            if (buffer.length > INITIAL_CAPACITY) {
+                buffer = new byte[INITIAL_CAPACITY];
+            }
+            return;
+        }
+
+        int required = pending < HEADER_LENGTH ? HEADER_LENGTH : getFrameSize();
+        if (required > buffer.length) {
+            byte[] newBuffer = new byte[Math.min(Math.max(required, buffer.length * 2), maxFrameSize)];
+            System.arraycopy(buffer, start, newBuffer, 0, pending);
+            buffer = newBuffer;
+        } else if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, pending);
+        }
+        start = 0;
+        end = pending;
+    }
+}
@@ -0,0 +1,144 @@
+package com.ea.steps;
+
+import com.ea.dto.ClientSocket;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pending outbound messages of a connection
+ * Any thread can enqueue, a single drain task at a time writes to the socket, so the order is kept
+ * and a slow client only holds its own drain task instead of every writer
+ * Netty channels are written without blocking, so the drain pauses while the socket isn't writable,
+ * the messages then pile up here and the slow client policy applies as for blocking sockets
+ */
+@Slf4j
+public class OutboundQueue {
+
+    private static final int MAX_GATHERING_SIZE = 65536;
+
+    @Getter
+    private final ClientSocket socket;
+    private final Queue<byte[]> messages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicInteger consecutiveDrops = new AtomicInteger();
+    private volatile long writeStartedAt;
+    private final List<byte[]> batch = new ArrayList<>();
+
+    public OutboundQueue(ClientSocket socket) {
+        this.socket = socket;
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    /**
+     * Adds a message if the queue is below its capacity
+     *
+     * @param message  the encoded message
+     * @param capacity the maximum number of pending messages
+     * @return false if the queue is full
+     */
+    public boolean offer(byte[] message, int capacity) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+        messages.add(message);
+        return true;
+    }
+
+    /**
+     * @return the System.nanoTime() the current socket write started at, 0 if no write is in progress
+     */
+    public long writeStartedAt() {
+        return writeStartedAt;
+    }
+
+    public int incrementDrops() {
+        return consecutiveDrops.incrementAndGet();
+    }
+
+    /**
+     * @return true if the caller must submit a drain task (none is running or scheduled)
+     */
+    public boolean startDraining() {
+        return draining.compareAndSet(false, true);
+    }
+
+    public void clear() {
+        while (messages.poll() != null) {
+            depth.decrementAndGet();
+        }
+    }
+
+    /**
+     * Writes all pending messages, in batches of up to 64 KiB
+     *
+     * @param blockedTimer the timer recording the time spent in socket writes
+     * @return false if the socket can't be written anymore
+     */
+    public boolean drain(Timer blockedTimer) {
+        try {
+            while (true) {
+                if (!socket.isWritable()) {
+                    draining.set(false);
+                    // The channel may have become writable before the reset, while its event saw the drain running
+                    if (messages.isEmpty() || !socket.isWritable() || !draining.compareAndSet(false, true)) {
+                        return true;
+                    }
+                    continue;
+                }
+                gather();
+                if (batch.isEmpty()) {
+                    draining.set(false);
+                    // A message may have been added after the last poll, by a writer which saw the drain running
+                    if (messages.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return true;
+                    }
+                    continue;
+                }
+                long start = System.nanoTime();
+                writeStartedAt = start;
+                try {
+                    socket.write(batch);
+                } finally {
+                    writeStartedAt = 0;
+                    batch.clear();
+                }
+                blockedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                consecutiveDrops.set(0);
+            }
+        } catch (IOException e) {
+            log.error("Error: writing to closed socket");
+            clear();
+            draining.set(false);
+            return false;
+        }
+    }
+
+    private void gather() {
+        int length = 0;
+        byte[] message;
+        while (length < MAX_GATHERING_SIZE && (message = messages.peek()) != null) {
+            if (length > 0 && length + message.length > MAX_GATHERING_SIZE) {
+                break;
+            }
+            messages.poll();
+            depth.decrementAndGet();
+            batch.add(message);
+            length += message.length;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.ea.steps;
+
+import com.ea.dto.Packet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
+
+/**
+ * Encodes outbound messages : id, flags and length header, then the key=value body ended by '\0'
+ * Messages are written into a scratch buffer borrowed from a small shared pool, the length is backfilled once the body
+ * is written, and the only allocation is the exact-size frame handed to the outbound queue
+ * The pool is shared rather than per thread, as sessions may run on virtual threads which each encode only a few messages
+ */
+public final class PacketEncoder {
+
+    private static final int HEADER_LENGTH = 12;
+    private static final int SCRATCH_SIZE = 4096;
+    private static final int MAX_POOLED_SCRATCH_SIZE = 65536;
+    private static final int MAX_POOLED_SCRATCHES = 64;
+    private static final int MAX_CACHED_EMPTY_FRAMES = 512;
+
+    private static final BlockingQueue<Scratch> SCRATCHES = new ArrayBlockingQueue<>(MAX_POOLED_SCRATCHES);
+    private static final Map<String, Packet> EMPTY_FRAMES = new ConcurrentHashMap<>();
+
+    public static final Packet PING = empty("~png");
+    public static final Packet TIC = empty("@tic");
+
+    private PacketEncoder() {
+    }
+
+    /**
+     * Get the frame of a message without body, such as keep-alives and acknowledgements
+     * Frames are encoded once and reused
+     *
+     * @param idMessage the message id
+     * @return the shared frame
+     */
+    public static Packet empty(String idMessage) {
+        Packet packet = EMPTY_FRAMES.get(idMessage);
+        if (packet == null) {
+            packet = builder(idMessage).withoutBody().build();
+            if (EMPTY_FRAMES.size() < MAX_CACHED_EMPTY_FRAMES) {
+                EMPTY_FRAMES.putIfAbsent(idMessage, packet);
+            }
+        }
+        return packet;
+    }
+
+    /**
+     * Encodes a message from a map, the body being absent if the map is null
+     *
+     * @param idMessage the message id
+     * @param content   the message content
+     * @param joiner    the entry separator
+     * @return the encoded frame
+     */
+    public static byte[] encode(String idMessage, Map<String, String> content, String joiner) {
+        if (content == null) {
+            return empty(idMessage).getFrame();
+        }
+        Builder builder = builder(idMessage, joiner);
+        for (Map.Entry<String, String> entry : content.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.build().getFrame();
+    }
+
+    public static Builder builder(String idMessage) {
+        return builder(idMessage, NEWLINE_CHAR);
+    }
+
+    public static Builder builder(String idMessage, String joiner) {
+        return new Builder(idMessage, joiner);
+    }
+
+    /**
+     * Writes the entries of one message, in order, without intermediate map nor strings
+     * A builder is built at most once, it holds a scratch buffer of the pool until then
+     * A builder which is never built just doesn't give its buffer back, the pool allocates a new one when empty
+     */
+    public static final class Builder {
+        private final String idMessage;
+        private final String joiner;
+        private Scratch scratch;
+        private final int lengthPosition;
+        private final int bodyStart;
+        private boolean hasBody = true;
+        private boolean first = true;
+
+        private Builder(String idMessage, String joiner) {
+            this.idMessage = idMessage;
+            this.joiner = joiner;
+            Scratch pooledScratch = SCRATCHES.poll();
+            scratch = pooledScratch != null ? pooledScratch : new Scratch();
+            scratch.position = 0;
+
+            scratch.writeString(idMessage);
+            if (idMessage.length() == 4) {
+                scratch.writeInt(0);
+            }
+            lengthPosition = scratch.position;
+            scratch.writeInt(0);
+            bodyStart = scratch.position;
+        }
+
+        public Builder put(String key, String value) {
+            startEntry(key);
+            scratch.writeString(String.valueOf(value));
+            return this;
+        }
+
+        public Builder put(String key, long value) {
+            startEntry(key);
+            scratch.writeLong(value);
+            return this;
+        }
+
+        public Builder putAll(Map<String, String> content) {
+            for (Map.Entry<String, String> entry : content.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * The message has no body at all, not even the ending '\0'
+         */
+        public Builder withoutBody() {
+            hasBody = false;
+            return this;
+        }
+
+        public Packet build() {
+            if (scratch == null) {
+                throw new IllegalStateException("Packet " + idMessage + " already built");
+            }
+            if (hasBody) {
+                scratch.ensureCapacity(1);
+                scratch.buffer[scratch.position++] = 0;
+            } else {
+                scratch.position = bodyStart;
+            }
+            int end = scratch.position;
+            scratch.position = lengthPosition;
+            scratch.writeInt(HEADER_LENGTH + end - bodyStart);
+
+            byte[] frame = new byte[end];
+            System.arraycopy(scratch.buffer, 0, frame, 0, end);
+            release(scratch);
+            scratch = null;
+            return new Packet(idMessage, frame);
+        }
+
+        private void startEntry(String key) {
+            if (!first) {
+                scratch.writeString(joiner);
+            }
+            first = false;
+            scratch.writeString(key);
+            scratch.ensureCapacity(1);
+            scratch.buffer[scratch.position++] = '=';
+        }
+    }
+
+    private static final class Scratch {
+        private byte[] buffer = new byte[SCRATCH_SIZE];
+        private int position;
+
+        private void ensureCapacity(int needed) {
+            if (position + needed > buffer.length) {
+                byte[] newBuffer = new byte[Math.max(buffer.length * 2, position + needed)];
+                System.arraycopy(buffer, 0, newBuffer, 0, position);
+                buffer = newBuffer;
+            }
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            int length = value.length();
+            ensureCapacity(length);
+            int start = position;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Not ASCII, let the JDK do the UTF-8 encoding
+                    position = start;
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    ensureCapacity(bytes.length);
+                    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                    position += bytes.length;
+                    return;
+                }
+                buffer[position++] = (byte) c;
+            }
+        }
+
+        private void writeLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                writeString(Long.toString(value));
+                return;
+            }
+            ensureCapacity(20);
+            if (value < 0) {
+                buffer[position++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position += digits;
+        }
+    }
+
+    private static void release(Scratch scratch) {
+        // Don't keep the buffer of an unusually large message, nor more buffers than the pool holds
+        if (scratch.buffer.length <= MAX_POOLED_SCRATCH_SIZE) {
+            SCRATCHES.offer(scratch);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.ea.steps;
 
 import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.MessageFields;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
+import com.ea.services.server.KeepAliveService;
 import com.ea.services.server.SocketManager;
 import com.ea.utils.HexUtils;
 import com.ea.utils.Props;
@@ -11,8 +14,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.net.Socket;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -22,69 +26,68 @@ public class SocketParser {
     private final Props props;
     private final SocketManager socketManager;
     private final SocketProcessor socketProcessor;
+    private final KeepAliveService keepAliveService;
 
     /**
-     * Parses input messages based on current content of the stream
-     * Loops until all complete messages are parsed
+     * Parses input messages based on current content of the accumulator
+     * Loops until all complete messages are parsed, the remaining bytes stay in the accumulator
      * Sends complete messages to the processor
      *
-     * @param socket     the socket to exchange with
-     * @param buffer     the buffer to read from
-     * @param readLength the size of written content in buffer
+     * @param socket      the socket to exchange with
+     * @param accumulator the per-connection buffer to read from
+     * @throws IOException if a message announces an invalid length
      */
-    public void parse(Socket socket, byte[] buffer, int readLength) {
-        ByteBuffer messageBuffer = ByteBuffer.allocate(4096);
-        handleSocketData(socket, buffer, readLength, messageBuffer);
-    }
-
-    private void handleSocketData(Socket socket, byte[] buffer, int readLength, ByteBuffer messageBuffer) {
-        if (messageBuffer.remaining() < readLength) {
-            ByteBuffer newBuffer = ByteBuffer.allocate(messageBuffer.capacity() + readLength);
-            messageBuffer.flip();
-            newBuffer.put(messageBuffer);
-            messageBuffer = newBuffer;
-        }
-
-        messageBuffer.put(buffer, 0, readLength);
-        messageBuffer.flip();
-
-        while (messageBuffer.remaining() >= 12) {
-            int messageSize = SocketUtils.getlength(messageBuffer.array(), messageBuffer.position());
-            if (messageBuffer.remaining() >= messageSize) {
-                byte[] message = new byte[messageSize];
-                messageBuffer.get(message);
-                processCompleteMessage(socket, message, messageSize);
-            } else {
-                break;
-            }
+    public void parse(ClientSocket socket, FrameAccumulator accumulator) throws IOException {
+        ByteBuffer message;
+        while ((message = accumulator.nextFrame()) != null) {
+            processCompleteMessage(socket, message);
         }
-
-        messageBuffer.compact();
     }
 
-    private void processCompleteMessage(Socket socket, byte[] message, int messageSize) {
-        String id = new String(message, 0, 4);
-        String content = new String(message, 12, messageSize - 12);
-        SocketData socketData = new SocketData(id, content, null);
+    /**
+     * Builds the socket data from a complete message (header included)
+     * Then sends it to the processor
+     *
+     * @param socket  the socket to exchange with
+     * @param message the complete message, only read during the call
+     */
+    public void processCompleteMessage(ClientSocket socket, ByteBuffer message) {
+        String id = decode(message, 0, 4);
+        // The message is a transient slice, the body is copied once and indexed for all handlers
+        byte[] body = new byte[message.remaining() - 12];
+        message.get(message.position() + 12, body);
+        SocketData socketData = new SocketData(id, new MessageFields(body, 0, body.length));
+        keepAliveService.onInbound(socket, id);
 
-        String playerInfo = "";
+        // Wrappers are resolved once per message and handed to the handlers
         SocketWrapper socketWrapper = socketManager.getSocketWrapperBySocket(socket);
-        if (socketWrapper != null) {
-            playerInfo = SocketUtils.getPlayerInfo(socketWrapper);
-        } else {
-            BuddySocketWrapper buddySocketWrapper = socketManager.getBuddySocketWrapperBySocket(socket);
-            if (buddySocketWrapper != null) {
-                playerInfo = SocketUtils.getBuddyPlayerInfo(buddySocketWrapper);
-            }
-        }
+        BuddySocketWrapper buddySocketWrapper = socketWrapper == null ? socketManager.getBuddySocketWrapperBySocket(socket) : null;
 
         // TODO : Remove rank debug display when stats are fully implemented
         if (!props.getTcpDebugExclusions().contains(socketData.getIdMessage())) {
+            String playerInfo = "";
+            if (socketWrapper != null) {
+                playerInfo = SocketUtils.getPlayerInfo(socketWrapper);
+            } else if (buddySocketWrapper != null) {
+                playerInfo = SocketUtils.getBuddyPlayerInfo(buddySocketWrapper);
+            }
             log.info("<-- {} {} {}", socket.getRemoteSocketAddress().toString(),
                     props.isTcpDebugEnabled() || "rank".equals(socketData.getIdMessage()) ? playerInfo : socketData.getIdMessage(),
-                    props.isTcpDebugEnabled() || "rank".equals(socketData.getIdMessage()) ? "\n" + HexUtils.formatHexDump(message) : playerInfo);
+                    props.isTcpDebugEnabled() || "rank".equals(socketData.getIdMessage()) ? "\n" + HexUtils.formatHexDump(toByteArray(message)) : playerInfo);
         }
-        socketProcessor.process(socket, socketData);
+        socketProcessor.process(socket, socketData, socketWrapper, buddySocketWrapper);
+    }
+
+    private static String decode(ByteBuffer message, int offset, int length) {
+        byte[] bytes = new byte[length];
+        message.get(message.position() + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toByteArray(ByteBuffer message) {
+        byte[] bytes = new byte[message.remaining()];
+        message.get(message.position(), bytes);
+        return bytes;
     }
 
-}
\ No newline at end of file
+}
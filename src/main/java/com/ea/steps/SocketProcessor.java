@@ -1,17 +1,17 @@
 package com.ea.steps;
 
 import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.services.core.*;
-import com.ea.services.server.SocketManager;
+import com.ea.services.server.GpsPoolService;
 import com.ea.services.social.BuddyService;
 import com.ea.services.stats.StatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.net.Socket;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -23,24 +23,27 @@ public class SocketProcessor {
     private final StatsService statsService;
     private final GameService gameService;
     private final SocketWriter socketWriter;
-    private final SocketManager socketManager;
     private final BuddyService buddyService;
     private final RoomService roomService;
+    private final GpsPoolService gpsPoolService;
 
     /**
      * Dispatch to appropriate service based on request type
      *
-     * @param socket     the socket to handle
-     * @param socketData the object to process
+     * @param socket             the socket to handle
+     * @param socketData         the object to process
+     * @param socketWrapper      the wrapper of the lobby connection, null for buddy connections
+     * @param buddySocketWrapper the wrapper of the buddy connection, null for lobby connections
      */
-    public void process(Socket socket, SocketData socketData) {
-        SocketWrapper socketWrapper = socketManager.getSocketWrapperBySocket(socket);
-        BuddySocketWrapper buddySocketWrapper = socketManager.getBuddySocketWrapperBySocket(socket);
+    public void process(ClientSocket socket, SocketData socketData, SocketWrapper socketWrapper, BuddySocketWrapper buddySocketWrapper) {
         switch (socketData.getIdMessage()) {
             case ("~png"):
+                if (socketWrapper != null) {
+                    gpsPoolService.heartbeat(socketWrapper);
+                }
                 break;
             case ("@tic"):
-                socketWriter.write(socket, socketData);
+                socketWriter.write(socket, PacketEncoder.TIC);
                 break;
             case ("@dir"):
                 authService.dir(socket, socketData);
@@ -166,7 +169,7 @@ public class SocketProcessor {
                 gameService.glea(socket, socketData, socketWrapper);
                 break;
             case ("gpss"):
-                gameService.gpss(socket, socketData);
+                gameService.gpss(socket, socketData, socketWrapper);
                 break;
             case ("gsta"):
                 gameService.gsta(socket, socketData, socketWrapper);
@@ -1,12 +1,13 @@
 package com.ea.steps;
 
+import com.ea.config.BlockingSocket;
+import com.ea.utils.Props;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.Socket;
 import java.net.SocketException;
 
 @Slf4j
@@ -14,25 +15,27 @@ import java.net.SocketException;
 @Component
 public class SocketReader {
 
+    private final Props props;
     private final SocketParser parser;
 
     /**
      * Waits for data to come from the client
      * Calls a parser to handle input messages from the stream
+     * The accumulator lives as long as the connection, so partial messages are kept between reads
+     * Returns on end of stream, socket errors and invalid frames, the caller closes the socket
      * @param socket the socket to read
      */
-    public void read(Socket socket) {
+    public void read(BlockingSocket socket) {
         try {
             InputStream is = socket.getInputStream();
-            byte[] buffer = new byte[4096];
-            int readLength;
-            while ((readLength = is.read(buffer)) != -1) {
-                parser.parse(socket, buffer, readLength);
+            FrameAccumulator accumulator = new FrameAccumulator(props.getTcpMaxFrameSize());
+            while (accumulator.readFrom(is) != -1) {
+                parser.parse(socket, accumulator);
             }
         } catch (SocketException e) {
             log.warn("Socket closed, stop reading");
         } catch (IOException e) {
-            log.error("Error reading from socket : {}", e.getMessage());
+            log.error("Error reading from socket, closing it : {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,24 +1,34 @@
 package com.ea.steps;
 
 import com.ea.dto.BuddySocketWrapper;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.Packet;
 import com.ea.dto.SocketData;
 import com.ea.dto.SocketWrapper;
 import com.ea.services.server.SocketManager;
 import com.ea.utils.HexUtils;
 import com.ea.utils.Props;
 import com.ea.utils.SocketUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
-import static java.util.stream.Collectors.joining;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -27,45 +37,131 @@ public class SocketWriter {
 
     private final Props props;
     private final SocketManager socketManager;
+    private final MeterRegistry meterRegistry;
+    private final Map<ClientSocket, OutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    private ExecutorService writerExecutor;
+    private ScheduledExecutorService deadlineExecutor;
+    private Timer blockedTimer;
+    private DistributionSummary queueDepthSummary;
+    private Counter droppedCounter;
+    private Counter disconnectedCounter;
+    private Counter timedOutCounter;
 
-    public void write(Socket socket, SocketData socketData) {
+    @PostConstruct
+    public void init() {
+        writerExecutor = Executors.newFixedThreadPool(props.getTcpWriterThreads());
+        blockedTimer = Timer.builder("tcp.write.blocked")
+                .description("Time spent writing to client sockets")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        queueDepthSummary = DistributionSummary.builder("tcp.write.queue.depth")
+                .description("Pending messages of a connection when a message is enqueued")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        droppedCounter = meterRegistry.counter("tcp.write.dropped");
+        disconnectedCounter = meterRegistry.counter("tcp.write.slow.disconnected");
+        timedOutCounter = meterRegistry.counter("tcp.write.timeout.disconnected");
+        Gauge.builder("tcp.write.queue.pending", outboundQueues,
+                        queues -> queues.values().stream().mapToInt(OutboundQueue::depth).sum())
+                .description("Pending messages of all connections")
+                .register(meterRegistry);
+        if (props.getTcpWriteTimeout() > 0) {
+            deadlineExecutor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("write-deadline").daemon().factory());
+            deadlineExecutor.scheduleAtFixedRate(this::closeStalledConnections, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerExecutor.shutdown();
+        if (deadlineExecutor != null) {
+            deadlineExecutor.shutdown();
+        }
+    }
+
+    public void write(ClientSocket socket, SocketData socketData) {
         write(socket, socketData, NEWLINE_CHAR);
     }
 
     /**
-     * Builds the full output message based on the data id and content
-     * Then sends it through the socket
+     * Encodes the message based on the data id and content
+     * Then queues it to the connection, the queue being drained by the writer threads
      *
      * @param socket     the socket to write into
      * @param socketData the object to use to write the message
+     * @param joiner     the entry separator
      */
-    public void write(Socket socket, SocketData socketData, String joiner) {
-        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-             DataOutputStream writer = new DataOutputStream(buffer)) {
+    public void write(ClientSocket socket, SocketData socketData, String joiner) {
+        String idMessage = socketData.getIdMessage();
+        byte[] frame = socketData.getOutputData() == null
+                ? PacketEncoder.empty(idMessage).getFrame()
+                : PacketEncoder.encode(idMessage, socketData.getOutputData(), joiner);
+        send(socket, idMessage, frame);
+    }
 
-            writer.write(socketData.getIdMessage().getBytes(StandardCharsets.UTF_8));
-            if (socketData.getIdMessage().length() == 4) {
-                writer.writeInt(0);
+    /**
+     * Queues an already encoded message to the connection
+     *
+     * @param socket the socket to write into
+     * @param packet the encoded message
+     */
+    public void write(ClientSocket socket, Packet packet) {
+        send(socket, packet.getIdMessage(), packet.getFrame());
+    }
+
+    /**
+     * Queues the packets of a broadcast to its recipients, each packet being encoded only once
+     *
+     * @param broadcast the recipients and the packets to send
+     */
+    public void broadcast(Broadcast broadcast) {
+        for (SocketWrapper recipient : broadcast.getRecipients()) {
+            for (Broadcast.Part part : broadcast.getParts()) {
+                if (part.when().test(recipient)) {
+                    Packet packet = part.packet();
+                    send(recipient.getSocket(), recipient, packet.getIdMessage(), packet.getFrame());
+                }
             }
-            int outputLength = 12;
+        }
+    }
 
-            if (socketData.getOutputData() != null) {
-                byte[] contentBytes = (socketData.getOutputData().entrySet()
-                        .stream()
-                        .map(param -> param.getKey() + "=" + param.getValue())
-                        .collect(joining(joiner)) + "\0").getBytes(StandardCharsets.UTF_8);
+    /**
+     * Forgets the outbound queue of a closed connection
+     *
+     * @param socket the closed socket
+     */
+    public void release(ClientSocket socket) {
+        OutboundQueue outboundQueue = outboundQueues.remove(socket);
+        if (outboundQueue != null) {
+            outboundQueue.clear();
+        }
+    }
 
-                outputLength += contentBytes.length;
-                writer.writeInt(outputLength);
-                writer.write(contentBytes);
-            } else {
-                writer.writeInt(outputLength);
-            }
+    /**
+     * Resumes the drain of a Netty connection which went back below its low water mark
+     *
+     * @param socket the writable socket
+     */
+    public void resume(ClientSocket socket) {
+        OutboundQueue outboundQueue = outboundQueues.get(socket);
+        if (outboundQueue != null && outboundQueue.depth() > 0 && outboundQueue.startDraining()) {
+            drain(socket, outboundQueue);
+        }
+    }
 
-            byte[] bufferBytes = buffer.toByteArray();
+    private void send(ClientSocket socket, String idMessage, byte[] frame) {
+        send(socket, null, idMessage, frame);
+    }
 
+    /**
+     * @param socketWrapper the wrapper of the connection if already known, looked up for the log line otherwise
+     */
+    private void send(ClientSocket socket, SocketWrapper socketWrapper, String idMessage, byte[] frame) {
+        if (!props.getTcpDebugExclusions().contains(idMessage)) {
             String playerInfo = "";
-            SocketWrapper socketWrapper = socketManager.getSocketWrapperBySocket(socket);
+            if (socketWrapper == null) {
+                socketWrapper = socketManager.getSocketWrapperBySocket(socket);
+            }
             if (socketWrapper != null) {
                 playerInfo = SocketUtils.getPlayerInfo(socketWrapper);
             } else {
@@ -74,19 +170,74 @@ public class SocketWriter {
                     playerInfo = SocketUtils.getBuddyPlayerInfo(buddySocketWrapper);
                 }
             }
-            if (!props.getTcpDebugExclusions().contains(socketData.getIdMessage())) {
-                log.info("--> {} {} {}",
-                        socket.getRemoteSocketAddress().toString(),
-                        props.isTcpDebugEnabled() ? playerInfo : socketData.getIdMessage(),
-                        props.isTcpDebugEnabled() ? "\n" + HexUtils.formatHexDump(bufferBytes) : playerInfo);
+            log.info("--> {} {} {}",
+                    socket.getRemoteSocketAddress().toString(),
+                    props.isTcpDebugEnabled() ? playerInfo : idMessage,
+                    props.isTcpDebugEnabled() ? "\n" + HexUtils.formatHexDump(frame) : playerInfo);
+        }
+        enqueue(socket, idMessage, frame);
+    }
+
+    /**
+     * Queues a message, applying the slow consumer policy if the connection has too many pending messages :
+     * droppable messages are dropped (up to a threshold), otherwise the connection is closed
+     */
+    private void enqueue(ClientSocket socket, String id, byte[] message) {
+        if (socket.isClosed()) {
+            log.error("Error: writing to closed socket");
+            return;
+        }
+        OutboundQueue outboundQueue = outboundQueues.computeIfAbsent(socket, OutboundQueue::new);
+        queueDepthSummary.record(outboundQueue.depth());
+        if (!outboundQueue.offer(message, props.getTcpWriteQueueCapacity())) {
+            if (props.getTcpWriteQueueDroppable().contains(id)
+                    && outboundQueue.incrementDrops() <= props.getTcpWriteQueueMaxDrops()) {
+                droppedCounter.increment();
+                log.debug("Dropped {} for slow client {}", id, socket.getRemoteSocketAddress());
+            } else {
+                disconnectedCounter.increment();
+                log.warn("Slow client {}, {} messages pending, closing connection", socket.getRemoteSocketAddress(), outboundQueue.depth());
+                release(socket);
+                close(socket);
+            }
+            return;
+        }
+        if (outboundQueue.startDraining()) {
+            drain(socket, outboundQueue);
+        }
+    }
+
+    private void drain(ClientSocket socket, OutboundQueue outboundQueue) {
+        writerExecutor.execute(() -> {
+            if (!outboundQueue.drain(blockedTimer)) {
+                outboundQueues.remove(socket, outboundQueue);
             }
+        });
+    }
 
-            synchronized (this) {
-                socket.getOutputStream().write(bufferBytes);
+    /**
+     * Blocking socket writes have no timeout, a client which stopped reading holds its writer thread
+     * Connections with a write in progress for longer than the write timeout are closed, which fails the write
+     */
+    private void closeStalledConnections() {
+        long deadline = System.nanoTime() - TimeUnit.SECONDS.toNanos(props.getTcpWriteTimeout());
+        outboundQueues.forEach((socket, outboundQueue) -> {
+            long writeStartedAt = outboundQueue.writeStartedAt();
+            if (writeStartedAt != 0 && writeStartedAt - deadline < 0) {
+                timedOutCounter.increment();
+                log.warn("Write to {} blocked for more than {}s, closing connection", socket.getRemoteSocketAddress(), props.getTcpWriteTimeout());
+                release(socket);
+                // Closing an SSL socket may wait for the lock of the blocked write, it must not hold the deadline thread
+                Thread.ofVirtual().start(() -> close(socket));
             }
+        });
+    }
 
+    private static void close(ClientSocket socket) {
+        try {
+            socket.close();
         } catch (IOException e) {
-            log.error("Error: writing to closed socket");
+            log.error("Error while closing socket", e);
         }
     }
 
@@ -5,11 +5,10 @@ import com.ea.entities.core.GameConnectionEntity;
 import com.ea.entities.core.GameEntity;
 import com.ea.entities.core.PersonaConnectionEntity;
 import com.ea.entities.core.PersonaEntity;
-import com.ea.entities.stats.MohhPersonaStatsEntity;
-import com.ea.repositories.core.GameConnectionRepository;
-import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import com.ea.services.server.GameRegistry;
 import com.ea.services.server.GameServerService;
 import com.ea.services.server.SocketManager;
+import com.ea.services.stats.OpParamCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -20,7 +19,6 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.ea.utils.HexUtils.*;
 import static com.ea.utils.SocketUtils.DATETIME_FORMAT;
 
 @Component
@@ -28,8 +26,8 @@ import static com.ea.utils.SocketUtils.DATETIME_FORMAT;
 @Slf4j
 public class GameUtils {
 
-    private final GameConnectionRepository gameConnectionRepository;
-    private final MohhPersonaStatsRepository mohhPersonaStatsRepository;
+    private final GameRegistry gameRegistry;
+    private final OpParamCache opParamCache;
     private final GameServerService gameServerService;
     private final SocketManager socketManager;
 
@@ -43,7 +41,7 @@ public class GameUtils {
         Long gameId = gameEntity.getId();
         SocketWrapper hostSocketWrapperOfGame = socketManager.getHostSocketWrapperOfGame(gameId);
 
-        List<GameConnectionEntity> gameConnections = gameConnectionRepository.findByGameIdAndEndTimeIsNull(gameId);
+        List<GameConnectionEntity> gameConnections = gameRegistry.getGameConnections(gameEntity);
 
         boolean isP2P = gameServerService.isP2P(gameEntity.getVers());
 
@@ -105,58 +103,33 @@ public class GameUtils {
             idx[0]++;
         }
 
-        gameConnections.stream()
-                .sorted(Comparator.comparing(GameConnectionEntity::getId))
-                .forEach(gameConnectionEntity -> {
-                    PersonaConnectionEntity personaConnectionEntity = gameConnectionEntity.getPersonaConnection();
-                    PersonaEntity personaEntity = personaConnectionEntity.getPersona();
-                    SocketWrapper socketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(personaConnectionEntity.getId());
-                    if (socketWrapper == null) {
-                        log.warn("SocketWrapper not found for PersonaConnectionEntity ID: {}", personaConnectionEntity.getId());
-                        return;
-                    }
-                    String ipAddr = personaConnectionEntity.getAddress().replace("/", "").split(":")[0];
-                    String hostPrefix = !isP2P && gameConnectionEntity.isHost() ? "@" : "";
-                    content.putAll(Stream.of(new String[][]{
-                            {"OPID" + idx[0], String.valueOf(personaEntity.getId())},
-                            {"OPPO" + idx[0], hostPrefix + personaEntity.getPers()},
-                            {"ADDR" + idx[0], ipAddr},
-                            {"LADDR" + idx[0], ipAddr},
-                            {"MADDR" + idx[0], ""},
-                            {"OPPART" + idx[0], "0"},
-                            {"OPPARAM" + idx[0], generateOpParam(personaEntity, gameEntity.getVers())},
-                            {"OPFLAG" + idx[0], socketWrapper.getUserflags()},
-                            {"PRES" + idx[0], "0"},
-                            {"PARTSIZE" + idx[0], String.valueOf(gameEntity.getMaxsize())},
-                            {"PARTPARAMS" + idx[0], ""},
-                    }).collect(Collectors.toMap(data -> data[0], data -> data[1])));
-                    idx[0]++;
-                });
+        // In the order players joined
+        gameConnections.forEach(gameConnectionEntity -> {
+            PersonaConnectionEntity personaConnectionEntity = gameConnectionEntity.getPersonaConnection();
+            PersonaEntity personaEntity = personaConnectionEntity.getPersona();
+            SocketWrapper socketWrapper = socketManager.getSocketWrapperByPersonaConnectionId(personaConnectionEntity.getId());
+            if (socketWrapper == null) {
+                log.warn("SocketWrapper not found for PersonaConnectionEntity ID: {}", personaConnectionEntity.getId());
+                return;
+            }
+            String ipAddr = personaConnectionEntity.getAddress().replace("/", "").split(":")[0];
+            String hostPrefix = !isP2P && gameConnectionEntity.isHost() ? "@" : "";
+            content.putAll(Stream.of(new String[][]{
+                    {"OPID" + idx[0], String.valueOf(personaEntity.getId())},
+                    {"OPPO" + idx[0], hostPrefix + personaEntity.getPers()},
+                    {"ADDR" + idx[0], ipAddr},
+                    {"LADDR" + idx[0], ipAddr},
+                    {"MADDR" + idx[0], ""},
+                    {"OPPART" + idx[0], "0"},
+                    {"OPPARAM" + idx[0], opParamCache.get(personaEntity, gameEntity.getVers())},
+                    {"OPFLAG" + idx[0], socketWrapper.getUserflags()},
+                    {"PRES" + idx[0], "0"},
+                    {"PARTSIZE" + idx[0], String.valueOf(gameEntity.getMaxsize())},
+                    {"PARTPARAMS" + idx[0], ""},
+            }).collect(Collectors.toMap(data -> data[0], data -> data[1])));
+            idx[0]++;
+        });
         return content;
     }
 
-    /**
-     * Generate the OPPARAM for a player
-     *
-     * @param personaEntity The persona entity of the player
-     * @param vers          The version of the game
-     * @return Base64 encoded OPPARAM string
-     */
-    private String generateOpParam(PersonaEntity personaEntity, String vers) {
-        MohhPersonaStatsEntity mohhPersonaStatsEntity = mohhPersonaStatsRepository.findByPersonaIdAndVers(personaEntity.getId(), vers);
-        Long rankLong = mohhPersonaStatsRepository.getRankByPersonaIdAndVers(personaEntity.getId(), vers);
-        int rank = (rankLong != null) ? rankLong.intValue() : 0;
-        String loc = personaEntity.getAccount().getLoc();
-        String killHex = mohhPersonaStatsEntity != null ? reverseEndianness(formatIntToWord(mohhPersonaStatsEntity.getKill())) : "00000000";
-        String deathHex = mohhPersonaStatsEntity != null ? reverseEndianness(formatIntToWord(mohhPersonaStatsEntity.getDeath())) : "00000000";
-        String rankHex = reverseEndianness(formatIntToWord(rank));
-        String locHex = reverseEndianness(formatIntToWord(Integer.parseInt(stringToHex(loc.substring(loc.length() - 2)), 16)));
-        String repHex = reverseEndianness(formatIntToWord(personaEntity.getRp()));
-        String lastHex = reverseEndianness(formatIntToWord(1));
-
-        String concatenatedHex = killHex + deathHex + rankHex + locHex + repHex + lastHex;
-        byte[] byteArray = parseHexString(concatenatedHex);
-        return Base64.getEncoder().encodeToString(byteArray);
-    }
-
 }
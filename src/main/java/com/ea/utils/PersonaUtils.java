@@ -1,21 +1,18 @@
 package com.ea.utils;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.Room;
 import com.ea.dto.SocketWrapper;
 import com.ea.entities.core.AccountEntity;
-import com.ea.entities.core.GameEntity;
 import com.ea.entities.core.PersonaEntity;
-import com.ea.repositories.core.GameRepository;
 import com.ea.services.core.RoomService;
+import com.ea.services.server.GameRegistry;
 import com.ea.services.stats.MohhStatsService;
 import com.ea.services.stats.NhlStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.net.Socket;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -29,12 +26,12 @@ import static com.ea.services.server.GameServerService.PSP_NHL_07;
 @Slf4j
 public class PersonaUtils {
 
-    private final GameRepository gameRepository;
+    private final GameRegistry gameRegistry;
     private final RoomService roomService;
     private final MohhStatsService mohhStatsService;
     private final NhlStatsService nhlStatsService;
 
-    public Map<String, String> getPersonaInfo(Socket socket, SocketWrapper socketWrapper) {
+    public Map<String, String> getPersonaInfo(ClientSocket socket, SocketWrapper socketWrapper) {
         PersonaEntity personaEntity = socketWrapper.getPersonaEntity();
         AccountEntity accountEntity = socketWrapper.getAccountEntity();
         String vers = socketWrapper.getPersonaConnectionEntity().getVers();
@@ -53,14 +50,7 @@ public class PersonaUtils {
             rank = mohhData.get("rank");
         }
 
-        List<GameEntity> gameIds = gameRepository.findCurrentGameOfPersona(socketWrapper.getPersonaConnectionEntity().getId());
-        if (gameIds.size() > 1) {
-            log.error("Multiple current games found for persona {}", personaEntity.getPers());
-        }
-
-        long gameId = gameIds
-                .stream()
-                .max(Comparator.comparing(GameEntity::getStartTime))
+        long gameId = gameRegistry.getCurrentGame(socketWrapper.getPersonaConnectionEntity().getId())
                 .map(gameEntity -> Optional.ofNullable(gameEntity.getOriginalId()).orElse(gameEntity.getId()))
                 .orElse(0L);
 
@@ -40,13 +40,93 @@ public class Props {
     @Value("${tcp.buddy-port}")
     private int tcpBuddyPort;
 
+    @Value("${tcp.transport}")
+    private String tcpTransport;
+
+    @Value("${tcp.sessions.threads}")
+    private String tcpSessionThreads;
+
+    @Value("${tcp.sessions.pool-size}")
+    private int tcpSessionPoolSize;
+
+    @Value("${tcp.sessions.queue-size}")
+    private int tcpSessionQueueSize;
+
+    @Value("${tcp.netty.worker-threads}")
+    private int tcpNettyWorkerThreads;
+
+    @Value("${tcp.netty.write-buffer-low}")
+    private int tcpNettyWriteBufferLow;
+
+    @Value("${tcp.netty.write-buffer-high}")
+    private int tcpNettyWriteBufferHigh;
+
+    @Value("${tcp.max-frame-size}")
+    private int tcpMaxFrameSize;
+
+    @Value("${tcp.keep-alive.ping-interval}")
+    private int tcpPingInterval;
+
+    @Value("${tcp.keep-alive.idle-timeout}")
+    private int tcpIdleTimeout;
+
+    @Value("${tcp.keep-alive.tick}")
+    private int tcpKeepAliveTick;
+
+    @Value("${tcp.writer.threads}")
+    private int tcpWriterThreads;
+
+    @Value("${tcp.writer.queue-capacity}")
+    private int tcpWriteQueueCapacity;
+
+    @Value("${tcp.writer.droppable}")
+    private List<String> tcpWriteQueueDroppable;
+
+    @Value("${tcp.writer.max-drops}")
+    private int tcpWriteQueueMaxDrops;
+
+    @Value("${tcp.writer.write-timeout}")
+    private int tcpWriteTimeout;
+
+    @Value("${tcp.scheduler.threads}")
+    private int tcpSchedulerThreads;
+
+    @Value("${tcp.scheduler.drain-timeout}")
+    private int tcpSchedulerDrainTimeout;
+
     @Value("${tcp.debug.enabled}")
     private boolean tcpDebugEnabled;
 
     @Value("${tcp.debug.exclusions}")
     private List<String> tcpDebugExclusions;
 
+    @Value("${gps.policy}")
+    private String gpsPolicy;
+
+    @Value("${gps.heartbeat-timeout}")
+    private int gpsHeartbeatTimeout;
+
+    @Value("${gps.spawn-failure-cooldown}")
+    private int gpsSpawnFailureCooldown;
+
+    @Value("${stats.ingestion.batch-size}")
+    private int statsIngestionBatchSize;
+
+    @Value("${stats.ingestion.journal}")
+    private String statsIngestionJournal;
+
+    @Value("${stats.ingestion.retry-delay}")
+    private int statsIngestionRetryDelay;
+
     @Value("${ssc2.key}")
     private String ssc2Key;
 
+    public boolean isNettyTransport() {
+        return "netty".equalsIgnoreCase(tcpTransport);
+    }
+
+    public boolean isVirtualThreads() {
+        return "virtual".equalsIgnoreCase(tcpSessionThreads);
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.ea.ws;
 
+import com.ea.dto.ClientSocket;
 import com.ea.dto.SocketData;
 import com.ea.services.server.SocketManager;
 import com.ea.steps.SocketWriter;
@@ -10,7 +11,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.net.Socket;
 
 @Profile("dev")
 @RequiredArgsConstructor
@@ -25,7 +25,7 @@ public class PacketController {
         //if(socketManager.getHostSockets() != null && !socketManager.getHostSockets().isEmpty()) {
         SocketData socketData = new SocketData(packet.getPacketId(), null, packet.getPacketData());
 
-        for (Socket socket : socketManager.getSockets()) {
+        for (ClientSocket socket : socketManager.getSockets()) {
             socketWriter.write(socket, socketData);
         }
 
@@ -38,7 +38,7 @@ public class PacketController {
         //if(socketManager.getHostSockets() != null && !socketManager.getHostSockets().isEmpty()) {
         SocketData socketData = new SocketData(packet.getPacketId(), null, packet.getPacketData());
 
-        for (Socket socket : socketManager.getBuddySockets()) {
+        for (ClientSocket socket : socketManager.getBuddySockets()) {
             socketWriter.write(socket, socketData);
         }
 
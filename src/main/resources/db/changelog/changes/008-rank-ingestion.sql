@@ -0,0 +1,7 @@
+-- Sequence of the last rank report applied from the ingestion journal, written with the reports
+CREATE TABLE IF NOT EXISTS stats.RANK_INGESTION (
+    ID bigint PRIMARY KEY NOT NULL,
+    LAST_SEQUENCE bigint NOT NULL
+);
+
+INSERT INTO stats.RANK_INGESTION (ID, LAST_SEQUENCE) VALUES (1, 0);
@@ -0,0 +1,6 @@
+-- Start time of the games to the second, as sent back in the WHEN of 'rank' reports to find the game connection reported
+ALTER TABLE core.GAME ADD COLUMN MATCH_KEY timestamp;
+UPDATE core.GAME SET MATCH_KEY = DATE_TRUNC('SECOND', START_TIME);
+
+CREATE INDEX IDX_GAME_MATCH_KEY ON core.GAME (MATCH_KEY);
+CREATE INDEX IDX_GAME_CONNECTION_GAME_ID ON core.GAME_CONNECTION (GAME_ID);
@@ -0,0 +1,42 @@
+--liquibase formatted sql
+
+--changeset ea-nation:010-lower-case-columns
+-- Lower-cased names and mails, written by the entities, as account and persona lookups ignore the case
+ALTER TABLE core.ACCOUNT ADD COLUMN NAME_LOWER varchar(32);
+ALTER TABLE core.ACCOUNT ADD COLUMN MAIL_LOWER varchar(128);
+UPDATE core.ACCOUNT SET NAME_LOWER = LOWER(NAME), MAIL_LOWER = LOWER(MAIL);
+ALTER TABLE core.PERSONA ADD COLUMN PERS_LOWER varchar(32);
+UPDATE core.PERSONA SET PERS_LOWER = LOWER(PERS);
+
+CREATE INDEX IDX_ACCOUNT_NAME_LOWER ON core.ACCOUNT (NAME_LOWER);
+CREATE INDEX IDX_ACCOUNT_MAIL_LOWER ON core.ACCOUNT (MAIL_LOWER);
+CREATE INDEX IDX_PERSONA_PERS_LOWER ON core.PERSONA (PERS_LOWER);
+CREATE INDEX IDX_PERSONA_PERS ON core.PERSONA (PERS);
+
+--changeset ea-nation:010-lookup-indexes
+CREATE INDEX IDX_BLACKLIST_IP ON core.BLACKLIST (IP);
+CREATE INDEX IDX_MOHH_PERSONA_STATS_PERSONA_VERS ON stats.MOHH_PERSONA_STATS (PERSONA_ID, VERS);
+CREATE INDEX IDX_BUDDY_FROM_PERSONA_LIST ON social.BUDDY (FROM_PERSONA_ID, LIST);
+CREATE INDEX IDX_BUDDY_TO_PERSONA_LIST ON social.BUDDY (TO_PERSONA_ID, LIST);
+CREATE INDEX IDX_MESSAGE_FROM_TO_PERSONA ON social.MESSAGE (FROM_PERSONA_ID, TO_PERSONA_ID);
+CREATE INDEX IDX_FEEDBACK_FROM_TO_PERSONA ON social.FEEDBACK (FROM_PERSONA_ID, TO_PERSONA_ID);
+
+--changeset ea-nation:010-open-indexes-postgresql dbms:postgresql
+-- Only the open connections and games are looked up by the lobby, the closed ones are history
+CREATE INDEX IDX_GAME_OPEN_VERS ON core.GAME (VERS) WHERE END_TIME IS NULL;
+CREATE INDEX IDX_PERSONA_CONNECTION_OPEN_VERS ON core.PERSONA_CONNECTION (VERS, PERSONA_ID) WHERE END_TIME IS NULL;
+CREATE INDEX IDX_GAME_CONNECTION_OPEN ON core.GAME_CONNECTION (PERSONA_CONNECTION_ID, GAME_ID) WHERE END_TIME IS NULL;
+CREATE INDEX IDX_MESSAGE_UNACK_TO_PERSONA ON social.MESSAGE (TO_PERSONA_ID, CREATED_ON) WHERE ACK = FALSE;
+
+-- Foreign keys joined on, which PostgreSQL doesn't index by itself
+CREATE INDEX IDX_PERSONA_ACCOUNT_ID ON core.PERSONA (ACCOUNT_ID);
+CREATE INDEX IDX_PERSONA_CONNECTION_PERSONA_ID ON core.PERSONA_CONNECTION (PERSONA_ID);
+CREATE INDEX IDX_GAME_CONNECTION_PERSONA_CONNECTION_ID ON core.GAME_CONNECTION (PERSONA_CONNECTION_ID);
+
+--changeset ea-nation:010-open-indexes-h2 dbms:h2
+-- No partial indexes in H2, the end time leads instead so IS NULL is a range of the index
+-- Foreign keys are indexed by H2 itself
+CREATE INDEX IDX_GAME_OPEN_VERS ON core.GAME (END_TIME, VERS);
+CREATE INDEX IDX_PERSONA_CONNECTION_OPEN_VERS ON core.PERSONA_CONNECTION (END_TIME, VERS, PERSONA_ID);
+CREATE INDEX IDX_GAME_CONNECTION_OPEN ON core.GAME_CONNECTION (END_TIME, PERSONA_CONNECTION_ID, GAME_ID);
+CREATE INDEX IDX_MESSAGE_UNACK_TO_PERSONA ON social.MESSAGE (TO_PERSONA_ID, ACK, CREATED_ON);
@@ -0,0 +1,53 @@
+--liquibase formatted sql
+
+-- The ids come from Hibernate's pooled optimizer, not hi/lo: each sequence value is the highest id of a block of 50,
+-- so setting the sequence to MAX(ID) + 50 makes the first block start right after the kept ids
+-- A hi/lo generator would multiply the value instead, and collide with the default of the column used by SQL inserts
+
+--changeset ea-nation:011-pooled-sequences-postgresql dbms:postgresql
+-- Sequences of the most inserted tables, Hibernate takes 50 ids per call (pooled optimizer, allocationSize of the entities)
+-- Each sequence starts past the current ids, which are kept, and becomes the default of its column for the SQL inserts
+CREATE SEQUENCE core.GAME_SEQ INCREMENT BY 50;
+SELECT setval('core.game_seq', (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.GAME), false);
+ALTER TABLE core.GAME ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.GAME ALTER COLUMN ID SET DEFAULT nextval('core.game_seq');
+ALTER SEQUENCE core.GAME_SEQ OWNED BY core.GAME.ID;
+
+CREATE SEQUENCE core.PERSONA_CONNECTION_SEQ INCREMENT BY 50;
+SELECT setval('core.persona_connection_seq', (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.PERSONA_CONNECTION), false);
+ALTER TABLE core.PERSONA_CONNECTION ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.PERSONA_CONNECTION ALTER COLUMN ID SET DEFAULT nextval('core.persona_connection_seq');
+ALTER SEQUENCE core.PERSONA_CONNECTION_SEQ OWNED BY core.PERSONA_CONNECTION.ID;
+
+CREATE SEQUENCE core.GAME_CONNECTION_SEQ INCREMENT BY 50;
+SELECT setval('core.game_connection_seq', (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.GAME_CONNECTION), false);
+ALTER TABLE core.GAME_CONNECTION ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.GAME_CONNECTION ALTER COLUMN ID SET DEFAULT nextval('core.game_connection_seq');
+ALTER SEQUENCE core.GAME_CONNECTION_SEQ OWNED BY core.GAME_CONNECTION.ID;
+
+CREATE SEQUENCE social.MESSAGE_SEQ INCREMENT BY 50;
+SELECT setval('social.message_seq', (SELECT COALESCE(MAX(ID), 0) + 50 FROM social.MESSAGE), false);
+ALTER TABLE social.MESSAGE ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE social.MESSAGE ALTER COLUMN ID SET DEFAULT nextval('social.message_seq');
+ALTER SEQUENCE social.MESSAGE_SEQ OWNED BY social.MESSAGE.ID;
+
+--changeset ea-nation:011-pooled-sequences-h2 dbms:h2
+CREATE SEQUENCE core.GAME_SEQ INCREMENT BY 50;
+ALTER SEQUENCE core.GAME_SEQ RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.GAME);
+ALTER TABLE core.GAME ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.GAME ALTER COLUMN ID SET DEFAULT NEXT VALUE FOR core.GAME_SEQ;
+
+CREATE SEQUENCE core.PERSONA_CONNECTION_SEQ INCREMENT BY 50;
+ALTER SEQUENCE core.PERSONA_CONNECTION_SEQ RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.PERSONA_CONNECTION);
+ALTER TABLE core.PERSONA_CONNECTION ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.PERSONA_CONNECTION ALTER COLUMN ID SET DEFAULT NEXT VALUE FOR core.PERSONA_CONNECTION_SEQ;
+
+CREATE SEQUENCE core.GAME_CONNECTION_SEQ INCREMENT BY 50;
+ALTER SEQUENCE core.GAME_CONNECTION_SEQ RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM core.GAME_CONNECTION);
+ALTER TABLE core.GAME_CONNECTION ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE core.GAME_CONNECTION ALTER COLUMN ID SET DEFAULT NEXT VALUE FOR core.GAME_CONNECTION_SEQ;
+
+CREATE SEQUENCE social.MESSAGE_SEQ INCREMENT BY 50;
+ALTER SEQUENCE social.MESSAGE_SEQ RESTART WITH (SELECT COALESCE(MAX(ID), 0) + 50 FROM social.MESSAGE);
+ALTER TABLE social.MESSAGE ALTER COLUMN ID DROP IDENTITY;
+ALTER TABLE social.MESSAGE ALTER COLUMN ID SET DEFAULT NEXT VALUE FOR social.MESSAGE_SEQ;
@@ -0,0 +1,4 @@
+-- Derived columns of the samples, otherwise written by the entities
+UPDATE core.ACCOUNT SET NAME_LOWER = LOWER(NAME), MAIL_LOWER = LOWER(MAIL);
+UPDATE core.PERSONA SET PERS_LOWER = LOWER(PERS);
+UPDATE core.GAME SET MATCH_KEY = DATE_TRUNC('SECOND', START_TIME);
@@ -0,0 +1,102 @@
+package com.ea.config;
+
+import com.ea.dto.ClientSocket;
+import com.ea.services.server.SessionService;
+import com.ea.steps.SocketParser;
+import com.ea.steps.SocketWriter;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AriesChannelHandlerTest {
+
+    private final SocketParser socketParser = mock(SocketParser.class);
+    private final BlockingQueue<String> processed = new LinkedBlockingQueue<>();
+
+    AriesChannelHandlerTest() {
+        doAnswer(invocation -> processed.add(Thread.currentThread().getName()))
+                .when(socketParser).processCompleteMessage(any(), any());
+    }
+
+    private final SessionService sessionService = mock(SessionService.class);
+
+    private EmbeddedChannel channel(ExecutorService executor) {
+        return new EmbeddedChannel(new AriesChannelHandler(socketParser, sessionService, mock(SocketWriter.class), executor, true));
+    }
+
+    @Test
+    void processesTheMessagesOfAChannelInOrderThenClosesIt() throws Exception {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> events.add(String.valueOf(invocation.getArgument(1, ByteBuffer.class).getInt())))
+                .when(socketParser).processCompleteMessage(any(), any());
+        doAnswer(invocation -> {
+            events.add("close");
+            closed.countDown();
+            return null;
+        }).when(sessionService).close(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            EmbeddedChannel channel = channel(executor);
+            ClientSocket socket = channel.attr(AriesChannelHandler.SOCKET).get();
+            verify(sessionService).open(socket, true);
+            for (int i = 0; i < 500; i++) {
+                channel.writeInbound(Unpooled.buffer(12).writeInt(i).writeZero(8));
+            }
+            channel.close();
+
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            List<String> expected = new ArrayList<>(IntStream.range(0, 500).mapToObj(String::valueOf).toList());
+            expected.add("close");
+            assertEquals(expected, events);
+            verify(sessionService).close(socket);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void stopsReadingWhileTheExecutorIsSaturated() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                runnable -> new Thread(runnable, "message-0"), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            EmbeddedChannel channel = channel(executor);
+            channel.writeInbound(Unpooled.wrappedBuffer(new byte[12]));
+
+            // Not run on the event loop, the channel waits instead
+            assertFalse(channel.config().isAutoRead());
+            assertTrue(processed.isEmpty());
+
+            busy.countDown();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (processed.isEmpty() && System.nanoTime() < end) {
+                Thread.sleep(25);
+                channel.runScheduledPendingTasks();
+            }
+            assertEquals("message-0", processed.poll(1, TimeUnit.SECONDS));
+            assertTrue(channel.config().isAutoRead());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ea.config;
+
+import com.ea.steps.PacketEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AriesFrameDecoderTest {
+
+    private static final int MAX_FRAME_SIZE = 1024;
+
+    private static EmbeddedChannel channel() {
+        return new EmbeddedChannel(new AriesFrameDecoder(MAX_FRAME_SIZE));
+    }
+
+    private static byte[] frame(String idMessage, String name) {
+        return PacketEncoder.builder(idMessage).put("NAME", name).build().getFrame();
+    }
+
+    /**
+     * Header announcing a length, without the body
+     */
+    private static byte[] header(int length) {
+        return ByteBuffer.allocate(12).put("auth".getBytes()).putInt(0).putInt(length).array();
+    }
+
+    private static byte[] readFrame(EmbeddedChannel channel) {
+        ByteBuf message = channel.readInbound();
+        assertNotNull(message);
+        try {
+            return ByteBufUtil.getBytes(message);
+        } finally {
+            message.release();
+        }
+    }
+
+    @Test
+    void waitsForTheRestOfASplitFrame() {
+        EmbeddedChannel channel = channel();
+        byte[] frame = frame("auth", "player");
+
+        // Inside the header, then inside the body
+        assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(frame, 0, 5)));
+        assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(frame, 5, 10)));
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(frame, 15, frame.length - 15)));
+
+        assertArrayEquals(frame, readFrame(channel));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void splitsSeveralFramesOfOneRead() {
+        EmbeddedChannel channel = channel();
+        byte[] first = frame("auth", "first");
+        byte[] second = frame("pers", "second");
+        byte[] third = frame("llvl", "third");
+        byte[] read = new byte[first.length + second.length + 7];
+        System.arraycopy(first, 0, read, 0, first.length);
+        System.arraycopy(second, 0, read, first.length, second.length);
+        System.arraycopy(third, 0, read, first.length + second.length, 7);
+
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(read)));
+        assertArrayEquals(first, readFrame(channel));
+        assertArrayEquals(second, readFrame(channel));
+        assertNull(channel.readInbound());
+
+        channel.writeInbound(Unpooled.wrappedBuffer(third, 7, third.length - 7));
+        assertArrayEquals(third, readFrame(channel));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void acceptsTheLengthBounds() {
+        EmbeddedChannel channel = channel();
+        byte[] empty = header(12);
+        byte[] biggest = Arrays.copyOf(header(MAX_FRAME_SIZE), MAX_FRAME_SIZE);
+
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(empty), Unpooled.wrappedBuffer(biggest)));
+        assertArrayEquals(empty, readFrame(channel));
+        assertArrayEquals(biggest, readFrame(channel));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void rejectsALengthShorterThanTheHeader() {
+        EmbeddedChannel channel = channel();
+
+        assertThrows(CorruptedFrameException.class, () -> channel.writeInbound(Unpooled.wrappedBuffer(header(11))));
+        assertNull(channel.readInbound());
+    }
+
+    @Test
+    void rejectsALengthAboveTheMaximum() {
+        EmbeddedChannel channel = channel();
+        byte[] valid = frame("auth", "player");
+        byte[] read = new byte[valid.length + 12];
+        System.arraycopy(valid, 0, read, 0, valid.length);
+        System.arraycopy(header(MAX_FRAME_SIZE + 1), 0, read, valid.length, 12);
+
+        // The frames before the invalid one are still delivered, the rest of the read is dropped
+        assertThrows(CorruptedFrameException.class, () -> channel.writeInbound(Unpooled.wrappedBuffer(read)));
+        assertArrayEquals(valid, readFrame(channel));
+        assertNull(channel.readInbound());
+    }
+}
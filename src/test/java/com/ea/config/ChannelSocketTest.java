@@ -0,0 +1,42 @@
+package com.ea.config;
+
+import com.ea.steps.PacketEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelSocketTest {
+
+    @Test
+    void writesTheMessagesWithoutCopy() throws IOException {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelSocket socket = new ChannelSocket(channel);
+        byte[] first = PacketEncoder.PING.getFrame();
+        byte[] second = PacketEncoder.TIC.getFrame();
+
+        socket.write(List.of(first, second));
+
+        for (byte[] message : List.of(first, second)) {
+            ByteBuf written = channel.readOutbound();
+            assertSame(message, written.array());
+            written.release();
+        }
+        assertNull(channel.readOutbound());
+    }
+
+    @Test
+    void failsOnceTheChannelIsClosed() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelSocket socket = new ChannelSocket(channel);
+
+        channel.close();
+
+        assertTrue(socket.isClosed());
+        assertThrows(IOException.class, () -> socket.write(List.of(PacketEncoder.PING.getFrame())));
+    }
+}
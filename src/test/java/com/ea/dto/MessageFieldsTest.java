@@ -0,0 +1,45 @@
+package com.ea.dto;
+
+import com.ea.utils.SocketUtils;
+import org.junit.jupiter.api.Test;
+
+import static com.ea.utils.SocketUtils.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageFieldsTest {
+
+    private static void assertSameAsSplit(String message, String separator, String... keys) {
+        MessageFields fields = MessageFields.of(message);
+        for (String key : keys) {
+            assertEquals(SocketUtils.getValueFromSocket(message, key, separator), fields.get(key, separator), key);
+        }
+    }
+
+    @Test
+    void newlineSeparatedValues() {
+        String message = "NAME=player\r\nPASS=~abc\nVERS=PSP/MOH07\n  SLUS=ULUS10141  \nBUILDDATE=\"Dec 15 2006\"\0";
+        assertSameAsSplit(message, RETURN_CHAR, "NAME", "PASS", "VERS", "SLUS", "BUILDDATE", "MAIL", "");
+    }
+
+    @Test
+    void tabAndSpaceSeparatedValues() {
+        assertSameAsSplit("REPT=player\tWHEN=2024.1.1-12:00:00\tKILL=12\0", TAB_CHAR, "REPT", "WHEN", "KILL", "DEATH");
+        assertSameAsSplit("STATS=1 INGAME=0 ROOMS=1\0", SPACE_CHAR, "STATS", "INGAME", "ROOMS");
+    }
+
+    @Test
+    void edgeCasesMatchSplit() {
+        String message = "EMPTY=\nNOVALUE\nDUP=first\nDUP=second\nB64=YWJj==\nDOUBLE==x\nTRAIL==\nURL=a=b";
+        assertSameAsSplit(message, RETURN_CHAR, "EMPTY", "NOVALUE", "DUP", "B64", "DOUBLE", "TRAIL", "URL");
+    }
+
+    @Test
+    void socketDataLooksUpRawBody() {
+        SocketData socketData = new SocketData("auth", MessageFields.of("NAME=player\nPASS=secret\0"));
+        assertEquals("player", socketData.getValue("NAME"));
+        assertEquals("NAME=player\nPASS=secret\0", socketData.getInputMessage());
+
+        socketData.setInputMessage("NAME=other");
+        assertEquals("other", socketData.getValue("NAME"));
+    }
+}
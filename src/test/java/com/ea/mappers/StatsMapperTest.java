@@ -0,0 +1,46 @@
+package com.ea.mappers;
+
+import com.ea.dto.MessageFields;
+import com.ea.dto.SocketData;
+import com.ea.entities.stats.MohhGameReportEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatsMapperTest {
+
+    private static MohhGameReportEntity report(String rank) {
+        byte[] bytes = rank.getBytes(StandardCharsets.UTF_8);
+        SocketData socketData = new SocketData("rank", new MessageFields(bytes, 0, bytes.length));
+        return new SocketMapper().toMohhGameReportEntity(new MohhGameReportEntity(), socketData);
+    }
+
+    @Test
+    void mapsAndMergesReports() {
+        MohhGameReportEntity report = report("AUTH=abc\tRNK=1\tKILL=12\tDEATH=7\tCOLTSHOT=10\tCOLTHIT=4\tCOLTHEAD=1"
+                + "\tMP40SHOT=30\tMP40HIT=9\tMP40HEAD=2\tMAP3=1\tHIT=999\t");
+        assertEquals("abc", report.getAuth());
+        assertEquals(12, report.getKill());
+        assertEquals(7, report.getDeath());
+        // Totals are the sums of the weapon counters, whatever the packet says
+        assertEquals(40, report.getShot());
+        assertEquals(13, report.getHit());
+        assertEquals(3, report.getHead());
+
+        StatsMapper statsMapper = new StatsMapper();
+        MohhPersonaStatsEntity stats = new MohhPersonaStatsEntity();
+        stats.setKill(100);
+        stats.setMap3(5);
+        statsMapper.addGameReport(stats, report);
+        statsMapper.addGameReport(stats, report);
+        assertEquals(124, stats.getKill());
+        assertEquals(14, stats.getDeath());
+        assertEquals(26, stats.getHit());
+        assertEquals(18, stats.getMp40Hit());
+        assertEquals(7, statsMapper.getMapPlays(stats, 3));
+        assertEquals(0, statsMapper.getMapPlays(stats, 28));
+    }
+}
@@ -0,0 +1,161 @@
+package com.ea.repositories;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The pooled sequences changeset on PostgreSQL, run over a database which already holds rows inserted through the identities
+ * Runs in a container, or in the throwaway database given by -Dpostgres.url (-Dpostgres.user, -Dpostgres.password)
+ * Skipped when there is neither
+ */
+class PostgresMigrationTest {
+
+    private static final int ROWS = 120;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static PostgreSQLContainer<?> container;
+    private static Connection connection;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        String url = System.getProperty("postgres.url");
+        if (url != null) {
+            connection = DriverManager.getConnection(url,
+                    System.getProperty("postgres.user", "postgres"), System.getProperty("postgres.password", ""));
+        } else {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Neither Docker nor -Dpostgres.url");
+            container = new PostgreSQLContainer<>("postgres:17-alpine");
+            container.start();
+            connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+        }
+
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        Liquibase liquibase = new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(), database);
+        List<ChangeSet> changeSets = liquibase.listUnrunChangeSets(new Contexts(), new LabelExpression());
+        int beforeSequences = 0;
+        while (!changeSets.get(beforeSequences).getId().startsWith("011-")) {
+            beforeSequences++;
+        }
+        liquibase.update(beforeSequences, "");
+        try (Statement statement = connection.createStatement()) {
+            seed(statement);
+        }
+        liquibase.update("");
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    static Stream<Arguments> pooledTables() {
+        return Stream.of(
+                Arguments.of("core.GAME", "core.game_seq", """
+                        INSERT INTO core.GAME (VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME)
+                        VALUES ('PSP/MOH07', 'ULUS10141', 'sql', '', '0', 1, 8, CURRENT_TIMESTAMP) RETURNING ID
+                        """),
+                Arguments.of("core.PERSONA_CONNECTION", "core.persona_connection_seq", """
+                        INSERT INTO core.PERSONA_CONNECTION (PERSONA_ID, ADDRESS, IS_HOST, START_TIME)
+                        VALUES (1, '/127.0.0.1:0', FALSE, CURRENT_TIMESTAMP) RETURNING ID
+                        """),
+                Arguments.of("core.GAME_CONNECTION", "core.game_connection_seq", """
+                        INSERT INTO core.GAME_CONNECTION (GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME)
+                        VALUES (1, FALSE, 1, CURRENT_TIMESTAMP) RETURNING ID
+                        """),
+                Arguments.of("social.MESSAGE", "social.message_seq", """
+                        INSERT INTO social.MESSAGE (FROM_PERSONA_ID, TO_PERSONA_ID, BODY) VALUES (1, 2, 'sql') RETURNING ID
+                        """)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("pooledTables")
+    void idsContinuePastTheKeptRows(String table, String sequence, String insert) throws SQLException {
+        assertEquals(ROWS, queryLong("SELECT MAX(ID) FROM " + table));
+        assertEquals(ROWS, queryLong("SELECT COUNT(*) FROM " + table));
+
+        String[] schemaAndTable = table.toLowerCase().split("\\.");
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("""
+                     SELECT c.IS_IDENTITY, c.COLUMN_DEFAULT, s.INCREMENT_BY
+                     FROM information_schema.columns c, pg_sequences s
+                     WHERE c.TABLE_SCHEMA = '%s' AND c.TABLE_NAME = '%s' AND c.COLUMN_NAME = 'id'
+                     AND s.SCHEMANAME || '.' || s.SEQUENCENAME = '%s'
+                     """.formatted(schemaAndTable[0], schemaAndTable[1], sequence))) {
+            assertTrue(resultSet.next());
+            assertEquals("NO", resultSet.getString(1));
+            assertEquals("nextval('" + sequence + "'::regclass)", resultSet.getString(2));
+            assertEquals(ALLOCATION_SIZE, resultSet.getLong(3));
+        }
+
+        // Hibernate's pooled optimizer takes the ids up to the value it reads
+        long hibernateHi = queryLong("SELECT nextval('" + sequence + "')");
+        assertEquals(ROWS + 1, hibernateHi - ALLOCATION_SIZE + 1);
+        // The SQL inserts take the default of the column, past the block of Hibernate
+        assertTrue(queryLong(insert) > hibernateHi);
+    }
+
+    private static long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Rows inserted through the identities, as in a database which ran the previous changesets
+     */
+    private static void seed(Statement statement) throws SQLException {
+        statement.execute("""
+                INSERT INTO core.ACCOUNT (NAME, PASS, MAIL, CREATED_ON)
+                SELECT 'account' || i, 'pass', 'account' || i || '@ea.com', CURRENT_TIMESTAMP FROM generate_series(1, 10) i
+                """);
+        statement.execute("INSERT INTO core.PERSONA (ACCOUNT_ID, PERS) SELECT ID, 'player' || ID FROM core.ACCOUNT");
+        statement.execute("""
+                INSERT INTO core.PERSONA_CONNECTION (PERSONA_ID, ADDRESS, IS_HOST, START_TIME)
+                SELECT 1 + i %% 10, '/127.0.0.1:' || i, FALSE, CURRENT_TIMESTAMP FROM generate_series(1, %d) i
+                """.formatted(ROWS));
+        statement.execute("""
+                INSERT INTO core.GAME (VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME)
+                SELECT 'PSP/MOH07', 'ULUS10141', 'game' || i, '', '0', 1, 8, CURRENT_TIMESTAMP FROM generate_series(1, %d) i
+                """.formatted(ROWS));
+        statement.execute("""
+                INSERT INTO core.GAME_CONNECTION (GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME)
+                SELECT i, FALSE, i, CURRENT_TIMESTAMP FROM generate_series(1, %d) i
+                """.formatted(ROWS));
+        statement.execute("""
+                INSERT INTO social.MESSAGE (FROM_PERSONA_ID, TO_PERSONA_ID, BODY)
+                SELECT 1, 2, 'message' || i FROM generate_series(1, %d) i
+                """.formatted(ROWS));
+    }
+}
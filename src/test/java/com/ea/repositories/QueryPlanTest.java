@@ -0,0 +1,226 @@
+package com.ea.repositories;
+
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Plans of the repository queries run on each packet, in an H2 database migrated by the Liquibase changelogs
+ * The queries are the SQL Hibernate generates for them, a plan scanning a whole table fails the test
+ * Not covered: the persona search (contains, no index can help) and the ranked stats (read once on startup)
+ */
+class QueryPlanTest {
+
+    private static final int ACCOUNTS = 500;
+    private static final int PERSONAS_PER_ACCOUNT = 4;
+    private static final int GAMES = 500;
+    private static final int PLAYERS = 8;
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:query-plan;DB_CLOSE_DELAY=-1", "sa", "sa");
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        new Liquibase("db/changelog/db.changelog-master.yaml", new ClassLoaderResourceAccessor(), database).update("");
+        try (Statement statement = connection.createStatement()) {
+            seed(statement);
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("AccountRepository.findByNameLower", """
+                        SELECT a.ID FROM core.ACCOUNT a WHERE a.NAME_LOWER = 'account42'
+                        """),
+                Arguments.of("AccountRepository.findByMailLower", """
+                        SELECT a.ID FROM core.ACCOUNT a WHERE a.MAIL_LOWER = 'account42@ea.com'
+                        """),
+                Arguments.of("PersonaRepository.findByPersLower", """
+                        SELECT p.ID FROM core.PERSONA p WHERE p.PERS_LOWER = 'player42'
+                        """),
+                Arguments.of("BlacklistRepository.existsByIp", """
+                        SELECT b.ID FROM core.BLACKLIST b WHERE b.IP = '10.0.0.42' FETCH FIRST 1 ROWS ONLY
+                        """),
+                Arguments.of("MohhPersonaStatsRepository.findByPersonaIdAndVers", """
+                        SELECT ps.ID FROM stats.MOHH_PERSONA_STATS ps WHERE ps.PERSONA_ID = 42 AND ps.VERS = 'PSP/MOH07'
+                        """),
+                Arguments.of("MohhPersonaStatsRepository.findByPersonaIdAndVersIn", """
+                        SELECT ps.ID FROM stats.MOHH_PERSONA_STATS ps
+                        WHERE ps.PERSONA_ID = 42 AND ps.VERS IN ('PSP/MOH07', 'PSP/MOH07UHS')
+                        """),
+                Arguments.of("NhlPersonaStatsRepository.findByPersonaIdAndVers", """
+                        SELECT ps.ID FROM stats.NHL_PERSONA_STATS ps WHERE ps.PERSONA_ID = 42 AND ps.VERS = 'PSP/NHL07'
+                        """),
+                Arguments.of("GameConnectionRepository.findMatchingGameConnections", """
+                        SELECT gc.ID FROM core.GAME_CONNECTION gc
+                        JOIN core.GAME g ON g.ID = gc.GAME_ID
+                        JOIN core.PERSONA_CONNECTION pc ON pc.ID = gc.PERSONA_CONNECTION_ID
+                        JOIN core.PERSONA p ON p.ID = pc.PERSONA_ID
+                        WHERE g.MATCH_KEY = TIMESTAMP '2024-01-01 00:00:42'
+                        AND p.PERS = 'player42'
+                        AND NOT EXISTS (SELECT 1 FROM stats.MOHH_GAME_REPORT gr WHERE gr.GAME_CONNECTION_ID = gc.ID)
+                        AND (FALSE = TRUE OR gc.IS_HOST = FALSE)
+                        """),
+                Arguments.of("GameConnectionRepository.setEndTimeForAllUnfinishedGameConnections", """
+                        UPDATE core.GAME_CONNECTION SET END_TIME = CURRENT_TIMESTAMP WHERE END_TIME IS NULL
+                        """),
+                Arguments.of("GameConnectionRepository.countPlayersInGame", """
+                        SELECT COUNT(DISTINCT gc.PERSONA_CONNECTION_ID) FROM core.GAME_CONNECTION gc
+                        JOIN core.PERSONA_CONNECTION pc ON pc.ID = gc.PERSONA_CONNECTION_ID
+                        JOIN core.GAME g ON g.ID = gc.GAME_ID
+                        WHERE gc.END_TIME IS NULL AND pc.IS_HOST = FALSE AND g.VERS IN ('PSP/MOH07')
+                        """),
+                Arguments.of("GameConnectionRepository.findActivePlayersByGameId", """
+                        SELECT p.PERS, gc.IS_HOST, gc.START_TIME FROM core.GAME_CONNECTION gc
+                        JOIN core.PERSONA_CONNECTION pc ON pc.ID = gc.PERSONA_CONNECTION_ID
+                        JOIN core.PERSONA p ON p.ID = pc.PERSONA_ID
+                        WHERE gc.GAME_ID = 42 AND gc.END_TIME IS NULL AND gc.IS_HOST = FALSE
+                        """),
+                Arguments.of("GameConnectionRepository.findAllActiveGamesWithStats", """
+                        SELECT g.ID, g.NAME, g.VERS, g.PARAMS, g.PASS, g.START_TIME, g.MAXSIZE, hp.PERS, COUNT(gp.ID)
+                        FROM core.GAME g
+                        LEFT JOIN core.GAME_CONNECTION gh ON gh.GAME_ID = g.ID AND gh.IS_HOST = TRUE AND gh.END_TIME IS NULL
+                        LEFT JOIN core.PERSONA_CONNECTION hpc ON hpc.ID = gh.PERSONA_CONNECTION_ID
+                        LEFT JOIN core.PERSONA hp ON hp.ID = hpc.PERSONA_ID
+                        LEFT JOIN core.GAME_CONNECTION gp ON gp.GAME_ID = g.ID AND gp.IS_HOST = FALSE AND gp.END_TIME IS NULL
+                        WHERE g.VERS = 'PSP/MOH07' AND g.END_TIME IS NULL
+                        GROUP BY g.ID, g.NAME, g.VERS, g.START_TIME, g.MAXSIZE, hp.PERS
+                        """),
+                Arguments.of("GameRepository.setEndTimeForAllUnfinishedGames", """
+                        UPDATE core.GAME SET END_TIME = CURRENT_TIMESTAMP WHERE END_TIME IS NULL
+                        """),
+                Arguments.of("PersonaConnectionRepository.findByEndTimeIsNullAndAddressNotIn", """
+                        SELECT pc.ID FROM core.PERSONA_CONNECTION pc
+                        WHERE pc.END_TIME IS NULL AND pc.ADDRESS NOT IN ('10.0.0.1', '10.0.0.2')
+                        """),
+                Arguments.of("PersonaConnectionRepository.findByVersAndSlusAndPersonaPersAndIsHostFalseAndEndTimeIsNull", """
+                        SELECT pc.ID FROM core.PERSONA_CONNECTION pc
+                        JOIN core.PERSONA p ON p.ID = pc.PERSONA_ID
+                        WHERE pc.VERS = 'PSP/MOH07' AND pc.SLUS = 'ULUS-10141' AND p.PERS = 'player42'
+                        AND pc.IS_HOST = FALSE AND pc.END_TIME IS NULL
+                        """),
+                Arguments.of("PersonaConnectionRepository.setEndTimeForAllUnfinishedPersonaConnections", """
+                        UPDATE core.PERSONA_CONNECTION SET END_TIME = CURRENT_TIMESTAMP WHERE END_TIME IS NULL
+                        """),
+                Arguments.of("PersonaConnectionRepository.countPlayersInLobby", """
+                        SELECT COUNT(pc.ID) FROM core.PERSONA_CONNECTION pc
+                        WHERE pc.END_TIME IS NULL AND pc.IS_HOST = FALSE AND pc.VERS IN ('PSP/MOH07')
+                        AND pc.ID NOT IN (SELECT gc.PERSONA_CONNECTION_ID FROM core.GAME_CONNECTION gc WHERE gc.END_TIME IS NULL)
+                        """),
+                Arguments.of("MessageRepository.findUnacknowledgedMessagesByToPersona", """
+                        SELECT m.ID FROM social.MESSAGE m WHERE m.TO_PERSONA_ID = 42 AND m.ACK = FALSE ORDER BY m.CREATED_ON
+                        """),
+                Arguments.of("BuddyRepository.findByFromPersonaAndToPersona", """
+                        SELECT b.ID FROM social.BUDDY b WHERE b.FROM_PERSONA_ID = 42 AND b.TO_PERSONA_ID = 43
+                        """),
+                Arguments.of("BuddyRepository.findByFromPersonaAndList", """
+                        SELECT b.ID FROM social.BUDDY b WHERE b.FROM_PERSONA_ID = 42 AND b.LIST = 'B'
+                        """),
+                Arguments.of("FeedbackRepository.findByFromPersonaAndToPersonaAndFeedbackType", """
+                        SELECT f.ID FROM social.FEEDBACK f WHERE f.FROM_PERSONA_ID = 42 AND f.TO_PERSONA_ID = 43 AND f.TYPE_ID = 1
+                        """)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryDoesNotScanTables(String query, String sql) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains(".tableScan"), query + " scans a table:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    /**
+     * Accounts with their personas and stats, and games of which the first half are over,
+     * each with a host and players, half of them connected to a game
+     */
+    private static void seed(Statement statement) throws SQLException {
+        statement.execute("""
+                INSERT INTO core.ACCOUNT (ID, NAME, NAME_LOWER, PASS, MAIL, MAIL_LOWER, LOC, CREATED_ON)
+                SELECT X, 'Account' || X, 'account' || X, 'pass', 'Account' || X || '@ea.com', 'account' || X || '@ea.com',
+                'frFR', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, %d)
+                """.formatted(ACCOUNTS));
+        statement.execute("""
+                INSERT INTO core.PERSONA (ID, ACCOUNT_ID, PERS, PERS_LOWER, CREATED_ON)
+                SELECT X, (X - 1) / %d + 1, 'Player' || X, 'player' || X, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, %d)
+                """.formatted(PERSONAS_PER_ACCOUNT, ACCOUNTS * PERSONAS_PER_ACCOUNT));
+        statement.execute("""
+                INSERT INTO stats.MOHH_PERSONA_STATS (PERSONA_ID, VERS, SLUS, PLAYTIME)
+                SELECT ID, 'PSP/MOH07', 'ULUS-10141', 60 FROM core.PERSONA
+                """);
+        statement.execute("""
+                INSERT INTO stats.NHL_PERSONA_STATS (PERSONA_ID, VERS, SLUS)
+                SELECT ID, 'PSP/NHL07', 'ULUS-10180' FROM core.PERSONA
+                """);
+        statement.execute("""
+                INSERT INTO core.BLACKLIST (IP) SELECT '10.1.0.' || X FROM SYSTEM_RANGE(1, 200)
+                """);
+        statement.execute("""
+                INSERT INTO core.GAME (ID, VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME, END_TIME, MATCH_KEY)
+                SELECT X, 'PSP/MOH07', 'ULUS-10141', 'game' || X, '', '262656', 1, 32,
+                DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00'),
+                CASE WHEN X <= %1$d / 2 THEN DATEADD(SECOND, X + 600, TIMESTAMP '2024-01-01 00:00:00') END,
+                DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, %1$d)
+                """.formatted(GAMES));
+        statement.execute("""
+                INSERT INTO core.PERSONA_CONNECTION (ID, PERSONA_ID, ADDRESS, VERS, SLUS, IS_HOST, START_TIME, END_TIME)
+                SELECT X, MOD(X - 1, %d) + 1, '10.0.' || (X / 256) || '.' || MOD(X, 256), 'PSP/MOH07', 'ULUS-10141',
+                MOD(X, %d) = 0, TIMESTAMP '2024-01-01 00:00:00',
+                CASE WHEN X <= %d THEN TIMESTAMP '2024-01-01 01:00:00' END FROM SYSTEM_RANGE(1, %d)
+                """.formatted(ACCOUNTS * PERSONAS_PER_ACCOUNT, PLAYERS, GAMES * PLAYERS / 2, GAMES * PLAYERS * 2));
+        statement.execute("""
+                INSERT INTO core.GAME_CONNECTION (ID, GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME, END_TIME)
+                SELECT pc.ID, (pc.ID - 1) / %d + 1, pc.IS_HOST, pc.ID, pc.START_TIME, pc.END_TIME
+                FROM core.PERSONA_CONNECTION pc WHERE pc.ID <= %d
+                """.formatted(PLAYERS, GAMES * PLAYERS));
+        statement.execute("""
+                INSERT INTO stats.MOHH_GAME_REPORT (GAME_CONNECTION_ID, RNK)
+                SELECT ID, 1 FROM core.GAME_CONNECTION WHERE END_TIME IS NOT NULL
+                """);
+        statement.execute("""
+                INSERT INTO social.BUDDY (FROM_PERSONA_ID, TO_PERSONA_ID, LIST, STATUS)
+                SELECT ID, MOD(ID, %1$d) + 1, 'B', 'A' FROM core.PERSONA
+                """.formatted(ACCOUNTS * PERSONAS_PER_ACCOUNT));
+        statement.execute("""
+                INSERT INTO social.MESSAGE (FROM_PERSONA_ID, TO_PERSONA_ID, BODY, ACK)
+                SELECT ID, MOD(ID, %1$d) + 1, 'hello', MOD(ID, 2) = 0 FROM core.PERSONA
+                """.formatted(ACCOUNTS * PERSONAS_PER_ACCOUNT));
+        statement.execute("""
+                INSERT INTO social.FEEDBACK (FROM_PERSONA_ID, TO_PERSONA_ID, VERS, TYPE_ID)
+                SELECT ID, MOD(ID, %1$d) + 1, 'PSP/MOH07', 1 FROM core.PERSONA
+                """.formatted(ACCOUNTS * PERSONAS_PER_ACCOUNT));
+    }
+}
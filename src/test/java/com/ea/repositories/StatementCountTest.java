@@ -0,0 +1,181 @@
+package com.ea.repositories;
+
+import com.ea.entities.core.AccountEntity;
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.PersonaEntity;
+import com.ea.repositories.core.AccountRepository;
+import com.ea.repositories.core.BlacklistRepository;
+import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.repositories.core.PersonaRepository;
+import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Statements issued by the repository calls of each packet, counted by the Hibernate statistics
+ * on an H2 database migrated by the Liquibase changelogs
+ * The persistence context is cleared before each packet, as each call runs in its own session on the server
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StatementCountTest {
+
+    private static final LocalDateTime MATCH_KEY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PersonaRepository personaRepository;
+    @Autowired
+    private BlacklistRepository blacklistRepository;
+    @Autowired
+    private GameConnectionRepository gameConnectionRepository;
+    @Autowired
+    private MohhPersonaStatsRepository mohhPersonaStatsRepository;
+
+    private Statistics statistics;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ea.entities")
+    @EnableJpaRepositories("com.ea.repositories")
+    static class Config {
+    }
+
+    @BeforeEach
+    void setup() {
+        // An account with 3 personas, one deleted, and a finished game of 4 players each on their persona
+        jdbcTemplate.execute("""
+                INSERT INTO core.ACCOUNT (ID, NAME, NAME_LOWER, PASS, MAIL, MAIL_LOWER, LOC, TOS, IS_BANNED, CREATED_ON)
+                SELECT X, 'Account' || X, 'account' || X, 'pass', 'Account' || X || '@ea.com', 'account' || X || '@ea.com',
+                'frFR', 1, FALSE, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 4)
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO core.PERSONA (ID, ACCOUNT_ID, PERS, PERS_LOWER, CREATED_ON, DELETED_ON)
+                SELECT X, CASE WHEN X <= 3 THEN 1 ELSE X - 2 END, 'Player' || X, 'player' || X, CURRENT_TIMESTAMP,
+                CASE WHEN X = 2 THEN CURRENT_TIMESTAMP END FROM SYSTEM_RANGE(1, 6)
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO stats.MOHH_PERSONA_STATS (PERSONA_ID, VERS, SLUS, PLAYTIME)
+                SELECT ID, 'PSP/MOH07', 'ULUS-10141', 60 FROM core.PERSONA
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO core.GAME (ID, VERS, SLUS, NAME, PARAMS, SYSFLAGS, MINSIZE, MAXSIZE, START_TIME, END_TIME, MATCH_KEY)
+                VALUES (1, 'PSP/MOH07', 'ULUS-10141', 'game', '', '262656', 1, 32,
+                TIMESTAMP '2024-01-01 00:00:00.250', TIMESTAMP '2024-01-01 00:10:00', TIMESTAMP '2024-01-01 00:00:00')
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO core.PERSONA_CONNECTION (ID, PERSONA_ID, ADDRESS, VERS, SLUS, IS_HOST, START_TIME, END_TIME)
+                SELECT X, X + 2, '10.0.0.' || X, 'PSP/MOH07', 'ULUS-10141', X = 1,
+                TIMESTAMP '2024-01-01 00:00:00', TIMESTAMP '2024-01-01 01:00:00' FROM SYSTEM_RANGE(1, 4)
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO core.GAME_CONNECTION (ID, GAME_ID, IS_HOST, PERSONA_CONNECTION_ID, START_TIME, END_TIME)
+                SELECT ID, 1, IS_HOST, ID, START_TIME, END_TIME FROM core.PERSONA_CONNECTION
+                """);
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 'auth': the account, its live personas for the reply and the blacklist
+     */
+    @Test
+    void auth() {
+        startPacket();
+        AccountEntity accountEntity = accountRepository.findByName("Account1").orElseThrow();
+        List<String> personas = personaRepository.findLivePersByAccountId(accountEntity.getId());
+        assertFalse(blacklistRepository.existsByIp("10.0.0.1"));
+
+        assertEquals(List.of("Player3", "Player1"), personas);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * 'pers': the persona and its account, not the other personas of the account
+     */
+    @Test
+    void pers() {
+        startPacket();
+        PersonaEntity personaEntity = personaRepository.findByPers("PLAYER1").orElseThrow();
+
+        assertEquals("Account1", personaEntity.getAccount().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * 'gjoi' and 'gpsc': the ban flag of the account and the blacklist
+     */
+    @Test
+    void gjoi() {
+        startPacket();
+        boolean banned = accountRepository.findIsBannedById(1L).orElse(true);
+
+        assertFalse(banned || blacklistRepository.existsByIp("10.0.0.1"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * 'dper' of a persona used by another account: all the personas of the account, deleted ones included
+     */
+    @Test
+    void dper() {
+        startPacket();
+        Set<String> personas = accountRepository.findWithPersonasById(1L).orElseThrow().getPersonas().stream()
+                .map(PersonaEntity::getPers)
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of("Player1", "Player2", "Player3"), personas);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * 'rank': the game connection with its game, persona and (missing) report, then the stats of the persona
+     * The other connections of the game aren't loaded anymore
+     */
+    @Test
+    void rank() {
+        startPacket();
+        List<GameConnectionEntity> gameConnections = gameConnectionRepository.findMatchingGameConnections("Player4", MATCH_KEY, false);
+        long readStatements = statistics.getPrepareStatementCount();
+        GameConnectionEntity gameConnectionEntity = gameConnections.get(0);
+        PersonaEntity personaEntity = gameConnectionEntity.getPersonaConnection().getPersona();
+        assertEquals("PSP/MOH07", gameConnectionEntity.getGame().getVers());
+        assertFalse(personaEntity.getAccount().isBanned());
+        assertNotNull(mohhPersonaStatsRepository.findByPersonaIdAndVersIn(personaEntity.getId(), List.of("PSP/MOH07")));
+
+        assertEquals(1, readStatements);
+        assertEquals(1, gameConnections.size());
+        assertEquals(readStatements + 1, statistics.getPrepareStatementCount());
+    }
+
+    private void startPacket() {
+        entityManager.clear();
+        statistics.clear();
+    }
+}
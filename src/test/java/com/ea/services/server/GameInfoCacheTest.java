@@ -0,0 +1,84 @@
+package com.ea.services.server;
+
+import com.ea.dto.Packet;
+import com.ea.entities.core.GameEntity;
+import com.ea.repositories.core.GameRepository;
+import com.ea.utils.GameUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GameInfoCacheTest {
+
+    @Test
+    void rebuildsOncePerChange() throws InterruptedException {
+        GameRepository gameRepository = mock(GameRepository.class);
+        when(gameRepository.save(any(GameEntity.class))).thenAnswer(invocation -> {
+            GameEntity gameEntity = invocation.getArgument(0);
+            gameEntity.setId(1L);
+            return gameEntity;
+        });
+        GameRegistry gameRegistry = new GameRegistry(gameRepository, mock(GamePersistenceService.class), new GameSearchEngine(),
+                mock(QuickMatchService.class));
+        AtomicInteger builds = new AtomicInteger();
+        GameUtils gameUtils = mock(GameUtils.class);
+        when(gameUtils.getGameInfo(any(GameEntity.class))).thenAnswer(invocation -> {
+            Thread.sleep(1);
+            return Map.of("BUILD", String.valueOf(builds.incrementAndGet()));
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GameInfoCache gameInfoCache = new GameInfoCache(gameRegistry, gameUtils, meterRegistry);
+        gameInfoCache.init();
+
+        GameEntity gameEntity = new GameEntity();
+        gameEntity.setName("game");
+        gameEntity.setVers("PSP/MOH07");
+        gameEntity.setSysflags("0");
+        gameRegistry.create(gameEntity);
+
+        // Recipients keep asking for the game info while the game changes
+        int changes = 50;
+        AtomicBoolean changing = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(8);
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String idMessage = i % 2 == 0 ? "+agm" : "+mgm";
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                while (changing.get()) {
+                    gameInfoCache.packet(idMessage, gameEntity);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        started.await();
+        for (int i = 0; i < changes; i++) {
+            gameEntity.setSysflags(String.valueOf(i));
+            gameRegistry.update(gameEntity);
+            Thread.sleep(2);
+        }
+        changing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // At most one rebuild per change, plus the first build
+        assertTrue(builds.get() <= changes + 1, builds.get() + " builds");
+        Packet packet = gameInfoCache.packet("+mgm", gameEntity);
+        assertSame(packet, gameInfoCache.packet("+mgm", gameEntity));
+        assertTrue(meterRegistry.get("games.info.cache").tag("result", "hit").counter().count() > 0);
+        assertEquals(builds.get(), meterRegistry.get("games.info.cache").tag("result", "miss").counter().count());
+    }
+}
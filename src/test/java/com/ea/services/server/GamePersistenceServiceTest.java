@@ -0,0 +1,104 @@
+package com.ea.services.server;
+
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.core.PersonaConnectionEntity;
+import com.ea.repositories.core.GameConnectionRepository;
+import com.ea.repositories.core.GameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class GamePersistenceServiceTest {
+
+    private final GameConnectionRepository gameConnectionRepository = mock(GameConnectionRepository.class);
+    private GamePersistenceService gamePersistenceService;
+
+    @BeforeEach
+    void setup() {
+        ThreadService threadService = mock(ThreadService.class);
+        when(threadService.newThread(anyString(), any())).thenAnswer(invocation -> new Thread((Runnable) invocation.getArgument(1)));
+        gamePersistenceService = new GamePersistenceService(mock(GameRepository.class), gameConnectionRepository, threadService,
+                new SimpleMeterRegistry());
+        gamePersistenceService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gamePersistenceService.shutdown();
+    }
+
+    @Test
+    void flushWaitsForTheBatchTheWriterIsWriting() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(gameConnectionRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+
+        gamePersistenceService.save(new GameConnectionEntity());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        // The writer took the connection off the queue, but hasn't written it yet
+        CompletableFuture<Boolean> flushed = CompletableFuture.supplyAsync(gamePersistenceService::flush);
+        Thread.sleep(200);
+        assertFalse(flushed.isDone());
+
+        release.countDown();
+        assertTrue(flushed.get(5, TimeUnit.SECONDS));
+        verify(gameConnectionRepository).saveAll(anyIterable());
+    }
+
+    @Test
+    void keepsChangesQueuedWhileTheDatabaseIsDown() {
+        when(gameConnectionRepository.saveAll(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        GameConnectionEntity gameConnection = new GameConnectionEntity();
+
+        gamePersistenceService.save(gameConnection);
+
+        // Written on the second attempt, after the retry delay
+        assertTrue(gamePersistenceService.flush());
+        verify(gameConnectionRepository, times(2)).saveAll(List.of(gameConnection));
+    }
+
+    @Test
+    void dropsOnlyTheRejectedRow() {
+        GameConnectionEntity rejected = gameConnection(1L);
+        GameConnectionEntity accepted = gameConnection(2L);
+        when(gameConnectionRepository.saveAll(anyIterable())).thenThrow(new DataIntegrityViolationException("FK_GAME"));
+        when(gameConnectionRepository.save(rejected)).thenThrow(new DataIntegrityViolationException("FK_GAME"));
+
+        gamePersistenceService.save(rejected);
+        gamePersistenceService.save(accepted);
+
+        assertTrue(gamePersistenceService.flush());
+        verify(gameConnectionRepository).save(accepted);
+        verify(gameConnectionRepository, times(1)).save(rejected);
+    }
+
+    private static GameConnectionEntity gameConnection(Long personaConnectionId) {
+        PersonaConnectionEntity personaConnection = new PersonaConnectionEntity();
+        personaConnection.setId(personaConnectionId);
+        GameConnectionEntity gameConnection = new GameConnectionEntity();
+        gameConnection.setGame(new GameEntity());
+        gameConnection.setPersonaConnection(personaConnection);
+        return gameConnection;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ea.services.server;
+
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.core.PersonaConnectionEntity;
+import com.ea.repositories.core.GameRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GameRegistryTest {
+
+    private static GameRepository gameRepository() {
+        AtomicLong ids = new AtomicLong();
+        GameRepository gameRepository = mock(GameRepository.class);
+        when(gameRepository.save(any(GameEntity.class))).thenAnswer(invocation -> {
+            GameEntity gameEntity = invocation.getArgument(0);
+            gameEntity.setId(ids.incrementAndGet());
+            return gameEntity;
+        });
+        return gameRepository;
+    }
+
+    private static GameEntity game(String name, String vers) {
+        GameEntity gameEntity = new GameEntity();
+        gameEntity.setName(name);
+        gameEntity.setVers(vers);
+        return gameEntity;
+    }
+
+    private static PersonaConnectionEntity personaConnection(Long id, boolean isHost) {
+        PersonaConnectionEntity personaConnection = new PersonaConnectionEntity();
+        personaConnection.setId(id);
+        personaConnection.setHost(isHost);
+        personaConnection.setAddress("/127.0.0.1:" + id);
+        return personaConnection;
+    }
+
+    @Test
+    void indexesFollowGameLifecycle() {
+        GamePersistenceService gamePersistenceService = mock(GamePersistenceService.class);
+        GameRegistry gameRegistry = new GameRegistry(gameRepository(), gamePersistenceService, new GameSearchEngine(),
+                mock(QuickMatchService.class));
+
+        GameEntity game = gameRegistry.create(game("game", "MOHH"));
+        GameEntity otherGame = gameRegistry.create(game("other", "UHS"));
+        assertEquals(List.of(game), gameRegistry.getGames(List.of("MOHH")));
+        assertEquals(List.of(game, otherGame), gameRegistry.getGames(List.of("UHS", "MOHH")));
+        assertSame(game, gameRegistry.getGameByName("game", List.of("UHS", "MOHH")).orElseThrow());
+        assertFalse(gameRegistry.existsByName("game", List.of("UHS")));
+
+        GameConnectionEntity host = gameRegistry.addGameConnection(game, personaConnection(1L, true), true);
+        GameConnectionEntity player = gameRegistry.addGameConnection(game, personaConnection(2L, false), false);
+        assertEquals(List.of(host, player), gameRegistry.getGameConnections(game));
+        assertTrue(gameRegistry.getLastDeparture(game).isEmpty());
+        assertSame(game, gameRegistry.getCurrentGame(2L).orElseThrow());
+        assertTrue(gameRegistry.getCurrentGame(null).isEmpty());
+        assertEquals("/127.0.0.1:1", gameRegistry.getHostAddress(game.getId()).orElseThrow());
+        // Dedicated server hosts aren't players
+        assertEquals(1, gameRegistry.countPlayersInGame(List.of("MOHH")));
+
+        LocalDateTime now = LocalDateTime.now();
+        gameRegistry.endGameConnection(player, now);
+        assertEquals(List.of(host), gameRegistry.getGameConnections(game));
+        assertTrue(gameRegistry.getCurrentGame(2L).isEmpty());
+        // Ended connections stay in the game history
+        assertEquals(2, game.getGameConnections().size());
+        assertEquals(now, gameRegistry.getLastDeparture(game).orElseThrow());
+
+        gameRegistry.endGame(game, now);
+        assertEquals(now, game.getEndTime());
+        assertEquals(now, host.getEndTime());
+        assertTrue(gameRegistry.getGame(game.getId()).isEmpty());
+        assertTrue(gameRegistry.getGames(List.of("MOHH")).isEmpty());
+        assertFalse(gameRegistry.existsByName("game", List.of("MOHH")));
+        assertTrue(gameRegistry.getCurrentGame(1L).isEmpty());
+        assertNull(gameRegistry.addGameConnection(game, personaConnection(3L, false), false));
+
+        // Connections are inserted, then updated when ended along with the game
+        verify(gamePersistenceService, times(2)).save(host);
+        verify(gamePersistenceService, times(2)).save(player);
+        verify(gamePersistenceService).save(game);
+    }
+
+    @Test
+    void concurrentJoinsDontOverfillTheGame() throws Exception {
+        GameRegistry gameRegistry = new GameRegistry(gameRepository(), mock(GamePersistenceService.class), new GameSearchEngine(),
+                mock(QuickMatchService.class));
+        GameEntity game = game("game", "MOHH");
+        game.setMaxsize(8);
+        gameRegistry.create(game);
+
+        List<Future<GameConnectionEntity>> joins;
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            joins = executor.invokeAll(LongStream.rangeClosed(1, 32)
+                    .mapToObj(id -> (Callable<GameConnectionEntity>)
+                            () -> gameRegistry.addGameConnection(game, personaConnection(id, false), false, true))
+                    .toList());
+        }
+        long joined = 0;
+        for (Future<GameConnectionEntity> join : joins) {
+            joined += join.get() != null ? 1 : 0;
+        }
+
+        assertEquals(8, joined);
+        assertEquals(8, gameRegistry.getGameConnections(game).size());
+        // Map rotation re-adds the players whatever the capacity
+        assertNotNull(gameRegistry.addGameConnection(game, personaConnection(33L, false), false));
+    }
+}
@@ -0,0 +1,114 @@
+package com.ea.services.server;
+
+import com.ea.dto.GameParams.Layout;
+import com.ea.dto.MessageFields;
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.ea.services.server.GameServerService.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSearchEngineTest {
+
+    private static GameEntity game(long id, String vers, String name, String params, String pass, int maxsize) {
+        GameEntity gameEntity = new GameEntity();
+        gameEntity.setId(id);
+        gameEntity.setVers(vers);
+        gameEntity.setName(name);
+        gameEntity.setParams(params);
+        gameEntity.setPass(pass);
+        gameEntity.setMaxsize(maxsize);
+        gameEntity.setGameConnections(new LinkedHashSet<>());
+        return gameEntity;
+    }
+
+    private static GameConnectionEntity join(GameEntity gameEntity) {
+        GameConnectionEntity gameConnectionEntity = new GameConnectionEntity();
+        gameConnectionEntity.setGame(gameEntity);
+        gameEntity.getGameConnections().add(gameConnectionEntity);
+        return gameConnectionEntity;
+    }
+
+    private static MessageFields criteria(String... keyValues) {
+        Map<String, String> criteria = new LinkedHashMap<>(Map.of("AVAILABLE", "-1", "MODE", "-1", "MAP", "-1", "FF", "-1"));
+        for (int i = 0; i < keyValues.length; i += 2) {
+            criteria.put(keyValues[i], keyValues[i + 1]);
+        }
+        StringBuilder message = new StringBuilder();
+        criteria.forEach((key, value) -> message.append(key).append('=').append(value).append('\n'));
+        return MessageFields.of(message.toString());
+    }
+
+    @Test
+    void searchesMohhCriteria() {
+        GameSearchEngine gameSearchEngine = new GameSearchEngine();
+        // MODE, MAP (hex), FF, AIM, ..., ranked at 8
+        GameEntity rankedGame = game(1, PSP_MOH_07, "\"Ranked Game\"", "2,b5,1,,-1,,,,1,e4a", null, 2);
+        GameEntity privateGame = game(2, PSP_MOH_07_UHS, "\"Private\"", "2,b6,,1,-1,,,,,e4a", "secret", 32);
+        GameEntity otherGame = game(3, PSP_MOH_07, "\"Other\"", "1,b5,0,1,-1,,,,,e4a", null, 32);
+        List.of(rankedGame, privateGame, otherGame).forEach(gameSearchEngine::add);
+        List<String> vers = List.of(PSP_MOH_07, PSP_MOH_07_UHS);
+
+        assertEquals(List.of(rankedGame, privateGame, otherGame), gameSearchEngine.search(vers, criteria(), Layout.MOHH, 10));
+        assertEquals(List.of(rankedGame, privateGame), gameSearchEngine.search(vers, criteria(), Layout.MOHH, 2));
+        assertEquals(List.of(rankedGame), gameSearchEngine.search(List.of(PSP_MOH_07), criteria("MODE", "2"), Layout.MOHH, 10));
+        assertEquals(List.of(privateGame), gameSearchEngine.search(vers, criteria("MAP", "182"), Layout.MOHH, 10));
+        assertEquals(List.of(rankedGame), gameSearchEngine.search(vers, criteria("MAXSIZE", "2"), Layout.MOHH, 10));
+        assertEquals(List.of(rankedGame), gameSearchEngine.search(vers, criteria("NAME", "\"rank\""), Layout.MOHH, 10));
+        // A searched 0 also matches an option left empty
+        assertEquals(List.of(privateGame, otherGame), gameSearchEngine.search(vers, criteria("FF", "0"), Layout.MOHH, 10));
+        assertEquals(List.of(rankedGame), gameSearchEngine.search(vers, criteria("AIM", "0"), Layout.MOHH, 10));
+
+        // Password (bit 16) and ranked (bit 18), only the bits of the mask count
+        assertEquals(List.of(rankedGame), gameSearchEngine.search(vers, criteria("SYSMASK", "327680", "SYSFLAGS", "262144"), Layout.MOHH, 10));
+        assertEquals(List.of(privateGame), gameSearchEngine.search(vers, criteria("SYSMASK", "65536", "SYSFLAGS", "65536"), Layout.MOHH, 10));
+        assertEquals(List.of(privateGame, otherGame), gameSearchEngine.search(vers, criteria("SYSMASK", "262144", "SYSFLAGS", "0"), Layout.MOHH, 10));
+
+        // Titles without a layout ignore the criteria
+        assertEquals(List.of(rankedGame, privateGame, otherGame), gameSearchEngine.search(vers, criteria("MODE", "9"), Layout.NONE, 10));
+    }
+
+    @Test
+    void followsGameChanges() {
+        GameSearchEngine gameSearchEngine = new GameSearchEngine();
+        GameEntity game = game(1, PSP_MOH_07, "\"Game\"", "2,b5,,,-1,,,,,e4a", null, 1);
+        gameSearchEngine.add(game);
+        List<String> vers = List.of(PSP_MOH_07);
+
+        GameConnectionEntity player = join(game);
+        gameSearchEngine.updateAvailability(game);
+        assertTrue(gameSearchEngine.search(vers, criteria("AVAILABLE", "1"), Layout.MOHH, 10).isEmpty());
+        player.setEndTime(LocalDateTime.now());
+        gameSearchEngine.updateAvailability(game);
+        assertEquals(List.of(game), gameSearchEngine.search(vers, criteria("AVAILABLE", "1"), Layout.MOHH, 10));
+
+        game.setParams("3,b5,,,-1,,,,,e4a");
+        gameSearchEngine.update(game);
+        assertTrue(gameSearchEngine.search(vers, criteria("MODE", "2"), Layout.MOHH, 10).isEmpty());
+        assertEquals(List.of(game), gameSearchEngine.search(vers, criteria("MODE", "3"), Layout.MOHH, 10));
+
+        gameSearchEngine.remove(game);
+        assertTrue(gameSearchEngine.search(vers, criteria(), Layout.MOHH, 10).isEmpty());
+    }
+
+    @Test
+    void keepsCreationOrderWhenCompacted() {
+        GameSearchEngine gameSearchEngine = new GameSearchEngine();
+        List<GameEntity> games = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            GameEntity game = game(id, PSP_MOH_07, "\"Game " + id + "\"", (id / 10 % 2 + 1) + ",b5,,,-1,,,,,e4a", null, 32);
+            games.add(game);
+            gameSearchEngine.add(game);
+        }
+        games.stream().filter(game -> game.getId() % 10 != 0).forEach(gameSearchEngine::remove);
+
+        List<GameEntity> remaining = games.stream().filter(game -> game.getId() % 10 == 0).toList();
+        assertEquals(remaining, gameSearchEngine.search(List.of(PSP_MOH_07), criteria(), Layout.MOHH, 1000));
+        assertEquals(remaining.stream().filter(game -> game.getId() % 20 == 0).toList(),
+                gameSearchEngine.search(List.of(PSP_MOH_07), criteria("MODE", "1"), Layout.MOHH, 1000));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ea.services.server;
+
+import com.ea.config.GameServerConfig;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.SocketWrapper;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static com.ea.services.server.GameServerService.PSP_MOH_07;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GpsPoolServiceTest {
+
+    private static GpsPoolService gpsPoolService(String policy, int heartbeatTimeout) {
+        Props props = mock(Props.class);
+        when(props.getGpsPolicy()).thenReturn(policy);
+        when(props.getGpsHeartbeatTimeout()).thenReturn(heartbeatTimeout);
+        when(props.getGpsSpawnFailureCooldown()).thenReturn(120);
+        GpsPoolService gpsPoolService = new GpsPoolService(props, mock(GameServerConfig.class), new SimpleMeterRegistry());
+        gpsPoolService.init();
+        return gpsPoolService;
+    }
+
+    private static SocketWrapper gps(GpsPoolService gpsPoolService, String identifier) {
+        SocketWrapper socketWrapper = new SocketWrapper();
+        socketWrapper.setIdentifier(identifier);
+        socketWrapper.setSocket(mock(ClientSocket.class));
+        gpsPoolService.updateStatus(socketWrapper, "A");
+        return socketWrapper;
+    }
+
+    private static SocketWrapper allocate(GpsPoolService gpsPoolService) {
+        return gpsPoolService.allocate(mock(ClientSocket.class), PSP_MOH_07).orElse(null);
+    }
+
+    @Test
+    void allocatesEachGpsOnce() {
+        GpsPoolService gpsPoolService = gpsPoolService("least-loaded", 60);
+        gps(gpsPoolService, "first");
+        gps(gpsPoolService, "second");
+
+        SocketWrapper allocated = allocate(gpsPoolService);
+        assertNotNull(allocated);
+        // Still reserved when it reports itself available before creating the game
+        gpsPoolService.updateStatus(allocated, "A");
+        SocketWrapper other = allocate(gpsPoolService);
+        assertNotNull(other);
+        assertNotSame(allocated, other);
+        assertEquals(Optional.empty(), gpsPoolService.allocate(mock(ClientSocket.class), PSP_MOH_07));
+
+        // Available again once its game is over
+        gpsPoolService.gameCreated(allocated);
+        gpsPoolService.updateStatus(allocated, "A");
+        assertSame(allocated, allocate(gpsPoolService));
+    }
+
+    @Test
+    void allocatesInTurns() {
+        GpsPoolService gpsPoolService = gpsPoolService("round-robin", 60);
+        SocketWrapper first = gps(gpsPoolService, "first");
+        SocketWrapper second = gps(gpsPoolService, "second");
+
+        assertSame(first, allocate(gpsPoolService));
+        gpsPoolService.updateStatus(first, "G");
+        gpsPoolService.updateStatus(first, "A");
+        assertSame(second, allocate(gpsPoolService));
+        gpsPoolService.updateStatus(second, "G");
+        gpsPoolService.updateStatus(second, "A");
+        assertSame(first, allocate(gpsPoolService));
+    }
+
+    @Test
+    void skipsUnhealthyGps() {
+        GpsPoolService gpsPoolService = gpsPoolService("least-loaded", 60);
+        SocketWrapper gps = gps(gpsPoolService, "gps");
+
+        // Cooldown after a game not created in time
+        assertSame(gps, allocate(gpsPoolService));
+        gpsPoolService.spawnFailed(gps);
+        assertNull(allocate(gpsPoolService));
+
+        // No heartbeat within the timeout
+        GpsPoolService timedOutPool = gpsPoolService("least-loaded", 0);
+        gps(timedOutPool, "gps");
+        assertNull(allocate(timedOutPool));
+    }
+}
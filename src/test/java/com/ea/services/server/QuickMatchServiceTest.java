@@ -0,0 +1,102 @@
+package com.ea.services.server;
+
+import com.ea.dto.ClientSocket;
+import com.ea.dto.SocketWrapper;
+import com.ea.entities.core.GameConnectionEntity;
+import com.ea.entities.core.GameEntity;
+import com.ea.entities.core.PersonaConnectionEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.ea.services.server.GameServerService.PSP_NHL_07;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuickMatchServiceTest {
+
+    private static QuickMatchService quickMatchService(SimpleMeterRegistry meterRegistry) {
+        GameServerService gameServerService = mock(GameServerService.class);
+        when(gameServerService.getRelatedVers(anyString())).thenReturn(List.of(PSP_NHL_07));
+        ThreadService threadService = mock(ThreadService.class);
+        when(threadService.threadFactory(anyString())).thenReturn(Executors.defaultThreadFactory());
+        when(threadService.newThread(anyString(), any(Runnable.class)))
+                .thenAnswer(invocation -> new Thread(invocation.<Runnable>getArgument(1), invocation.<String>getArgument(0)));
+        QuickMatchService quickMatchService = new QuickMatchService(gameServerService, threadService, meterRegistry);
+        quickMatchService.init();
+        return quickMatchService;
+    }
+
+    private static SocketWrapper waiter(String identifier) {
+        PersonaConnectionEntity personaConnection = new PersonaConnectionEntity();
+        personaConnection.setVers(PSP_NHL_07);
+        SocketWrapper socketWrapper = new SocketWrapper();
+        socketWrapper.setIdentifier(identifier);
+        socketWrapper.setSocket(mock(ClientSocket.class));
+        socketWrapper.setPersonaConnectionEntity(personaConnection);
+        return socketWrapper;
+    }
+
+    private static GameEntity game(int players, int maxsize) {
+        GameEntity gameEntity = new GameEntity();
+        gameEntity.setId(1L);
+        gameEntity.setVers(PSP_NHL_07);
+        gameEntity.setMaxsize(maxsize);
+        gameEntity.setGameConnections(new HashSet<>());
+        for (long i = 0; i < players; i++) {
+            GameConnectionEntity gameConnection = new GameConnectionEntity();
+            gameConnection.setId(i);
+            gameEntity.getGameConnections().add(gameConnection);
+        }
+        return gameEntity;
+    }
+
+    @Test
+    void matchesWaitersToFreeSlots() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QuickMatchService quickMatchService = quickMatchService(meterRegistry);
+        BlockingQueue<String> matched = new LinkedBlockingQueue<>();
+        for (String identifier : List.of("first", "cancelled", "second", "third")) {
+            SocketWrapper socketWrapper = waiter(identifier);
+            quickMatchService.enqueue(socketWrapper, game -> {
+                // Joining takes a slot, off the matcher thread
+                assertTrue(Thread.currentThread().getName().startsWith("quick-match-join-"));
+                synchronized (game) {
+                    GameConnectionEntity gameConnection = new GameConnectionEntity();
+                    gameConnection.setId((long) game.getGameConnections().size());
+                    game.getGameConnections().add(gameConnection);
+                }
+                matched.add(identifier);
+            });
+            if (identifier.equals("cancelled")) {
+                quickMatchService.cancel(socketWrapper);
+            }
+        }
+        assertEquals(3.0, meterRegistry.get("games.quickmatch.waiting").gauge().value());
+
+        // Empty and started games aren't joinable
+        quickMatchService.offer(game(0, 4));
+        GameEntity startedGame = game(1, 4);
+        startedGame.setStarted(true);
+        quickMatchService.offer(startedGame);
+        // Two free slots
+        quickMatchService.offer(game(2, 4));
+
+        // The joins run concurrently, the reserved slots keep the third player out
+        assertEquals(Set.of("first", "second"), Set.of(matched.poll(5, TimeUnit.SECONDS), matched.poll(5, TimeUnit.SECONDS)));
+        assertNull(matched.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1.0, meterRegistry.get("games.quickmatch.waiting").gauge().value());
+        assertEquals(2, meterRegistry.get("games.quickmatch.wait").tag("outcome", "matched").timer().count());
+        quickMatchService.shutdown();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ea.services.server;
+
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchedulerServiceTest {
+
+    @Test
+    void runsPendingTasksOnShutdown() {
+        Props props = mock(Props.class);
+        when(props.getTcpSchedulerThreads()).thenReturn(2);
+        when(props.getTcpSchedulerDrainTimeout()).thenReturn(5);
+        ThreadService threadService = mock(ThreadService.class);
+        when(threadService.threadFactory(anyString())).thenReturn(Executors.defaultThreadFactory());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SchedulerService schedulerService = new SchedulerService(props, threadService, meterRegistry);
+        schedulerService.init();
+
+        List<String> ran = new CopyOnWriteArrayList<>();
+        schedulerService.schedule("second", 200, () -> ran.add("second"));
+        schedulerService.schedule("failing", 50, () -> {
+            throw new IllegalStateException("Expected");
+        });
+        schedulerService.schedule("first", 100, () -> ran.add("first"));
+        schedulerService.shutdown();
+
+        // The caller isn't blocked, the tasks run in delay order, and a failing task doesn't stop the others
+        assertEquals(List.of("first", "second"), ran);
+        assertEquals(1.0, meterRegistry.get("scheduler.errors").counter().count());
+    }
+}
@@ -0,0 +1,57 @@
+package com.ea.services.server;
+
+import com.ea.dto.ClientSocket;
+import com.ea.dto.SocketWrapper;
+import com.ea.entities.core.PersonaConnectionEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SocketManagerTest {
+
+    private static PersonaConnectionEntity personaConnection(Long id, String vers) {
+        PersonaConnectionEntity personaConnection = new PersonaConnectionEntity();
+        personaConnection.setId(id);
+        personaConnection.setVers(vers);
+        return personaConnection;
+    }
+
+    @Test
+    void indexesFollowWrapperChanges() {
+        SocketManager socketManager = new SocketManager(null);
+        ClientSocket socket = mock(ClientSocket.class);
+        socketManager.addSocket("/127.0.0.1:1000", socket);
+        SocketWrapper wrapper = socketManager.getSocketWrapperBySocket(socket);
+        assertNotNull(wrapper);
+
+        // Persona connection not saved yet : no id
+        wrapper.setPersonaConnectionEntity(personaConnection(null, "MOHH"));
+        socketManager.updateIndexes(wrapper);
+        assertEquals(List.of(wrapper), socketManager.getSocketWrapperByVers("MOHH"));
+
+        wrapper.setLkey("LKEY");
+        wrapper.getPersonaConnectionEntity().setId(42L);
+        socketManager.updateIndexes(wrapper);
+        assertSame(wrapper, socketManager.getAriesSocketWrapperByLkey("LKEY"));
+        assertSame(wrapper, socketManager.getSocketWrapperByPersonaConnectionId(42L));
+
+        wrapper.setPersonaConnectionEntity(personaConnection(43L, "NHL"));
+        socketManager.updateIndexes(wrapper);
+        assertTrue(socketManager.getSocketWrapperByVers("MOHH").isEmpty());
+        assertEquals(List.of(wrapper), socketManager.getSocketWrapperByVers("NHL"));
+        assertNull(socketManager.getSocketWrapperByPersonaConnectionId(42L));
+
+        socketManager.removeSocket("/127.0.0.1:1000");
+        assertNull(socketManager.getSocketWrapperBySocket(socket));
+        assertNull(socketManager.getAriesSocketWrapperByLkey("LKEY"));
+        assertNull(socketManager.getSocketWrapperByPersonaConnectionId(43L));
+        assertTrue(socketManager.getSocketWrapperByVers("NHL").isEmpty());
+
+        // Late update of a removed wrapper must not index it again
+        socketManager.updateIndexes(wrapper);
+        assertNull(socketManager.getAriesSocketWrapperByLkey("LKEY"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ea.services.stats;
+
+import com.ea.entities.core.AccountEntity;
+import com.ea.entities.core.PersonaEntity;
+import com.ea.entities.stats.MohhPersonaStatsEntity;
+import com.ea.repositories.stats.MohhPersonaStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static com.ea.services.stats.LeaderboardService.Category.MOHH_KILL_DEATH;
+import static com.ea.utils.HexUtils.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class OpParamCacheTest {
+
+    private static PersonaEntity persona() {
+        AccountEntity account = new AccountEntity();
+        account.setLoc("frFR");
+        PersonaEntity persona = new PersonaEntity();
+        persona.setId(7L);
+        persona.setRp(5);
+        persona.setAccount(account);
+        return persona;
+    }
+
+    private static MohhPersonaStatsEntity stats(int kill, int death) {
+        MohhPersonaStatsEntity stats = new MohhPersonaStatsEntity();
+        stats.setKill(kill);
+        stats.setDeath(death);
+        return stats;
+    }
+
+    /**
+     * The former encoding, through hex strings
+     */
+    private static String hexEncode(PersonaEntity persona, MohhPersonaStatsEntity stats, int rank) {
+        String loc = persona.getAccount().getLoc();
+        String hex = reverseEndianness(formatIntToWord(stats != null ? stats.getKill() : 0))
+                + reverseEndianness(formatIntToWord(stats != null ? stats.getDeath() : 0))
+                + reverseEndianness(formatIntToWord(rank))
+                + reverseEndianness(formatIntToWord(Integer.parseInt(stringToHex(loc.substring(loc.length() - 2)), 16)))
+                + reverseEndianness(formatIntToWord(persona.getRp()))
+                + reverseEndianness(formatIntToWord(1));
+        return Base64.getEncoder().encodeToString(parseHexString(hex));
+    }
+
+    @Test
+    void encodesLikeHexStrings() {
+        PersonaEntity persona = persona();
+        assertEquals(hexEncode(persona, stats(1234, 567), 42), OpParamCache.encode(persona, stats(1234, 567), 42));
+        assertEquals(hexEncode(persona, stats(0, 70000), 1), OpParamCache.encode(persona, stats(0, 70000), 1));
+        assertEquals(hexEncode(persona, null, 0), OpParamCache.encode(persona, null, 0));
+    }
+
+    @Test
+    void readsStatsAgainOnlyAfterInvalidation() {
+        PersonaEntity persona = persona();
+        MohhPersonaStatsRepository mohhPersonaStatsRepository = mock(MohhPersonaStatsRepository.class);
+        when(mohhPersonaStatsRepository.findByPersonaIdAndVers(7L, "PSP/MOH07")).thenReturn(stats(10, 5), stats(20, 5));
+        LeaderboardService leaderboardService = mock(LeaderboardService.class);
+        when(leaderboardService.getRank(MOHH_KILL_DEATH, "PSP/MOH07", 7L)).thenReturn(3L, 2L);
+        OpParamCache opParamCache = new OpParamCache(mohhPersonaStatsRepository, leaderboardService, new SimpleMeterRegistry());
+        opParamCache.init();
+
+        String opParam = opParamCache.get(persona, "PSP/MOH07");
+        assertEquals(OpParamCache.encode(persona, stats(10, 5), 3), opParam);
+        assertEquals(opParam, opParamCache.get(persona, "PSP/MOH07"));
+        verify(mohhPersonaStatsRepository, times(1)).findByPersonaIdAndVers(7L, "PSP/MOH07");
+
+        opParamCache.invalidate(7L);
+        assertEquals(OpParamCache.encode(persona, stats(20, 5), 2), opParamCache.get(persona, "PSP/MOH07"));
+        verify(mohhPersonaStatsRepository, times(2)).findByPersonaIdAndVers(7L, "PSP/MOH07");
+    }
+}
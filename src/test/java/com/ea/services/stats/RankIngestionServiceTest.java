@@ -0,0 +1,164 @@
+package com.ea.services.stats;
+
+import com.ea.dto.SocketData;
+import com.ea.repositories.stats.RankIngestionRepository;
+import com.ea.services.server.GamePersistenceService;
+import com.ea.services.server.ThreadService;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static com.ea.services.server.GameServerService.PSP_MOH_07;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RankIngestionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String line(long sequence, String message) {
+        return sequence + "\t" + PSP_MOH_07 + "\t" + Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appliesOnlyReportsOfUncommittedBatches() throws Exception {
+        Path journalPath = tempDir.resolve("rank-journal.log");
+        // Reports 1 and 2 were committed before the crash, 3 wasn't, and the line of 4 is torn
+        Files.write(journalPath, List.of(line(1, "REPT=a"), line(2, "REPT=b"), line(3, "REPT=c"), "4\tPSP/MO"));
+
+        MohhStatsService mohhStatsService = mock(MohhStatsService.class);
+        List<String> applied = new ArrayList<>();
+        doAnswer(invocation -> {
+            ((List<SocketData>) invocation.getArgument(0)).forEach(socketData -> applied.add(socketData.getValue("REPT", "\t")));
+            return null;
+        }).when(mohhStatsService).rank(anyList());
+        RankIngestionRepository rankIngestionRepository = mock(RankIngestionRepository.class);
+        when(rankIngestionRepository.findLastSequence()).thenReturn(2L);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ThreadService threadService = mock(ThreadService.class);
+        when(threadService.newThread(anyString(), any())).thenAnswer(invocation -> new Thread((Runnable) invocation.getArgument(1)));
+        Props props = mock(Props.class);
+        when(props.getStatsIngestionJournal()).thenReturn(journalPath.toString());
+        when(props.getStatsIngestionBatchSize()).thenReturn(64);
+        GamePersistenceService gamePersistenceService = mock(GamePersistenceService.class);
+        when(gamePersistenceService.flush()).thenReturn(true);
+
+        RankIngestionService rankIngestionService = new RankIngestionService(mohhStatsService, mock(NhlStatsService.class),
+                rankIngestionRepository, gamePersistenceService, transactionManager, threadService, new SimpleMeterRegistry(), props);
+        rankIngestionService.init();
+        rankIngestionService.submit(PSP_MOH_07, new SocketData("rank", "REPT=d\tWHEN=x", null));
+        rankIngestionService.shutdown();
+
+        assertEquals(List.of("c", "d"), applied);
+        // The game connections the reports are matched to are written first
+        InOrder inOrder = inOrder(gamePersistenceService, mohhStatsService);
+        inOrder.verify(gamePersistenceService).flush();
+        inOrder.verify(mohhStatsService).rank(anyList());
+        // Numbering goes on after the last readable report
+        verify(rankIngestionRepository).updateLastSequence(4L);
+        // Everything journaled is applied, the journal is emptied
+        assertEquals(0, Files.size(journalPath));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsReportsWhileTheDatabaseIsDown() throws Exception {
+        Path journalPath = tempDir.resolve("rank-journal.log");
+        MohhStatsService mohhStatsService = mock(MohhStatsService.class);
+        List<String> applied = new ArrayList<>();
+        doAnswer(invocation -> {
+            ((List<SocketData>) invocation.getArgument(0)).forEach(socketData -> applied.add(socketData.getValue("REPT", "\t")));
+            return null;
+        }).when(mohhStatsService).rank(anyList());
+        RankIngestionRepository rankIngestionRepository = mock(RankIngestionRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"))
+                .thenReturn(new SimpleTransactionStatus());
+        RankIngestionService rankIngestionService = rankIngestionService(mohhStatsService, rankIngestionRepository, transactionManager, journalPath);
+
+        rankIngestionService.submit(PSP_MOH_07, new SocketData("rank", "REPT=a", null));
+        rankIngestionService.submit(PSP_MOH_07, new SocketData("rank", "REPT=b", null));
+        rankIngestionService.flush();
+
+        // Neither skipped nor forgotten
+        assertTrue(applied.isEmpty());
+        verify(rankIngestionRepository, never()).updateLastSequence(anyLong());
+        assertEquals(2, Files.readAllLines(journalPath).size());
+
+        rankIngestionService.flush();
+        rankIngestionService.shutdown();
+
+        assertEquals(List.of("a", "b"), applied);
+        verify(rankIngestionRepository).updateLastSequence(2L);
+        assertEquals(0, Files.size(journalPath));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void skipsUnreadableReports() throws Exception {
+        Path journalPath = tempDir.resolve("rank-journal.log");
+        MohhStatsService mohhStatsService = mock(MohhStatsService.class);
+        List<String> applied = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<SocketData> reports = invocation.getArgument(0);
+            if (reports.stream().anyMatch(socketData -> "bad".equals(socketData.getValue("REPT", "\t")))) {
+                throw new DateTimeParseException("Text 'x' could not be parsed", "x", 0);
+            }
+            reports.forEach(socketData -> applied.add(socketData.getValue("REPT", "\t")));
+            return null;
+        }).when(mohhStatsService).rank(anyList());
+        RankIngestionRepository rankIngestionRepository = mock(RankIngestionRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        RankIngestionService rankIngestionService = rankIngestionService(mohhStatsService, rankIngestionRepository, transactionManager, journalPath);
+
+        for (String player : List.of("a", "bad", "c")) {
+            rankIngestionService.submit(PSP_MOH_07, new SocketData("rank", "REPT=" + player, null));
+        }
+        rankIngestionService.shutdown();
+
+        assertEquals(List.of("a", "c"), applied);
+        // The unreadable report isn't applied again on startup
+        verify(rankIngestionRepository).updateLastSequence(2L);
+        verify(rankIngestionRepository).updateLastSequence(3L);
+        assertEquals(0, Files.size(journalPath));
+    }
+
+    /**
+     * A service whose worker never starts, the reports are only applied by flush
+     */
+    private static RankIngestionService rankIngestionService(MohhStatsService mohhStatsService, RankIngestionRepository rankIngestionRepository,
+                                                             PlatformTransactionManager transactionManager, Path journalPath) throws Exception {
+        ThreadService threadService = mock(ThreadService.class);
+        when(threadService.newThread(anyString(), any())).thenReturn(new Thread(() -> {
+        }));
+        Props props = mock(Props.class);
+        when(props.getStatsIngestionJournal()).thenReturn(journalPath.toString());
+        when(props.getStatsIngestionBatchSize()).thenReturn(64);
+        GamePersistenceService gamePersistenceService = mock(GamePersistenceService.class);
+        when(gamePersistenceService.flush()).thenReturn(true);
+        RankIngestionService rankIngestionService = new RankIngestionService(mohhStatsService, mock(NhlStatsService.class),
+                rankIngestionRepository, gamePersistenceService, transactionManager, threadService, new SimpleMeterRegistry(), props);
+        rankIngestionService.init();
+        return rankIngestionService;
+    }
+}
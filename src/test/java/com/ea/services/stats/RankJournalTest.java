@@ -0,0 +1,59 @@
+package com.ea.services.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.ea.services.server.GameServerService.PSP_MOH_07;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RankJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compactsTheAppliedReportsUnderSteadyLoad() throws Exception {
+        Path path = tempDir.resolve("rank-journal.log");
+        RankJournal journal = new RankJournal(path, 1);
+        journal.open();
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            journal.append(new RankJournal.Entry(sequence, PSP_MOH_07, "REPT=" + sequence));
+        }
+
+        // Report 3 is still pending, the file isn't emptied but loses the applied reports
+        journal.applied(2);
+        assertEquals(1, Files.readAllLines(path).size());
+        journal.append(new RankJournal.Entry(4, PSP_MOH_07, "REPT=4"));
+        journal.close();
+
+        RankJournal reopened = new RankJournal(path, 1);
+        assertEquals(List.of(new RankJournal.Entry(3, PSP_MOH_07, "REPT=3"), new RankJournal.Entry(4, PSP_MOH_07, "REPT=4")),
+                reopened.open());
+        reopened.applied(4);
+        assertEquals(0, Files.size(path));
+        reopened.close();
+    }
+
+    @Test
+    void dropsTheTornLineOnOpen() throws Exception {
+        Path path = tempDir.resolve("rank-journal.log");
+        RankJournal journal = new RankJournal(path);
+        journal.open();
+        journal.append(new RankJournal.Entry(1, PSP_MOH_07, "REPT=a"));
+        journal.close();
+        Files.writeString(path, "2\tPSP/MO", StandardOpenOption.APPEND);
+
+        RankJournal reopened = new RankJournal(path);
+        assertEquals(1, reopened.open().size());
+        reopened.append(new RankJournal.Entry(2, PSP_MOH_07, "REPT=b"));
+        reopened.close();
+
+        assertEquals(List.of(new RankJournal.Entry(1, PSP_MOH_07, "REPT=a"), new RankJournal.Entry(2, PSP_MOH_07, "REPT=b")),
+                new RankJournal(path).open());
+    }
+}
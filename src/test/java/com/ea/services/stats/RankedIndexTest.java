@@ -0,0 +1,48 @@
+package com.ea.services.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RankedIndexTest {
+
+    private record Entry(long personaId, long score, long tiebreak) {
+    }
+
+    @Test
+    void ranksLikeSortedScores() {
+        Random random = new Random(42);
+        RankedIndex index = new RankedIndex();
+        Map<Long, Entry> entries = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long personaId = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                index.remove(personaId);
+                entries.remove(personaId);
+            } else {
+                // Few distinct scores, so ties are ordered by tiebreak and persona id
+                Entry entry = new Entry(personaId, random.nextInt(20) - 10, random.nextInt(3));
+                index.put(personaId, personaId + 1000, entry.score(), entry.tiebreak());
+                entries.put(personaId, entry);
+            }
+        }
+
+        // ORDER BY score DESC, tiebreak DESC, persona id ASC
+        List<Entry> sorted = entries.values().stream()
+                .sorted(Comparator.comparingLong(Entry::score).reversed()
+                        .thenComparing(Comparator.comparingLong(Entry::tiebreak).reversed())
+                        .thenComparingLong(Entry::personaId))
+                .toList();
+        assertEquals(sorted.size(), index.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, index.rank(sorted.get(i).personaId()));
+        }
+        assertEquals(0, index.rank(-1));
+        for (int offset : List.of(0, 1, 37, sorted.size() - 5, sorted.size(), sorted.size() + 10)) {
+            List<Long> expected = sorted.stream().skip(offset).limit(20).map(entry -> entry.personaId() + 1000).toList();
+            assertEquals(expected, index.page(offset, 20));
+        }
+    }
+}
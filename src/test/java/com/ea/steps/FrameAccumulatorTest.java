@@ -0,0 +1,88 @@
+package com.ea.steps;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameAccumulatorTest {
+
+    private static byte[] frame(String id, String content) {
+        byte[] body = (content + "\0").getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(12 + body.length)
+                .put(id.getBytes(StandardCharsets.UTF_8))
+                .putInt(0)
+                .putInt(12 + body.length)
+                .put(body)
+                .array();
+    }
+
+    private static String content(ByteBuffer frame) {
+        return new String(frame.array(), frame.arrayOffset() + 12, frame.remaining() - 13, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream returning at most chunkSize bytes per read, like TCP segments
+     */
+    private static InputStream chunked(byte[] data, int chunkSize) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunkSize));
+            }
+        };
+    }
+
+    @Test
+    void keepsPartialFramesBetweenReads() throws IOException {
+        byte[] first = frame("auth", "NAME=player\nPASS=secret");
+        byte[] second = frame("pers", "PERS=player");
+        byte[] stream = ByteBuffer.allocate(first.length + second.length).put(first).put(second).array();
+
+        FrameAccumulator accumulator = new FrameAccumulator(65536);
+        InputStream inputStream = chunked(stream, 5);
+        StringBuilder received = new StringBuilder();
+        while (accumulator.readFrom(inputStream) != -1) {
+            ByteBuffer message;
+            while ((message = accumulator.nextFrame()) != null) {
+                received.append(content(message)).append('|');
+            }
+        }
+
+        assertEquals("NAME=player\nPASS=secret|PERS=player|", received.toString());
+        assertEquals(0, accumulator.pending());
+    }
+
+    @Test
+    void growsForLargeFramesThenShrinks() throws IOException {
+        String largeContent = "STATS=" + "1".repeat(10000);
+        byte[] large = frame("rank", largeContent);
+
+        FrameAccumulator accumulator = new FrameAccumulator(65536);
+        InputStream inputStream = chunked(large, 1460);
+        ByteBuffer message = null;
+        while (message == null && accumulator.readFrom(inputStream) != -1) {
+            message = accumulator.nextFrame();
+        }
+
+        assertNotNull(message);
+        assertEquals(largeContent, content(message));
+        assertTrue(accumulator.capacity() >= large.length);
+
+        accumulator.readFrom(new ByteArrayInputStream(frame("~png", "")));
+        assertEquals(4096, accumulator.capacity());
+    }
+
+    @Test
+    void rejectsOversizedLength() throws IOException {
+        FrameAccumulator accumulator = new FrameAccumulator(1024);
+        accumulator.readFrom(new ByteArrayInputStream(frame("rank", "X".repeat(2000))));
+
+        assertThrows(IOException.class, accumulator::nextFrame);
+    }
+}
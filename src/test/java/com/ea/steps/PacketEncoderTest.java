@@ -0,0 +1,94 @@
+package com.ea.steps;
+
+import com.ea.dto.Packet;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.ea.utils.SocketUtils.NEWLINE_CHAR;
+import static com.ea.utils.SocketUtils.TAB_CHAR;
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PacketEncoderTest {
+
+    /**
+     * Encoding done by SocketWriter before the encoder existed
+     */
+    private static byte[] legacy(String id, Map<String, String> content, String joiner) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream writer = new DataOutputStream(buffer);
+        writer.write(id.getBytes(StandardCharsets.UTF_8));
+        if (id.length() == 4) {
+            writer.writeInt(0);
+        }
+        int outputLength = 12;
+        if (content != null) {
+            byte[] contentBytes = (content.entrySet().stream()
+                    .map(param -> param.getKey() + "=" + param.getValue())
+                    .collect(joining(joiner)) + "\0").getBytes(StandardCharsets.UTF_8);
+            outputLength += contentBytes.length;
+            writer.writeInt(outputLength);
+            writer.write(contentBytes);
+        } else {
+            writer.writeInt(outputLength);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Test
+    void encodesLikeLegacyWriter() throws IOException {
+        Map<String, String> content = new LinkedHashMap<>();
+        content.put("NAME", "Joueur é");
+        content.put("COUNT", "12");
+        content.put("EMPTY", "");
+        content.put("MISSING", null);
+
+        assertArrayEquals(legacy("+who", content, NEWLINE_CHAR), PacketEncoder.encode("+who", content, NEWLINE_CHAR));
+        assertArrayEquals(legacy("+msg", content, TAB_CHAR), PacketEncoder.encode("+msg", content, TAB_CHAR));
+        assertArrayEquals(legacy("gjoiugam", content, NEWLINE_CHAR), PacketEncoder.encode("gjoiugam", content, NEWLINE_CHAR));
+        assertArrayEquals(legacy("gjoiugam", null, NEWLINE_CHAR), PacketEncoder.encode("gjoiugam", null, NEWLINE_CHAR));
+        assertArrayEquals(legacy("gget", Collections.emptyMap(), NEWLINE_CHAR), PacketEncoder.encode("gget", Collections.emptyMap(), NEWLINE_CHAR));
+        assertArrayEquals(legacy("~png", null, NEWLINE_CHAR), PacketEncoder.PING.getFrame());
+    }
+
+    @Test
+    void builderWritesNumbersAndNestedMessages() throws IOException {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("UIL", "-42");
+        expected.put("UIG", String.valueOf(Long.MAX_VALUE));
+        expected.put("Z", "1/0");
+
+        PacketEncoder.Builder builder = PacketEncoder.builder("+sst").put("UIL", -42);
+        // Built while the first builder holds a scratch buffer
+        Packet nested = PacketEncoder.builder("+pop").put("Z", "1/0").build();
+        Packet packet = builder.put("UIG", Long.MAX_VALUE).put("Z", "1/0").build();
+
+        assertArrayEquals(legacy("+sst", expected, NEWLINE_CHAR), packet.getFrame());
+        assertArrayEquals(legacy("+pop", Collections.singletonMap("Z", "1/0"), NEWLINE_CHAR), nested.getFrame());
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void abandonedBuilderDoesNotHoldTheEncoder() throws IOException {
+        PacketEncoder.builder("+pop").put("Z", "lost");
+        Packet packet = PacketEncoder.builder("+pop").put("Z", "1/0").build();
+
+        assertArrayEquals(legacy("+pop", Collections.singletonMap("Z", "1/0"), NEWLINE_CHAR), packet.getFrame());
+    }
+
+    @Test
+    void growsForLargeMessages() throws IOException {
+        String stats = "1".repeat(100000);
+        Packet packet = PacketEncoder.builder("rank").put("STATS", stats).build();
+
+        assertArrayEquals(legacy("rank", Collections.singletonMap("STATS", stats), NEWLINE_CHAR), packet.getFrame());
+        assertSame(PacketEncoder.empty("gjoipass"), PacketEncoder.empty("gjoipass"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ea.steps;
+
+import com.ea.config.BlockingSocket;
+import com.ea.config.ChannelSocket;
+import com.ea.dto.ClientSocket;
+import com.ea.dto.Packet;
+import com.ea.services.server.SocketManager;
+import com.ea.utils.Props;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Slow client policies, against peers which never read
+ */
+class SocketWriterTest {
+
+    private static final Packet BIG = PacketEncoder.builder("+big").put("DATA", "x".repeat(60_000)).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SocketWriter socketWriter;
+
+    @BeforeEach
+    void setup() {
+        Props props = mock(Props.class);
+        when(props.getTcpWriterThreads()).thenReturn(2);
+        when(props.getTcpWriteQueueCapacity()).thenReturn(64);
+        when(props.getTcpWriteQueueDroppable()).thenReturn(List.of("+pop"));
+        when(props.getTcpWriteQueueMaxDrops()).thenReturn(4);
+        when(props.getTcpWriteTimeout()).thenReturn(1);
+        when(props.getTcpDebugExclusions()).thenReturn(List.of("+big"));
+        socketWriter = new SocketWriter(props, mock(SocketManager.class), meterRegistry);
+        socketWriter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        socketWriter.shutdown();
+    }
+
+    @Test
+    void closesBlockingSocketAfterWriteTimeout() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             Socket client = new Socket();
+             Socket accepted = connect(serverSocket, client)) {
+            ClientSocket socket = new BlockingSocket(accepted);
+            // Fills the socket buffers of both sides, without reaching the queue capacity
+            for (int i = 0; i < 60; i++) {
+                socketWriter.write(socket, BIG);
+            }
+
+            assertTrue(await(socket::isClosed));
+            assertEquals(1.0, meterRegistry.get("tcp.write.timeout.disconnected").counter().count());
+            assertEquals(0.0, meterRegistry.get("tcp.write.slow.disconnected").counter().count());
+        }
+    }
+
+    @Test
+    void appliesSlowClientPolicyAboveNettyHighWaterMark() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        CompletableFuture<Channel> accepted = new CompletableFuture<>();
+        try {
+            ServerBootstrap serverBootstrap = new ServerBootstrap();
+            serverBootstrap.group(group)
+                    .channel(NioServerSocketChannel.class)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8192, 16384))
+                    .childHandler(new ChannelInitializer<>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            accepted.complete(channel);
+                        }
+                    });
+            Channel serverChannel = serverBootstrap.bind("127.0.0.1", 0).sync().channel();
+            int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+            try (Socket client = new Socket("127.0.0.1", port)) {
+                Channel channel = accepted.get(5, TimeUnit.SECONDS);
+                ClientSocket socket = new ChannelSocket(channel);
+
+                // Without the water mark, Netty would buffer all of it and the queue would never fill up
+                for (int i = 0; i < 400 && channel.isOpen(); i++) {
+                    socketWriter.write(socket, BIG);
+                }
+
+                assertTrue(await(() -> !channel.isOpen()));
+                assertEquals(1.0, meterRegistry.get("tcp.write.slow.disconnected").counter().count());
+            }
+            serverChannel.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Socket connect(ServerSocket serverSocket, Socket client) throws Exception {
+        client.setReceiveBufferSize(4096);
+        client.connect(new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort()));
+        Socket socket = serverSocket.accept();
+        socket.setSendBufferSize(4096);
+        return socket;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < end) {
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+}